@@ -0,0 +1,386 @@
+package control;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import model.ME_EngineMode;
+import model.ME_NotificationMode;
+import model.MI_Place;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_PNPStorage;
+import model.M_PNTransition;
+import view.V_ElementRoot;
+import view.V_Link;
+
+/**
+ * Einfacher Mess-Rahmen für den Simulationskern. Misst für verschiedene Netzformen und
+ * -größen die Laufzeit von Einzelschritten (Logic.makeStep()), Läufen bis zur Verklemmung,
+ * Logic.reset() sowie Speichern und Laden (NetFile). Zusätzlich werden die Element-Operationen
+ * (M_PNTransition.computeStep(), MI_Place.containsN/hasPlaceForN/putN/getN) einzeln gemessen.
+ * <p>
+ * Jede Messung besteht aus Aufwärm- und Mess-Durchgängen fester Mindestdauer, damit der
+ * JIT-Compiler die gemessenen Pfade bereits übersetzt hat. Ausgegeben werden Mittelwert und
+ * Standardabweichung der Zeit pro Operation über die Mess-Durchgänge.
+ * <p>
+ * Aufruf: <code>java control.Benchmark [-sizes 100,1000,...] [-shapes chain,...]
+ * [-engines object,...] [-notify MODUS] [-benchmarks step,...] [-warmup N] [-iterations N] [-time MS] [-seed N]</code>
+ */
+public class Benchmark {
+
+    // Netzformen
+    static final String[] SHAPES = {"chain", "forkjoin", "conflict", "random"};
+
+    // Messungen
+    static final String[] BENCHMARKS = {"step", "run", "reset", "saveload", "element"};
+
+    private int[] sizes = {100, 1000, 10000};
+    private String[] shapes = SHAPES;
+    private ME_EngineMode[] engines = ME_EngineMode.values();
+    private ME_NotificationMode notificationMode = ME_NotificationMode.IMMEDIATE;
+    private String[] benchmarks = BENCHMARKS;
+    private int warmupIterations = 3;
+    private int measureIterations = 5;
+    private long iterationNanos = 200L * 1000000L;
+    private long seed = 1;
+
+    // verhindert, dass der JIT-Compiler gemessene Ergebnisse wegoptimiert
+    static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        Benchmark benchmark = new Benchmark();
+        if(benchmark.parseArguments(args) == false) {
+            System.err.println("Usage: java control.Benchmark [-sizes 100,1000,...] [-shapes chain,forkjoin,conflict,random,...]");
+            System.err.println("       [-engines object,compiled,...] [-notify immediate|per_step|manual]");
+            System.err.println("       [-benchmarks step,run,reset,saveload,element]");
+            System.err.println("       [-warmup N] [-iterations N] [-time MS] [-seed N]");
+            System.exit(2);
+        }
+
+        benchmark.runAll();
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+
+                if(args[i].equals("-sizes")) {
+                    String[] parts = value.split(",");
+                    sizes = new int[parts.length];
+                    for(int k = 0; k < parts.length; k++) {
+                        sizes[k] = (int) Double.parseDouble(parts[k]);  // erlaubt auch 1e6
+                    }
+                }
+                else if(args[i].equals("-shapes")) {
+                    shapes = value.split(",");
+                }
+                else if(args[i].equals("-engines")) {
+                    String[] parts = value.split(",");
+                    engines = new ME_EngineMode[parts.length];
+                    for(int k = 0; k < parts.length; k++) {
+                        engines[k] = ME_EngineMode.valueOf(parts[k].toUpperCase());
+                    }
+                }
+                else if(args[i].equals("-notify")) {
+                    notificationMode = ME_NotificationMode.valueOf(value.toUpperCase());
+                }
+                else if(args[i].equals("-benchmarks")) {
+                    benchmarks = value.split(",");
+                }
+                else if(args[i].equals("-warmup")) {
+                    warmupIterations = Integer.parseInt(value);
+                }
+                else if(args[i].equals("-iterations")) {
+                    measureIterations = Integer.parseInt(value);
+                }
+                else if(args[i].equals("-time")) {
+                    iterationNanos = Long.parseLong(value) * 1000000L;
+                }
+                else if(args[i].equals("-seed")) {
+                    seed = Long.parseLong(value);
+                }
+                else {
+                    return false;
+                }
+            }
+            return args.length % 2 == 0 && measureIterations > 0;
+        }
+        catch(IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Führt alle ausgewählten Messungen aus.
+     */
+    private void runAll() throws Exception {
+        System.out.println(String.format("%-9s %-9s %9s %-9s %14s %12s %14s",
+                "benchmark", "shape", "size", "engine", "ns/op", "+-", "ops/s"));
+
+        if(contains(benchmarks, "element")) {
+            benchmarkElements();
+        }
+
+        for(String shape : shapes) {
+            for(int size : sizes) {
+                Logic model = buildNet(shape, size, seed);
+
+                for(ME_EngineMode engine : engines) {
+                    model.setEngineMode(engine);
+                    model.setViewSync(false);
+                    model.setNotificationMode(notificationMode);
+
+                    if(contains(benchmarks, "step")) {
+                        benchmarkStep(model, shape, size);
+                    }
+                    if(contains(benchmarks, "run")) {
+                        benchmarkRun(model, shape, size);
+                    }
+                }
+
+                if(contains(benchmarks, "reset")) {
+                    benchmarkReset(model, shape, size);
+                }
+                if(contains(benchmarks, "saveload")) {
+                    benchmarkSaveLoad(model, shape, size);
+                }
+            }
+        }
+    }
+
+    /*
+     * Einzelschritte. Verklemmt das Netz, wird es außerhalb der Messung zurückgesetzt und neu
+     * kompiliert; der Schritt, der die Verklemmung feststellt, zählt nicht.
+     */
+    private void benchmarkStep(final Logic model, String shape, int size) {
+        measure("step", shape, size, model.getEngineMode().name().toLowerCase(), new Operation() {
+            void prepare() {
+                resetAndCompile(model);
+            }
+
+            int run() {
+                return model.makeStep() == true ? 1 : 0;
+            }
+        });
+    }
+
+    /*
+     * Lauf vom Anfangszustand bis zur Verklemmung. Zurücksetzen und Kompilieren werden nicht
+     * gemessen.
+     */
+    private void benchmarkRun(final Logic model, String shape, int size) {
+        measure("run", shape, size, model.getEngineMode().name().toLowerCase(), new Operation() {
+            void prepare() {
+                resetAndCompile(model);
+            }
+
+            int run() {
+                if(model.makeStep() == false) {
+                    return 0;   // bereits verklemmt: erst zurücksetzen
+                }
+                long steps = 1;
+                while(model.makeStep() == true) {
+                    steps++;
+                }
+                result += steps;
+                return 1;
+            }
+        });
+    }
+
+    /*
+     * Setzt das Netz zurück und kompiliert es für die eingestellte Berechnungsart neu, damit
+     * das Kompilieren nicht in die Messung der Schritte eingeht.
+     */
+    private static void resetAndCompile(Logic model) {
+        model.reset();
+        if(model.getEngineMode() != ME_EngineMode.OBJECT) {
+            model.getCompiledNet();
+        }
+    }
+
+    /*
+     * Zurücksetzen aller Elemente.
+     */
+    private void benchmarkReset(final Logic model, String shape, int size) {
+        measure("reset", shape, size, "-", new Operation() {
+            int run() {
+                model.reset();
+                return 1;
+            }
+        });
+    }
+
+    /*
+     * Speichern und Laden des Netzes (nur Logik) über eine temporäre Datei.
+     */
+    private void benchmarkSaveLoad(final Logic model, String shape, int size) throws Exception {
+        final File file = File.createTempFile("benchmark", ".pnet");
+        file.deleteOnExit();
+
+        final ArrayList<V_ElementRoot> viewElements = new ArrayList<V_ElementRoot>();
+        final ArrayList<V_Link> viewLinks = new ArrayList<V_Link>();
+
+        measure("saveload", shape, size, "-", new Operation() {
+            int run() throws Exception {
+                NetFile.save(file, model, viewElements, viewLinks);
+                Logic loaded = new Logic(null);
+                NetFile.load(file, loaded, null);
+                result += loaded.getElementsTransition().size();
+                return 1;
+            }
+        });
+
+        file.delete();
+    }
+
+    /*
+     * Einzelne Element-Operationen: computeStep() einer Transition und die Zugriffe auf eine Stelle.
+     */
+    private void benchmarkElements() {
+        Logic model = new Logic(null);
+        M_PNPInput input = new M_PNPInput(Float.MAX_VALUE);
+        final M_PNTransition transition = new M_PNTransition(1, 1);
+        final M_PNPOutput output = new M_PNPOutput(Float.MAX_VALUE);
+        model.loadPlaceInput(input);
+        model.loadTransition(transition);
+        model.loadPlaceOutput(output);
+        model.connectElements(input.getAllPins()[0], transition.getAllPins()[0]);
+        model.connectElements(transition.getAllPins()[1], output.getAllPins()[0]);
+
+        measure("computeStep", "-", 1, "-", new Operation() {
+            int run() {
+                transition.computeStep();
+                result += transition.hasWorked_KillFlag() ? 1 : 0;
+                return 1;
+            }
+        });
+
+        final MI_Place place = new M_PNPStorage(1000);
+        place.putN(500);
+
+        measure("place", "-", 1, "-", new Operation() {
+            int run() {
+                if(place.containsN(1) == true) {
+                    result++;
+                }
+                if(place.hasPlaceForN(1) == true) {
+                    result++;
+                }
+                place.putN(1);
+                place.getN(1);
+                return 1;
+            }
+        });
+    }
+
+    /*
+     * Eine zu messende Operation.
+     */
+    private abstract static class Operation {
+        long result;    // Ergebnisse der Ausführungen, wird am Ende in sink übernommen
+
+        /*
+         * Bereitet die Operation vor (vor der ersten Ausführung und immer dann, wenn run() 0
+         * liefert). Die Zeit dafür wird nicht gemessen.
+         */
+        void prepare() throws Exception {
+        }
+
+        /*
+         * Führt die Operation aus.
+         * @return 1, wenn sie ausgeführt wurde, 0, wenn sie erst nach prepare() möglich ist
+         * (dann wird auch dieser Aufruf nicht gemessen).
+         */
+        abstract int run() throws Exception;
+    }
+
+    /*
+     * Misst die übergebene Operation und gibt eine Zeile mit dem Ergebnis aus.
+     */
+    private void measure(String benchmark, String shape, int size, String engine, Operation operation) {
+        double[] nanosPerOp = new double[measureIterations];
+
+        try {
+            operation.prepare();
+            boolean prepared = true;
+
+            for(int i = 0; i < warmupIterations + measureIterations; i++) {
+                long ops = 0;
+                long elapsed = 0;
+                long start = System.nanoTime();
+
+                while(elapsed < iterationNanos) {
+                    int done = operation.run();
+                    long now = System.nanoTime();
+
+                    if(done > 0) {
+                        elapsed += now - start;
+                        ops += done;
+                        prepared = false;
+                    }
+                    else if(prepared == true) {
+                        throw new IllegalStateException("operation not possible after preparation");
+                    }
+                    else {
+                        operation.prepare();
+                        prepared = true;
+                        now = System.nanoTime();
+                    }
+                    start = now;
+                }
+
+                if(i >= warmupIterations) {
+                    nanosPerOp[i - warmupIterations] = (double) elapsed / ops;
+                }
+            }
+        }
+        catch(Exception e) {
+            System.out.println(String.format("%-9s %-9s %9d %-9s failed: %s", benchmark, shape, size, engine, e));
+            return;
+        }
+
+        sink += operation.result;
+
+        double mean = 0;
+        for(double value : nanosPerOp) {
+            mean += value;
+        }
+        mean /= nanosPerOp.length;
+
+        double variance = 0;
+        for(double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double deviation = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+
+        System.out.println(String.format("%-9s %-9s %9d %-9s %14.1f %12.1f %14.1f",
+                benchmark, shape, size, engine, mean, deviation, 1e9 / mean));
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for(String v : values) {
+            if(v.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Erzeugt ein Netz der angegebenen Form mit ungefähr size Transitionen.
+     * @param shape Netzform (Vorlage von NetGenerator)
+     * @param size gewünschte Anzahl an Transitionen
+     * @param seed Startwert für den Zufallsgenerator
+     * @return erzeugte Logik
+     */
+    static Logic buildNet(String shape, int size, long seed) {
+        return new NetGenerator(seed).generate(shape, size);
+    }
+}
@@ -0,0 +1,207 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+
+import model.M_CompiledNet;
+import model.M_Ensemble;
+import model.M_EnsembleStatistics;
+
+/**
+ * Startklasse für ein Monte-Carlo-Ensemble eines gespeicherten Netzes ohne Oberfläche
+ * (M_Ensemble). Es werden <code>-replicas</code> Läufe mit zufälliger Konfliktauflösung auf
+ * <code>-threads</code> Threads ausgeführt, jeder bis zur Verklemmung oder bis
+ * <code>-steps</code> Schritte. Während des Laufs wird jede Sekunde ein Zwischenstand auf
+ * System.err ausgegeben; am Ende Mittelwert und Standardabweichung der Ausgabestellen, die
+ * Verklemmungswahrscheinlichkeit und die Schritte bis zur Verklemmung.
+ * <p>
+ * Aufruf: <code>java control.Ensemble [-replicas N] [-steps N] [-rounds N] [-seed S] [-threads K] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Ensemble durchgeführt, 1 = Netz nicht ladbar oder inkonsistent,
+ * 2 = fehlerhafter Aufruf.
+ */
+public class Ensemble implements ActionListener {
+
+    // ausgegebene Ausgabestellen
+    static final int MAX_LISTED = 20;
+
+    private int replicas = 1000;
+    private long maxSteps = 100000;
+    private long maxRounds = 10000000;
+    private long seed = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Ensemble ensemble = new Ensemble();
+
+        if(ensemble.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(ensemble.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-replicas") && i + 1 < args.length) {
+                    replicas = (int) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-steps") && i + 1 < args.length) {
+                    maxSteps = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-rounds") && i + 1 < args.length) {
+                    maxRounds = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                }
+                else if(args[i].equals("-threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && replicas > 0 && maxSteps >= 0 && maxRounds > 0 && threads > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Ensemble [-replicas N] [-steps N] [-rounds N] [-seed S] [-threads K] FILE");
+        System.err.println("Runs N replicas (default 1000) of the Petri net in FILE (*.pnet or *.pnml) with random conflict");
+        System.err.println("resolution on K threads, each until deadlock, the step limit (default 1e5) or the round limit");
+        System.err.println("(default 1e7), and prints output statistics, deadlock probability and steps to deadlock.");
+    }
+
+    /*
+     * Lädt das Netz, führt das Ensemble aus und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        if(model.isNetConsistent() == false) {
+            System.err.println("Can't start running; net isn't consistent.");
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        final M_Ensemble ensemble = new M_Ensemble(net);
+        ensemble.setReplicas(replicas);
+        ensemble.setSeed(seed);
+        ensemble.setMaxSteps(maxSteps);
+        ensemble.setMaxRounds(maxRounds);
+
+        // Zwischenstand jede Sekunde ausgeben
+        Thread progress = new Thread() {
+            public void run() {
+                try {
+                    while(true) {
+                        Thread.sleep(1000);
+                        M_EnsembleStatistics statistics = ensemble.getStatistics();
+                        System.err.println(String.format("%d/%d replicas, deadlock probability %.4f",
+                                statistics.getReplicas(), replicas, statistics.getDeadlockProbability()));
+                    }
+                }
+                catch(InterruptedException e) {
+                    // Ensemble fertig
+                }
+            }
+        };
+        progress.setDaemon(true);
+        progress.start();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ensemble.run(pool);
+        }
+        finally {
+            progress.interrupt();
+            pool.shutdown();
+        }
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(net, ensemble, threads));
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis des Ensembles (mehrzeilig); aufgeführt werden höchstens
+     * MAX_LISTED Ausgabestellen.
+     * @param net kompiliertes Netz
+     * @param ensemble durchgeführtes Ensemble
+     * @param threads Anzahl der Threads
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, M_Ensemble ensemble, int threads) {
+        StringBuilder text = new StringBuilder();
+        String[] names = Reachability.placeNames(net);
+        M_EnsembleStatistics statistics = ensemble.getStatistics();
+        int outputs = statistics.getNumberOfOutputs();
+        double seconds = ensemble.getSeconds();
+
+        text.append("Replicas:    " + statistics.getReplicas() + " on " + threads + " threads\n");
+        text.append(String.format("Runtime:     %.3f s%n", seconds));
+        text.append(String.format("Replicas/s:  %.1f%n", seconds > 0 ? statistics.getReplicas() / seconds : 0.0));
+        text.append(String.format("Deadlock:    %.4f probability (%d of %d, %d hit the step or round limit)%n",
+                statistics.getDeadlockProbability(), statistics.getDeadlocks(), statistics.getReplicas(),
+                statistics.getLimitReached()));
+        if(statistics.getDeadlocks() > 0) {
+            text.append(String.format("Steps to deadlock: mean %.6g, std dev %.6g, min %d, max %d%n",
+                    statistics.getMeanStepsToDeadlock(), Math.sqrt(statistics.getStepsToDeadlockVariance()),
+                    statistics.getMinStepsToDeadlock(), statistics.getMaxStepsToDeadlock()));
+        }
+
+        text.append("Outputs (mean, std dev):\n");
+        for(int i = 0; i < outputs && i < MAX_LISTED; i++) {
+            text.append(String.format("  %-8s %-12.6g %.6g%n", names[ensemble.getOutputPlace(i)],
+                    statistics.getMean(i), Math.sqrt(statistics.getVariance(i))));
+        }
+        if(outputs > MAX_LISTED) {
+            text.append("  ... " + (outputs - MAX_LISTED) + " more\n");
+        }
+        text.append(String.format("  %-8s %-12.6g %.6g%n", "total",
+                statistics.getMean(outputs), Math.sqrt(statistics.getVariance(outputs))));
+
+        return text.toString();
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
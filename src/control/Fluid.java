@@ -0,0 +1,201 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import model.M_CompiledNet;
+import model.M_FluidSimulation;
+
+/**
+ * Startklasse für die kontinuierliche (fluide) Simulation eines gespeicherten Netzes ohne
+ * Oberfläche (M_FluidSimulation). Die Transitionen fließen mit der Rate <code>-rate</code>
+ * je Zeiteinheit und Aktivierungsgrad; integriert wird bis zum Zeitpunkt <code>-time</code>
+ * oder bis zum stationären Zustand. Ausgegeben werden Integrationsschritte, Rechenzeit und
+ * die Endmarkierung. Mit <code>-csv</code> wird die Zeitreihe aller Stellen (Abstand
+ * <code>-interval</code>) als CSV-Datei geschrieben (eine Zeile je Zeitpunkt).
+ * <p>
+ * Aufruf: <code>java control.Fluid [-time T] [-interval DT] [-rate R] [-tolerance TOL] [-csv AUSGABE] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Simulation durchgeführt, 1 = Netz nicht ladbar oder Ausgabe nicht
+ * schreibbar, 2 = fehlerhafter Aufruf.
+ */
+public class Fluid implements ActionListener {
+
+    private double endTime = 100;
+    private double interval;                // 0: ein Hundertstel der Endzeit
+    private double rate = 1;
+    private double tolerance = 1e-6;
+    private File csvFile;
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Fluid fluid = new Fluid();
+
+        if(fluid.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(fluid.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-time") && i + 1 < args.length) {
+                    endTime = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-interval") && i + 1 < args.length) {
+                    interval = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-rate") && i + 1 < args.length) {
+                    rate = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-tolerance") && i + 1 < args.length) {
+                    tolerance = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-csv") && i + 1 < args.length) {
+                    csvFile = new File(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && endTime > 0 && interval >= 0 && rate >= 0 && tolerance > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Fluid [-time T] [-interval DT] [-rate R] [-tolerance TOL] [-csv OUT] FILE");
+        System.err.println("Simulates the Petri net in FILE (*.pnet or *.pnml) as a continuous (fluid) net up to time T (default 100).");
+        System.err.println("-rate: flow per time unit and enabling degree (default 1); -tolerance: solver tolerance (default 1e-6);");
+        System.err.println("-csv: write the marking of all places every DT (default T/100) to OUT.");
+    }
+
+    /*
+     * Lädt das Netz, simuliert es und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        M_FluidSimulation simulation = new M_FluidSimulation(net);
+        for(int t = 0; t < net.getNumberOfTransitions(); t++) {
+            simulation.setRate(t, rate);
+        }
+        simulation.setTolerance(tolerance, tolerance);
+        simulation.setInterval(interval);
+        simulation.run(endTime);
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(net, simulation));
+
+        if(csvFile != null) {
+            try {
+                writeCsv(csvFile, net, simulation);
+            }
+            catch(IOException e) {
+                System.err.println("Writing failed: " + csvFile + "\n" + e);
+                return 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis der Simulation (mehrzeilig).
+     * @param net kompiliertes Netz
+     * @param simulation durchgeführte Simulation
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, M_FluidSimulation simulation) {
+        StringBuilder text = new StringBuilder();
+        double[] marking = simulation.getMarking();
+        float[] m = new float[marking.length];
+        for(int p = 0; p < m.length; p++) {
+            m[p] = (float) marking[p];
+        }
+
+        text.append("Time:        " + Reachability.formatValue(simulation.getTime())
+                + (simulation.isSteady() == true ? " (steady state)"
+                        : simulation.isLimitReached() == true ? " (step limit reached)" : "") + "\n");
+        text.append("Steps:       " + simulation.getAcceptedSteps() + " accepted, "
+                + simulation.getRejectedSteps() + " rejected\n");
+        text.append("Samples:     " + simulation.getTimes().length + "\n");
+        text.append(String.format("Runtime:     %.3f s%n", simulation.getSeconds()));
+        text.append("Marking:     " + Reachability.formatMarking(net, m) + "\n");
+
+        return text.toString();
+    }
+
+    /**
+     * Schreibt die Zeitreihe als CSV-Datei mit der Spalte time und einer Spalte je Stelle.
+     * @param file Zieldatei
+     * @param net kompiliertes Netz
+     * @param simulation durchgeführte Simulation
+     * @throws IOException Fehler beim Schreiben
+     */
+    static void writeCsv(File file, M_CompiledNet net, M_FluidSimulation simulation) throws IOException {
+        String[] names = Reachability.placeNames(net);
+        double[] times = simulation.getTimes();
+
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("time");
+            for(String name : names) {
+                out.write("," + name);
+            }
+            out.write("\n");
+
+            for(int i = 0; i < times.length; i++) {
+                float[] sample = simulation.getSample(i);
+                out.write(Double.toString(times[i]));
+                for(int p = 0; p < sample.length; p++) {
+                    out.write("," + sample[p]);
+                }
+                out.write("\n");
+            }
+        }
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
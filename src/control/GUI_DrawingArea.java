@@ -564,6 +564,27 @@ public class GUI_DrawingArea extends JPanel implements MouseListener, MouseMotio
 
     }
 
+    /**
+     * Stellt die Elemente zu den übergebenen Logik-Elementen als "verklemmt" dar; alle
+     * übrigen bisher so dargestellten Elemente werden wieder normal dargestellt.
+     * @param repressed Logik-Elemente, die hervorgehoben werden sollen
+     */
+    public void setRepressed(Set<MI_Element> repressed) {
+        for(int i = 0; i < elements.size(); i++) {
+            V_ElementRoot element = elements.get(i);
+            if(element.isPoint() == true) {
+                continue;
+            }
+            if(repressed.contains(element.getElementLogic()) == true) {
+                element.setColorRepressed();
+            }
+            else if(element.isRepressed() == true) {
+                element.setColorNormal();
+            }
+        }
+        repaint();
+    }
+
     /**
      * Löscht ein Element aus der Elementeliste.
      * @param element das zu löschende View-Element
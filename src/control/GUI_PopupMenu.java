@@ -20,6 +20,7 @@ public class GUI_PopupMenu extends JPopupMenu{
     JMenu tr_2log;
     JMenu edit_elements;
     JMenu petrinet;
+    JMenu analysis;
 
     /**
      * Konstruktor des Popup-Menüs.
@@ -29,8 +30,9 @@ public class GUI_PopupMenu extends JPopupMenu{
     public GUI_PopupMenu(ActionListener act) {
         // Die folgenden Strings enthalten die Texte für das aufzubauende Menü.
         String[] edStr = {"Properties", "Weights", "Disconnect all", "Remove"};
-        String[] pnStr = {"New", "Load", "Save"};
+        String[] pnStr = {"New", "Load", "Save", "Import PNML", "Export PNML"};
         String[] plStr = {"Place (gen.)", "Input place", "Output place"};
+        String[] anStr = {"Explore state space", "Invariants", "Siphons and traps"};
 
         // Wird temporär für die hinzuzufügenden Menüpunkte benötigt.
         JMenuItem item;
@@ -80,7 +82,22 @@ public class GUI_PopupMenu extends JPopupMenu{
             petrinet.add(item);
         }
 
+        // Umschalter "Zeitbehaftete Simulation"
+        petrinet.add(new JSeparator());
+        item = new JCheckBoxMenuItem("Timed simulation");
+        item.addActionListener(act);
+        petrinet.add(item);
+
         this.add(petrinet);
 
+        analysis = new JMenu("Analysis");
+        for(int i = 0; i < anStr.length; i++) {
+            item = new JMenuItem(anStr[i]);
+            item.addActionListener(act);
+            analysis.add(item);
+        }
+
+        this.add(analysis);
+
     }
 }
@@ -103,4 +103,12 @@ public class GUI_Sidebar extends Box{
         stepcount.setText("Steps: " + steps);
     }
 
+    /**
+     * Setzt die Anzeige des Schrittzählers auf die Simulationszeit (zeitbehaftete Simulation).
+     * @param time - Die neue Simulationszeit.
+     */
+    public void setClock(String time){
+        stepcount.setText("Time: " + time);
+    }
+
 }
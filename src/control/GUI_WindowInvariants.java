@@ -0,0 +1,60 @@
+package control;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionListener;
+
+/**
+ * Diese Klasse stellt ein Fenster zur Anzeige der P- und T-Invarianten zur Verfügung.
+ */
+public class GUI_WindowInvariants extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private JPanel panel = new JPanel();
+    private JButton buttExport;
+    private JButton buttClose;
+
+    /**
+     * Konstruktor zum Bereitstellen eines Fensters mit der Beschreibung der Invarianten.
+     * @param act ActionListener an den die Events der Schaltflächen "Export CSV" und "Close" gesendet werden
+     * @param text Beschreibung der Invarianten
+     */
+    public GUI_WindowInvariants(ActionListener act, String text) {
+        this.setLayout(new BoxLayout(this.getContentPane(), BoxLayout.Y_AXIS));
+        this.setMinimumSize(new Dimension(480, 320));
+        this.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        this.setTitle("Invariants");
+
+        JTextArea textArea = new JTextArea(text, 20, 60);
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setCaretPosition(0);
+
+        panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
+        buttExport = new JButton("Export CSV");
+        buttExport.setActionCommand("WinInvariantsEXPORT");
+        buttExport.addActionListener(act);
+        buttClose = new JButton("Close");
+        buttClose.setActionCommand("WinInvariantsCLOSE");
+        buttClose.addActionListener(act);
+        panel.add(Box.createHorizontalStrut(10));
+        panel.add(buttExport);
+        panel.add(Box.createHorizontalGlue());
+        panel.add(buttClose);
+        panel.add(Box.createHorizontalStrut(10));
+
+        this.add(Box.createVerticalStrut(10));
+        this.getContentPane().add(new JScrollPane(textArea));
+        this.add(Box.createVerticalStrut(10));
+        this.getContentPane().add(panel);
+        this.add(Box.createVerticalStrut(10));
+        this.pack();
+    }
+
+    /**
+     * Schließt das Invariantenfenster
+     */
+    public void closeWindow() {
+        dispose();
+    }
+}
@@ -0,0 +1,267 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import model.M_CompiledNet;
+import model.M_Invariant;
+import model.M_Invariants;
+
+/**
+ * Startklasse für die Berechnung der minimalen P- und T-Invarianten eines gespeicherten
+ * Netzes ohne Oberfläche (M_Invariants). Ausgegeben werden die Invarianten, für
+ * P-Invarianten die gewichtete Markenzahl der gespeicherten Markierung, sowie die nicht
+ * überdeckten Stellen und Transitionen. Mit <code>-csv</code> werden alle Invarianten
+ * zusätzlich als CSV-Datei geschrieben (eine Zeile je Eintrag).
+ * <p>
+ * Aufruf: <code>java control.Invariants [-max-rows N] [-csv AUSGABE] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Berechnung durchgeführt, 1 = Netz nicht ladbar oder Berechnung
+ * abgebrochen, 2 = fehlerhafter Aufruf.
+ */
+public class Invariants implements ActionListener {
+
+    // ausgegebene Invarianten je Art (Konsole und Dialog)
+    static final int MAX_LISTED = 100;
+
+    private int maxRows = 100000;           // Zeilengrenze des Farkas-Algorithmus
+    private File csvFile;
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Invariants invariants = new Invariants();
+
+        if(invariants.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(invariants.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-max-rows") && i + 1 < args.length) {
+                    maxRows = (int) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-csv") && i + 1 < args.length) {
+                    csvFile = new File(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && maxRows > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Invariants [-max-rows N] [-csv OUT] FILE");
+        System.err.println("Computes the minimal semi-positive P- and T-invariants of the Petri net in FILE (*.pnet or *.pnml).");
+        System.err.println("-max-rows: limit of intermediate rows (default 1e5); -csv: write all invariants to OUT.");
+    }
+
+    /*
+     * Lädt das Netz, berechnet die Invarianten und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        ArrayList<M_Invariant> pInvariants;
+        ArrayList<M_Invariant> tInvariants;
+        long start = System.nanoTime();
+
+        try {
+            M_Invariants invariants = new M_Invariants(net);
+            invariants.setMaxRows(maxRows);
+            pInvariants = invariants.computePInvariants();
+            tInvariants = invariants.computeTInvariants();
+        }
+        catch(IllegalArgumentException | IllegalStateException | ArithmeticException e) {
+            System.err.println("Can't compute invariants: " + e.getMessage());
+            return 1;
+        }
+
+        System.out.println("File:        " + inputFile);
+        System.out.println(String.format("Time:        %.3f s", (System.nanoTime() - start) / 1e9));
+        System.out.print(describe(net, pInvariants, tInvariants));
+
+        if(csvFile != null) {
+            try {
+                writeCsv(csvFile, net, pInvariants, tInvariants);
+            }
+            catch(IOException e) {
+                System.err.println("Writing failed: " + csvFile + "\n" + e);
+                return 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt die Invarianten (mehrzeilig, für Konsole und Dialog); je Art werden
+     * höchstens MAX_LISTED Invarianten aufgeführt.
+     * @param net kompiliertes Netz
+     * @param pInvariants P-Invarianten
+     * @param tInvariants T-Invarianten
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, ArrayList<M_Invariant> pInvariants, ArrayList<M_Invariant> tInvariants) {
+        StringBuilder text = new StringBuilder();
+        String[] placeNames = Reachability.placeNames(net);
+        String[] transitionNames = transitionNames(net);
+        float[] marking = net.getMarking();
+
+        text.append("P-invariants: " + pInvariants.size() + "\n");
+        for(int i = 0; i < pInvariants.size() && i < MAX_LISTED; i++) {
+            M_Invariant invariant = pInvariants.get(i);
+            text.append("  P" + (i + 1) + ": " + formatInvariant(invariant, placeNames)
+                    + " = " + Reachability.formatValue(invariant.weightedSum(marking)) + "\n");
+        }
+        appendOmitted(text, pInvariants.size());
+        appendUncovered(text, "Places not covered:      ",
+                M_Invariants.covered(pInvariants, placeNames.length), placeNames);
+
+        text.append("T-invariants: " + tInvariants.size() + "\n");
+        for(int i = 0; i < tInvariants.size() && i < MAX_LISTED; i++) {
+            text.append("  T" + (i + 1) + ": " + formatInvariant(tInvariants.get(i), transitionNames) + "\n");
+        }
+        appendOmitted(text, tInvariants.size());
+        appendUncovered(text, "Transitions not covered: ",
+                M_Invariants.covered(tInvariants, transitionNames.length), transitionNames);
+
+        return text.toString();
+    }
+
+    /**
+     * Schreibt die Invarianten als CSV-Datei mit den Spalten kind, invariant, element,
+     * coefficient und weighted_sum (nur für P-Invarianten).
+     * @param file Zieldatei
+     * @param net kompiliertes Netz
+     * @param pInvariants P-Invarianten
+     * @param tInvariants T-Invarianten
+     * @throws IOException Fehler beim Schreiben
+     */
+    static void writeCsv(File file, M_CompiledNet net, ArrayList<M_Invariant> pInvariants,
+            ArrayList<M_Invariant> tInvariants) throws IOException {
+        String[] placeNames = Reachability.placeNames(net);
+        String[] transitionNames = transitionNames(net);
+        float[] marking = net.getMarking();
+
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("kind,invariant,element,coefficient,weighted_sum\n");
+            for(int i = 0; i < pInvariants.size(); i++) {
+                M_Invariant invariant = pInvariants.get(i);
+                String sum = Reachability.formatValue(invariant.weightedSum(marking));
+                for(int k = 0; k < invariant.size(); k++) {
+                    out.write("P," + (i + 1) + "," + placeNames[invariant.getIndex(k)] + ","
+                            + invariant.getCoefficient(k) + "," + sum + "\n");
+                }
+            }
+            for(int i = 0; i < tInvariants.size(); i++) {
+                M_Invariant invariant = tInvariants.get(i);
+                for(int k = 0; k < invariant.size(); k++) {
+                    out.write("T," + (i + 1) + "," + transitionNames[invariant.getIndex(k)] + ","
+                            + invariant.getCoefficient(k) + ",\n");
+                }
+            }
+        }
+    }
+
+    /*
+     * Benennt die Transitionen wie in der Logik nummeriert (T#).
+     */
+    private static String[] transitionNames(M_CompiledNet net) {
+        String[] names = new String[net.getNumberOfTransitions()];
+        for(int t = 0; t < names.length; t++) {
+            names[t] = "T" + (t + 1);
+        }
+        return names;
+    }
+
+    /*
+     * Formatiert eine Invariante als Summe (z.B. "S1 + 2*S3").
+     */
+    private static String formatInvariant(M_Invariant invariant, String[] names) {
+        StringBuilder text = new StringBuilder();
+        for(int k = 0; k < invariant.size(); k++) {
+            if(k > 0) {
+                text.append(" + ");
+            }
+            if(invariant.getCoefficient(k) != 1) {
+                text.append(invariant.getCoefficient(k)).append('*');
+            }
+            text.append(names[invariant.getIndex(k)]);
+        }
+        return text.toString();
+    }
+
+    private static void appendOmitted(StringBuilder text, int size) {
+        if(size > MAX_LISTED) {
+            text.append("  ... " + (size - MAX_LISTED) + " more\n");
+        }
+    }
+
+    private static void appendUncovered(StringBuilder text, String label, boolean[] covered, String[] names) {
+        int count = 0;
+        StringBuilder list = new StringBuilder();
+        for(int i = 0; i < covered.length; i++) {
+            if(covered[i] == false) {
+                if(count < MAX_LISTED) {
+                    list.append(' ').append(names[i]);
+                }
+                count++;
+            }
+        }
+        text.append(label + count);
+        if(count > 0) {
+            text.append(" (" + list.toString().trim() + (count > MAX_LISTED ? " ..." : "") + ")");
+        }
+        text.append("\n");
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
@@ -5,12 +5,19 @@ import java.awt.event.ActionListener;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Observable;
+import java.util.concurrent.ForkJoinPool;
 
 import model.ME_ElementType;
+import model.ME_EngineMode;
+import model.ME_NotificationMode;
 import model.MI_Element;
 import model.MI_Link;
+import model.MI_Place;
 import model.MI_Transition;
+import model.M_ChangeSet;
+import model.M_CompiledNet;
 import model.M_ElementRoot;
+import model.M_LivelockGuard;
 import model.M_Link;
 import model.M_PNPInput;
 import model.M_PNPOutput;
@@ -37,11 +44,26 @@ public class Logic extends Observable implements Serializable {
     private ArrayList<MI_Element> vElementsPlaceOutput;       // Liste für alle Ausgabestellen
     private ArrayList<M_Link> vLinks;                         // Liste für alle Kanten
 
-    private int stepCounter;                                  // zum Zählen der Schritte
+    private long stepCounter;                                 // zum Zählen der Schritte
     private boolean atLeastOneTransitionWorked;               // zum Testen, ob Netz verklemmt ist
 
     private ActionListener act;                               // der ActionListener
 
+    private ME_EngineMode engineMode;                         // Berechnungsart für makeStep()
+    private transient M_CompiledNet compiledNet;              // kompiliertes Netz (null, wenn veraltet)
+    private boolean viewSync;                                 // true: nach jedem Schritt in die Logik-Elemente
+                                                              // (und damit in die View) zurückschreiben
+
+    private ME_NotificationMode notificationMode;             // wann die View benachrichtigt wird
+    private transient M_ChangeSet changeSet;                  // gesammelte Änderungen (null bei IMMEDIATE)
+
+    private long maxRoundsPerStep;                            // Rundengrenze je Schritt
+    private transient M_LivelockGuard objectGuard;            // Livelock-Wächter für OBJECT
+    private transient float[] objectMarking;                  // Markierung der Logik-Elemente für objectGuard
+    private transient int objectTransitions;                  // Anzahl der Transitionen von objectGuard
+    private transient M_LivelockGuard livelockGuard;          // Wächter des wegen Livelock abgebrochenen
+                                                              // letzten Schritts (sonst null)
+
     /**
      * Erzeugt eine neue Logik-Instanz. An den zu übergebenen
      * ActionListener werden Ereignisse gesendet, die von ihm
@@ -60,6 +82,223 @@ public class Logic extends Observable implements Serializable {
         vLinks = new ArrayList<M_Link>();
 
         stepCounter = 0;
+
+        engineMode = ME_EngineMode.OBJECT;
+        viewSync = true;
+
+        notificationMode = ME_NotificationMode.IMMEDIATE;
+
+        maxRoundsPerStep = M_LivelockGuard.DEFAULT_MAX_ROUNDS;
+    }
+
+    /**
+     * Stellt ein, wann die Logik-Elemente ihre Beobachter (die View) benachrichtigen.
+     * Bei IMMEDIATE geschieht das bei jeder einzelnen Änderung. Bei PER_STEP und MANUAL
+     * rechnet das Netz ohne Benachrichtigungen; die Änderungen werden gesammelt und
+     * einmal je Schritt (PER_STEP) bzw. bei publishChanges() (MANUAL, z.B. einmal
+     * je Bild) veröffentlicht.
+     * @param notificationMode die neue Benachrichtigungsart
+     */
+    public void setNotificationMode(ME_NotificationMode notificationMode) {
+        // bisher gesammelte Änderungen nicht verlieren
+        publishChanges();
+
+        this.notificationMode = notificationMode;
+
+        if(notificationMode == ME_NotificationMode.IMMEDIATE) {
+            changeSet = null;
+        }
+        else if(changeSet == null) {
+            changeSet = new M_ChangeSet();
+        }
+
+        attachChangeSet(vElementsTransition);
+        attachChangeSet(vElementsPlaceStorage);
+        attachChangeSet(vElementsPlaceInput);
+        attachChangeSet(vElementsPlaceOutput);
+    }
+
+    /**
+     * Gibt die eingestellte Benachrichtigungsart zurück.
+     * @return Benachrichtigungsart
+     */
+    public ME_NotificationMode getNotificationMode() {
+        return notificationMode;
+    }
+
+    /**
+     * Veröffentlicht die gesammelten Änderungen, d.h. benachrichtigt die Beobachter
+     * jedes seit dem letzten Aufruf geänderten Elementes genau einmal. Darf auch aus
+     * einem anderen Thread als dem Berechnungs-Thread aufgerufen werden.
+     * @return Anzahl der benachrichtigten Elemente
+     */
+    public int publishChanges() {
+        M_ChangeSet set = changeSet;
+        if(set == null) {
+            return 0;
+        }
+        return set.publish();
+    }
+
+    /*
+     * Ordnet allen Elementen der Liste die aktuelle Änderungsmenge zu.
+     */
+    private void attachChangeSet(ArrayList<MI_Element> elements) {
+        for(int i = 0; i < elements.size(); i++) {
+            ((M_ElementRoot) elements.get(i)).setChangeSet(changeSet);
+        }
+    }
+
+    /**
+     * Stellt die Berechnungsart ein, mit der makeStep() das Netz ausführt.
+     * @param engineMode die neue Berechnungsart
+     */
+    public void setEngineMode(ME_EngineMode engineMode) {
+        syncModel();
+        discardCompiledNet();
+        this.engineMode = engineMode;
+    }
+
+    /**
+     * Gibt die eingestellte Berechnungsart zurück.
+     * @return Berechnungsart
+     */
+    public ME_EngineMode getEngineMode() {
+        return engineMode;
+    }
+
+    /**
+     * Stellt ein, ob die Ergebnisse des kompilierten Netzes nach jedem Schritt in die
+     * Logik-Elemente zurückgeschrieben werden. Ohne Zurückschreiben (z.B. bei
+     * Läufen ohne Oberfläche) muss vor dem Auslesen der Elemente syncModel()
+     * aufgerufen werden.
+     * @param viewSync true, wenn nach jedem Schritt zurückgeschrieben werden soll
+     */
+    public void setViewSync(boolean viewSync) {
+        this.viewSync = viewSync;
+    }
+
+    /**
+     * Schreibt die Markierung des kompilierten Netzes (falls vorhanden) in die
+     * Logik-Elemente zurück.
+     */
+    public void syncModel() {
+        if(compiledNet != null) {
+            compiledNet.writeBack();
+        }
+    }
+
+    /**
+     * Verwirft das kompilierte Netz. Muss nach jeder Änderung an Elementen,
+     * Kanten, Eigenschaften oder Gewichten aufgerufen werden, damit
+     * makeStep() das Netz neu übersetzt.
+     */
+    public void invalidateCompiledNet() {
+        discardCompiledNet();
+    }
+
+    /*
+     * Verwirft das kompilierte Netz. Bei zeitbehafteter Simulation werden vorher die Teile der
+     * laufenden Feuerungen in den Logik-Elementen abgelegt; ihr Vorbereich ist schon entnommen.
+     * Ohne Zurückschreiben nach jedem Schritt wird zuerst die Markierung übernommen, sonst nicht,
+     * damit soeben in den Elementen geänderte Werte erhalten bleiben.
+     */
+    private void discardCompiledNet() {
+        if(compiledNet != null && engineMode == ME_EngineMode.TIMED) {
+            if(viewSync == false) {
+                compiledNet.writeBack();
+            }
+            compiledNet.depositRunningFirings();
+        }
+        compiledNet = null;
+    }
+
+    /**
+     * Gibt das kompilierte Netz zurück. Ist es veraltet, wird es zuvor
+     * aus den aktuellen Logik-Elementen neu übersetzt.
+     * @return kompiliertes Netz
+     */
+    public M_CompiledNet getCompiledNet() {
+        if(compiledNet == null) {
+            compiledNet = new M_CompiledNet(vElementsTransition, vElementsPlaceStorage, vElementsPlaceInput, vElementsPlaceOutput);
+            compiledNet.getLivelockGuard().setMaxRounds(maxRoundsPerStep);
+        }
+        return compiledNet;
+    }
+
+    /**
+     * Setzt die Rundengrenze je Schritt. Ein Schritt, der nach so vielen Runden noch nichts an
+     * eine Ausgabestelle geliefert hat, wird als Livelock abgebrochen (siehe M_LivelockGuard).
+     * @param maxRoundsPerStep Rundengrenze (mindestens 1)
+     */
+    public void setMaxRoundsPerStep(long maxRoundsPerStep) {
+        if(maxRoundsPerStep < 1) {
+            throw new IllegalArgumentException("Round limit must be at least 1: " + maxRoundsPerStep);
+        }
+        this.maxRoundsPerStep = maxRoundsPerStep;
+        if(compiledNet != null) {
+            compiledNet.getLivelockGuard().setMaxRounds(maxRoundsPerStep);
+        }
+        if(objectGuard != null) {
+            objectGuard.setMaxRounds(maxRoundsPerStep);
+        }
+    }
+
+    /**
+     * Gibt die Rundengrenze je Schritt zurück.
+     * @return Rundengrenze
+     */
+    public long getMaxRoundsPerStep() {
+        return maxRoundsPerStep;
+    }
+
+    /**
+     * Testet, ob der letzte Schritt wegen eines Livelocks abgebrochen wurde: Transitionen
+     * feuerten weiter, ohne je an eine Ausgabestelle zu liefern. Wie bei einer Verklemmung hat
+     * makeStep() dann false geliefert und hasAtLeastOneTransitionWorked() liefert false.
+     * @return true bei Livelock, sonst false.
+     */
+    public boolean isLivelock() {
+        return livelockGuard != null;
+    }
+
+    /**
+     * Beschreibt den Livelock des letzten Schritts mit den beteiligten Transitionen
+     * (T1, T2, ... in der Reihenfolge der Transitionsliste).
+     * @return Beschreibung, null, wenn der letzte Schritt keinen Livelock hatte
+     */
+    public String describeLivelock() {
+        M_LivelockGuard guard = livelockGuard;
+        if(guard == null) {
+            return null;
+        }
+
+        StringBuilder text = new StringBuilder();
+        int[] involved = guard.getInvolvedTransitions();
+        for(int i = 0; i < involved.length; i++) {
+            text.append(i == 0 ? "" : ", ").append("T" + (involved[i] + 1));
+        }
+
+        if(guard.isBudgetExceeded() == true) {
+            return "no output after " + guard.getRounds() + " rounds (round limit); firing: " + text;
+        }
+        long period = guard.getPeriod();
+        if(guard.isPeriodExact() == false) {
+            // nur jede stride-te Runde verglichen: period ist ein Vielfaches der Periode
+            return "marking repeats within " + period + " rounds without output; firing: " + text;
+        }
+        return "marking repeats every " + period + (period == 1 ? " round" : " rounds") + " without output; firing: " + text;
+    }
+
+    /**
+     * Übersetzt das Netz unabhängig von dem für makeStep() verwendeten kompilierten Netz,
+     * z.B. für Analysen, die die laufende Markierung nicht verändern dürfen. Die Markierung
+     * wird (nach syncModel()) aus den Logik-Elementen übernommen.
+     * @return neu übersetztes Netz
+     */
+    public M_CompiledNet compileSnapshot() {
+        syncModel();
+        return new M_CompiledNet(vElementsTransition, vElementsPlaceStorage, vElementsPlaceInput, vElementsPlaceOutput);
     }
 
     /**
@@ -108,6 +347,8 @@ public class Logic extends Observable implements Serializable {
      */
     public void loadTransition(M_ElementRoot element){
         vElementsTransition.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
     }
 
     /**
@@ -117,6 +358,8 @@ public class Logic extends Observable implements Serializable {
      */
     public void loadPlaceStorage(M_ElementRoot element){
         vElementsPlaceStorage.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
     }
 
     /**
@@ -126,6 +369,8 @@ public class Logic extends Observable implements Serializable {
      */
     public void loadPlaceInput(M_ElementRoot element){
         vElementsPlaceInput.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
     }
 
     /**
@@ -135,6 +380,8 @@ public class Logic extends Observable implements Serializable {
      */
     public void loadPlaceOutput(M_ElementRoot element){
         vElementsPlaceOutput.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
     }
 
     /**
@@ -143,6 +390,38 @@ public class Logic extends Observable implements Serializable {
      */
     public void loadLink(M_Link link){
         vLinks.add(link);
+        discardCompiledNet();
+    }
+
+    /**
+     * Fügt viele Elemente und Kanten auf einmal ein (z.B. beim Import großer Netze).
+     * Die Listen werden dabei nur einmal vergrößert, Beobachter werden nicht benachrichtigt.
+     * @param transitions einzufügende Transitionen
+     * @param storages einzufügende Allgemeine Stellen
+     * @param inputs einzufügende Eingabestellen
+     * @param outputs einzufügende Ausgabestellen
+     * @param links einzufügende Kanten
+     */
+    public void loadNet(ArrayList<M_ElementRoot> transitions, ArrayList<M_ElementRoot> storages,
+            ArrayList<M_ElementRoot> inputs, ArrayList<M_ElementRoot> outputs, ArrayList<M_Link> links) {
+        loadElements(vElementsTransition, transitions);
+        loadElements(vElementsPlaceStorage, storages);
+        loadElements(vElementsPlaceInput, inputs);
+        loadElements(vElementsPlaceOutput, outputs);
+
+        vLinks.addAll(links);
+        discardCompiledNet();
+    }
+
+    /*
+     * Hängt Elemente an eine Elementliste an und ordnet ihnen die Änderungsmenge zu.
+     */
+    private void loadElements(ArrayList<MI_Element> list, ArrayList<M_ElementRoot> elements) {
+        list.ensureCapacity(list.size() + elements.size());
+        for(int i = 0; i < elements.size(); i++) {
+            elements.get(i).setChangeSet(changeSet);
+        }
+        list.addAll(elements);
     }
 
     /**
@@ -162,7 +441,18 @@ public class Logic extends Observable implements Serializable {
      * @return Anzahl durchgeführter Schritte
      */
     public String getStepCount() {
-        return Integer.toString(stepCounter);
+        return Long.toString(stepCounter);
+    }
+
+    /**
+     * Gibt die Simulationszeit der zeitbehafteten Berechnungsart (ME_EngineMode.TIMED) zurück.
+     * @return Simulationszeit, 0 bei anderen Berechnungsarten oder vor dem ersten Schritt
+     */
+    public double getClock() {
+        if(engineMode != ME_EngineMode.TIMED || compiledNet == null) {
+            return 0;
+        }
+        return compiledNet.getTimedSimulation().getClock();
     }
 
     /**
@@ -171,6 +461,7 @@ public class Logic extends Observable implements Serializable {
     public void reset() {
 
         stepCounter = 0;
+        discardCompiledNet();
 
         for(int i = 0; i < vElementsTransition.size(); i++) {
             vElementsTransition.get(i).reset();
@@ -196,6 +487,8 @@ public class Logic extends Observable implements Serializable {
     public void addTransition() {
         M_PNTransition element = new M_PNTransition(2, 2);
         vElementsTransition.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
         this.setChanged();
         this.notifyObservers(element);
     }
@@ -206,6 +499,8 @@ public class Logic extends Observable implements Serializable {
     public void addPlaceStorage() {
         M_PNPStorage element = new M_PNPStorage(50);
         vElementsPlaceStorage.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
         this.setChanged();
         this.notifyObservers(element);
     }
@@ -216,6 +511,8 @@ public class Logic extends Observable implements Serializable {
     public void addPlaceInput() {
         M_PNPInput element = new M_PNPInput(100);
         vElementsPlaceInput.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
         this.setChanged();
         this.notifyObservers(element);
     }
@@ -226,6 +523,8 @@ public class Logic extends Observable implements Serializable {
     public void addPlaceOutput() {
         M_PNPOutput element = new M_PNPOutput(1000);
         vElementsPlaceOutput.add(element);
+        element.setChangeSet(changeSet);
+        discardCompiledNet();
         this.setChanged();
         this.notifyObservers(element);
     }
@@ -235,6 +534,8 @@ public class Logic extends Observable implements Serializable {
      * @param element zu entfernendes Element
      */
     public void deleteElement(M_ElementRoot element) {
+        discardCompiledNet();
+
         if(vElementsTransition.remove(element) == true) {
             ActionEvent ev = new ActionEvent(this, 1, "Msg_Deleted_Transition");
             act.actionPerformed(ev);
@@ -297,6 +598,7 @@ public class Logic extends Observable implements Serializable {
         M_Link link = new M_Link();
         if(link.setLink(source, destination) == true) {
             vLinks.add(link);
+            discardCompiledNet();
             return true;
         }
         else {
@@ -313,6 +615,7 @@ public class Logic extends Observable implements Serializable {
         MI_Link delLink = vLinks.get(vLinks.indexOf(link));
         delLink.unsetLink();
         vLinks.remove(delLink);
+        discardCompiledNet();
     }
 
     /**
@@ -359,11 +662,132 @@ public class Logic extends Observable implements Serializable {
     }
 
     /**
-     * Versucht, das Netz einen Schritt ausführen zu lassen.
+     * Versucht, das Netz einen Schritt ausführen zu lassen. Je nach
+     * eingestellter Berechnungsart wird direkt auf den Logik-Elementen
+     * oder auf dem kompilierten Netz gerechnet.
      * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
      */
     public boolean makeStep() {
+        if(engineMode == ME_EngineMode.OBJECT) {
+            boolean stepDone = makeStepObject();
+
+            if(notificationMode == ME_NotificationMode.PER_STEP) {
+                publishChanges();
+            }
+
+            return stepDone;
+        }
+
+        M_CompiledNet net = getCompiledNet();
+        boolean stepDone;
+
+        switch(engineMode) {
+        case WORKLIST:
+            stepDone = net.makeStepWorklist();
+            break;
+        case PARALLEL:
+            stepDone = net.makeStepParallel(ForkJoinPool.commonPool());
+            break;
+        case BULK:
+            stepDone = net.makeStepBulk();
+            break;
+        case TIMED:
+            stepDone = net.makeStepTimed();
+            break;
+        default:
+            stepDone = net.makeStep();
+            break;
+        }
+        atLeastOneTransitionWorked = net.hasAtLeastOneTransitionWorked();
+        livelockGuard = null;
+        if(stepDone == false && engineMode != ME_EngineMode.TIMED && net.getLivelockGuard().isLivelock() == true) {
+            livelockGuard = net.getLivelockGuard();
+        }
+
+        if(viewSync == true) {
+            net.writeBack();
+        }
+
+        if(notificationMode == ME_NotificationMode.PER_STEP) {
+            publishChanges();
+        }
+
+        if(stepDone == false) {
+            return false;
+        }
+
+        stepCounter++;
+
+        // Schritt erledigt
+
+        return true;
+    }
+
+    /**
+     * Testet, ob runSteps() bei der eingestellten Berechnungsart periodische Abschnitte
+     * überspringen kann. Das gilt nur für die Berechnungsarten, die dieselben Schritte wie
+     * M_CompiledNet.makeStep() ausführen (OBJECT, COMPILED, WORKLIST). PARALLEL fasst die
+     * Transitionen zu Gruppen zusammen und kann dadurch andere Schritte ausführen.
+     * @return true, wenn übersprungen werden kann, sonst false.
+     */
+    public boolean isFastForwardSupported() {
+        return engineMode == ME_EngineMode.OBJECT || engineMode == ME_EngineMode.COMPILED
+                || engineMode == ME_EngineMode.WORKLIST;
+    }
+
+    /**
+     * Führt bis zu steps Schritte aus, bis zur Verklemmung, bis zu einem Livelock oder bis zur
+     * Zeitgrenze. Wenn isFastForwardSupported() gilt, wird dabei unabhängig von der
+     * Berechnungsart mit M_CompiledNet.makeStep() gerechnet; periodische Abschnitte werden
+     * erkannt und rechnerisch übersprungen (M_CycleDetector). Die übrigen Berechnungsarten
+     * (PARALLEL, BULK, TIMED) führen die Schritte einzeln mit makeStep() aus.
+     * @param steps Schrittgrenze
+     * @param timeoutNanos Zeitgrenze in Nanosekunden
+     * @return ausgeführte (und übersprungene) Schritte
+     */
+    public long runSteps(long steps, long timeoutNanos) {
+        if(isFastForwardSupported() == false) {
+            long start = System.nanoTime();
+            long done = 0;
+            while(done < steps && System.nanoTime() - start < timeoutNanos && makeStep() == true) {
+                done++;
+            }
+            return done;
+        }
+
+        M_CompiledNet net = getCompiledNet();
+        long done = net.runFastForward(steps, timeoutNanos);
+        atLeastOneTransitionWorked = net.hasAtLeastOneTransitionWorked();
+        livelockGuard = null;
+        if(atLeastOneTransitionWorked == false && net.getLivelockGuard().isLivelock() == true) {
+            livelockGuard = net.getLivelockGuard();
+        }
+        stepCounter += done;
+
+        if(viewSync == true || engineMode == ME_EngineMode.OBJECT) {
+            net.writeBack();
+        }
+        if(engineMode == ME_EngineMode.OBJECT) {
+            // OBJECT rechnet auf den Logik-Elementen weiter, das kompilierte Netz veraltet dabei
+            discardCompiledNet();
+        }
+
+        if(notificationMode == ME_NotificationMode.PER_STEP) {
+            publishChanges();
+        }
+
+        return done;
+    }
+
+    /*
+     * Führt einen Schritt direkt auf den Logik-Elementen aus
+     * (M_PNTransition.computeStep()).
+     */
+    private boolean makeStepObject() {
         boolean someCameOut = false;
+        M_LivelockGuard guard = getObjectGuard();
+        guard.startStep();
+        livelockGuard = null;
 
         // Erstmal alle Output-Elemente zurücksetzen
         for(int i = 0; i < vElementsPlaceOutput.size(); i++) {
@@ -389,6 +813,7 @@ public class Logic extends Observable implements Serializable {
             for(int i = 0; i < vElementsTransition.size(); i++) {
                 if( ((MI_Transition) vElementsTransition.get(i)).hasWorked_KillFlag() == true ) {
                     atLeastOneTransitionWorked = true;
+                    guard.fired(i);
                 }
             }
 
@@ -396,6 +821,13 @@ public class Logic extends Observable implements Serializable {
                 return false;
             }
 
+            // Kreist das Netz, ohne je an eine Ausgabestelle zu liefern?
+            if(someCameOut == false && guard.endRound(guard.needsMarking() == true ? readObjectMarking() : null) == false) {
+                atLeastOneTransitionWorked = false;
+                livelockGuard = guard;
+                return false;
+            }
+
         }
         while (someCameOut == false);
 
@@ -405,4 +837,42 @@ public class Logic extends Observable implements Serializable {
 
         return true;
     }
+
+    /*
+     * Gibt den Livelock-Wächter für OBJECT zurück; er wird neu angelegt, wenn sich die Anzahl
+     * der Stellen oder Transitionen geändert hat.
+     */
+    private M_LivelockGuard getObjectGuard() {
+        int numberOfPlaces = vElementsPlaceStorage.size() + vElementsPlaceInput.size() + vElementsPlaceOutput.size();
+        if(objectGuard == null || objectMarking.length != numberOfPlaces
+                || objectTransitions != vElementsTransition.size()) {
+            objectGuard = new M_LivelockGuard(numberOfPlaces, vElementsTransition.size());
+            objectGuard.setMaxRounds(maxRoundsPerStep);
+            objectMarking = new float[numberOfPlaces];
+            objectTransitions = vElementsTransition.size();
+        }
+        return objectGuard;
+    }
+
+    /*
+     * Liest die Markierung der Logik-Elemente in objectMarking (Reihenfolge wie M_CompiledNet).
+     */
+    private float[] readObjectMarking() {
+        int p = 0;
+        p = readValues(vElementsPlaceStorage, p);
+        p = readValues(vElementsPlaceInput, p);
+        readValues(vElementsPlaceOutput, p);
+        return objectMarking;
+    }
+
+    /*
+     * Liest die Werte der Stellen einer Liste ab Index p in objectMarking.
+     * @return Index nach der letzten gelesenen Stelle
+     */
+    private int readValues(ArrayList<MI_Element> elements, int p) {
+        for(int i = 0; i < elements.size(); i++) {
+            objectMarking[p++] = ((MI_Place) elements.get(i)).getValue();
+        }
+        return p;
+    }
 }
@@ -0,0 +1,711 @@
+package control;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import model.ME_PinType;
+import model.MI_Element;
+import model.MI_Link;
+import model.MI_Pin;
+import model.M_ElementRoot;
+import model.M_Link;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_PNPStorage;
+import model.M_PNTransition;
+import model.M_Pin;
+import view.V_ElementRoot;
+import view.V_Link;
+import view.V_PNPInput;
+import view.V_PNPOutput;
+import view.V_PNPStorage;
+import view.V_PNTransition;
+import view.V_Pin;
+import view.V_Point;
+
+/**
+ * Klasse zum Speichern und Laden von Petrinetzen (*.pnet). Gespeichert wird in einem
+ * kompakten, versionierten Binärformat, das über einen gepufferten FileChannel geschrieben
+ * und gelesen wird. Die Datei enthält nur die Netzstruktur, keine Swing-Objekte; Größe und
+ * Zeit für Speichern und Laden wachsen daher nur mit der Größe des Netzes.
+ * <p>
+ * Aufbau (alle Zahlen big-endian, int bzw. float mit 4 Byte):
+ * <pre>
+ * Kopf:        MAGIC, FORMAT_VERSION
+ * Elemente:    Anzahl Transitionen, allg. Stellen, Eingabestellen, Ausgabestellen
+ *              je Transition:     Eingänge, Ausgänge, Gewichte der Eingänge, Gewichte der Ausgänge
+ *              je allg. Stelle:   Wert, Kapazität, ursprüngliche Kapazität
+ *              je Eingabestelle:  Wert, ursprünglicher Wert
+ *              je Ausgabestelle:  Wert, Kapazität, ursprüngliche Kapazität
+ * Kanten:      Anzahl, je Kante: Quell-Element, Quell-Pin, Ziel-Element, Ziel-Pin
+ * Zeiten:      je Transition Verzögerung, je allg. Stelle Haltezeit (ab Version 2)
+ * View:        Anzahl Elemente, je Element: Element-Nummer (-1 für Punkt), x, y
+ *              Anzahl Kanten, je Kante: Nummer der Logik-Kante, Anzahl Pins,
+ *              je Pin: Nummer des View-Elements, Pin-Nummer
+ * </pre>
+ * Die Elemente werden in obiger Reihenfolge (Transitionen, allgemeine Stellen, Eingabe-,
+ * Ausgabestellen) ab 0 durchnummeriert, Pins in der Reihenfolge von getAllPins().
+ * Die View kann beim Laden übersprungen werden, so dass ein Netz auch ohne Oberfläche
+ * (siehe StartUpBatch) geladen werden kann.
+ * <p>
+ * Dateien im früheren Format (einfache Serialisierung) werden weiterhin gelesen.
+ */
+public class NetFile {
+
+    // Kennung und Version des Binärformats
+    static final int MAGIC = 0x504E4554;    // "PNET"
+    static final int FORMAT_VERSION = 2;
+
+    // Kennung eines Java-Serialisierungsstroms (früheres Format)
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+
+    // Größe des Puffers für Lesen und Schreiben
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Stapelspeicher für das Laden im früheren Format: die Serialisierung folgt den
+    // Kanten rekursiv, große Netze brauchen daher einen sehr tiefen Stapel
+    private static final long STACK_SIZE = 1L << 30;
+
+    /**
+     * Speichert das Petrinetz in die übergebene Datei.
+     * @param file Zieldatei
+     * @param model Logik des Netzes
+     * @param viewElements Elemente der View
+     * @param viewLinks Kanten der View
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public static void save(File file, Logic model, ArrayList<V_ElementRoot> viewElements, ArrayList<V_Link> viewLinks) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        try {
+            BufferedOutput out = new BufferedOutput(channel);
+
+            out.putInt(MAGIC);
+            out.putInt(FORMAT_VERSION);
+
+            /*
+             * Logik speichern
+             */
+            ArrayList<MI_Element> transitions = model.getElementsTransition();
+            ArrayList<MI_Element> storages = model.getElementsStorage();
+            ArrayList<MI_Element> inputs = model.getElementsInput();
+            ArrayList<MI_Element> outputs = model.getElementsOutput();
+
+            out.putInt(transitions.size());
+            out.putInt(storages.size());
+            out.putInt(inputs.size());
+            out.putInt(outputs.size());
+
+            // Transitionen
+            for(int i = 0; i < transitions.size(); i++) {
+                M_PNTransition transition = (M_PNTransition) transitions.get(i);
+                out.putInt(transition.getNumberOfInputs());
+                out.putInt(transition.getNumberOfOutputs());
+                for(int k = 0; k < transition.getNumberOfInputs(); k++) {
+                    out.putFloat(transition.getInputWeight(k));
+                }
+                for(int k = 0; k < transition.getNumberOfOutputs(); k++) {
+                    out.putFloat(transition.getOutputWeight(k));
+                }
+            }
+
+            // Stellen (allgemein)
+            for(int i = 0; i < storages.size(); i++) {
+                M_PNPStorage storage = (M_PNPStorage) storages.get(i);
+                out.putFloat(storage.getValue());
+                out.putFloat(storage.getCapacity());
+                out.putFloat(storage.getOrgCapacity());
+            }
+
+            // Stellen (input)
+            for(int i = 0; i < inputs.size(); i++) {
+                M_PNPInput input = (M_PNPInput) inputs.get(i);
+                out.putFloat(input.getValue());
+                out.putFloat(input.getOrgValue());
+            }
+
+            // Stellen (output)
+            for(int i = 0; i < outputs.size(); i++) {
+                M_PNPOutput output = (M_PNPOutput) outputs.get(i);
+                out.putFloat(output.getValue());
+                out.putFloat(output.getCapacity());
+                out.putFloat(output.getOrgCapacity());
+            }
+
+            // Nummern aller Elemente
+            IdentityHashMap<MI_Element, Integer> elementIds = new IdentityHashMap<MI_Element, Integer>();
+            numberElements(elementIds, transitions);
+            numberElements(elementIds, storages);
+            numberElements(elementIds, inputs);
+            numberElements(elementIds, outputs);
+
+            // Kanten (immer vom Ausgang zum Eingang)
+            ArrayList<M_Link> logicLinks = model.getLinks();
+            IdentityHashMap<MI_Link, Integer> linkIds = new IdentityHashMap<MI_Link, Integer>();
+            out.putInt(logicLinks.size());
+            for(int i = 0; i < logicLinks.size(); i++) {
+                M_Link link = logicLinks.get(i);
+                MI_Pin source = link.getDestinationPin();
+                MI_Pin destination = link.getSourcePin();
+                if(source.getPinType() != ME_PinType.OUTPUT) {
+                    // Zuordnung in M_Link vertauscht
+                    source = link.getSourcePin();
+                    destination = link.getDestinationPin();
+                }
+                putPin(out, elementIds, source);
+                putPin(out, elementIds, destination);
+                linkIds.put(link, i);
+            }
+
+            // Zeiten für die zeitbehaftete Simulation
+            for(int i = 0; i < transitions.size(); i++) {
+                out.putFloat(((M_PNTransition) transitions.get(i)).getDelay());
+            }
+            for(int i = 0; i < storages.size(); i++) {
+                out.putFloat(((M_PNPStorage) storages.get(i)).getHoldingTime());
+            }
+
+            /*
+             * View speichern
+             */
+
+            // Elemente
+            IdentityHashMap<V_Pin, Integer> pinOwners = new IdentityHashMap<V_Pin, Integer>();
+            out.putInt(viewElements.size());
+            for(int i = 0; i < viewElements.size(); i++) {
+                V_ElementRoot viewItem = viewElements.get(i);
+
+                if(viewItem.isPoint() == true) {
+                    out.putInt(-1);
+                }
+                else {
+                    out.putInt(elementIds.get(viewItem.getElementLogic()));
+                }
+                out.putInt(viewItem.getX());
+                out.putInt(viewItem.getY());
+
+                ArrayList<V_Pin> pins = viewItem.getAllPins();
+                for(int k = 0; k < pins.size(); k++) {
+                    pinOwners.put(pins.get(k), i);
+                }
+            }
+
+            // Kanten
+            out.putInt(viewLinks.size());
+            for(int i = 0; i < viewLinks.size(); i++) {
+                V_Link viewLink = viewLinks.get(i);
+                Integer linkId = linkIds.get(viewLink.getAssociatedLogicLink());
+                out.putInt(linkId != null ? linkId : -1);
+
+                ArrayList<V_Pin> pins = viewLink.getAllPins();
+                out.putInt(pins.size());
+                for(int k = 0; k < pins.size(); k++) {
+                    int owner = pinOwners.get(pins.get(k));
+                    out.putInt(owner);
+                    out.putInt(viewElements.get(owner).getAllPins().indexOf(pins.get(k)));
+                }
+            }
+
+            out.flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Lädt ein Petrinetz aus der übergebenen Datei in die (zuvor geleerte) Logik. Ist
+     * drawingArea null, wird nur die Logik geladen und die View übersprungen.
+     * @param file Quelldatei
+     * @param model Logik, in die das Netz geladen wird
+     * @param drawingArea Zeichenfläche, in die die View geladen wird, oder null
+     * @throws IOException wenn das Lesen fehlschlägt oder die Datei kein gültiges Netz enthält
+     * @throws ClassNotFoundException wenn eine Datei im früheren Format unbekannte Klassen enthält
+     */
+    public static void load(final File file, final Logic model, final GUI_DrawingArea drawingArea) throws IOException, ClassNotFoundException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try {
+            BufferedInput in = new BufferedInput(channel);
+
+            int magic = in.getInt();
+            if(magic == MAGIC) {
+                int version = in.getInt();
+                if(version < 1 || version > FORMAT_VERSION) {
+                    throw new IOException("Unsupported net file version " + version + " (supported up to " + FORMAT_VERSION + ")");
+                }
+                readNet(in, version, model, drawingArea);
+                return;
+            }
+            if((magic >>> 16) != SERIALIZATION_MAGIC) {
+                throw new IOException("Not a Petri net file: " + file);
+            }
+        }
+        catch(BufferUnderflowException e) {
+            throw new IOException("Net file is truncated: " + file, e);
+        }
+        finally {
+            channel.close();
+        }
+
+        // früheres Format
+        runWithLargeStack(new Task() {
+            public void run() throws IOException, ClassNotFoundException {
+                readSerializedNet(file, model, drawingArea);
+            }
+        });
+    }
+
+    /*
+     * Liest das Petrinetz im Binärformat (nach dem Kopf).
+     */
+    private static void readNet(BufferedInput in, int version, Logic model, GUI_DrawingArea drawingArea) throws IOException {
+
+        /*
+         * Logik laden
+         */
+        int numberOfTransitions = in.getCount();
+        int numberOfStorages = in.getCount();
+        int numberOfInputs = in.getCount();
+        int numberOfOutputs = in.getCount();
+
+        M_ElementRoot[] elements = new M_ElementRoot[numberOfTransitions + numberOfStorages + numberOfInputs + numberOfOutputs];
+        int id = 0;
+
+        // Transitionen
+        for(int i = 0; i < numberOfTransitions; i++) {
+            int numberIn = in.getCount();
+            int numberOut = in.getCount();
+            if(numberIn < 1) {
+                throw new IOException("Corrupt net file: transition without input");
+            }
+            M_PNTransition transition = new M_PNTransition(numberIn, numberOut);
+            for(int k = 0; k < numberIn; k++) {
+                transition.setInputWeight(k, in.getFloat());
+            }
+            for(int k = 0; k < numberOut; k++) {
+                transition.setOutputWeight(k, in.getFloat());
+            }
+            model.loadTransition(transition);
+            elements[id++] = transition;
+        }
+
+        // Stellen (allgemein)
+        for(int i = 0; i < numberOfStorages; i++) {
+            float value = in.getFloat();
+            float capacity = in.getFloat();
+            M_PNPStorage storage = new M_PNPStorage(in.getFloat());
+            storage.setCapacity(capacity);
+            storage.setValue(value);
+            model.loadPlaceStorage(storage);
+            elements[id++] = storage;
+        }
+
+        // Stellen (input)
+        for(int i = 0; i < numberOfInputs; i++) {
+            float value = in.getFloat();
+            M_PNPInput input = new M_PNPInput(in.getFloat());
+            input.setValue(value);
+            model.loadPlaceInput(input);
+            elements[id++] = input;
+        }
+
+        // Stellen (output)
+        for(int i = 0; i < numberOfOutputs; i++) {
+            float value = in.getFloat();
+            float capacity = in.getFloat();
+            M_PNPOutput output = new M_PNPOutput(in.getFloat());
+            output.setCapacity(capacity);
+            output.setValue(value);
+            model.loadPlaceOutput(output);
+            elements[id++] = output;
+        }
+
+        // Kanten
+        int numberOfLinks = in.getCount();
+        M_Link[] logicLinks = new M_Link[numberOfLinks];
+        for(int i = 0; i < numberOfLinks; i++) {
+            M_Pin source = getPin(in, elements);
+            M_Pin destination = getPin(in, elements);
+
+            M_Link link = new M_Link();
+            if(link.setLink(source, destination) == false) {
+                throw new IOException("Corrupt net file: link " + i + " does not lead from an output to an input");
+            }
+            model.loadLink(link);
+            logicLinks[i] = link;
+        }
+
+        // Zeiten (Version 1: Standardwerte)
+        if(version >= 2) {
+            for(int i = 0; i < numberOfTransitions; i++) {
+                ((M_PNTransition) elements[i]).setDelay(in.getTime());
+            }
+            for(int i = 0; i < numberOfStorages; i++) {
+                ((M_PNPStorage) elements[numberOfTransitions + i]).setHoldingTime(in.getTime());
+            }
+        }
+
+        // raus, wenn nur die Logik gebraucht wird
+        if(drawingArea == null) {
+            return;
+        }
+
+        /*
+         * View laden
+         */
+
+        // Elemente
+        int numberOfViewElements = in.getCount();
+        V_ElementRoot[] viewElements = new V_ElementRoot[numberOfViewElements];
+        for(int i = 0; i < numberOfViewElements; i++) {
+            int elementId = in.getInt();
+            int x = in.getInt();
+            int y = in.getInt();
+
+            V_ElementRoot viewElement;
+            if(elementId == -1) {
+                // Punkt; die Kante wird weiter unten zugeordnet
+                viewElement = new V_Point(x, y, null);
+            }
+            else {
+                M_ElementRoot element = checkedElement(elements, elementId);
+                switch(element.getElementIdent()) {
+                case TRANSITION:
+                    viewElement = new V_PNTransition(x, y, element, null);
+                    break;
+                case PLACE_INPUT:
+                    viewElement = new V_PNPInput(x, y, element);
+                    break;
+                case PLACE_OUTPUT:
+                    viewElement = new V_PNPOutput(x, y, element);
+                    break;
+                default:
+                    viewElement = new V_PNPStorage(x, y, element);
+                    break;
+                }
+            }
+            viewElements[i] = viewElement;
+            drawingArea.loadElement(viewElement);
+        }
+
+        // Kanten
+        int numberOfViewLinks = in.getCount();
+        for(int i = 0; i < numberOfViewLinks; i++) {
+            int linkId = in.getInt();
+            int numberOfPins = in.getCount();
+            if(linkId < -1 || linkId >= numberOfLinks || numberOfPins < 2) {
+                throw new IOException("Corrupt net file: invalid view link " + i);
+            }
+
+            V_Link viewLink = null;
+            V_Pin pin = null;
+            for(int k = 0; k < numberOfPins; k++) {
+                int owner = in.getInt();
+                int pinIndex = in.getInt();
+                if(owner < 0 || owner >= numberOfViewElements || pinIndex < 0 || pinIndex >= viewElements[owner].getAllPins().size()) {
+                    throw new IOException("Corrupt net file: invalid pin in view link " + i);
+                }
+                pin = viewElements[owner].getAllPins().get(pinIndex);
+
+                if(viewLink == null) {
+                    viewLink = new V_Link(pin);
+                    pin.setAssignedLink(viewLink);
+                }
+                else {
+                    viewLink.addPin(pin);
+                }
+                if(viewElements[owner].isPoint() == true) {
+                    ((V_Point) viewElements[owner]).setAssignedLink(viewLink);
+                }
+            }
+            pin.setAssignedLink(viewLink);
+
+            if(linkId >= 0) {
+                viewLink.setAssociatedLogicLink(logicLinks[linkId]);
+            }
+            drawingArea.loadLink(viewLink);
+        }
+    }
+
+    /*
+     * Liest das Petrinetz im früheren Format (einfache Serialisierung).
+     */
+    private static void readSerializedNet(File file, Logic model, GUI_DrawingArea drawingArea) throws IOException, ClassNotFoundException {
+        ObjectInputStream oin = new ObjectInputStream(new FileInputStream(file));
+
+        try {
+            /*
+             * Logik laden
+             */
+
+            // Transitionen
+            int size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                model.loadTransition((M_ElementRoot)oin.readObject());
+            }
+
+            // Stellen (allgemein)
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                model.loadPlaceStorage((M_ElementRoot)oin.readObject());
+            }
+
+            // Stellen (input)
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                model.loadPlaceInput((M_ElementRoot)oin.readObject());
+            }
+
+            // Stellen (output)
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                model.loadPlaceOutput((M_ElementRoot)oin.readObject());
+            }
+
+            // Kanten
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                model.loadLink((M_Link)oin.readObject());
+            }
+
+            // raus, wenn nur die Logik gebraucht wird
+            if(drawingArea == null) {
+                return;
+            }
+
+            /*
+             * View laden
+             */
+
+            // Elemente
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                V_ElementRoot viewElement = (V_ElementRoot)oin.readObject();
+                viewElement.reloadObverver();
+                drawingArea.loadElement(viewElement);
+            }
+
+            // Kanten
+            size = oin.readInt();
+            for(int i = 0; i < size; i++) {
+                drawingArea.loadLink((V_Link)oin.readObject());
+            }
+        }
+        finally {
+            oin.close();
+        }
+    }
+
+    /*
+     * Vergibt den Elementen einer Liste fortlaufende Nummern.
+     */
+    private static void numberElements(IdentityHashMap<MI_Element, Integer> elementIds, ArrayList<MI_Element> elements) {
+        for(int i = 0; i < elements.size(); i++) {
+            elementIds.put(elements.get(i), elementIds.size());
+        }
+    }
+
+    /*
+     * Schreibt Element-Nummer und Pin-Nummer eines Pins.
+     */
+    private static void putPin(BufferedOutput out, IdentityHashMap<MI_Element, Integer> elementIds, MI_Pin pin) throws IOException {
+        MI_Element element = ((M_Pin) pin).getAssignedElement();
+        M_Pin[] pins = element.getAllPins();
+
+        int pinIndex = 0;
+        while(pins[pinIndex] != pin) {
+            pinIndex++;
+        }
+
+        out.putInt(elementIds.get(element));
+        out.putInt(pinIndex);
+    }
+
+    /*
+     * Liest Element-Nummer und Pin-Nummer und gibt den zugehörigen Pin zurück.
+     */
+    private static M_Pin getPin(BufferedInput in, M_ElementRoot[] elements) throws IOException {
+        M_ElementRoot element = checkedElement(elements, in.getInt());
+        int pinIndex = in.getInt();
+
+        M_Pin[] pins = element.getAllPins();
+        if(pinIndex < 0 || pinIndex >= pins.length) {
+            throw new IOException("Corrupt net file: invalid pin number " + pinIndex);
+        }
+        return pins[pinIndex];
+    }
+
+    /*
+     * Gibt das Element mit der übergebenen Nummer zurück.
+     */
+    private static M_ElementRoot checkedElement(M_ElementRoot[] elements, int id) throws IOException {
+        if(id < 0 || id >= elements.length) {
+            throw new IOException("Corrupt net file: invalid element number " + id);
+        }
+        return elements[id];
+    }
+
+    /*
+     * Gepuffertes Schreiben in einen Kanal.
+     */
+    private static class BufferedOutput {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        BufferedOutput(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if(buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            if(buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putFloat(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining() == true) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /*
+     * Gepuffertes Lesen aus einem Kanal. Am Dateiende wird eine BufferUnderflowException geworfen.
+     */
+    private static class BufferedInput {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        BufferedInput(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        int getInt() throws IOException {
+            fill(4);
+            return buffer.getInt();
+        }
+
+        float getFloat() throws IOException {
+            fill(4);
+            return buffer.getFloat();
+        }
+
+        /*
+         * Liest eine Anzahl (darf nicht negativ sein).
+         */
+        int getCount() throws IOException {
+            int count = getInt();
+            if(count < 0) {
+                throw new IOException("Corrupt net file: negative count " + count);
+            }
+            return count;
+        }
+
+        /*
+         * Liest eine Zeitangabe (Verzögerung, Haltezeit; endlich und nicht negativ).
+         */
+        float getTime() throws IOException {
+            float time = getFloat();
+            if((time >= 0) == false || Float.isInfinite(time) == true) {
+                throw new IOException("Corrupt net file: invalid time " + time);
+            }
+            return time;
+        }
+
+        /*
+         * Sorgt dafür, dass mindestens n Bytes im Puffer stehen (soweit die Datei reicht).
+         */
+        private void fill(int n) throws IOException {
+            if(buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while(buffer.position() < n) {
+                if(channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+        }
+    }
+
+    /*
+     * Eine in einem eigenen Thread auszuführende Aufgabe.
+     */
+    private interface Task {
+        void run() throws IOException, ClassNotFoundException;
+    }
+
+    /*
+     * Führt die Aufgabe in einem Thread mit großem Stapelspeicher aus und wartet auf ihr Ende.
+     * Ausnahmen werden an den Aufrufer weitergereicht, ein Stapelüberlauf als IOException.
+     */
+    private static void runWithLargeStack(final Task task) throws IOException, ClassNotFoundException {
+        final Throwable[] failure = new Throwable[1];
+
+        Thread worker = new Thread(null, new Runnable() {
+            public void run() {
+                try {
+                    task.run();
+                }
+                catch(Throwable e) {
+                    failure[0] = e;
+                }
+            }
+        }, "NetFile", STACK_SIZE);
+
+        worker.start();
+
+        boolean interrupted = false;
+        while(worker.isAlive() == true) {
+            try {
+                worker.join();
+            }
+            catch(InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted == true) {
+            Thread.currentThread().interrupt();
+        }
+
+        if(failure[0] instanceof IOException) {
+            throw (IOException) failure[0];
+        }
+        if(failure[0] instanceof ClassNotFoundException) {
+            throw (ClassNotFoundException) failure[0];
+        }
+        if(failure[0] instanceof StackOverflowError) {
+            throw new IOException("Net too large for the legacy serialized file format", failure[0]);
+        }
+        if(failure[0] instanceof RuntimeException) {
+            throw (RuntimeException) failure[0];
+        }
+        if(failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        }
+    }
+}
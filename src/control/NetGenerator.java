@@ -0,0 +1,765 @@
+package control;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import model.ME_PinType;
+import model.MI_Element;
+import model.M_Link;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_PNPStorage;
+import model.M_PNTransition;
+import model.M_Pin;
+import view.V_ElementRoot;
+import view.V_Link;
+import view.V_PNPInput;
+import view.V_PNPOutput;
+import view.V_PNPStorage;
+import view.V_PNTransition;
+import view.V_Pin;
+
+/**
+ * Erzeugt Petrinetze synthetisch nach Vorlagen, um große Netze für Last- und Laufzeittests
+ * reproduzierbar herstellen zu können. Die Netze werden direkt in der Logik aufgebaut
+ * (M_PNPInput, M_PNPStorage, M_PNPOutput, M_PNTransition und M_Link über
+ * Logic.connectElements()); auf Wunsch wird mit layout(...) die passende View erzeugt.
+ * <p>
+ * Vorlagen (size ist jeweils die ungefähre Anzahl an Transitionen):
+ * <ul>
+ * <li>chain: unabhängige Ketten Eingabestelle -&gt; T -&gt; S -&gt; ... -&gt; T -&gt; Ausgabestelle</li>
+ * <li>tree: Baum aus verzweigenden Transitionen (1 Eingang, branching Ausgänge)</li>
+ * <li>mesh: Gitter, jede Transition nimmt von oben und links und gibt nach unten und rechts ab</li>
+ * <li>random: geschichteter zufälliger bipartiter Graph mit festem Fan-In und Fan-Out</li>
+ * <li>marked: Markierte Graphen (Ringe, jede Stelle mit genau einem Vor- und Nachbereich)</li>
+ * <li>forkjoin: Stränge aus Fork/Join-Blöcken</li>
+ * <li>conflict: Gruppen konkurrierender Transitionen an einer gemeinsamen Stelle</li>
+ * </ul>
+ * Bis auf marked sind alle Vorlagen azyklisch, ein Lauf endet also mit einer Verklemmung.
+ * <p>
+ * Aufruf: <code>java control.NetGenerator -template NAME -size N [-seed N] [-length N]
+ * [-branching N] [-fanin N] [-fanout N] [-tokens N] [-layout] [-o DATEI]</code>
+ * <p>
+ * Endet der Dateiname auf ".pnml", wird das Netz als PNML exportiert.
+ */
+public class NetGenerator {
+
+    // Vorlagen
+    static final String[] TEMPLATES = {"chain", "tree", "mesh", "random", "marked", "forkjoin", "conflict"};
+
+    private static final int BLOCKS_PER_LANE = 5;       // Fork/Join-Blöcke je Strang (forkjoin)
+    private static final int CONFLICT_WIDTH = 16;       // konkurrierende Transitionen je Gruppe (conflict)
+    private static final int RANDOM_LAYERS = 6;         // Anzahl an Stellen-Schichten (random)
+    private static final int RANDOM_LAYER_WIDTH = 32;   // Mindestanzahl an Stellen je Schicht (random)
+    private static final float OUTPUT_CAPACITY = 1e9f;  // Kapazität der Ausgabestellen
+
+    // Abstände der Elemente bei der automatischen Anordnung (in Pixeln)
+    private static final int LAYOUT_X = 110;
+    private static final int LAYOUT_Y = 100;
+
+    private Random random;
+    private int length = 10;            // Länge der Ketten und Ringe
+    private int branching = 2;          // Verzweigungsgrad (tree)
+    private int fanIn = 2;              // Eingänge je Transition (random)
+    private int fanOut = 2;             // Ausgänge je Transition (random)
+    private float tokens = 3;           // Anfangsmarkierung je Ring (marked)
+    private float inputValue = 100;     // Anfangswert der Eingabestellen
+    private float storageCapacity = 5;  // Kapazität der Allgemeinen Stellen
+
+    /**
+     * Erzeugt einen neuen Generator.
+     * @param seed Startwert für den Zufallsgenerator; gleiche Startwerte
+     * ergeben gleiche Netze
+     */
+    public NetGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        System.exit(generateFromArguments(args));
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus, erzeugt das Netz und speichert es.
+     * @return Rückgabewert für System.exit()
+     */
+    private static int generateFromArguments(String[] args) {
+        String template = null;
+        int size = -1;
+        long seed = 1;
+        boolean withLayout = false;
+        File outputFile = new File("generated.pnet");
+        NetGenerator generator;
+
+        try {
+            // erster Durchgang: Startwert, damit der Generator danach konfiguriert werden kann
+            for(int i = 0; i + 1 < args.length; i++) {
+                if(args[i].equals("-seed")) {
+                    seed = Long.parseLong(args[i + 1]);
+                }
+            }
+            generator = new NetGenerator(seed);
+
+            for(int i = 0; i < args.length; i++) {
+                String option = args[i];
+
+                if(option.equals("-layout")) {
+                    withLayout = true;
+                    continue;
+                }
+                if(i + 1 >= args.length) {
+                    throw new IllegalArgumentException(option);
+                }
+
+                String value = args[++i];
+                if(option.equals("-template")) {
+                    template = value;
+                }
+                else if(option.equals("-size")) {
+                    size = (int) Double.parseDouble(value);     // erlaubt auch 1e6
+                }
+                else if(option.equals("-seed")) {
+                    // bereits ausgewertet
+                }
+                else if(option.equals("-length")) {
+                    generator.setLength(Integer.parseInt(value));
+                }
+                else if(option.equals("-branching")) {
+                    generator.setBranching(Integer.parseInt(value));
+                }
+                else if(option.equals("-fanin")) {
+                    generator.setFanIn(Integer.parseInt(value));
+                }
+                else if(option.equals("-fanout")) {
+                    generator.setFanOut(Integer.parseInt(value));
+                }
+                else if(option.equals("-tokens")) {
+                    generator.setTokens(Float.parseFloat(value));
+                }
+                else if(option.equals("-o")) {
+                    outputFile = new File(value);
+                }
+                else {
+                    throw new IllegalArgumentException(option);
+                }
+            }
+
+            if(template == null || size < 1) {
+                throw new IllegalArgumentException();
+            }
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println("Usage: java control.NetGenerator -template chain|tree|mesh|random|marked|forkjoin|conflict -size N");
+            System.err.println("       [-seed N] [-length N] [-branching N] [-fanin N] [-fanout N] [-tokens N] [-layout] [-o FILE]");
+            return 2;
+        }
+
+        long start = System.nanoTime();
+        Logic model;
+        try {
+            model = generator.generate(template, size);
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        ArrayList<V_ElementRoot> viewElements = new ArrayList<V_ElementRoot>();
+        ArrayList<V_Link> viewLinks = new ArrayList<V_Link>();
+        if(withLayout == true) {
+            layout(model, viewElements, viewLinks);
+        }
+
+        try {
+            if(PNMLFile.isPNML(outputFile) == true) {
+                PNMLFile.save(outputFile, model, viewElements, viewLinks);
+            }
+            else {
+                NetFile.save(outputFile, model, viewElements, viewLinks);
+            }
+        }
+        catch(Exception e) {
+            System.err.println("Saving failed: " + outputFile + "\n" + e);
+            return 1;
+        }
+
+        System.out.println(String.format("%s: %d transitions, %d places, %d arcs (%.3f s)",
+                outputFile,
+                model.getElementsTransition().size(),
+                model.getElementsStorage().size() + model.getElementsInput().size() + model.getElementsOutput().size(),
+                model.getLinks().size(),
+                (System.nanoTime() - start) / 1e9));
+
+        return 0;
+    }
+
+    // Einstellungen
+
+    /**
+     * Stellt die Länge der Ketten (chain) und Ringe (marked) ein.
+     * @param length Anzahl an Transitionen je Kette bzw. Ring
+     */
+    public void setLength(int length) {
+        this.length = Math.max(1, length);
+    }
+
+    /**
+     * Stellt den Verzweigungsgrad der Bäume (tree) ein.
+     * @param branching Anzahl an Ausgängen je Transition
+     */
+    public void setBranching(int branching) {
+        this.branching = Math.max(1, branching);
+    }
+
+    /**
+     * Stellt die Anzahl an Eingängen je Transition für Zufallsnetze (random) ein.
+     * @param fanIn Anzahl an Eingängen
+     */
+    public void setFanIn(int fanIn) {
+        this.fanIn = Math.max(1, fanIn);
+    }
+
+    /**
+     * Stellt die Anzahl an Ausgängen je Transition für Zufallsnetze (random) ein.
+     * @param fanOut Anzahl an Ausgängen
+     */
+    public void setFanOut(int fanOut) {
+        this.fanOut = Math.max(1, fanOut);
+    }
+
+    /**
+     * Stellt die Anfangsmarkierung je Ring für Markierte Graphen (marked) ein.
+     * @param tokens Anzahl an Teilen im ersten Ring-Platz
+     */
+    public void setTokens(float tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Stellt den Anfangswert aller erzeugten Eingabestellen ein.
+     * @param inputValue Anfangswert
+     */
+    public void setInputValue(float inputValue) {
+        this.inputValue = inputValue;
+    }
+
+    /**
+     * Stellt die Kapazität aller erzeugten Allgemeinen Stellen ein.
+     * @param storageCapacity Kapazität
+     */
+    public void setStorageCapacity(float storageCapacity) {
+        this.storageCapacity = storageCapacity;
+    }
+
+    // Vorlagen
+
+    /**
+     * Erzeugt ein Netz nach der angegebenen Vorlage.
+     * @param template Name der Vorlage (siehe TEMPLATES)
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic generate(String template, int size) {
+        if(template.equals("chain")) {
+            return chain(size);
+        }
+        else if(template.equals("tree")) {
+            return tree(size);
+        }
+        else if(template.equals("mesh")) {
+            return mesh(size);
+        }
+        else if(template.equals("random")) {
+            return randomBipartite(size);
+        }
+        else if(template.equals("marked")) {
+            return markedGraph(size);
+        }
+        else if(template.equals("forkjoin")) {
+            return forkJoin(size);
+        }
+        else if(template.equals("conflict")) {
+            return conflict(size);
+        }
+        throw new IllegalArgumentException("Unknown template: " + template);
+    }
+
+    /**
+     * Unabhängige Ketten aus je length Transitionen:
+     * Eingabestelle -&gt; T -&gt; S -&gt; T -&gt; ... -&gt; T -&gt; Ausgabestelle.
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic chain(int size) {
+        Logic model = new Logic(null);
+
+        for(int done = 0; done < size; done += length) {
+            M_Pin previous = addInput(model);
+            for(int k = 0; k < length - 1; k++) {
+                previous = addTransitionToStorage(model, previous);
+            }
+            addTransitionToOutput(model, previous);
+        }
+
+        return model;
+    }
+
+    /**
+     * Baum aus Transitionen mit einem Eingang und branching Ausgängen, der von einer
+     * Eingabestelle ausgeht. Die Blätter geben an Ausgabestellen ab.
+     * @param size höchstens erzeugte Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic tree(int size) {
+        Logic model = new Logic(null);
+
+        ArrayDeque<M_Pin> open = new ArrayDeque<M_Pin>();   // noch nicht angeschlossene Stellen-Ausgänge
+        open.add(addInput(model));
+        int count = 0;
+
+        while(open.isEmpty() == false) {
+            M_PNTransition t = addTransition(model, 1, branching, open.poll());
+            count++;
+
+            for(int j = 0; j < branching; j++) {
+                // für jede offene Stelle ist noch eine Transition reserviert
+                if(count + open.size() + 1 <= size) {
+                    open.add(addStorage(model, t, 1 + j));
+                }
+                else {
+                    connectToOutput(model, t, 1 + j);
+                }
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Gitter aus Transitionen. Jede Transition nimmt von der Stelle über und links neben
+     * ihr und gibt an die Stelle unter und rechts neben ihr ab. Am oberen und linken Rand
+     * liegen Eingabestellen, am unteren und rechten Rand Ausgabestellen.
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic mesh(int size) {
+        Logic model = new Logic(null);
+
+        int width = Math.max(1, (int) Math.ceil(Math.sqrt(size)));
+        int height = Math.max(1, (size + width - 1) / width);
+
+        // Ausgänge der Stellen über der aktuellen Zeile (je Spalte)
+        M_Pin[] above = new M_Pin[width];
+        for(int c = 0; c < width; c++) {
+            above[c] = addInput(model);
+        }
+
+        for(int r = 0; r < height; r++) {
+            M_Pin left = addInput(model);
+
+            for(int c = 0; c < width; c++) {
+                M_PNTransition t = addTransition(model, 2, 2, above[c]);
+                model.connectElements(left, t.getAllPins()[1]);
+
+                // nach unten
+                if(r < height - 1) {
+                    above[c] = addStorage(model, t, 2);
+                }
+                else {
+                    connectToOutput(model, t, 2);
+                }
+
+                // nach rechts
+                if(c < width - 1) {
+                    left = addStorage(model, t, 3);
+                }
+                else {
+                    connectToOutput(model, t, 3);
+                }
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Geschichteter zufälliger bipartiter Graph. Jede Transition verbindet genau fanIn
+     * verschiedene Stellen einer Schicht mit genau fanOut verschiedenen Stellen der
+     * folgenden Schicht. Die erste Schicht besteht aus Eingabestellen, die letzte aus
+     * Ausgabestellen.
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic randomBipartite(int size) {
+        Logic model = new Logic(null);
+
+        // feste Anzahl an Schichten, die Breite wächst mit der Größe (bei vielen Schichten
+        // dünnt der Teilefluss zufällig aus und das Netz verklemmt vorzeitig)
+        int layers = Math.max(2, Math.min(RANDOM_LAYERS, size / RANDOM_LAYER_WIDTH + 1));
+        int perLayer = (size + layers - 2) / (layers - 1);
+        int width = Math.max(Math.max(RANDOM_LAYER_WIDTH, perLayer / 2), Math.max(fanIn, fanOut));
+
+        M_Pin[] current = new M_Pin[width];
+        for(int i = 0; i < width; i++) {
+            current[i] = addInput(model);
+        }
+
+        for(int l = 1; l < layers; l++) {
+            boolean last = l == layers - 1;
+
+            MI_Element[] next = new MI_Element[width];
+            for(int i = 0; i < width; i++) {
+                if(last == true) {
+                    M_PNPOutput output = new M_PNPOutput(OUTPUT_CAPACITY);
+                    model.loadPlaceOutput(output);
+                    next[i] = output;
+                }
+                else {
+                    M_PNPStorage storage = new M_PNPStorage(storageCapacity);
+                    model.loadPlaceStorage(storage);
+                    next[i] = storage;
+                }
+            }
+
+            int[] order = new int[width];
+            for(int k = 0; k < perLayer; k++) {
+                M_PNTransition t = new M_PNTransition(fanIn, fanOut);
+                model.loadTransition(t);
+
+                shuffle(order, fanIn);
+                for(int i = 0; i < fanIn; i++) {
+                    model.connectElements(current[order[i]], t.getAllPins()[i]);
+                }
+
+                shuffle(order, fanOut);
+                for(int i = 0; i < fanOut; i++) {
+                    model.connectElements(t.getAllPins()[fanIn + i], next[order[i]].getAllPins()[0]);
+                }
+            }
+
+            for(int i = 0; i < width && last == false; i++) {
+                current[i] = next[i].getAllPins()[1];
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Markierte Graphen: Ringe aus je length Transitionen und Allgemeinen Stellen, jede
+     * Stelle hat genau eine vorausgehende und eine nachfolgende Transition. Die erste
+     * Transition eines Ringes gibt zusätzlich an eine Ausgabestelle ab, so dass jede
+     * Umdrehung einen Schritt abschließt. Die erste Stelle eines Ringes erhält tokens Teile.
+     * <p>
+     * <b>ACHTUNG:</b> Die Ringe verklemmen nicht. Die Anfangsmarkierung gilt nur bis
+     * zum nächsten Logic.reset(), das Allgemeine Stellen leert.
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic markedGraph(int size) {
+        Logic model = new Logic(null);
+        int ringLength = Math.max(2, length);
+
+        for(int done = 0; done < size; done += ringLength) {
+            M_PNPStorage first = new M_PNPStorage(Math.max(storageCapacity, tokens));
+            model.loadPlaceStorage(first);
+            first.setValue(tokens);
+
+            M_Pin previous = first.getAllPins()[1];
+            for(int k = 0; k < ringLength; k++) {
+                M_PNTransition t = addTransition(model, 1, k == 0 ? 2 : 1, previous);
+
+                if(k == 0) {
+                    connectToOutput(model, t, 2);
+                }
+
+                if(k < ringLength - 1) {
+                    previous = addStorage(model, t, 1);
+                }
+                else {
+                    model.connectElements(t.getAllPins()[1], first.getAllPins()[0]);
+                }
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Stränge aus BLOCKS_PER_LANE Blöcken: Fork (1 -&gt; 2), zwei Zweige, Join (2 -&gt; 1).
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic forkJoin(int size) {
+        Logic model = new Logic(null);
+
+        for(int done = 0; done < size; done += 4 * BLOCKS_PER_LANE) {
+            M_Pin previous = addInput(model);
+
+            for(int b = 0; b < BLOCKS_PER_LANE; b++) {
+                M_PNTransition fork = addTransition(model, 1, 2, previous);
+                M_Pin left = addTransitionToStorage(model, addStorage(model, fork, 1));
+                M_Pin right = addTransitionToStorage(model, addStorage(model, fork, 2));
+
+                M_PNTransition join = new M_PNTransition(2, 1);
+                model.loadTransition(join);
+                model.connectElements(left, join.getAllPins()[0]);
+                model.connectElements(right, join.getAllPins()[1]);
+
+                if(b < BLOCKS_PER_LANE - 1) {
+                    previous = addStorage(model, join, 2);
+                }
+                else {
+                    connectToOutput(model, join, 2);
+                }
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Gruppen aus Zulauf -&gt; Stelle -&gt; CONFLICT_WIDTH konkurrierende Transitionen
+     * -&gt; Stelle -&gt; Ablauf.
+     * @param size ungefähre Anzahl an Transitionen
+     * @return erzeugte Logik
+     */
+    public Logic conflict(int size) {
+        Logic model = new Logic(null);
+
+        for(int done = 0; done < size; done += CONFLICT_WIDTH + 2) {
+            M_Pin shared = addTransitionToStorage(model, addInput(model));
+
+            M_PNPStorage collect = new M_PNPStorage(CONFLICT_WIDTH);
+            model.loadPlaceStorage(collect);
+            for(int k = 0; k < CONFLICT_WIDTH; k++) {
+                M_PNTransition t = addTransition(model, 1, 1, shared);
+                model.connectElements(t.getAllPins()[1], collect.getAllPins()[0]);
+            }
+
+            addTransitionToOutput(model, collect.getAllPins()[1]);
+        }
+
+        return model;
+    }
+
+    // Automatische Anordnung
+
+    /**
+     * Erzeugt die View zu einer Logik. Die Elemente werden in Ebenen angeordnet: die
+     * Ebene eines Elementes ist sein Abstand (in Kanten) zur nächsten Eingabestelle,
+     * die Ebenen liegen von oben nach unten, innerhalb einer Ebene von links nach rechts.
+     * Elemente, die von keiner Eingabestelle aus erreichbar sind (z.B. Ringe), werden
+     * von ihrem ersten Element aus angeordnet.
+     * @param model Logik, zu der die View erzeugt wird
+     * @param viewElements Liste, in die die View-Elemente eingefügt werden
+     * @param viewLinks Liste, in die die View-Kanten eingefügt werden
+     */
+    public static void layout(Logic model, ArrayList<V_ElementRoot> viewElements, ArrayList<V_Link> viewLinks) {
+
+        // Alle Elemente in fester Reihenfolge: Eingabestellen zuerst
+        ArrayList<MI_Element> all = new ArrayList<MI_Element>();
+        all.addAll(model.getElementsInput());
+        all.addAll(model.getElementsTransition());
+        all.addAll(model.getElementsStorage());
+        all.addAll(model.getElementsOutput());
+
+        IdentityHashMap<MI_Element, Integer> index = new IdentityHashMap<MI_Element, Integer>();
+        for(int i = 0; i < all.size(); i++) {
+            index.put(all.get(i), i);
+        }
+
+        // Nachfolger je Element (Adjazenzliste in Feldern)
+        ArrayList<M_Link> links = model.getLinks();
+        int[] successorStart = new int[all.size() + 1];
+        int[] successor = new int[links.size()];
+        int[] from = new int[links.size()];
+        int[] to = new int[links.size()];
+        for(int k = 0; k < links.size(); k++) {
+            M_Pin source = sourcePin(links.get(k));
+            M_Pin destination = destinationPin(links.get(k));
+            from[k] = index.get(source.getAssignedElement());
+            to[k] = index.get(destination.getAssignedElement());
+            successorStart[from[k] + 1]++;
+        }
+        for(int i = 0; i < all.size(); i++) {
+            successorStart[i + 1] += successorStart[i];
+        }
+        int[] fill = new int[all.size()];
+        System.arraycopy(successorStart, 0, fill, 0, all.size());
+        for(int k = 0; k < links.size(); k++) {
+            successor[fill[from[k]]++] = to[k];
+        }
+
+        // Ebenen per Breitensuche bestimmen
+        int[] level = new int[all.size()];
+        Arrays.fill(level, -1);
+        int[] queue = new int[all.size()];
+        int head = 0;
+        int tail = 0;
+
+        int numberOfInputs = model.getElementsInput().size();
+        for(int i = 0; i < numberOfInputs; i++) {
+            level[i] = 0;
+            queue[tail++] = i;
+        }
+
+        for(int start = 0; start < all.size(); start++) {
+            if(level[start] == -1) {
+                level[start] = 0;
+                queue[tail++] = start;
+            }
+            while(head < tail) {
+                int e = queue[head++];
+                for(int s = successorStart[e]; s < successorStart[e + 1]; s++) {
+                    if(level[successor[s]] == -1) {
+                        level[successor[s]] = level[e] + 1;
+                        queue[tail++] = successor[s];
+                    }
+                }
+            }
+        }
+
+        // View-Elemente anlegen
+        IdentityHashMap<M_Pin, V_Pin> viewPins = new IdentityHashMap<M_Pin, V_Pin>();
+        ArrayList<Integer> columns = new ArrayList<Integer>();  // nächste freie Spalte je Ebene
+
+        for(int i = 0; i < all.size(); i++) {
+            while(columns.size() <= level[i]) {
+                columns.add(0);
+            }
+            int column = columns.get(level[i]);
+            columns.set(level[i], column + 1);
+
+            int x = 40 + column * LAYOUT_X;
+            int y = 40 + level[i] * LAYOUT_Y;
+            MI_Element element = all.get(i);
+
+            V_ElementRoot viewElement;
+            switch(element.getElementIdent()) {
+            case TRANSITION:
+                viewElement = new V_PNTransition(x, y, element, null);
+                break;
+            case PLACE_INPUT:
+                viewElement = new V_PNPInput(x, y, element);
+                break;
+            case PLACE_OUTPUT:
+                viewElement = new V_PNPOutput(x, y, element);
+                break;
+            default:
+                viewElement = new V_PNPStorage(x, y, element);
+                break;
+            }
+            viewElements.add(viewElement);
+
+            M_Pin[] pins = element.getAllPins();
+            for(int p = 0; p < pins.length; p++) {
+                viewPins.put(pins[p], viewElement.getAllPins().get(p));
+            }
+        }
+
+        // View-Kanten anlegen
+        for(int k = 0; k < links.size(); k++) {
+            V_Pin source = viewPins.get(sourcePin(links.get(k)));
+            V_Pin destination = viewPins.get(destinationPin(links.get(k)));
+
+            V_Link viewLink = new V_Link(source);
+            viewLink.addPin(destination);
+            viewLink.setAssociatedLogicLink(links.get(k));
+            source.setAssignedLink(viewLink);
+            destination.setAssignedLink(viewLink);
+            viewLinks.add(viewLink);
+        }
+    }
+
+    // Hilfsfunktionen
+
+    /*
+     * Gibt den Ausgangs-Pin einer Kante zurück (unabhängig von deren Zuordnung in M_Link).
+     */
+    private static M_Pin sourcePin(M_Link link) {
+        M_Pin pin = (M_Pin) link.getSourcePin();
+        return pin.getPinType() == ME_PinType.OUTPUT ? pin : (M_Pin) link.getDestinationPin();
+    }
+
+    /*
+     * Gibt den Eingangs-Pin einer Kante zurück (unabhängig von deren Zuordnung in M_Link).
+     */
+    private static M_Pin destinationPin(M_Link link) {
+        M_Pin pin = (M_Pin) link.getSourcePin();
+        return pin.getPinType() == ME_PinType.INPUT ? pin : (M_Pin) link.getDestinationPin();
+    }
+
+    /*
+     * Wählt zufällig n verschiedene Indizes aus 0 .. order.length-1 und legt sie in order[0 .. n).
+     */
+    private void shuffle(int[] order, int n) {
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for(int i = 0; i < n; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    /*
+     * Legt eine Eingabestelle an und gibt ihren Ausgang zurück.
+     */
+    private M_Pin addInput(Logic model) {
+        M_PNPInput input = new M_PNPInput(inputValue);
+        model.loadPlaceInput(input);
+        return input.getAllPins()[0];
+    }
+
+    /*
+     * Legt eine Transition an und schließt ihren ersten Eingang an den übergebenen Pin an.
+     */
+    private static M_PNTransition addTransition(Logic model, int numberIn, int numberOut, M_Pin previous) {
+        M_PNTransition t = new M_PNTransition(numberIn, numberOut);
+        model.loadTransition(t);
+        model.connectElements(previous, t.getAllPins()[0]);
+        return t;
+    }
+
+    /*
+     * Legt eine Allgemeine Stelle hinter dem Pin pin der Transition an und gibt ihren Ausgang zurück.
+     */
+    private M_Pin addStorage(Logic model, M_PNTransition t, int pin) {
+        M_PNPStorage storage = new M_PNPStorage(storageCapacity);
+        model.loadPlaceStorage(storage);
+        model.connectElements(t.getAllPins()[pin], storage.getAllPins()[0]);
+        return storage.getAllPins()[1];
+    }
+
+    /*
+     * Legt eine Transition (1 -> 1) mit nachfolgender Allgemeiner Stelle an.
+     */
+    private M_Pin addTransitionToStorage(Logic model, M_Pin previous) {
+        return addStorage(model, addTransition(model, 1, 1, previous), 1);
+    }
+
+    /*
+     * Legt eine Transition (1 -> 1) mit nachfolgender Ausgabestelle an.
+     */
+    private static void addTransitionToOutput(Logic model, M_Pin previous) {
+        connectToOutput(model, addTransition(model, 1, 1, previous), 1);
+    }
+
+    /*
+     * Legt eine Ausgabestelle hinter dem Pin pin der Transition an.
+     */
+    private static void connectToOutput(Logic model, M_PNTransition t, int pin) {
+        M_PNPOutput output = new M_PNPOutput(OUTPUT_CAPACITY);
+        model.loadPlaceOutput(output);
+        model.connectElements(t.getAllPins()[pin], output.getAllPins()[0]);
+    }
+}
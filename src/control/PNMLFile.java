@@ -0,0 +1,923 @@
+package control;
+
+import java.awt.Point;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import model.ME_PinType;
+import model.MI_Element;
+import model.MI_Link;
+import model.M_ElementRoot;
+import model.M_Link;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_PNPStorage;
+import model.M_PNTransition;
+import model.M_Pin;
+import view.V_ElementRoot;
+import view.V_Link;
+import view.V_PNPInput;
+import view.V_PNPOutput;
+import view.V_PNPStorage;
+import view.V_PNTransition;
+import view.V_Pin;
+import view.V_Point;
+
+/**
+ * Import und Export von Petrinetzen im Austauschformat PNML (Stellen/Transitions-Netze).
+ * Stellen werden auf Allgemeine Stellen, Eingabe- und Ausgabestellen abgebildet, Transitionen
+ * auf M_PNTransition und Kanten auf M_Link; die Beschriftung einer Kante wird zum Gewicht des
+ * zugehörigen Transitions-Anschlusses, die Positionen (graphics) zu den Positionen der View.
+ * <p>
+ * Art, Kapazität und Haltezeit einer Stelle sowie die Verzögerung einer Transition kennt PNML
+ * nicht; sie werden beim Export in einem toolspecific-Block ("PSim") abgelegt. Fehlt dieser
+ * beim Import, wird die Art aus den Kanten abgeleitet: Stellen ohne eingehende Kanten werden
+ * Eingabestellen, Stellen ohne ausgehende Kanten Ausgabestellen, alle anderen Allgemeine
+ * Stellen (jeweils unbeschränkt). Transitionen ohne Vorbereich erhalten eine unerschöpfliche
+ * Eingabestelle, da eine Transition mindestens einen Eingang braucht.
+ * <p>
+ * Beide Richtungen arbeiten als Strom (StAX) ohne Dokumentbaum. Beim Import werden die
+ * gelesenen Daten bis zum Aufbau des Netzes nur in einfachen Feldern gehalten; danach wird
+ * das Netz in einem Zug in die Logik übernommen (Logic.loadNet()).
+ */
+public class PNMLFile {
+
+    static final String NAMESPACE = "http://www.pnml.org/version-2009/grammar/pnml";
+    static final String NET_TYPE = "http://www.pnml.org/version-2009/grammar/ptnet";
+    static final String TOOL = "PSim";
+    static final String TOOL_VERSION = "1.0";
+
+    // Kapazität von Stellen ohne Angabe (Stellen in PNML sind unbeschränkt)
+    static final float UNBOUNDED = Float.POSITIVE_INFINITY;
+
+    // Abstand einer beim Import ergänzten Eingabestelle über ihrer Transition
+    private static final int SOURCE_OFFSET = 80;
+
+    // Knotenarten
+    private static final byte NODE_UNKNOWN = 0;     // bisher nur referenziert
+    private static final byte NODE_PLACE = 1;
+    private static final byte NODE_TRANSITION = 2;
+    private static final byte NODE_REFERENCE = 3;   // referencePlace / referenceTransition
+
+    // Stellenarten
+    private static final byte KIND_NONE = 0;        // aus den Kanten ableiten
+    private static final byte KIND_STORAGE = 1;
+    private static final byte KIND_INPUT = 2;
+    private static final byte KIND_OUTPUT = 3;
+
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+
+    /**
+     * Prüft anhand der Endung, ob es sich um eine PNML-Datei handelt.
+     * @param file zu prüfende Datei
+     * @return true bei der Endung ".pnml", sonst false
+     */
+    public static boolean isPNML(File file) {
+        return file.getName().toLowerCase().endsWith(".pnml");
+    }
+
+    /**
+     * Exportiert das Petrinetz als PNML in die übergebene Datei.
+     * @param file Zieldatei
+     * @param model Logik des Netzes
+     * @param viewElements Elemente der View (Positionen), darf leer sein
+     * @param viewLinks Kanten der View (Zwischenpunkte), darf leer sein
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public static void save(File file, Logic model, ArrayList<V_ElementRoot> viewElements, ArrayList<V_Link> viewLinks) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+
+        try {
+            XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+            writeNet(writer, model, viewElements, viewLinks);
+            writer.close();
+        }
+        catch(XMLStreamException e) {
+            throw new IOException("Writing PNML failed: " + e.getMessage(), e);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /*
+     * Schreibt das komplette PNML-Dokument.
+     */
+    private static void writeNet(XMLStreamWriter writer, Logic model, ArrayList<V_ElementRoot> viewElements, ArrayList<V_Link> viewLinks) throws XMLStreamException {
+
+        // Zuordnungen zur View
+        IdentityHashMap<MI_Element, V_ElementRoot> viewOf = new IdentityHashMap<MI_Element, V_ElementRoot>();
+        IdentityHashMap<V_Pin, V_ElementRoot> pointOf = new IdentityHashMap<V_Pin, V_ElementRoot>();
+        for(int i = 0; i < viewElements.size(); i++) {
+            V_ElementRoot viewElement = viewElements.get(i);
+            if(viewElement.isPoint() == true) {
+                pointOf.put(viewElement.getAllPins().get(0), viewElement);
+            }
+            else {
+                viewOf.put(viewElement.getElementLogic(), viewElement);
+            }
+        }
+
+        IdentityHashMap<MI_Link, V_Link> viewLinkOf = new IdentityHashMap<MI_Link, V_Link>();
+        for(int i = 0; i < viewLinks.size(); i++) {
+            viewLinkOf.put(viewLinks.get(i).getAssociatedLogicLink(), viewLinks.get(i));
+        }
+
+        // Namen der Elemente (wie in der Ausgabe von StartUpBatch)
+        IdentityHashMap<MI_Element, String> ids = new IdentityHashMap<MI_Element, String>();
+        nameElements(ids, "T", model.getElementsTransition());
+        nameElements(ids, "S", model.getElementsStorage());
+        nameElements(ids, "I", model.getElementsInput());
+        nameElements(ids, "O", model.getElementsOutput());
+
+        writer.writeStartDocument("UTF-8", "1.0");
+        newLine(writer, 0);
+        writer.writeStartElement("pnml");
+        writer.writeDefaultNamespace(NAMESPACE);
+        newLine(writer, 1);
+        writer.writeStartElement("net");
+        writer.writeAttribute("id", "net1");
+        writer.writeAttribute("type", NET_TYPE);
+        newLine(writer, 2);
+        writer.writeStartElement("page");
+        writer.writeAttribute("id", "page1");
+
+        /*
+         * Stellen
+         */
+        ArrayList<MI_Element> places = model.getElementsStorage();
+        for(int i = 0; i < places.size(); i++) {
+            M_PNPStorage storage = (M_PNPStorage) places.get(i);
+            writePlace(writer, ids.get(storage), "storage", storage.getValue(), storage.getCapacity(), storage.getHoldingTime(), viewOf.get(storage));
+        }
+
+        places = model.getElementsInput();
+        for(int i = 0; i < places.size(); i++) {
+            M_PNPInput input = (M_PNPInput) places.get(i);
+            writePlace(writer, ids.get(input), "input", input.getOrgValue(), UNBOUNDED, 0, viewOf.get(input));
+        }
+
+        places = model.getElementsOutput();
+        for(int i = 0; i < places.size(); i++) {
+            M_PNPOutput output = (M_PNPOutput) places.get(i);
+            writePlace(writer, ids.get(output), "output", output.getValue(), output.getCapacity(), 0, viewOf.get(output));
+        }
+
+        /*
+         * Transitionen
+         */
+        ArrayList<MI_Element> transitions = model.getElementsTransition();
+        for(int i = 0; i < transitions.size(); i++) {
+            M_PNTransition transition = (M_PNTransition) transitions.get(i);
+            newLine(writer, 3);
+            writer.writeStartElement("transition");
+            writer.writeAttribute("id", ids.get(transition));
+            writeName(writer, ids.get(transition));
+            writePosition(writer, viewOf.get(transition));
+            if(transition.getDelay() != 1) {
+                newLine(writer, 4);
+                writer.writeStartElement("toolspecific");
+                writer.writeAttribute("tool", TOOL);
+                writer.writeAttribute("version", TOOL_VERSION);
+                writer.writeEmptyElement("transition");
+                writer.writeAttribute("delay", formatNumber(transition.getDelay()));
+                writer.writeEndElement();
+            }
+            newLine(writer, 3);
+            writer.writeEndElement();
+        }
+
+        /*
+         * Kanten, je Transition in der Reihenfolge ihrer Anschlüsse (damit beim Import
+         * dieselben Anschlüsse belegt werden)
+         */
+        int arcNumber = 0;
+        for(int i = 0; i < transitions.size(); i++) {
+            M_PNTransition transition = (M_PNTransition) transitions.get(i);
+            M_Pin[] pins = transition.getAllPins();
+
+            for(int k = 0; k < pins.length; k++) {
+                if(pins[k].isConnected() == false) {
+                    continue;
+                }
+
+                MI_Link link = pins[k].getAssignedLink(0);
+                MI_Element place = pins[k].getComplementPin().getAssignedElement();
+                float weight;
+
+                newLine(writer, 3);
+                writer.writeStartElement("arc");
+                writer.writeAttribute("id", "A" + (++arcNumber));
+                if(pins[k].getPinType() == ME_PinType.INPUT) {
+                    writer.writeAttribute("source", ids.get(place));
+                    writer.writeAttribute("target", ids.get(transition));
+                    weight = transition.getInputWeight(k);
+                }
+                else {
+                    writer.writeAttribute("source", ids.get(transition));
+                    writer.writeAttribute("target", ids.get(place));
+                    weight = transition.getOutputWeight(k - transition.getNumberOfInputs());
+                }
+
+                // Zwischenpunkte
+                V_Link viewLink = viewLinkOf.get(link);
+                if(viewLink != null && viewLink.getAllPins().size() > 2) {
+                    ArrayList<V_Pin> linkPins = viewLink.getAllPins();
+                    newLine(writer, 4);
+                    writer.writeStartElement("graphics");
+                    for(int p = 1; p < linkPins.size() - 1; p++) {
+                        V_ElementRoot point = pointOf.get(linkPins.get(p));
+                        if(point != null) {
+                            newLine(writer, 5);
+                            writer.writeEmptyElement("position");
+                            writer.writeAttribute("x", Integer.toString(point.getMidX()));
+                            writer.writeAttribute("y", Integer.toString(point.getMidY()));
+                        }
+                    }
+                    newLine(writer, 4);
+                    writer.writeEndElement();
+                }
+
+                if(weight != 1) {
+                    newLine(writer, 4);
+                    writer.writeStartElement("inscription");
+                    writeText(writer, weight);
+                    writer.writeEndElement();
+                }
+
+                if(viewLink != null && viewLink.getAllPins().size() > 2 || weight != 1) {
+                    newLine(writer, 3);
+                }
+                writer.writeEndElement();
+            }
+        }
+
+        newLine(writer, 2);
+        writer.writeEndElement();   // page
+        newLine(writer, 1);
+        writer.writeEndElement();   // net
+        newLine(writer, 0);
+        writer.writeEndElement();   // pnml
+        newLine(writer, 0);
+        writer.writeEndDocument();
+    }
+
+    /*
+     * Schreibt eine Stelle.
+     */
+    private static void writePlace(XMLStreamWriter writer, String id, String kind, float value, float capacity, float holdingTime, V_ElementRoot viewElement) throws XMLStreamException {
+        newLine(writer, 3);
+        writer.writeStartElement("place");
+        writer.writeAttribute("id", id);
+        writeName(writer, id);
+        writePosition(writer, viewElement);
+
+        if(value != 0) {
+            newLine(writer, 4);
+            writer.writeStartElement("initialMarking");
+            writeText(writer, value);
+            writer.writeEndElement();
+        }
+
+        newLine(writer, 4);
+        writer.writeStartElement("toolspecific");
+        writer.writeAttribute("tool", TOOL);
+        writer.writeAttribute("version", TOOL_VERSION);
+        writer.writeEmptyElement("place");
+        writer.writeAttribute("kind", kind);
+        if(capacity != UNBOUNDED) {
+            writer.writeAttribute("capacity", formatNumber(capacity));
+        }
+        if(holdingTime != 0) {
+            writer.writeAttribute("holding", formatNumber(holdingTime));
+        }
+        writer.writeEndElement();
+
+        newLine(writer, 3);
+        writer.writeEndElement();
+    }
+
+    private static void writeName(XMLStreamWriter writer, String name) throws XMLStreamException {
+        newLine(writer, 4);
+        writer.writeStartElement("name");
+        writer.writeStartElement("text");
+        writer.writeCharacters(name);
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    /*
+     * Schreibt die Position (Mittelpunkt) eines Knotens, sofern er in der View vorkommt.
+     */
+    private static void writePosition(XMLStreamWriter writer, V_ElementRoot viewElement) throws XMLStreamException {
+        if(viewElement == null) {
+            return;
+        }
+        newLine(writer, 4);
+        writer.writeStartElement("graphics");
+        writer.writeEmptyElement("position");
+        writer.writeAttribute("x", Integer.toString(viewElement.getMidX()));
+        writer.writeAttribute("y", Integer.toString(viewElement.getMidY()));
+        writer.writeEndElement();
+    }
+
+    private static void writeText(XMLStreamWriter writer, float number) throws XMLStreamException {
+        writer.writeStartElement("text");
+        writer.writeCharacters(formatNumber(number));
+        writer.writeEndElement();
+    }
+
+    /*
+     * Ganze Zahlen ohne Nachkommastellen, da PNML für Markierungen und Gewichte
+     * natürliche Zahlen erwartet.
+     */
+    private static String formatNumber(float number) {
+        if(number == Math.rint(number) && Math.abs(number) < 1e15f) {
+            return Long.toString((long) number);
+        }
+        return Float.toString(number);
+    }
+
+    private static void newLine(XMLStreamWriter writer, int depth) throws XMLStreamException {
+        StringBuilder indent = new StringBuilder("\n");
+        for(int i = 0; i < depth; i++) {
+            indent.append("  ");
+        }
+        writer.writeCharacters(indent.toString());
+    }
+
+    private static void nameElements(IdentityHashMap<MI_Element, String> ids, String prefix, ArrayList<MI_Element> elements) {
+        for(int i = 0; i < elements.size(); i++) {
+            ids.put(elements.get(i), prefix + (i + 1));
+        }
+    }
+
+    /**
+     * Importiert ein Petrinetz aus einer PNML-Datei in die (zuvor geleerte) Logik. Ist
+     * drawingArea null, wird nur die Logik aufgebaut. Enthält die Datei keine Positionen,
+     * wird die View automatisch angeordnet (NetGenerator.layout()).
+     * @param file Quelldatei
+     * @param model Logik, in die das Netz geladen wird
+     * @param drawingArea Zeichenfläche, in die die View geladen wird, oder null
+     * @throws IOException wenn das Lesen fehlschlägt oder die Datei kein gültiges Netz enthält
+     */
+    public static void load(File file, Logic model, GUI_DrawingArea drawingArea) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        NetData net = new NetData();
+
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                readNet(reader, net);
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch(XMLStreamException e) {
+            throw new IOException("Invalid PNML file " + file + ": " + e.getMessage(), e);
+        }
+        finally {
+            in.close();
+        }
+
+        buildNet(net, model, drawingArea);
+    }
+
+    /*
+     * Liest das Dokument und sammelt Knoten und Kanten in net.
+     */
+    private static void readNet(XMLStreamReader reader, NetData net) throws XMLStreamException, IOException {
+        ArrayList<String> path = new ArrayList<String>();   // geöffnete Elemente
+        int node = -1;      // aktueller Knoten (Stelle oder Transition)
+        int arc = -1;       // aktuelle Kante
+
+        while(reader.hasNext() == true) {
+            int event = reader.next();
+
+            if(event == XMLStreamConstants.END_ELEMENT) {
+                String name = path.remove(path.size() - 1);
+                if(name.equals("place") || name.equals("transition")) {
+                    node = -1;
+                }
+                else if(name.equals("arc")) {
+                    arc = -1;
+                }
+                continue;
+            }
+            if(event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            String parent = path.isEmpty() ? "" : path.get(path.size() - 1);
+
+            if(parent.equals("toolspecific")) {
+                // eigene Angabe (fremde toolspecific-Blöcke werden gar nicht betreten)
+                if((name.equals("place") || name.equals("transition")) && node != -1) {
+                    readToolInfo(reader, net, node);
+                }
+                skipElement(reader);
+                continue;
+            }
+
+            if(name.equals("name") || (name.equals("toolspecific") && TOOL.equals(reader.getAttributeValue(null, "tool")) == false)) {
+                // Namen und Angaben anderer Werkzeuge werden nicht gebraucht
+                skipElement(reader);
+                continue;
+            }
+
+            if(name.equals("place") || name.equals("transition")) {
+                node = net.defineNode(requiredAttribute(reader, "id"), name.equals("place") ? NODE_PLACE : NODE_TRANSITION);
+            }
+            else if(name.equals("referencePlace") || name.equals("referenceTransition")) {
+                int reference = net.defineNode(requiredAttribute(reader, "id"), NODE_REFERENCE);
+                net.alias[reference] = net.nodeNumber(requiredAttribute(reader, "ref"));
+            }
+            else if(name.equals("arc")) {
+                arc = net.addArc(net.nodeNumber(requiredAttribute(reader, "source")),
+                        net.nodeNumber(requiredAttribute(reader, "target")));
+            }
+            else if(name.equals("position") && parent.equals("graphics") && path.size() >= 2) {
+                String owner = path.get(path.size() - 2);
+                int x = Math.round(parseNumber(requiredAttribute(reader, "x")));
+                int y = Math.round(parseNumber(requiredAttribute(reader, "y")));
+                if(owner.equals("arc") && arc != -1) {
+                    net.addArcPoint(x, y);
+                }
+                else if((owner.equals("place") || owner.equals("transition")) && node != -1) {
+                    net.x[node] = x;
+                    net.y[node] = y;
+                }
+            }
+            else if(name.equals("text") && (parent.equals("initialMarking") || parent.equals("inscription"))) {
+                float number = parseNumber(reader.getElementText());
+                if(parent.equals("initialMarking") && node != -1) {
+                    net.marking[node] = number;
+                }
+                else if(parent.equals("inscription") && arc != -1) {
+                    net.arcWeight[arc] = number;
+                }
+                continue;   // getElementText() hat das Element bereits geschlossen
+            }
+
+            path.add(name);
+        }
+    }
+
+    /*
+     * Übernimmt die eigene Angabe (Art, Kapazität und Haltezeit) einer Stelle bzw. die
+     * Verzögerung einer Transition.
+     */
+    private static void readToolInfo(XMLStreamReader reader, NetData net, int node) throws IOException {
+        String kind = reader.getAttributeValue(null, "kind");
+        if("storage".equals(kind)) {
+            net.kind[node] = KIND_STORAGE;
+        }
+        else if("input".equals(kind)) {
+            net.kind[node] = KIND_INPUT;
+        }
+        else if("output".equals(kind)) {
+            net.kind[node] = KIND_OUTPUT;
+        }
+
+        String capacity = reader.getAttributeValue(null, "capacity");
+        if(capacity != null) {
+            net.capacity[node] = parseNumber(capacity);
+        }
+
+        String time = reader.getAttributeValue(null, net.type[node] == NODE_TRANSITION ? "delay" : "holding");
+        if(time != null) {
+            net.time[node] = parseNumber(time);
+            if((net.time[node] >= 0) == false || Float.isInfinite(net.time[node]) == true) {
+                throw new IOException("Invalid time in PNML file: '" + time.trim() + "' (must be finite and not negative)");
+            }
+        }
+    }
+
+    /*
+     * Baut aus den gelesenen Daten Logik und (falls gewünscht) View auf.
+     */
+    private static void buildNet(NetData net, Logic model, GUI_DrawingArea drawingArea) throws IOException {
+
+        // Referenzknoten auflösen, Kanten prüfen und je Knoten zählen
+        int[] arcsIn = new int[net.nodes];
+        int[] arcsOut = new int[net.nodes];
+        for(int a = 0; a < net.arcs; a++) {
+            int source = net.resolve(net.arcSource[a]);
+            int target = net.resolve(net.arcTarget[a]);
+            if(net.type[source] == net.type[target]) {
+                throw new IOException("PNML arc from '" + net.names[source] + "' to '" + net.names[target]
+                        + "' connects two " + (net.type[source] == NODE_PLACE ? "places" : "transitions"));
+            }
+            net.arcSource[a] = source;
+            net.arcTarget[a] = target;
+            arcsOut[source]++;
+            arcsIn[target]++;
+        }
+
+        /*
+         * Elemente anlegen
+         */
+        M_ElementRoot[] elements = new M_ElementRoot[net.nodes];
+        ArrayList<M_ElementRoot> transitions = new ArrayList<M_ElementRoot>();
+        ArrayList<M_ElementRoot> storages = new ArrayList<M_ElementRoot>();
+        ArrayList<M_ElementRoot> inputs = new ArrayList<M_ElementRoot>();
+        ArrayList<M_ElementRoot> outputs = new ArrayList<M_ElementRoot>();
+
+        for(int n = 0; n < net.nodes; n++) {
+            if(net.type[n] == NODE_TRANSITION) {
+                M_PNTransition transition = new M_PNTransition(Math.max(1, arcsIn[n]), arcsOut[n]);
+                if(Float.isNaN(net.time[n]) == false) {
+                    transition.setDelay(net.time[n]);
+                }
+                elements[n] = transition;
+                transitions.add(transition);
+            }
+            else if(net.type[n] == NODE_PLACE) {
+                byte kind = net.kind[n];
+
+                // Angabe passt nicht zu den Kanten: Art aus den Kanten ableiten
+                if((kind == KIND_INPUT && arcsIn[n] > 0) || (kind == KIND_OUTPUT && arcsOut[n] > 0)) {
+                    kind = KIND_NONE;
+                }
+                if(kind == KIND_NONE) {
+                    if(arcsIn[n] == 0 && arcsOut[n] > 0) {
+                        kind = KIND_INPUT;
+                    }
+                    else if(arcsOut[n] == 0 && arcsIn[n] > 0) {
+                        kind = KIND_OUTPUT;
+                    }
+                    else {
+                        kind = KIND_STORAGE;
+                    }
+                }
+
+                float capacity = Float.isNaN(net.capacity[n]) ? UNBOUNDED : net.capacity[n];
+
+                if(kind == KIND_INPUT) {
+                    elements[n] = new M_PNPInput(net.marking[n]);
+                    inputs.add(elements[n]);
+                }
+                else if(kind == KIND_OUTPUT) {
+                    M_PNPOutput output = new M_PNPOutput(capacity);
+                    output.setValue(net.marking[n]);
+                    elements[n] = output;
+                    outputs.add(output);
+                }
+                else {
+                    M_PNPStorage storage = new M_PNPStorage(capacity);
+                    storage.setValue(net.marking[n]);
+                    if(Float.isNaN(net.time[n]) == false) {
+                        storage.setHoldingTime(net.time[n]);
+                    }
+                    elements[n] = storage;
+                    storages.add(storage);
+                }
+            }
+        }
+
+        /*
+         * Kanten anlegen; die Anschlüsse einer Transition werden in der Reihenfolge
+         * ihrer Kanten belegt
+         */
+        ArrayList<M_Link> links = new ArrayList<M_Link>(net.arcs);
+        int[] nextIn = new int[net.nodes];      // nächster freier Eingang je Transition
+        int[] nextOut = new int[net.nodes];     // nächster freier Ausgang je Transition
+
+        for(int a = 0; a < net.arcs; a++) {
+            int source = net.arcSource[a];
+            int target = net.arcTarget[a];
+            M_Link link = new M_Link();
+
+            if(net.type[source] == NODE_PLACE) {
+                M_PNTransition transition = (M_PNTransition) elements[target];
+                int k = nextIn[target]++;
+                transition.setInputWeight(k, net.arcWeight[a]);
+                link.setLink(placePin(elements[source], ME_PinType.OUTPUT), transition.getAllPins()[k]);
+            }
+            else {
+                M_PNTransition transition = (M_PNTransition) elements[source];
+                int k = nextOut[source]++;
+                transition.setOutputWeight(k, net.arcWeight[a]);
+                link.setLink(transition.getAllPins()[transition.getNumberOfInputs() + k], placePin(elements[target], ME_PinType.INPUT));
+            }
+            links.add(link);
+        }
+
+        // Transitionen ohne Vorbereich an eine unerschöpfliche Eingabestelle anschließen
+        ArrayList<M_ElementRoot> sources = new ArrayList<M_ElementRoot>();
+        for(int n = 0; n < net.nodes; n++) {
+            if(net.type[n] == NODE_TRANSITION && arcsIn[n] == 0) {
+                M_PNPInput input = new M_PNPInput(UNBOUNDED);
+                M_Link link = new M_Link();
+                link.setLink(input.getAllPins()[0], elements[n].getAllPins()[0]);
+                inputs.add(input);
+                links.add(link);
+                sources.add(input);
+            }
+        }
+
+        // alles in einem Zug in die Logik übernehmen
+        model.loadNet(transitions, storages, inputs, outputs, links);
+
+        // raus, wenn nur die Logik gebraucht wird
+        if(drawingArea == null) {
+            return;
+        }
+
+        /*
+         * View aufbauen
+         */
+        boolean hasPositions = false;
+        for(int n = 0; n < net.nodes && hasPositions == false; n++) {
+            hasPositions = elements[n] != null && net.x[n] != NO_POSITION;
+        }
+
+        // ohne Positionen automatisch anordnen
+        if(hasPositions == false) {
+            ArrayList<V_ElementRoot> viewElements = new ArrayList<V_ElementRoot>();
+            ArrayList<V_Link> viewLinks = new ArrayList<V_Link>();
+            NetGenerator.layout(model, viewElements, viewLinks);
+            for(int i = 0; i < viewElements.size(); i++) {
+                drawingArea.loadElement(viewElements.get(i));
+            }
+            for(int i = 0; i < viewLinks.size(); i++) {
+                drawingArea.loadLink(viewLinks.get(i));
+            }
+            return;
+        }
+
+        // Elemente (fehlende Positionen werden zu 0)
+        IdentityHashMap<M_Pin, V_Pin> viewPins = new IdentityHashMap<M_Pin, V_Pin>();
+        int source = 0;
+        for(int n = 0; n < net.nodes; n++) {
+            if(elements[n] == null) {
+                continue;
+            }
+            int x = net.x[n] != NO_POSITION ? net.x[n] : 0;
+            int y = net.y[n] != NO_POSITION ? net.y[n] : 0;
+            loadViewElement(drawingArea, viewPins, elements[n], x, y);
+
+            if(net.type[n] == NODE_TRANSITION && arcsIn[n] == 0) {
+                // ergänzte Eingabestelle über der Transition
+                loadViewElement(drawingArea, viewPins, sources.get(source++), x, Math.max(0, y - SOURCE_OFFSET));
+            }
+        }
+
+        // Kanten samt Zwischenpunkten
+        for(int i = 0; i < links.size(); i++) {
+            M_Link link = links.get(i);
+            M_Pin sourcePin = (M_Pin) link.getDestinationPin();     // Zuordnung in M_Link vertauscht
+            M_Pin destinationPin = (M_Pin) link.getSourcePin();
+            if(sourcePin.getPinType() != ME_PinType.OUTPUT) {
+                sourcePin = (M_Pin) link.getSourcePin();
+                destinationPin = (M_Pin) link.getDestinationPin();
+            }
+
+            V_Pin first = viewPins.get(sourcePin);
+            V_Pin last = viewPins.get(destinationPin);
+            V_Link viewLink = new V_Link(first);
+
+            if(i < net.arcs) {
+                for(int p = net.arcPointStart[i]; p < net.arcPointStart[i + 1]; p += 2) {
+                    V_Point point = new V_Point(net.points[p], net.points[p + 1], viewLink);
+                    centerAt(point, net.points[p], net.points[p + 1]);
+                    drawingArea.loadElement(point);
+                    viewLink.addPin(point.getAllPins().get(0));
+                }
+            }
+
+            viewLink.addPin(last);
+            viewLink.setAssociatedLogicLink(link);
+            first.setAssignedLink(viewLink);
+            last.setAssignedLink(viewLink);
+            drawingArea.loadLink(viewLink);
+        }
+    }
+
+    /*
+     * Gibt den Anschluss einer Stelle mit dem übergebenen Typ zurück.
+     */
+    private static M_Pin placePin(M_ElementRoot place, ME_PinType type) {
+        M_Pin[] pins = place.getAllPins();
+        for(int i = 0; i < pins.length; i++) {
+            if(pins[i].getPinType() == type) {
+                return pins[i];
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Legt das View-Element zu einem Logik-Element mit dem Mittelpunkt (x, y) an und
+     * übergibt es der Zeichenfläche.
+     */
+    private static void loadViewElement(GUI_DrawingArea drawingArea, IdentityHashMap<M_Pin, V_Pin> viewPins, M_ElementRoot element, int x, int y) {
+        V_ElementRoot viewElement;
+        switch(element.getElementIdent()) {
+        case TRANSITION:
+            viewElement = new V_PNTransition(x, y, element, null);
+            break;
+        case PLACE_INPUT:
+            viewElement = new V_PNPInput(x, y, element);
+            break;
+        case PLACE_OUTPUT:
+            viewElement = new V_PNPOutput(x, y, element);
+            break;
+        default:
+            viewElement = new V_PNPStorage(x, y, element);
+            break;
+        }
+        centerAt(viewElement, x, y);
+        drawingArea.loadElement(viewElement);
+
+        M_Pin[] pins = element.getAllPins();
+        for(int p = 0; p < pins.length; p++) {
+            viewPins.put(pins[p], viewElement.getAllPins().get(p));
+        }
+    }
+
+    /*
+     * Verschiebt ein (an (x, y) angelegtes) View-Element so, dass sein Mittelpunkt auf
+     * (x, y) liegt; PNML gibt Mittelpunkte an, die View linke obere Ecken.
+     */
+    private static void centerAt(V_ElementRoot viewElement, int x, int y) {
+        viewElement.setPosition(new Point(2 * x - viewElement.getMidX(), 2 * y - viewElement.getMidY()));
+    }
+
+
+    /*
+     * Überspringt das aktuelle Element samt Inhalt.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String requiredAttribute(XMLStreamReader reader, String name) throws IOException {
+        String value = reader.getAttributeValue(null, name);
+        if(value == null) {
+            throw new IOException("PNML element <" + reader.getLocalName() + "> without attribute '" + name + "' (line "
+                    + reader.getLocation().getLineNumber() + ")");
+        }
+        return value;
+    }
+
+    private static float parseNumber(String text) throws IOException {
+        try {
+            return Float.parseFloat(text.trim());
+        }
+        catch(NumberFormatException e) {
+            throw new IOException("Invalid number in PNML file: '" + text.trim() + "'");
+        }
+    }
+
+    /*
+     * Beim Import gesammelte Knoten und Kanten in einfachen Feldern. Knoten werden beim
+     * ersten Auftreten ihres Namens nummeriert, auch wenn sie erst später definiert werden
+     * (Kanten dürfen vor ihren Knoten stehen).
+     */
+    private static class NetData {
+        HashMap<String, Integer> numbers = new HashMap<String, Integer>();
+        String[] names = new String[64];
+        byte[] type = new byte[64];
+        int[] alias = new int[64];
+        float[] marking = new float[64];
+        float[] capacity = new float[64];
+        float[] time = new float[64];       // Verzögerung (Transition) bzw. Haltezeit (Stelle)
+        byte[] kind = new byte[64];
+        int[] x = new int[64];
+        int[] y = new int[64];
+        int nodes;
+
+        int[] arcSource = new int[64];
+        int[] arcTarget = new int[64];
+        float[] arcWeight = new float[64];
+        int[] arcPointStart = new int[65];
+        int[] points = new int[64];         // x, y abwechselnd
+        int arcs;
+        int pointValues;
+
+        /*
+         * Gibt die Nummer des Knotens mit dem übergebenen Namen zurück und vergibt sie bei Bedarf.
+         */
+        int nodeNumber(String id) {
+            Integer number = numbers.get(id);
+            if(number != null) {
+                return number;
+            }
+
+            if(nodes == names.length) {
+                int length = 2 * nodes;
+                names = Arrays.copyOf(names, length);
+                type = Arrays.copyOf(type, length);
+                alias = Arrays.copyOf(alias, length);
+                marking = Arrays.copyOf(marking, length);
+                capacity = Arrays.copyOf(capacity, length);
+                time = Arrays.copyOf(time, length);
+                kind = Arrays.copyOf(kind, length);
+                x = Arrays.copyOf(x, length);
+                y = Arrays.copyOf(y, length);
+            }
+
+            int n = nodes++;
+            numbers.put(id, n);
+            names[n] = id;
+            type[n] = NODE_UNKNOWN;
+            alias[n] = -1;
+            marking[n] = 0;
+            capacity[n] = Float.NaN;
+            time[n] = Float.NaN;
+            kind[n] = KIND_NONE;
+            x[n] = NO_POSITION;
+            y[n] = NO_POSITION;
+            return n;
+        }
+
+        /*
+         * Definiert einen Knoten; jeder Name darf nur einmal definiert werden.
+         */
+        int defineNode(String id, byte nodeType) throws IOException {
+            int n = nodeNumber(id);
+            if(type[n] != NODE_UNKNOWN) {
+                throw new IOException("Duplicate PNML id '" + id + "'");
+            }
+            type[n] = nodeType;
+            return n;
+        }
+
+        /*
+         * Folgt Referenzknoten bis zur eigentlichen Stelle bzw. Transition.
+         */
+        int resolve(int n) throws IOException {
+            int start = n;
+            for(int hops = 0; type[n] == NODE_REFERENCE && hops < nodes; hops++) {
+                n = alias[n];
+            }
+            if(type[n] != NODE_PLACE && type[n] != NODE_TRANSITION) {
+                throw new IOException("Unknown PNML node '" + names[start] + "'");
+            }
+            return n;
+        }
+
+        int addArc(int source, int target) {
+            if(arcs == arcSource.length) {
+                int length = 2 * arcs;
+                arcSource = Arrays.copyOf(arcSource, length);
+                arcTarget = Arrays.copyOf(arcTarget, length);
+                arcWeight = Arrays.copyOf(arcWeight, length);
+                arcPointStart = Arrays.copyOf(arcPointStart, length + 1);
+            }
+            arcSource[arcs] = source;
+            arcTarget[arcs] = target;
+            arcWeight[arcs] = 1;
+            arcPointStart[arcs] = pointValues;
+            arcs++;
+            arcPointStart[arcs] = pointValues;
+            return arcs - 1;
+        }
+
+        /*
+         * Fügt der zuletzt gelesenen Kante einen Zwischenpunkt hinzu.
+         */
+        void addArcPoint(int px, int py) {
+            if(pointValues + 2 > points.length) {
+                points = Arrays.copyOf(points, 2 * points.length);
+            }
+            points[pointValues++] = px;
+            points[pointValues++] = py;
+            arcPointStart[arcs] = pointValues;
+        }
+    }
+}
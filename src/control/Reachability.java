@@ -0,0 +1,371 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import model.MI_ApproximateStateStore;
+import model.MI_Place;
+import model.M_BitStateStore;
+import model.M_CompiledNet;
+import model.M_DiskStateStore;
+import model.M_HashCompactionStore;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_StateSpace;
+import model.M_SymbolicStateSpace;
+
+/**
+ * Startklasse für die Erkundung des Zustandsraums eines gespeicherten Netzes ohne
+ * Oberfläche (M_StateSpace). Ausgehend von der gespeicherten Markierung werden alle
+ * erreichbaren Markierungen bis zu einer Zustandsgrenze aufgezählt; ausgegeben werden
+ * Anzahl der Markierungen und Übergänge, die Verklemmungen (mit Beispielen), der
+ * Speicherbedarf je Markierung und die Markierungen je Sekunde.
+ * <p>
+ * Die Menge der besuchten Markierungen wird mit <code>-store</code> gewählt:
+ * <ul>
+ * <li>memory: vollständig im Hauptspeicher (M_StateSet, Standard)</li>
+ * <li>disk: oberhalb des Speicherbudgets <code>-memory</code> (in MB) in Dateien
+ * ausgelagert (M_DiskStateStore, Kurzform <code>-disk</code>); zusätzlich werden
+ * Auslagerungsmenge und -rate ausgegeben</li>
+ * <li>bitstate, compaction: nur Hashwerte in <code>-memory</code> MB (M_BitStateStore mit
+ * <code>-hashes</code> Bits je Markierung, M_HashCompactionStore); zusätzlich wird die
+ * geschätzte Abdeckung ausgegeben</li>
+ * </ul>
+ * <p>
+ * Mit <code>-reduce</code> wird mit sturen Mengen reduziert (M_StubbornSets): alle
+ * Verklemmungen werden gefunden, aber meist weit weniger Markierungen erkundet.
+ * <p>
+ * Mit <code>-symbolic</code> wird stattdessen symbolisch mit Entscheidungsdiagrammen
+ * erkundet (M_SymbolicStateSpace); Stellen ohne Kapazitätsgrenze erhalten dabei die
+ * Schranke <code>-bound</code>.
+ * <p>
+ * Aufruf: <code>java control.Reachability [-max N] [-threads N] [-reduce] [-store memory|disk|bitstate|compaction]
+ * [-memory MB] [-hashes K] [-tmp VERZEICHNIS] [-symbolic [-bound N]] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Erkundung durchgeführt, 1 = Netz nicht ladbar oder nicht konsistent,
+ * 2 = fehlerhafter Aufruf.
+ */
+public class Reachability implements ActionListener {
+
+    // ausgegebene Beispiel-Verklemmungen (symbolisch)
+    static final int SYMBOLIC_EXAMPLES = 10;
+
+    private long maxStates = 10000000;      // Zustandsgrenze
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String store = "memory";        // Art der Menge besuchter Markierungen
+    private long memoryMegabytes = 256;     // Speicherbudget (disk, bitstate, compaction)
+    private int hashes = 3;                 // Bits je Markierung (bitstate)
+    private boolean reduce;                 // true: Reduktion mit sturen Mengen
+    private boolean symbolic;               // true: symbolische Erkundung
+    private int bound = -1;                 // Schranke unbegrenzter Stellen (symbolisch)
+    private File tmpDirectory;              // Verzeichnis für ausgelagerte Markierungen
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Reachability reachability = new Reachability();
+
+        if(reachability.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(reachability.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-max") && i + 1 < args.length) {
+                    maxStates = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("-store") && i + 1 < args.length) {
+                    store = args[++i].toLowerCase();
+                }
+                else if(args[i].equals("-symbolic")) {
+                    symbolic = true;
+                }
+                else if(args[i].equals("-bound") && i + 1 < args.length) {
+                    bound = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("-reduce")) {
+                    reduce = true;
+                }
+                else if(args[i].equals("-disk")) {
+                    store = "disk";
+                }
+                else if(args[i].equals("-hashes") && i + 1 < args.length) {
+                    hashes = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("-memory") && i + 1 < args.length) {
+                    memoryMegabytes = Long.parseLong(args[++i]);
+                }
+                else if(args[i].equals("-tmp") && i + 1 < args.length) {
+                    tmpDirectory = new File(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        if(store.equals("memory") == false && store.equals("disk") == false
+                && store.equals("bitstate") == false && store.equals("compaction") == false) {
+            return false;
+        }
+
+        return inputFile != null && maxStates > 0 && threads > 0 && memoryMegabytes > 0 && hashes > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Reachability [-max STATES] [-threads N] [-reduce] [-store memory|disk|bitstate|compaction]");
+        System.err.println("       [-memory MB] [-hashes K] [-tmp DIR] [-symbolic [-bound N]] FILE");
+        System.err.println("Enumerates the reachable markings of the Petri net in FILE (*.pnet or *.pnml) up to STATES markings.");
+        System.err.println("-reduce: partial-order reduction (stubborn sets); finds all deadlocks, explores fewer states.");
+        System.err.println("disk (or -disk): visited markings beyond MB megabytes are spilled to files in DIR.");
+        System.err.println("bitstate, compaction: only hashes are kept in MB megabytes (K bits per marking for bitstate);");
+        System.err.println("  some markings may be missed, the estimated coverage is printed.");
+        System.err.println("-symbolic: decision diagrams with saturation; places without capacity are bounded by N.");
+    }
+
+    /*
+     * Lädt das Netz, erkundet den Zustandsraum und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        if(model.isNetConsistent() == false) {
+            System.err.println("Can't explore; net isn't consistent.");
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        if(symbolic == true) {
+            return runSymbolic(net);
+        }
+
+        M_StateSpace stateSpace = new M_StateSpace(net);
+        stateSpace.setMaxStates(maxStates);
+        stateSpace.setReduction(reduce);
+
+        M_DiskStateStore diskStore = null;
+        if(store.equals("disk")) {
+            diskStore = new M_DiskStateStore(stateSpace.getCodec().getWords(), tmpDirectory, memoryMegabytes << 20);
+            stateSpace.setStore(diskStore);
+        }
+        else if(store.equals("bitstate")) {
+            stateSpace.setStore(new M_BitStateStore(memoryMegabytes << 20, hashes));
+        }
+        else if(store.equals("compaction")) {
+            stateSpace.setStore(new M_HashCompactionStore(memoryMegabytes << 20));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            stateSpace.explore(pool);
+
+            System.out.println("File:        " + inputFile);
+            System.out.println("Threads:     " + threads);
+            System.out.print(describe(stateSpace));
+            System.out.println("Deadlock markings:");
+            printExamples(net, stateSpace.getDeadlockExamples());
+            System.out.println("Capacity-limited markings:");
+            printExamples(net, stateSpace.getCapacityExamples());
+        }
+        catch(UncheckedIOException e) {
+            System.err.println("Exploration failed:\n" + e.getCause());
+            return 1;
+        }
+        finally {
+            pool.shutdown();
+            if(diskStore != null) {
+                diskStore.close();
+            }
+        }
+
+        return 0;
+    }
+
+    /*
+     * Erkundet den Zustandsraum symbolisch und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int runSymbolic(M_CompiledNet net) {
+        M_SymbolicStateSpace stateSpace = new M_SymbolicStateSpace(net);
+        if(bound >= 0) {
+            stateSpace.setDefaultBound(bound);
+        }
+
+        try {
+            stateSpace.explore();
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println("Can't explore symbolically: " + e.getMessage());
+            return 1;
+        }
+
+        System.out.println("File:        " + inputFile);
+        System.out.println("Status:      " + stateSpace.getStatus().name().toLowerCase().replace('_', ' ') + " (symbolic)");
+        System.out.println("States:      " + stateSpace.getStates());
+        System.out.println("Deadlocks:   " + stateSpace.getDeadlocks());
+        System.out.println("Nodes:       " + stateSpace.getNodes() + " (" + stateSpace.getBytes() / (1 << 20) + " MB)");
+        System.out.println(String.format("Time:        %.3f s", stateSpace.getSeconds()));
+        System.out.println("Deadlock markings:");
+        printExamples(net, stateSpace.getDeadlockExamples(SYMBOLIC_EXAMPLES));
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis einer Erkundung (mehrzeilig, für Konsole und Dialog).
+     * @param stateSpace erkundeter Zustandsraum
+     * @return Beschreibung
+     */
+    static String describe(M_StateSpace stateSpace) {
+        long states = stateSpace.getStates();
+        long bytes = stateSpace.getStore().getBytes();
+
+        StringBuilder text = new StringBuilder();
+        text.append("Status:      " + stateSpace.getStatus().name().toLowerCase().replace('_', ' ')
+                + (stateSpace.isReduced() == true ? " (stubborn-set reduced)" : "") + "\n");
+        text.append("States:      " + states + "\n");
+        text.append("Edges:       " + stateSpace.getEdges() + "\n");
+        text.append("Deadlocks:   " + stateSpace.getDeadlocks() + "\n");
+        text.append("Cap. limits: " + stateSpace.getCapacityLimited() + "\n");
+        text.append("Depth:       " + stateSpace.getDepth() + "\n");
+        text.append("State size:  " + stateSpace.getCodec().getWords() * 8 + " bytes packed, "
+                + String.format("%.1f", states > 0 ? (double) bytes / states : 0.0) + " bytes stored\n");
+        text.append(String.format("Time:        %.3f s%n", stateSpace.getSeconds()));
+        text.append(String.format("States/sec:  %.1f%n", stateSpace.getStatesPerSecond()));
+
+        if(stateSpace.getStore() instanceof MI_ApproximateStateStore) {
+            MI_ApproximateStateStore approximateStore = (MI_ApproximateStateStore) stateSpace.getStore();
+            text.append(String.format("Coverage:    %.6f %% (estimated, %.1f markings missed)%n",
+                    100 * approximateStore.getCoverage(), approximateStore.getExpectedOmissions()));
+        }
+
+        if(stateSpace.getStore() instanceof M_DiskStateStore) {
+            M_DiskStateStore diskStore = (M_DiskStateStore) stateSpace.getStore();
+            double seconds = stateSpace.getSeconds();
+            text.append("Spilled:     " + diskStore.getSpilledStates() + " states, "
+                    + diskStore.getRuns() + " run(s), " + diskStore.getDiskBytes() / (1 << 20) + " MB on disk\n");
+            text.append(String.format("Spill rate:  %.1f MB/s written (%.3f s spent spilling)%n",
+                    seconds > 0 ? diskStore.getWrittenBytes() / 1048576.0 / seconds : 0.0, diskStore.getSpillSeconds()));
+        }
+        return text.toString();
+    }
+
+    /*
+     * Gibt die Beispiel-Verklemmungen aus.
+     */
+    private static void printExamples(M_CompiledNet net, ArrayList<float[]> examples) {
+        for(int i = 0; i < examples.size(); i++) {
+            System.out.println("  " + formatMarking(net, examples.get(i)));
+        }
+    }
+
+    /**
+     * Formatiert eine Markierung des kompilierten Netzes (z.B. "S1=0 S2=1 I1=3 O1=2"); die
+     * Stellen sind je Art wie in der Logik nummeriert.
+     * @param net kompiliertes Netz
+     * @param m Markierung
+     * @return Markierung als Text
+     */
+    static String formatMarking(M_CompiledNet net, float[] m) {
+        StringBuilder text = new StringBuilder();
+        String[] names = placeNames(net);
+
+        for(int p = 0; p < m.length; p++) {
+            if(p > 0) {
+                text.append(' ');
+            }
+            text.append(names[p]).append('=');
+            if(m[p] == Math.rint(m[p]) && Float.isInfinite(m[p]) == false) {
+                text.append((long) m[p]);
+            }
+            else {
+                text.append(m[p]);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Benennt die Stellen des kompilierten Netzes wie in der Logik je Art nummeriert
+     * (S# Speicher, I# Eingang, O# Ausgang).
+     * @param net kompiliertes Netz
+     * @return Namen je Stelle
+     */
+    static String[] placeNames(M_CompiledNet net) {
+        String[] names = new String[net.getNumberOfPlaces()];
+        int storage = 0;
+        int input = 0;
+        int output = 0;
+
+        for(int p = 0; p < names.length; p++) {
+            MI_Place place = net.getPlace(p);
+            if(place instanceof M_PNPInput) {
+                names[p] = "I" + (++input);
+            }
+            else if(place instanceof M_PNPOutput) {
+                names[p] = "O" + (++output);
+            }
+            else {
+                names[p] = "S" + (++storage);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Formatiert einen Wert (z.B. eine gewichtete Summe von Teilen) ganzzahlig, wenn er
+     * ganzzahlig ist.
+     * @param value Wert
+     * @return Wert als Text
+     */
+    static String formatValue(double value) {
+        if(value == Math.rint(value) && Double.isInfinite(value) == false) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
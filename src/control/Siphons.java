@@ -0,0 +1,174 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.ArrayList;
+
+import model.M_CompiledNet;
+import model.M_Siphon;
+import model.M_Siphons;
+
+/**
+ * Startklasse für die strukturelle Verklemmungsanalyse eines gespeicherten Netzes ohne
+ * Oberfläche (M_Siphons). Aufgezählt werden die minimalen Siphons; ausgegeben werden die
+ * Siphons ohne anfangs markierte Falle, die leer werden und so Transitionen dauerhaft
+ * sperren können, sowie das Ergebnis der Bedingung von Commoner.
+ * <p>
+ * Aufruf: <code>java control.Siphons [-max N] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Analyse durchgeführt, 1 = Netz nicht ladbar, 2 = fehlerhafter Aufruf.
+ */
+public class Siphons implements ActionListener {
+
+    // ausgegebene Siphons (Konsole und Dialog)
+    static final int MAX_LISTED = 20;
+
+    private int maxSiphons = 1000;          // Grenze der aufgezählten Siphons
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Siphons siphons = new Siphons();
+
+        if(siphons.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(siphons.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-max") && i + 1 < args.length) {
+                    maxSiphons = (int) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && maxSiphons > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Siphons [-max N] FILE");
+        System.err.println("Enumerates up to N (default 1000) minimal siphons of the Petri net in FILE (*.pnet or *.pnml)");
+        System.err.println("and checks whether each contains an initially marked trap (Commoner's condition).");
+    }
+
+    /*
+     * Lädt das Netz, analysiert es und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        M_Siphons siphons = new M_Siphons(net);
+        siphons.setMaxSiphons(maxSiphons);
+        siphons.analyse();
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(net, siphons));
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis der Analyse (mehrzeilig, für Konsole und Dialog); aufgeführt
+     * werden höchstens MAX_LISTED Siphons ohne markierte Falle.
+     * @param net kompiliertes Netz
+     * @param siphons durchgeführte Analyse
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, M_Siphons siphons) {
+        StringBuilder text = new StringBuilder();
+        String[] names = Reachability.placeNames(net);
+        ArrayList<M_Siphon> risky = siphons.getRiskySiphons();
+        boolean ordinary = siphons.isOrdinary();
+        boolean capacities = siphons.hasCapacities();
+
+        text.append("Siphons:     " + siphons.getSiphons().size()
+                + (siphons.isComplete() == true ? " (complete)" : " (limit reached)") + "\n");
+        text.append("Unprotected: " + risky.size() + " (without initially marked trap)\n");
+        text.append("Net:         " + (ordinary == true ? "ordinary" : "weighted")
+                + (siphons.isFreeChoice() == true ? ", free-choice" : "")
+                + (capacities == true ? ", capacities" : "") + "\n");
+        text.append(String.format("Time:        %.3f s%n", siphons.getSeconds()));
+
+        if(risky.isEmpty() == false) {
+            text.append("Commoner's condition violated: these place sets can run empty (deadlock possible).\n");
+        }
+        else if(siphons.isComplete() == false) {
+            text.append("No unprotected siphon found so far (enumeration incomplete).\n");
+        }
+        else if(ordinary == true && capacities == false) {
+            text.append("Commoner's condition holds: no deadlock is reachable"
+                    + (siphons.isFreeChoice() == true ? ", the net is live.\n" : ".\n"));
+        }
+        else {
+            text.append("Commoner's condition holds (no guarantee for weighted arcs or capacities).\n");
+        }
+
+        for(int i = 0; i < risky.size() && i < MAX_LISTED; i++) {
+            M_Siphon siphon = risky.get(i);
+            text.append("  {" + formatPlaces(siphon.getPlaces(), names) + "} tokens "
+                    + Reachability.formatValue(siphon.getTokens()));
+            if(siphon.getTrap().length > 0) {
+                text.append(", unmarked trap {" + formatPlaces(siphon.getTrap(), names) + "}");
+            }
+            text.append("\n");
+        }
+        if(risky.size() > MAX_LISTED) {
+            text.append("  ... " + (risky.size() - MAX_LISTED) + " more\n");
+        }
+
+        return text.toString();
+    }
+
+    private static String formatPlaces(int[] places, String[] names) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < places.length; i++) {
+            if(i > 0) {
+                text.append(' ');
+            }
+            text.append(names[places[i]]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
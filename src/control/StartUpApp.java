@@ -1,6 +1,7 @@
 package control;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 import view.*;
 import model.*;
@@ -10,6 +11,9 @@ import java.awt.event.*;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 public class StartUpApp extends JFrame  implements ActionListener, Runnable
 {
@@ -26,6 +30,12 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
   // Das Fenster zum Einstellen der EGewichte.
   private GUI_WindowWeights weightsWindow;
 
+  // Das Fenster mit den Invarianten und die angezeigten Invarianten (für den Export).
+  private GUI_WindowInvariants invariantsWindow;
+  private M_CompiledNet invariantsNet;
+  private ArrayList<M_Invariant> pInvariants;
+  private ArrayList<M_Invariant> tInvariants;
+
   /**
    * Das Hintergrund-Panel.
    */
@@ -52,6 +62,9 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
   // Der Thread, der für die Hintergrundausführung der Funktion
   // "Ausführen bis Verklemmung" benötigt wird.
   transient Thread runUntilDeadlock;
+
+  // Grenze für "Zustandsraum erkunden" in der Oberfläche
+  static final long EXPLORE_MAX_STATES = 1000000;
   
   private void initUI()
   {
@@ -80,6 +93,9 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
      */
     model = new Logic(this);
 
+    // View nur einmal je Schritt (gesammelt) benachrichtigen
+    model.setNotificationMode(ME_NotificationMode.PER_STEP);
+
     /*
      * View-Komponenten erzeugen
      */
@@ -294,6 +310,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
     // Abfrage des Buttons "OK" im Fenster "Eigenschaften"
     else if(e.getActionCommand() == "WinModOK") {
       if(selectedItem.getElementLogic().setProperties(propertyWindow.getProperties()) == true) {
+        model.invalidateCompiledNet();
         propertyWindow.closeWindow();
         propertyWindow = null;
         stateBar.setText("Editing properties for " + selectedItem.getElementLogic().getPIdentifiers()[0] + " done.");       
@@ -339,6 +356,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
     // Abfrage des Buttons "OK" im Fenster "Gewichte"
     else if(e.getActionCommand() == "WinWeightsOK") {
       if(selectedItem.getElementLogic().setWeights(weightsWindow.getWeights()) == true) {
+        model.invalidateCompiledNet();
         weightsWindow.closeWindow();
         weightsWindow = null;
         stateBar.setText("Editing weights for " + selectedItem.getElementLogic().getPIdentifiers()[0] + " done.");        
@@ -403,7 +421,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
       drawingArea.clear();
       model.clear();
       model.reset();
-      controlPanel.setSteps(model.getStepCount());
+      showProgress();
       drawingArea.repaint();
       
     }
@@ -434,13 +452,73 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
       }
     }
 
+    // Befehl "PNML importieren"
+    else if(e.getActionCommand() == "Import PNML") {
+
+      // raus, wenn Sicherheitsabfrage nicht mit "ja" beantwortet
+      if(continueQuestion("Import PNML") == false) {
+        return;
+      }
+
+      if(importPNML() == true) {
+        stateBar.setText("PNML imported successfully.");
+      }
+      else {
+        stateBar.setTextHighlighted("PNML not imported.");
+      }
+    }
+
+    // Befehl "PNML exportieren"
+    else if(e.getActionCommand() == "Export PNML") {
+      if(exportPNML() == true) {
+        stateBar.setText("PNML exported successfully.");
+      }
+      else {
+        stateBar.setTextHighlighted("PNML not exported.");
+      }
+    }
+
+    // Befehl "Zustandsraum erkunden"
+    else if(e.getActionCommand() == "Explore state space") {
+      exploreStateSpace();
+    }
+
+    // Befehl "Siphons und Fallen"
+    else if(e.getActionCommand() == "Siphons and traps") {
+      analyseSiphons();
+    }
+
+    // Befehl "Invarianten"
+    else if(e.getActionCommand() == "Invariants") {
+      computeInvariants();
+    }
+
+    // Abfrage des Buttons "Export CSV" im Fenster "Invarianten"
+    else if(e.getActionCommand() == "WinInvariantsEXPORT") {
+      if(exportInvariants() == true) {
+        stateBar.setText("Invariants exported successfully.");
+      }
+      else {
+        stateBar.setTextHighlighted("Invariants not exported.");
+      }
+    }
+
+    // Abfrage des Buttons "Schließen" im Fenster "Invarianten"
+    else if(e.getActionCommand() == "WinInvariantsCLOSE") {
+      invariantsWindow.closeWindow();
+      invariantsWindow = null;
+    }
+
     // Befehl "Einzelschritt"
     else if(e.getActionCommand() == "Single step") {
       if(model.isNetConsistent() == true) {
         if(model.makeStep() == true) {
-          controlPanel.setSteps(model.getStepCount());
+          showProgress();
           stateBar.setText("Step done");
         }
+        else if(model.isLivelock() == true) {
+          stateBar.setTextHighlighted("Step *not* done; livelock: " + model.describeLivelock());
+        }
         else {
           stateBar.setTextHighlighted("Step *not* done; no transition could work.");
         }
@@ -456,10 +534,25 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
       runUntilDeadlock.start();
     }
 
+    // Umschalter "Zeitbehaftete Simulation"
+    else if(e.getActionCommand() == "Timed simulation") {
+      if(((JCheckBoxMenuItem) e.getSource()).isSelected() == true) {
+        model.setEngineMode(ME_EngineMode.TIMED);
+        stateBar.setText("Timed simulation on; net reset.");
+      }
+      else {
+        model.setEngineMode(ME_EngineMode.OBJECT);
+        stateBar.setText("Timed simulation off; net reset.");
+      }
+      model.reset();
+      showProgress();
+      drawingArea.repaint();
+    }
+
     // Befehl "Reset"
     else if(e.getActionCommand() == "Reset") {
       model.reset();
-      controlPanel.setSteps(model.getStepCount());
+      showProgress();
       stateBar.setText("Net reset.");
       drawingArea.repaint();
     }
@@ -507,7 +600,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
   }
 
   /**
-   * Speichert das aktuelle Petrinetz. Verwendet dazu die einfache Serialisierung.
+   * Speichert das aktuelle Petrinetz (NetFile).
    * @return true, wenn Petrinetz erfolgreich gespeichert wurde, false sonst
    */
   private boolean savePetrinet() {
@@ -535,80 +628,8 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
      */
 
     try {
-//      FileOutputStream fout = new FileOutputStream(fileChooser.getSelectedFile());
-      FileOutputStream fout = new FileOutputStream(outputFile);
-      ObjectOutputStream oout = new ObjectOutputStream(fout);
-
-      ArrayList<MI_Element> logicElementsTransitions = model.getElementsTransition();
-      ArrayList<MI_Element> logicElementsPlaces = model.getElementsStorage();
-      ArrayList<MI_Element> logicElementsPlacesInput = model.getElementsInput();
-      ArrayList<MI_Element> logicElementsPlacesOutput = model.getElementsOutput();
-      ArrayList<M_Link> logicLinks = model.getLinks();
-
-      ArrayList<V_Link> viewLinks = drawingArea.getLinks();
-      ArrayList<V_ElementRoot> viewElements = drawingArea.getElements();
-
-      /*
-       * Logik speichern
-       */
-      // Transitionen
-      oout.writeInt(logicElementsTransitions.size());
-      for(int i = 0; i < logicElementsTransitions.size(); i++) {
-        oout.writeObject(logicElementsTransitions.get(i));
-      }
-
-      // allgemeine Stellen
-      oout.writeInt(logicElementsPlaces.size());
-      for(int i = 0; i < logicElementsPlaces.size(); i++) {
-        oout.writeObject(logicElementsPlaces.get(i));
-      }
-
-      // Eingabestellen
-      oout.writeInt(logicElementsPlacesInput.size());
-      for(int i = 0; i < logicElementsPlacesInput.size(); i++) {
-        oout.writeObject(logicElementsPlacesInput.get(i));
-      }
-
-      // Ausgabestellen
-      oout.writeInt(logicElementsPlacesOutput.size());
-      for(int i = 0; i < logicElementsPlacesOutput.size(); i++) {
-        oout.writeObject(logicElementsPlacesOutput.get(i));
-      }
-
-      // Kanten
-      oout.writeInt(logicLinks.size());
-      for(int i = 0; i < logicLinks.size(); i++) {
-        oout.writeObject(logicLinks.get(i));
-      }
-
-      /*
-       * View speichern
-       */
-
-      // Elemente
-      oout.writeInt(viewElements.size());
-      for(int i = 0; i < viewElements.size(); i++) {
-        V_ElementRoot viewItem = viewElements.get(i); 
-        
-        // eventuell markiertes oder verklemmtes Element wieder in
-        // Normalzustand versetzen
-        viewItem.setColorNormal();
-        
-        
-        oout.writeObject(viewItem);
-      }
-
-      // Kanten
-      oout.writeInt(viewLinks.size());
-      for(int i = 0; i < viewLinks.size(); i++) {
-        oout.writeObject(viewLinks.get(i));
-      }
-
-      oout.close();
-      fout.close();
-
+      NetFile.save(outputFile, model, drawingArea.getElements(), drawingArea.getLinks());
       return true;
-      
     }
     catch(Exception ioe) {
       System.out.println(ioe);
@@ -617,7 +638,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
   }
 
   /**
-   * Lädt ein Petrinetz. Verwendet dazu die einfache Deserialisierung.
+   * Lädt ein Petrinetz (NetFile).
    * @return true, wenn Petrinetz erfolgreich geladen wurde, false sonst
    */
   private boolean loadPetrinet() {
@@ -650,89 +671,284 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
      */
 
     try {
-//      FileInputStream fin = new FileInputStream(fileChooser.getSelectedFile());
-      FileInputStream fin = new FileInputStream(inputFile);
-      ObjectInputStream oin = new ObjectInputStream(fin);
+      NetFile.load(inputFile, model, drawingArea);
 
-      M_ElementRoot logicElement;
-      M_Link logicLink;
+      showProgress();
+      drawingArea.repaint();
 
-      V_ElementRoot viewElement;
-      V_Link viewLink;
+      return true;
+    }
+    catch(Exception ioe) {
+      System.out.println("Loading failed:\n" + ioe);
+      drawingArea.clear();
+      model.clear();
+      drawingArea.repaint();
+      return false;
+    }
+  }
 
-      /*
-       * Logik laden
-       */
+  /**
+   * Importiert ein Petrinetz aus einer PNML-Datei (PNMLFile).
+   * @return true, wenn Petrinetz erfolgreich importiert wurde, false sonst
+   */
+  private boolean importPNML() {
+    File inputFile = choosePNMLFile("Import PNML");
+    if(inputFile == null) {
+      return false;
+    }
 
-      // Transitionen
-      int size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        logicElement = (M_ElementRoot)oin.readObject();
-        model.loadTransition(logicElement);
-      }
+    /*
+     * altes Netz löschen
+     */
+    drawingArea.clear();
+    model.clear();
 
-      // Stellen (allgemein)
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        logicElement = (M_ElementRoot)oin.readObject();
-        model.loadPlaceStorage(logicElement);
-      }
+    try {
+      PNMLFile.load(inputFile, model, drawingArea);
 
-      // Stellen (input)
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        logicElement = (M_ElementRoot)oin.readObject();
-        model.loadPlaceInput(logicElement);
-      }
+      showProgress();
+      drawingArea.repaint();
 
-      // Stellen (output)
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        logicElement = (M_ElementRoot)oin.readObject();
-        model.loadPlaceOutput(logicElement);
-      }
+      return true;
+    }
+    catch(Exception ioe) {
+      System.out.println("Import failed:\n" + ioe);
+      drawingArea.clear();
+      model.clear();
+      drawingArea.repaint();
+      return false;
+    }
+  }
 
-      // Kanten
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        logicLink = (M_Link)oin.readObject();
-        model.loadLink(logicLink);
+  /**
+   * Exportiert das aktuelle Petrinetz in eine PNML-Datei (PNMLFile).
+   * @return true, wenn Petrinetz erfolgreich exportiert wurde, false sonst
+   */
+  private boolean exportPNML() {
+    File outputFile = choosePNMLFile("Export PNML");
+    if(outputFile == null) {
+      return false;
+    }
+
+    // Endung ergänzen
+    if(PNMLFile.isPNML(outputFile) == false) {
+      outputFile = new File(outputFile.getPath() + ".pnml");
+    }
+
+    try {
+      PNMLFile.save(outputFile, model, drawingArea.getElements(), drawingArea.getLinks());
+      return true;
+    }
+    catch(Exception ioe) {
+      System.out.println(ioe);
+      return false;
+    }
+  }
+
+  /**
+   * Lässt den Benutzer eine PNML-Datei auswählen.
+   * @param title Titel und Schaltflächentext des Dateirequesters
+   * @return ausgewählte Datei oder null, wenn keine Datei ausgewählt wurde
+   */
+  private File choosePNMLFile(String title) {
+    JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+    fileChooser.setMultiSelectionEnabled(false);
+    fileChooser.setFileFilter(new FileNameExtensionFilter("PNML (*.pnml)", "pnml"));
+    fileChooser.setDialogTitle(title);
+
+    // aktuelles Verzeichnis vorwählen
+    fileChooser.setCurrentDirectory(new File(System.getProperties().getProperty("user.dir")));
+
+    // raus, wenn keine Datei ausgewählt
+    if(fileChooser.showDialog(this, title) != JFileChooser.APPROVE_OPTION) {
+      return null;
+    }
+
+    return fileChooser.getSelectedFile();
+  }
+
+  /**
+   * Erkundet den Zustandsraum des aktuellen Netzes (M_StateSpace) in einem eigenen Thread
+   * und zeigt das Ergebnis danach in einem Dialog an. Erkundet wird eine Kopie des Netzes,
+   * daher kann währenddessen weitergearbeitet werden.
+   */
+  private void exploreStateSpace() {
+    if(model.isNetConsistent() == false) {
+      stateBar.setTextHighlighted("Can't explore; net isn't consistent.");
+      return;
+    }
+
+    final M_CompiledNet net = model.compileSnapshot();
+    final M_StateSpace stateSpace = new M_StateSpace(net);
+    stateSpace.setMaxStates(EXPLORE_MAX_STATES);
+
+    stateBar.setText("Exploring state space ...");
+
+    Thread explorer = new Thread(new Runnable() {
+      public void run() {
+        stateSpace.explore(ForkJoinPool.commonPool());
+
+        final StringBuilder text = new StringBuilder(Reachability.describe(stateSpace));
+        ArrayList<float[]> examples = stateSpace.getDeadlockExamples();
+        if(examples.isEmpty() == false) {
+          text.append("Deadlock marking:\n" + Reachability.formatMarking(net, examples.get(0)));
+        }
+
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            stateBar.setText("State space explored.");
+            JOptionPane.showMessageDialog(StartUpApp.this, text.toString(),
+                "State space", JOptionPane.INFORMATION_MESSAGE);
+          }
+        });
       }
+    }, "Explore state space");
+    explorer.setDaemon(true);
+    explorer.start();
+  }
 
-      /*
-       * View laden
-       */
+  /**
+   * Zählt die minimalen Siphons des aktuellen Netzes auf (M_Siphons) und prüft die Bedingung
+   * von Commoner. Die Stellen der Siphons ohne markierte Falle werden auf der Arbeitsfläche
+   * als "verklemmt" hervorgehoben, das Ergebnis wird in einem Dialog angezeigt.
+   */
+  private void analyseSiphons() {
+    final M_CompiledNet net = model.compileSnapshot();
+    stateBar.setText("Analysing siphons ...");
+
+    Thread analyser = new Thread(new Runnable() {
+      public void run() {
+        M_Siphons siphons = new M_Siphons(net);
+        siphons.analyse();
+
+        final String text = Siphons.describe(net, siphons);
+        final ArrayList<M_Siphon> risky = siphons.getRiskySiphons();
+        final Set<MI_Element> places = new HashSet<MI_Element>();
+        for(int i = 0; i < risky.size(); i++) {
+          int[] siphon = risky.get(i).getPlaces();
+          for(int k = 0; k < siphon.length; k++) {
+            places.add((MI_Element) net.getPlace(siphon[k]));
+          }
+        }
 
-      // Elemente
-// TODO
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        viewElement = (V_ElementRoot)oin.readObject();
-        viewElement.reloadObverver();
-        drawingArea.loadElement(viewElement);
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            drawingArea.setRepressed(places);
+            if(risky.isEmpty() == true) {
+              stateBar.setText("No siphon can run empty.");
+            }
+            else {
+              stateBar.setTextHighlighted(risky.size() + " siphon(s) can run empty; places highlighted.");
+            }
+            JOptionPane.showMessageDialog(StartUpApp.this, text, "Siphons and traps",
+                risky.isEmpty() == true ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+          }
+        });
       }
+    }, "Siphons and traps");
+    analyser.setDaemon(true);
+    analyser.start();
+  }
 
-      // Kanten
-      size = oin.readInt();
-      for(int i = 0; i < size; i++) {
-        viewLink = (V_Link)oin.readObject();
-        drawingArea.loadLink(viewLink);
+  /**
+   * Berechnet die P- und T-Invarianten des aktuellen Netzes (M_Invariants) in einem eigenen
+   * Thread und zeigt sie danach in einem Fenster an, aus dem sie als CSV exportiert werden
+   * können.
+   */
+  private void computeInvariants() {
+    if(invariantsWindow != null) {
+      stateBar.setTextHighlighted("There's already a window open.");
+      return;
+    }
+
+    final M_CompiledNet net = model.compileSnapshot();
+    stateBar.setText("Computing invariants ...");
+
+    Thread computer = new Thread(new Runnable() {
+      public void run() {
+        String text;
+        ArrayList<M_Invariant> p = null;
+        ArrayList<M_Invariant> t = null;
+        try {
+          M_Invariants invariants = new M_Invariants(net);
+          p = invariants.computePInvariants();
+          t = invariants.computeTInvariants();
+          text = Invariants.describe(net, p, t);
+        }
+        catch(IllegalArgumentException | IllegalStateException | ArithmeticException e) {
+          text = "Can't compute invariants: " + e.getMessage();
+        }
+
+        final String result = text;
+        final ArrayList<M_Invariant> resultP = p;
+        final ArrayList<M_Invariant> resultT = t;
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            if(resultP == null) {
+              stateBar.setTextHighlighted("Invariants not computed.");
+              JOptionPane.showMessageDialog(StartUpApp.this, result, "Invariants", JOptionPane.WARNING_MESSAGE);
+              return;
+            }
+            stateBar.setText("Invariants computed.");
+            invariantsNet = net;
+            pInvariants = resultP;
+            tInvariants = resultT;
+            invariantsWindow = new GUI_WindowInvariants(StartUpApp.this, result);
+            invariantsWindow.setVisible(true);
+          }
+        });
       }
+    }, "Invariants");
+    computer.setDaemon(true);
+    computer.start();
+  }
 
-      oin.close();
-      fin.close();
+  /**
+   * Exportiert die angezeigten Invarianten in eine CSV-Datei (Invariants.writeCsv).
+   * @return true, wenn die Invarianten erfolgreich exportiert wurden, false sonst
+   */
+  private boolean exportInvariants() {
+    JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+    fileChooser.setMultiSelectionEnabled(false);
+    fileChooser.setFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+    fileChooser.setDialogTitle("Export CSV");
+    fileChooser.setCurrentDirectory(new File(System.getProperties().getProperty("user.dir")));
+
+    if(fileChooser.showDialog(invariantsWindow, "Export CSV") != JFileChooser.APPROVE_OPTION) {
+      return false;
+    }
 
-      controlPanel.setSteps(model.getStepCount());
-      drawingArea.repaint();
+    // Endung ergänzen
+    File outputFile = fileChooser.getSelectedFile();
+    if(outputFile.getName().toLowerCase().endsWith(".csv") == false) {
+      outputFile = new File(outputFile.getPath() + ".csv");
+    }
 
+    try {
+      Invariants.writeCsv(outputFile, invariantsNet, pInvariants, tInvariants);
       return true;
     }
-    catch(Exception ioe) {
-      System.out.println("Loading failed:\n" + ioe);
+    catch(IOException ioe) {
+      System.out.println(ioe);
       return false;
     }
   }
 
+  /**
+   * Zeigt den Fortschritt in der Seitenleiste an: die Simulationszeit bei zeitbehafteter
+   * Simulation, sonst die Anzahl der Schritte.
+   */
+  private void showProgress() {
+    if(model.getEngineMode() == ME_EngineMode.TIMED) {
+      controlPanel.setClock(Reachability.formatValue(model.getClock()));
+    }
+    else {
+      controlPanel.setSteps(model.getStepCount());
+    }
+  }
+
   /**
    * Wird beim Aufruf des Threads ausgeführt. Enthält den Code der
    * Funktion "Ausführen bis Verklemmung", die nicht blockieren darf.
@@ -745,7 +961,7 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
 
       do {
         model.makeStep();
-        controlPanel.setSteps(model.getStepCount());
+        showProgress();
         try {
           Thread.sleep(120);
         }
@@ -758,7 +974,12 @@ public class StartUpApp extends JFrame  implements ActionListener, Runnable
       // Bearbeitung für drawing_area wieder erlauben
       drawingArea.unlockEditing();
 
-      stateBar.setText("Run until deadlock. Currently no transition can work.");
+      if(model.isLivelock() == true) {
+        stateBar.setTextHighlighted("Run stopped; livelock: " + model.describeLivelock());
+      }
+      else {
+        stateBar.setText("Run until deadlock. Currently no transition can work.");
+      }
     }
     else {
       stateBar.setTextHighlighted("Run failed; net isn't consistent.");
@@ -0,0 +1,253 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import model.ME_EngineMode;
+import model.ME_NotificationMode;
+import model.M_CycleDetector;
+import model.M_LivelockGuard;
+import model.MI_Element;
+import model.MI_Place;
+
+/**
+ * Startklasse für die Ausführung eines Petrinetzes ohne Oberfläche. Lädt die Logik
+ * eines gespeicherten Netzes (*.pnet oder *.pnml), führt es mit Logic.makeStep() bis zur
+ * Verklemmung, bis zu einem Livelock, bis zu einer Schrittgrenze oder bis zu einer Zeitgrenze
+ * aus und gibt danach Schritte pro Sekunde, die Endmarkierung und den Verklemmungsstatus aus.
+ * Es wird weder AWT noch Swing initialisiert.
+ * <p>
+ * Aufruf: <code>java control.StartUpBatch [-steps N] [-timeout SEKUNDEN] [-engine MODUS] [-fastforward] [-rounds N] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Lauf durchgeführt, 1 = Netz nicht ladbar oder nicht konsistent,
+ * 2 = fehlerhafter Aufruf.
+ */
+public class StartUpBatch implements ActionListener {
+
+    private long maxSteps = Long.MAX_VALUE;         // Schrittgrenze
+    private long timeoutNanos = Long.MAX_VALUE;     // Zeitgrenze (in Nanosekunden)
+    private ME_EngineMode engineMode = ME_EngineMode.COMPILED;
+    private boolean fastForward;                    // periodische Abschnitte überspringen
+    private long maxRounds = M_LivelockGuard.DEFAULT_MAX_ROUNDS;    // Rundengrenze je Schritt
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        StartUpBatch batch = new StartUpBatch();
+
+        if(batch.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(batch.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-steps") && i + 1 < args.length) {
+                    maxSteps = Long.parseLong(args[++i]);
+                }
+                else if(args[i].equals("-timeout") && i + 1 < args.length) {
+                    timeoutNanos = (long)(Double.parseDouble(args[++i]) * 1e9);
+                }
+                else if(args[i].equals("-engine") && i + 1 < args.length) {
+                    engineMode = ME_EngineMode.valueOf(args[++i].toUpperCase());
+                }
+                else if(args[i].equals("-fastforward")) {
+                    fastForward = true;
+                }
+                else if(args[i].equals("-rounds") && i + 1 < args.length) {
+                    maxRounds = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(IllegalArgumentException e) {
+            // ungültige Zahl oder unbekannte Berechnungsart
+            return false;
+        }
+
+        return inputFile != null && maxSteps >= 0 && timeoutNanos > 0 && maxRounds > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        StringBuilder modes = new StringBuilder();
+        for(ME_EngineMode mode : ME_EngineMode.values()) {
+            if(modes.length() > 0) {
+                modes.append('|');
+            }
+            modes.append(mode.name().toLowerCase());
+        }
+
+        System.err.println("Usage: java control.StartUpBatch [-steps N] [-timeout SECONDS] [-engine " + modes + "] [-fastforward] [-rounds N] FILE");
+        System.err.println("Runs the Petri net in FILE (*.pnet or *.pnml) without GUI until deadlock, livelock, step limit");
+        System.err.println("or timeout. -fastforward detects periodic behavior and skips whole periods (engines object,");
+        System.err.println("compiled and worklist only). A step that repeats a marking or exceeds N rounds (default 1e6)");
+        System.err.println("without output is reported as livelock.");
+    }
+
+    /*
+     * Lädt das Netz, führt es aus und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        if(model.isNetConsistent() == false) {
+            System.err.println("Can't start running; net isn't consistent.");
+            return 1;
+        }
+
+        model.setEngineMode(engineMode);
+        model.setViewSync(false);
+        model.setNotificationMode(ME_NotificationMode.MANUAL);
+        model.setMaxRoundsPerStep(maxRounds);
+
+        /*
+         * Ausführen
+         */
+        String status = "deadlock";
+        long steps = 0;
+        long start = System.nanoTime();
+
+        if(fastForward == true && model.isFastForwardSupported() == false) {
+            System.err.println("Warning: -fastforward is not supported with engine " + engineMode.name().toLowerCase()
+                    + "; running single steps.");
+        }
+        if(fastForward == true) {
+            steps = model.runSteps(maxSteps, timeoutNanos);
+            if(steps >= maxSteps) {
+                status = "step limit reached";
+            }
+            else if(model.hasAtLeastOneTransitionWorked() == true) {
+                status = "timeout";
+            }
+        }
+
+        while(fastForward == false) {
+            if(steps >= maxSteps) {
+                status = "step limit reached";
+                break;
+            }
+            if(System.nanoTime() - start >= timeoutNanos) {
+                status = "timeout";
+                break;
+            }
+            if(model.makeStep() == false) {
+                break;
+            }
+            steps++;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if(model.isLivelock() == true) {
+            status = "livelock";
+        }
+        double clock = model.getClock();
+        M_CycleDetector detector = null;
+        String engine = engineMode.name().toLowerCase();
+        if(fastForward == true && model.isFastForwardSupported() == true) {
+            // gerechnet wurde mit der Schrittregel von COMPILED
+            if(engineMode != ME_EngineMode.COMPILED) {
+                engine = "compiled (fast-forward, same steps as " + engine + ")";
+            }
+            if(engineMode != ME_EngineMode.OBJECT) {
+                detector = model.getCompiledNet().getCycleDetector();
+            }
+        }
+
+        // Endmarkierung in die Logik-Elemente übernehmen
+        model.syncModel();
+
+        /*
+         * Ergebnis ausgeben
+         */
+        double seconds = elapsed / 1e9;
+
+        System.out.println("File:        " + inputFile);
+        System.out.println("Engine:      " + engine);
+        System.out.println("Status:      " + status);
+        System.out.println("Deadlock:    " + (status.equals("deadlock") ? "yes" : "no"));
+        System.out.println("Steps:       " + steps);
+        if(model.isLivelock() == true) {
+            System.out.println("Livelock:    " + model.describeLivelock());
+        }
+        if(detector != null) {
+            System.out.println("Skipped:     " + detector.getSkippedSteps() + " steps in " + detector.getJumps()
+                    + " jumps (period " + detector.getPeriod() + ")");
+        }
+        if(engineMode == ME_EngineMode.TIMED) {
+            System.out.println("Clock:       " + Reachability.formatValue(clock));
+        }
+        System.out.println(String.format("Time:        %.3f s", seconds));
+        System.out.println(String.format("Steps/sec:   %.1f", seconds > 0 ? steps / seconds : 0.0));
+        System.out.println("Marking:");
+        printPlaces("I", model.getElementsInput());
+        printPlaces("S", model.getElementsStorage());
+        printPlaces("O", model.getElementsOutput());
+
+        return 0;
+    }
+
+    /**
+     * Lädt nur die Logik eines gespeicherten Netzes; das Format (*.pnml oder *.pnet) wird
+     * anhand der Dateiendung gewählt.
+     * @param file Netzdatei
+     * @param model Logik, in die geladen wird
+     * @throws IOException Datei nicht lesbar oder fehlerhaft
+     * @throws ClassNotFoundException Klasse eines alten (serialisierten) Netzes nicht gefunden
+     */
+    static void loadLogic(File file, Logic model) throws IOException, ClassNotFoundException {
+        if(PNMLFile.isPNML(file) == true) {
+            PNMLFile.load(file, model, null);
+        }
+        else {
+            NetFile.load(file, model, null);
+        }
+    }
+
+    /*
+     * Gibt Wert und Kapazität aller Stellen einer Liste aus.
+     */
+    private static void printPlaces(String prefix, ArrayList<MI_Element> places) {
+        for(int i = 0; i < places.size(); i++) {
+            MI_Place place = (MI_Place) places.get(i);
+            System.out.println(String.format("  %-6s %s / %s", prefix + (i + 1), place.getValue(), place.getCapacity()));
+        }
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
@@ -0,0 +1,266 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.M_CompiledNet;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_StochasticSimulation;
+
+/**
+ * Startklasse für die stochastische Simulation eines gespeicherten Netzes ohne Oberfläche
+ * (M_StochasticSimulation). Die Transitionen feuern nach exponentialverteilten Wartezeiten mit
+ * der Rate <code>-rate</code>; einzelne Transitionen erhalten mit <code>-rate T3=2.5</code>
+ * eine eigene Rate. Simuliert wird bis zum Zeitpunkt <code>-time</code>, bis zur Verklemmung
+ * oder bis <code>-events</code> Feuerungen. Ausgegeben werden Ereignisse je Sekunde, der
+ * Durchsatz an den Ausgabestellen, der mittlere Bestand der Speicher, die daraus nach Little
+ * geschätzte Durchlaufzeit sowie die zeitgewichteten Mittelwerte der Stellen und die
+ * Feuerungsraten der Transitionen. Mit <code>-csv</code> werden alle Mittelwerte und Raten als
+ * CSV-Datei geschrieben.
+ * <p>
+ * Aufruf: <code>java control.Stochastic [-time T] [-events N] [-rate [T#=]R]... [-seed S] [-csv AUSGABE] DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Simulation durchgeführt, 1 = Netz nicht ladbar oder Ausgabe nicht
+ * schreibbar, 2 = fehlerhafter Aufruf.
+ */
+public class Stochastic implements ActionListener {
+
+    // ausgegebene Stellen und Transitionen
+    static final int MAX_LISTED = 20;
+
+    private double endTime = Double.POSITIVE_INFINITY;
+    private long maxEvents = 10000000;
+    private double rate = 1;
+    private Map<Integer, Double> rates = new LinkedHashMap<Integer, Double>();  // Transitionsnummer (ab 1) -> Rate
+    private long seed = 1;
+    private File csvFile;
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Stochastic stochastic = new Stochastic();
+
+        if(stochastic.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(stochastic.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-time") && i + 1 < args.length) {
+                    endTime = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-events") && i + 1 < args.length) {
+                    maxEvents = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-rate") && i + 1 < args.length) {
+                    String value = args[++i];
+                    int split = value.indexOf('=');
+                    if(split < 0) {
+                        rate = Double.parseDouble(value);
+                    }
+                    else if(value.startsWith("T") == true) {
+                        rates.put(Integer.parseInt(value.substring(1, split)),
+                                Double.parseDouble(value.substring(split + 1)));
+                    }
+                    else {
+                        return false;
+                    }
+                }
+                else if(args[i].equals("-seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                }
+                else if(args[i].equals("-csv") && i + 1 < args.length) {
+                    csvFile = new File(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && endTime > 0 && maxEvents > 0 && rate >= 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Stochastic [-time T] [-events N] [-rate [T#=]R]... [-seed S] [-csv OUT] FILE");
+        System.err.println("Simulates the Petri net in FILE (*.pnet or *.pnml) as a stochastic net with exponential firing times");
+        System.err.println("until time T, deadlock or N events (default 1e7). -rate R sets the rate of all transitions (default 1),");
+        System.err.println("-rate T3=R the rate of transition T3; -csv writes all averages and rates to OUT.");
+    }
+
+    /*
+     * Lädt das Netz, simuliert es und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        M_StochasticSimulation simulation = new M_StochasticSimulation(net);
+
+        try {
+            for(int t = 0; t < net.getNumberOfTransitions(); t++) {
+                simulation.setRate(t, rate);
+            }
+            for(Map.Entry<Integer, Double> entry : rates.entrySet()) {
+                int t = entry.getKey() - 1;
+                if(t < 0 || t >= net.getNumberOfTransitions()) {
+                    System.err.println("No such transition: T" + entry.getKey());
+                    return 2;
+                }
+                simulation.setRate(t, entry.getValue());
+            }
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        simulation.setSeed(seed);
+        simulation.setMaxEvents(maxEvents);
+        simulation.run(endTime);
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(net, simulation));
+
+        if(csvFile != null) {
+            try {
+                writeCsv(csvFile, net, simulation);
+            }
+            catch(IOException e) {
+                System.err.println("Writing failed: " + csvFile + "\n" + e);
+                return 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis der Simulation (mehrzeilig); aufgeführt werden höchstens
+     * MAX_LISTED Stellen und Transitionen.
+     * @param net kompiliertes Netz
+     * @param simulation durchgeführte Simulation
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, M_StochasticSimulation simulation) {
+        StringBuilder text = new StringBuilder();
+        String[] names = Reachability.placeNames(net);
+        float[] initial = net.getMarking();
+        float[] marking = simulation.getMarking();
+        double time = simulation.getTime();
+
+        // Durchsatz an den Ausgabestellen und mittlerer Bestand der Speicher
+        double delivered = 0;
+        double stock = 0;
+        for(int p = 0; p < names.length; p++) {
+            if(net.getPlace(p) instanceof M_PNPOutput) {
+                delivered += marking[p] - initial[p];
+            }
+            else if((net.getPlace(p) instanceof M_PNPInput) == false) {
+                stock += simulation.getAverage(p);
+            }
+        }
+        double throughput = time > 0 ? delivered / time : 0;
+
+        text.append("Time:        " + Reachability.formatValue(time)
+                + (simulation.isDeadlock() == true ? " (deadlock)"
+                        : simulation.isLimitReached() == true ? " (event limit reached)" : "") + "\n");
+        text.append("Events:      " + simulation.getEvents() + "\n");
+        text.append(String.format("Runtime:     %.3f s%n", simulation.getSeconds()));
+        text.append(String.format("Events/sec:  %.0f%n", simulation.getEventsPerSecond()));
+        text.append(String.format("Throughput:  %.6g tokens per time unit at outputs%n", throughput));
+        text.append(String.format("Stock:       %.6g tokens in storage places (time average)%n", stock));
+        if(throughput > 0) {
+            text.append(String.format("Latency:     %.6g time units (Little's law)%n", stock / throughput));
+        }
+
+        text.append("Places (time average):\n");
+        for(int p = 0; p < names.length && p < MAX_LISTED; p++) {
+            text.append(String.format("  %-8s %.6g%n", names[p], simulation.getAverage(p)));
+        }
+        appendOmitted(text, names.length);
+
+        text.append("Transitions (firings per time unit):\n");
+        for(int t = 0; t < net.getNumberOfTransitions() && t < MAX_LISTED; t++) {
+            text.append(String.format("  %-8s %.6g%n", "T" + (t + 1), simulation.getThroughput(t)));
+        }
+        appendOmitted(text, net.getNumberOfTransitions());
+
+        return text.toString();
+    }
+
+    /**
+     * Schreibt die Mittelwerte als CSV-Datei mit den Spalten kind, element und value
+     * (P: zeitgewichtete mittlere Markierung, T: Feuerungen je Zeiteinheit).
+     * @param file Zieldatei
+     * @param net kompiliertes Netz
+     * @param simulation durchgeführte Simulation
+     * @throws IOException Fehler beim Schreiben
+     */
+    static void writeCsv(File file, M_CompiledNet net, M_StochasticSimulation simulation) throws IOException {
+        String[] names = Reachability.placeNames(net);
+
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("kind,element,value\n");
+            for(int p = 0; p < names.length; p++) {
+                out.write("P," + names[p] + "," + simulation.getAverage(p) + "\n");
+            }
+            for(int t = 0; t < net.getNumberOfTransitions(); t++) {
+                out.write("T,T" + (t + 1) + "," + simulation.getThroughput(t) + "\n");
+            }
+        }
+    }
+
+    private static void appendOmitted(StringBuilder text, int size) {
+        if(size > MAX_LISTED) {
+            text.append("  ... " + (size - MAX_LISTED) + " more\n");
+        }
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
@@ -0,0 +1,371 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import model.ME_SweepTarget;
+import model.M_CompiledNet;
+import model.M_PNPInput;
+import model.M_Sweep;
+import model.M_SweepParameter;
+
+/**
+ * Startklasse für eine Parameterstudie über ein gespeichertes Netz ohne Oberfläche (M_Sweep).
+ * Jeder Parameter <code>-param NAME=MIN:MAX</code> ist ein Kantengewicht (<code>T3.wx1</code>:
+ * erster Eingang, <code>T3.wy2</code>: zweiter Ausgang von T3) oder eine Kapazität
+ * (<code>S2.cap</code>, <code>O1.cap</code>). Der Versuchsplan ist ein Gitter mit
+ * <code>-levels</code> Werten je Parameter oder ein Latin Hypercube mit <code>-points</code>
+ * Punkten. Ausgegeben wird je Punkt eine Zeile mit den Werten, Schritten, Runden, Verklemmung
+ * und Durchsatz (Teile an den Ausgabestellen je Runde); mit <code>-csv</code> wird die ganze
+ * Tabelle als CSV-Datei geschrieben.
+ * <p>
+ * Aufruf: <code>java control.Sweep [-design grid|lhs] [-levels N] [-points N] [-seed S] [-steps N] [-rounds N] [-threads K] [-csv AUSGABE] -param NAME=MIN:MAX... DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Studie durchgeführt, 1 = Netz nicht ladbar oder Ausgabe nicht schreibbar,
+ * 2 = fehlerhafter Aufruf.
+ */
+public class Sweep implements ActionListener {
+
+    // ausgegebene Punkte
+    static final int MAX_LISTED = 50;
+
+    private boolean latinHypercube;
+    private int levels = 5;
+    private int points = 100;
+    private long seed = 1;
+    private long maxSteps = 100000;
+    private long maxRounds = 10000000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ArrayList<String> parameters = new ArrayList<String>();
+    private File csvFile;
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Sweep sweep = new Sweep();
+
+        if(sweep.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(sweep.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-design") && i + 1 < args.length) {
+                    String design = args[++i];
+                    if(design.equals("lhs")) {
+                        latinHypercube = true;
+                    }
+                    else if(design.equals("grid")) {
+                        latinHypercube = false;
+                    }
+                    else {
+                        return false;
+                    }
+                }
+                else if(args[i].equals("-levels") && i + 1 < args.length) {
+                    levels = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("-points") && i + 1 < args.length) {
+                    points = (int) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                }
+                else if(args[i].equals("-steps") && i + 1 < args.length) {
+                    maxSteps = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-rounds") && i + 1 < args.length) {
+                    maxRounds = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("-param") && i + 1 < args.length) {
+                    parameters.add(args[++i]);
+                }
+                else if(args[i].equals("-csv") && i + 1 < args.length) {
+                    csvFile = new File(args[++i]);
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && parameters.isEmpty() == false && levels > 0 && points > 0
+                && maxSteps >= 0 && maxRounds > 0 && threads > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Sweep [-design grid|lhs] [-levels N] [-points N] [-seed S] [-steps N] [-rounds N]");
+        System.err.println("       [-threads K] [-csv OUT] -param NAME=MIN:MAX... FILE");
+        System.err.println("Runs the Petri net in FILE (*.pnet or *.pnml) for every point of a grid (-levels values per");
+        System.err.println("parameter, default 5) or Latin hypercube (-points, default 100) design. NAME is T#.wx# (input weight),");
+        System.err.println("T#.wy# (output weight) or S#.cap / O#.cap (capacity); integer ranges give integer values.");
+    }
+
+    /*
+     * Lädt das Netz, führt die Studie durch und gibt die Ergebnisse aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        if(model.isNetConsistent() == false) {
+            System.err.println("Can't start running; net isn't consistent.");
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        M_Sweep sweep = new M_Sweep(net);
+        sweep.setMaxSteps(maxSteps);
+        sweep.setMaxRounds(maxRounds);
+
+        double[][] design;
+        try {
+            for(int i = 0; i < parameters.size(); i++) {
+                sweep.addParameter(parseParameter(net, parameters.get(i)));
+            }
+            design = latinHypercube == true ? sweep.latinHypercube(points, seed) : sweep.gridDesign(levels);
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            sweep.run(design, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(sweep, threads));
+
+        if(csvFile != null) {
+            try {
+                writeCsv(csvFile, sweep);
+            }
+            catch(IOException e) {
+                System.err.println("Writing failed: " + csvFile + "\n" + e);
+                return 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Liest einen Parameter der Form NAME=MIN:MAX (siehe Klassenbeschreibung).
+     * @param net kompiliertes Netz
+     * @param text Parameter
+     * @return Parameter
+     * @throws IllegalArgumentException Parameter fehlerhaft oder Element nicht vorhanden
+     */
+    static M_SweepParameter parseParameter(M_CompiledNet net, String text) {
+        int split = text.indexOf('=');
+        int colon = text.indexOf(':', split + 1);
+        int dot = text.indexOf('.');
+        if(split < 0 || colon < 0 || dot < 0 || dot > split) {
+            throw new IllegalArgumentException("Invalid parameter: " + text);
+        }
+
+        String name = text.substring(0, split);
+        String element = name.substring(0, dot);
+        String property = name.substring(dot + 1);
+        double low;
+        double high;
+        try {
+            low = Double.parseDouble(text.substring(split + 1, colon));
+            high = Double.parseDouble(text.substring(colon + 1));
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid range: " + text);
+        }
+
+        if(element.startsWith("T") == true && (property.startsWith("wx") == true || property.startsWith("wy") == true)) {
+            int t = parseNumber(element.substring(1), name) - 1;
+            int arc = parseNumber(property.substring(2), name) - 1;
+            if(t < 0 || t >= net.getNumberOfTransitions()) {
+                throw new IllegalArgumentException("No such transition: " + element);
+            }
+            boolean input = property.startsWith("wx");
+            int arcs = input == true ? net.getTransition(t).getNumberOfInputs() : net.getTransition(t).getNumberOfOutputs();
+            if(arc < 0 || arc >= arcs) {
+                throw new IllegalArgumentException("No such arc: " + name);
+            }
+            return new M_SweepParameter(input == true ? ME_SweepTarget.INPUT_WEIGHT : ME_SweepTarget.OUTPUT_WEIGHT,
+                    t, arc, name, low, high);
+        }
+
+        if(property.equals("cap")) {
+            String[] names = Reachability.placeNames(net);
+            for(int p = 0; p < names.length; p++) {
+                if(names[p].equals(element) == true) {
+                    if(net.getPlace(p) instanceof M_PNPInput) {
+                        throw new IllegalArgumentException("Input places have no capacity: " + element);
+                    }
+                    return new M_SweepParameter(ME_SweepTarget.CAPACITY, p, 0, name, low, high);
+                }
+            }
+            throw new IllegalArgumentException("No such place: " + element);
+        }
+
+        throw new IllegalArgumentException("Invalid parameter: " + text);
+    }
+
+    private static int parseNumber(String text, String name) {
+        try {
+            return Integer.parseInt(text);
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameter: " + name);
+        }
+    }
+
+    /**
+     * Beschreibt das Ergebnis der Studie als Tabelle (höchstens MAX_LISTED Punkte) mit dem
+     * Punkt höchsten Durchsatzes und der Anzahl der Verklemmungen und Livelocks.
+     * @param sweep durchgeführte Studie
+     * @param threads Anzahl der Threads
+     * @return Beschreibung
+     */
+    static String describe(M_Sweep sweep, int threads) {
+        StringBuilder text = new StringBuilder();
+        int n = sweep.getNumberOfPoints();
+
+        int deadlocks = 0;
+        int livelocks = 0;
+        int best = 0;
+        for(int i = 0; i < n; i++) {
+            if(sweep.isDeadlock(i) == true) {
+                deadlocks++;
+            }
+            if(sweep.isLivelock(i) == true) {
+                livelocks++;
+            }
+            if(sweep.getThroughput(i) > sweep.getThroughput(best)) {
+                best = i;
+            }
+        }
+
+        text.append("Points:      " + n + " on " + threads + " threads\n");
+        text.append(String.format("Runtime:     %.3f s%n", sweep.getSeconds()));
+        text.append("Deadlocks:   " + deadlocks + " of " + n + "\n");
+        text.append("Livelocks:   " + livelocks + " of " + n + "\n");
+
+        text.append(String.format("%-6s", "point"));
+        for(int k = 0; k < sweep.getNumberOfParameters(); k++) {
+            text.append(String.format(" %10s", sweep.getParameter(k).getName()));
+        }
+        text.append(String.format(" %10s %10s %-8s %12s %12s%n", "steps", "rounds", "end", "delivered", "throughput"));
+        for(int i = 0; i < n && i < MAX_LISTED; i++) {
+            appendRow(text, sweep, i);
+        }
+        if(n > MAX_LISTED) {
+            text.append("  ... " + (n - MAX_LISTED) + " more\n");
+        }
+
+        if(n > 0) {
+            text.append("Best:\n");
+            appendRow(text, sweep, best);
+        }
+        return text.toString();
+    }
+
+    private static void appendRow(StringBuilder text, M_Sweep sweep, int i) {
+        text.append(String.format("%-6d", i + 1));
+        for(int k = 0; k < sweep.getNumberOfParameters(); k++) {
+            text.append(String.format(" %10s", Reachability.formatValue(sweep.getValue(i, k))));
+        }
+        text.append(String.format(" %10d %10d %-8s %12s %12.6g%n", sweep.getSteps(i), sweep.getRounds(i), endOf(sweep, i),
+                Reachability.formatValue(sweep.getDelivered(i)), sweep.getThroughput(i)));
+    }
+
+    /*
+     * Gibt an, wie ein Punkt endete: "capacity" (Verklemmung an einer Kapazität), "deadlock",
+     * "livelock" oder "limit".
+     */
+    private static String endOf(M_Sweep sweep, int i) {
+        if(sweep.isLivelock(i) == true) {
+            return "livelock";
+        }
+        if(sweep.isDeadlock(i) == false) {
+            return "limit";
+        }
+        return sweep.isCapacityBlocked(i) == true ? "capacity" : "deadlock";
+    }
+
+    /**
+     * Schreibt die Ergebnistabelle als CSV-Datei: je Punkt die Parameterwerte, Schritte, Runden,
+     * Ende (deadlock, capacity, livelock oder limit), angekommene Teile und Durchsatz.
+     * @param file Zieldatei
+     * @param sweep durchgeführte Studie
+     * @throws IOException Fehler beim Schreiben
+     */
+    static void writeCsv(File file, M_Sweep sweep) throws IOException {
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("point");
+            for(int k = 0; k < sweep.getNumberOfParameters(); k++) {
+                out.write("," + sweep.getParameter(k).getName());
+            }
+            out.write(",steps,rounds,end,delivered,throughput\n");
+
+            for(int i = 0; i < sweep.getNumberOfPoints(); i++) {
+                out.write(Integer.toString(i + 1));
+                for(int k = 0; k < sweep.getNumberOfParameters(); k++) {
+                    out.write("," + sweep.getValue(i, k));
+                }
+                out.write("," + sweep.getSteps(i) + "," + sweep.getRounds(i) + "," + endOf(sweep, i)
+                        + "," + sweep.getDelivered(i) + "," + sweep.getThroughput(i) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
@@ -0,0 +1,242 @@
+package control;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.M_CompiledNet;
+import model.M_PNPInput;
+import model.M_PNPOutput;
+import model.M_TimedSimulation;
+
+/**
+ * Startklasse für die zeitbehaftete Simulation eines gespeicherten Netzes ohne Oberfläche
+ * (M_TimedSimulation). Verzögerungen der Transitionen und Haltezeiten der Allgemeinen Stellen
+ * stammen aus der Netzdatei; <code>-delay D</code> bzw. <code>-hold H</code> setzen sie für alle,
+ * <code>-delay T3=2.5</code> bzw. <code>-hold S2=4</code> für einzelne Elemente. Simuliert wird
+ * bis zum Zeitpunkt <code>-time</code>, bis zur Verklemmung oder bis <code>-events</code>
+ * Ereignisse. Ausgegeben werden Uhr, Ereignisse je Sekunde, der Durchsatz an den Ausgabestellen,
+ * die Endmarkierung sowie Feuerungen und mittlere Zykluszeit der Transitionen.
+ * <p>
+ * Aufruf: <code>java control.Timed [-time T] [-events N] [-delay [T#=]D]... [-hold [S#=]H]... DATEI</code>
+ * <p>
+ * Rückgabewerte: 0 = Simulation durchgeführt, 1 = Netz nicht ladbar, 2 = fehlerhafter Aufruf.
+ */
+public class Timed implements ActionListener {
+
+    // ausgegebene Stellen und Transitionen
+    static final int MAX_LISTED = 20;
+
+    private double endTime = Double.POSITIVE_INFINITY;
+    private long maxEvents = 10000000;
+    private double delay = Double.NaN;      // NaN: Verzögerungen aus der Netzdatei
+    private double holdingTime = Double.NaN;
+    private Map<Integer, Double> delays = new LinkedHashMap<Integer, Double>();     // Transitionsnummer (ab 1) -> Verzögerung
+    private Map<String, Double> holdingTimes = new LinkedHashMap<String, Double>(); // Stellenname -> Haltezeit
+    private File inputFile;
+
+    public static void main(String[] args) {
+
+        // Sicherstellen, dass keinesfalls ein Display angesprochen wird
+        System.setProperty("java.awt.headless", "true");
+
+        Timed timed = new Timed();
+
+        if(timed.parseArguments(args) == false) {
+            printUsage();
+            System.exit(2);
+        }
+
+        System.exit(timed.run());
+    }
+
+    /*
+     * Wertet die Aufrufparameter aus.
+     * @return true, wenn die Parameter gültig sind, sonst false.
+     */
+    private boolean parseArguments(String[] args) {
+        try {
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("-time") && i + 1 < args.length) {
+                    endTime = Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-events") && i + 1 < args.length) {
+                    maxEvents = (long) Double.parseDouble(args[++i]);
+                }
+                else if(args[i].equals("-delay") && i + 1 < args.length) {
+                    String value = args[++i];
+                    int split = value.indexOf('=');
+                    if(split < 0) {
+                        delay = Double.parseDouble(value);
+                    }
+                    else if(value.startsWith("T") == true) {
+                        delays.put(Integer.parseInt(value.substring(1, split)),
+                                Double.parseDouble(value.substring(split + 1)));
+                    }
+                    else {
+                        return false;
+                    }
+                }
+                else if(args[i].equals("-hold") && i + 1 < args.length) {
+                    String value = args[++i];
+                    int split = value.indexOf('=');
+                    if(split < 0) {
+                        holdingTime = Double.parseDouble(value);
+                    }
+                    else if(value.startsWith("S") == true) {
+                        holdingTimes.put(value.substring(0, split), Double.parseDouble(value.substring(split + 1)));
+                    }
+                    else {
+                        return false;
+                    }
+                }
+                else if(args[i].startsWith("-") == false && inputFile == null) {
+                    inputFile = new File(args[i]);
+                }
+                else {
+                    return false;
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            return false;
+        }
+
+        return inputFile != null && endTime > 0 && maxEvents > 0;
+    }
+
+    /*
+     * Gibt einen Hinweis zum Aufruf aus.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java control.Timed [-time T] [-events N] [-delay [T#=]D]... [-hold [S#=]H]... FILE");
+        System.err.println("Simulates the Petri net in FILE (*.pnet or *.pnml) as a timed net with deterministic delays");
+        System.err.println("until time T, deadlock or N events (default 1e7). Delays and holding times are taken from FILE;");
+        System.err.println("-delay D / -hold H set them for all transitions / storage places, -delay T3=D / -hold S2=H for one.");
+    }
+
+    /*
+     * Lädt das Netz, simuliert es und gibt das Ergebnis aus.
+     * @return Rückgabewert für System.exit()
+     */
+    private int run() {
+        Logic model = new Logic(this);
+
+        try {
+            StartUpBatch.loadLogic(inputFile, model);
+        }
+        catch(Exception e) {
+            System.err.println("Loading failed: " + inputFile + "\n" + e);
+            return 1;
+        }
+
+        M_CompiledNet net = model.compileSnapshot();
+        float[] initial = net.getMarking().clone();
+        String[] names = Reachability.placeNames(net);
+        M_TimedSimulation simulation = new M_TimedSimulation(net);
+
+        try {
+            if(Double.isNaN(delay) == false) {
+                for(int t = 0; t < net.getNumberOfTransitions(); t++) {
+                    simulation.setDelay(t, delay);
+                }
+            }
+            for(Map.Entry<Integer, Double> entry : delays.entrySet()) {
+                int t = entry.getKey() - 1;
+                if(t < 0 || t >= net.getNumberOfTransitions()) {
+                    System.err.println("No such transition: T" + entry.getKey());
+                    return 2;
+                }
+                simulation.setDelay(t, entry.getValue());
+            }
+            for(int p = 0; p < names.length; p++) {
+                if(Double.isNaN(holdingTime) == false && names[p].startsWith("S") == true) {
+                    simulation.setHoldingTime(p, holdingTime);
+                }
+                if(holdingTimes.containsKey(names[p]) == true) {
+                    simulation.setHoldingTime(p, holdingTimes.remove(names[p]));
+                }
+            }
+            if(holdingTimes.isEmpty() == false) {
+                System.err.println("No such storage place: " + holdingTimes.keySet().iterator().next());
+                return 2;
+            }
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        long start = System.nanoTime();
+        boolean pending = simulation.run(endTime, maxEvents);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("File:        " + inputFile);
+        System.out.print(describe(net, initial, simulation, pending, seconds));
+
+        return 0;
+    }
+
+    /**
+     * Beschreibt das Ergebnis der Simulation (mehrzeilig); aufgeführt werden höchstens
+     * MAX_LISTED Stellen und Transitionen.
+     * @param net kompiliertes Netz (mit der Endmarkierung)
+     * @param initial Anfangsmarkierung
+     * @param simulation durchgeführte Simulation
+     * @param pending true, wenn noch Ereignisse ausstehen
+     * @param seconds Rechenzeit in Sekunden
+     * @return Beschreibung
+     */
+    static String describe(M_CompiledNet net, float[] initial, M_TimedSimulation simulation, boolean pending, double seconds) {
+        StringBuilder text = new StringBuilder();
+        String[] names = Reachability.placeNames(net);
+        float[] marking = net.getMarking();
+        double clock = simulation.getClock();
+
+        double delivered = 0;
+        for(int p = 0; p < names.length; p++) {
+            if(net.getPlace(p) instanceof M_PNPOutput) {
+                delivered += marking[p] - initial[p];
+            }
+        }
+
+        text.append("Clock:       " + Reachability.formatValue(clock) + (pending == false ? " (deadlock)" : "") + "\n");
+        text.append("Events:      " + simulation.getEvents() + " (" + simulation.getPendingEvents() + " pending)\n");
+        text.append(String.format("Runtime:     %.3f s%n", seconds));
+        text.append(String.format("Events/sec:  %.0f%n", seconds > 0 ? simulation.getEvents() / seconds : 0.0));
+        text.append(String.format("Throughput:  %.6g tokens per time unit at outputs%n", clock > 0 ? delivered / clock : 0.0));
+
+        text.append("Marking:\n");
+        for(int p = 0; p < names.length && p < MAX_LISTED; p++) {
+            if((net.getPlace(p) instanceof M_PNPInput) == false) {
+                text.append(String.format("  %-8s %s%n", names[p], Reachability.formatValue(marking[p])));
+            }
+        }
+        appendOmitted(text, names.length);
+
+        text.append("Transitions (firings, mean cycle time):\n");
+        for(int t = 0; t < net.getNumberOfTransitions() && t < MAX_LISTED; t++) {
+            long firings = simulation.getFirings(t);
+            text.append(String.format("  %-8s %-10d %s%n", "T" + (t + 1), firings,
+                    firings > 0 ? String.format("%.6g", clock / firings) : "-"));
+        }
+        appendOmitted(text, net.getNumberOfTransitions());
+
+        return text.toString();
+    }
+
+    private static void appendOmitted(StringBuilder text, int size) {
+        if(size > MAX_LISTED) {
+            text.append("  ... " + (size - MAX_LISTED) + " more\n");
+        }
+    }
+
+    /**
+     * Nimmt die Meldungen der Logik entgegen und gibt sie aus.
+     */
+    public void actionPerformed(ActionEvent e) {
+        System.err.println(e.getActionCommand());
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * Enum zur Auswahl der Berechnungsart, mit der Logic.makeStep() das Netz ausführt.
+ */
+public enum ME_EngineMode {
+    OBJECT,     // Berechnung direkt auf den Logik-Elementen (M_PNTransition.computeStep())
+    COMPILED,   // Berechnung auf dem kompilierten Netz (M_CompiledNet)
+    WORKLIST,   // wie COMPILED, aber nur Transitionen an veränderten Stellen werden neu berechnet
+    PARALLEL,   // wie COMPILED, konfliktfreie Transitionen werden parallel berechnet
+    BULK,       // wie COMPILED, jede Transition feuert je Runde so oft wie möglich auf einmal
+    TIMED       // zeitbehaftet: ein Schritt stellt die Uhr auf das nächste Ereignis (M_TimedSimulation)
+}
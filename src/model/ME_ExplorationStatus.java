@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * Enum für das Ergebnis einer Zustandsraumerkundung (M_StateSpace).
+ */
+public enum ME_ExplorationStatus {
+    COMPLETE,       // alle erreichbaren Markierungen wurden besucht
+    STATE_LIMIT,    // abgebrochen, weil die Zustandsgrenze erreicht wurde
+    UNBOUNDED,      // abgebrochen, weil eine unbeschränkte Stelle zu groß wurde
+    CANCELLED       // von außen abgebrochen (M_StateSpace.cancel())
+}
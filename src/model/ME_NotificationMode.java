@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * Enum zur Auswahl, wann die Logik-Elemente ihre Beobachter (die View) über Änderungen benachrichtigen.
+ */
+public enum ME_NotificationMode {
+    IMMEDIATE,  // bei jeder Änderung sofort (notifyObservers())
+    PER_STEP,   // gesammelt einmal am Ende jedes Schrittes (Logic.makeStep())
+    MANUAL      // gesammelt, erst auf Anforderung (Logic.publishChanges())
+}
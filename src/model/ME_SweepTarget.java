@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * Enum für die Art eines Parameters einer Parameterstudie (M_SweepParameter).
+ */
+public enum ME_SweepTarget {
+    INPUT_WEIGHT,   // Gewicht einer Eingangskante (wx)
+    OUTPUT_WEIGHT,  // Gewicht einer Ausgangskante (wy)
+    CAPACITY        // Kapazität einer Stelle
+}
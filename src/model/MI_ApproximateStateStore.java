@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Interface für Mengen besuchter Markierungen, die nur Hashwerte speichern. Zwei
+ * verschiedene Markierungen können dabei für gleich gehalten werden; add() liefert dann
+ * fälschlich false und die Markierung (samt ihren Nachfolgern) wird möglicherweise nicht
+ * erkundet. Wie vollständig die Erkundung war, lässt sich nur schätzen.
+ */
+public interface MI_ApproximateStateStore extends MI_StateStore {
+
+    /**
+     * Schätzt den Anteil der tatsächlich erreichten Markierungen, die erkundet wurden.
+     * @return geschätzte Abdeckung zwischen 0 und 1
+     */
+    double getCoverage();
+
+    /**
+     * Schätzt die Anzahl der fälschlich als bereits besucht verworfenen Markierungen.
+     * @return geschätzte Anzahl verworfener Markierungen
+     */
+    double getExpectedOmissions();
+}
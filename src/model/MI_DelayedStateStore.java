@@ -0,0 +1,31 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Interface für Mengen besuchter Markierungen mit verzögerter Duplikaterkennung. add()
+ * erkennt Duplikate nur gegenüber dem im Hauptspeicher gehaltenen Teil der Menge; ob eine
+ * Markierung wirklich neu ist, steht erst fest, wenn die Kandidaten einer Ebene der
+ * Breitensuche (oder eines Teils davon) mit completeLevel() gegen den übrigen (z.B.
+ * ausgelagerten) Teil abgeglichen wurden.
+ */
+public interface MI_DelayedStateStore extends MI_StateStore {
+
+    /**
+     * Gleicht die Kandidaten einer Ebene oder eines Teils davon (alle Markierungen, für die
+     * add() seit dem letzten Aufruf true geliefert hat) mit der gesamten Menge ab und übernimmt
+     * die wirklich neuen Markierungen. Wird nicht gleichzeitig mit add() aufgerufen.
+     * @param candidates Blöcke gepackter Markierungen
+     * @return Blöcke der neuen Markierungen (nächste Ebene)
+     * @throws java.io.UncheckedIOException Fehler beim Auslagern
+     */
+    ArrayList<long[]> completeLevel(ArrayList<long[]> candidates);
+
+    /**
+     * Testet, ob der Teil im Hauptspeicher sein Budget überschreitet. Dann sollte die
+     * Expansion unterbrochen und completeLevel() aufgerufen werden, bevor weitere Markierungen
+     * aufgenommen werden. Darf gleichzeitig mit add() aufgerufen werden.
+     * @return true, wenn das Budget überschritten ist, sonst false.
+     */
+    boolean isMemoryFull();
+}
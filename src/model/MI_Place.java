@@ -10,4 +10,9 @@ public interface MI_Place {
     public boolean hasPlaceForN(float n); // true, wenn die Stelle n Teile aufnehmen kann
     public void getN(float n);            // der Stelle n Teile entziehen
     public void putN(float n);            // der Stelle n Teile übergeben
+
+    public float getValue();              // Liefert die aktuelle Anzahl an Teilen in der Stelle
+    public float getCapacity();           // Liefert die Kapazität der Stelle (unbegrenzt: Float.POSITIVE_INFINITY)
+    public void setValue(float value);    // Stellt die Anzahl an Teilen direkt ein (z.B. beim Zurückschreiben
+                                          // aus dem kompilierten Netz)
 }
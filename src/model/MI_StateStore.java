@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * Interface für die Menge der bei einer Zustandsraumerkundung besuchten Markierungen.
+ * Die Markierungen werden gepackt übergeben (siehe M_MarkingCodec). Implementierungen
+ * müssen von mehreren Threads gleichzeitig benutzt werden können.
+ */
+public interface MI_StateStore {
+
+    /**
+     * Nimmt eine Markierung auf, sofern sie noch nicht enthalten ist.
+     * @param state Feld mit der gepackten Markierung
+     * @param offset Beginn der Markierung im Feld
+     * @param hash Hashwert der Markierung (M_MarkingCodec.hash())
+     * @return true, wenn die Markierung neu ist, sonst false.
+     */
+    boolean add(long[] state, int offset, long hash);
+
+    /**
+     * Gibt die Anzahl der enthaltenen Markierungen zurück.
+     * @return Anzahl der Markierungen
+     */
+    long size();
+
+    /**
+     * Gibt den belegten Speicher (in Bytes) zurück.
+     * @return belegter Speicher
+     */
+    long getBytes();
+}
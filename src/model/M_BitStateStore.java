@@ -0,0 +1,131 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Menge besuchter Markierungen nach dem Bitstate-Verfahren (Supertrace): für jede Markierung
+ * werden nur k Bits in einem großen Bitfeld gesetzt. Eine Markierung gilt als besucht, wenn
+ * alle ihre k Bits bereits gesetzt sind. Der Speicherbedarf ist unabhängig von der Anzahl
+ * und Größe der Markierungen.
+ * <p>
+ * Die k Bitpositionen werden durch Doppel-Hashing aus dem 64-Bit-Hashwert der Markierung
+ * gebildet. Die Bits werden ohne Sperren (compareAndSet) gesetzt; fügen zwei Threads
+ * dieselbe Markierung gleichzeitig ein, können daher beide true erhalten (die Markierung
+ * wird dann doppelt gezählt und expandiert).
+ */
+public class M_BitStateStore implements MI_ApproximateStateStore {
+
+    // Worte je Abschnitt des Bitfeldes (2^27 Worte = 1 GB)
+    static final int SEGMENT_BITS = 27;
+
+    private final long bits;                // Größe des Bitfeldes (Zweierpotenz)
+    private final int hashes;               // gesetzte Bits je Markierung
+    private final AtomicLongArray[] segments;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Erzeugt ein leeres Bitfeld.
+     * @param bytes Größe des Bitfeldes in Bytes (wird auf eine Zweierpotenz abgerundet)
+     * @param hashes gesetzte Bits je Markierung (k, üblicherweise 2 bis 4)
+     */
+    public M_BitStateStore(long bytes, int hashes) {
+        if(bytes < 8 || hashes < 1) {
+            throw new IllegalArgumentException("Invalid bitstate size " + bytes + " / hashes " + hashes);
+        }
+        this.bits = Long.highestOneBit(bytes) * 8;
+        this.hashes = hashes;
+
+        long words = bits / 64;
+        long perSegment = 1L << SEGMENT_BITS;
+        segments = new AtomicLongArray[(int) ((words + perSegment - 1) / perSegment)];
+        for(int s = 0; s < segments.length; s++) {
+            segments[s] = new AtomicLongArray((int) Math.min(perSegment, words - s * perSegment));
+        }
+    }
+
+    /**
+     * Setzt die Bits der Markierung.
+     * @return true, wenn mindestens eines der Bits noch nicht gesetzt war.
+     */
+    public boolean add(long[] state, int offset, long hash) {
+        long mask = bits - 1;
+        long step = M_MarkingCodec.mix(hash) | 1;    // ungerade: durchläuft alle Positionen
+        boolean added = false;
+
+        long position = hash;
+        for(int i = 0; i < hashes; i++, position += step) {
+            long bit = position & mask;
+            long word = bit >>> 6;
+            AtomicLongArray segment = segments[(int) (word >>> SEGMENT_BITS)];
+            int index = (int) (word & ((1L << SEGMENT_BITS) - 1));
+            long flag = 1L << (bit & 63);
+
+            long old = segment.get(index);
+            while((old & flag) == 0) {
+                if(segment.compareAndSet(index, old, old | flag) == true) {
+                    added = true;
+                    break;
+                }
+                old = segment.get(index);
+            }
+        }
+
+        if(added == true) {
+            size.increment();
+        }
+        return added;
+    }
+
+    /**
+     * Gibt die Anzahl der aufgenommenen Markierungen zurück.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Gibt die Größe des Bitfeldes (in Bytes) zurück.
+     */
+    public long getBytes() {
+        return bits / 8;
+    }
+
+    /**
+     * Gibt die Anzahl der gesetzten Bits je Markierung zurück.
+     * @return k
+     */
+    public int getHashes() {
+        return hashes;
+    }
+
+    /*
+     * Wahrscheinlichkeit, dass eine neue Markierung bei n aufgenommenen Markierungen
+     * fälschlich als besucht gilt: (1 - e^(-kn/m))^k.
+     */
+    private double falsePositive(double n) {
+        return Math.pow(1 - Math.exp(-hashes * n / bits), hashes);
+    }
+
+    /**
+     * Schätzt die verworfenen Markierungen als Summe der Fehlerwahrscheinlichkeiten über
+     * alle Einfügungen (numerisch integriert).
+     */
+    public double getExpectedOmissions() {
+        double n = size();
+        int steps = 1000;
+        double sum = 0;
+        for(int i = 0; i < steps; i++) {
+            sum += falsePositive(n * (i + 0.5) / steps);
+        }
+        return sum * n / steps;
+    }
+
+    /**
+     * Schätzt die Abdeckung als n / (n + verworfene Markierungen).
+     */
+    public double getCoverage() {
+        double n = size();
+        return n > 0 ? n / (n + getExpectedOmissions()) : 1;
+    }
+}
@@ -0,0 +1,242 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Führt Schritte eines kompilierten Netzes (M_CompiledNet) mit Mehrfachfeuerung aus: In einer
+ * Runde feuert jede aktivierte Transition nicht einmal, sondern k-mal in einer einzigen
+ * Änderung der Markierung. k ist das Minimum aus den verfügbaren Teilen der vorhergehenden
+ * Stellen (Wert / Gewicht) und dem freien Platz der nachfolgenden Stellen (Kapazität - Wert)
+ * / Gewicht. Ein Netz mit vielen Teilen braucht so Runden proportional zu seiner Struktur
+ * statt zur Anzahl der Teile.
+ * <p>
+ * Konflikte werden fair aufgelöst: Die Teile einer Stelle werden gleichmäßig auf alle
+ * aktivierten Transitionen verteilt, die aus ihr nehmen (bzw. der freie Platz auf alle, die
+ * in sie liefern), so wie es der reihum feuernde Ablauf von M_CompiledNet.makeStep() auf
+ * Dauer auch tut. Alle Vielfachheiten einer Runde werden auf derselben Markierung bestimmt;
+ * die Änderung entspricht damit einer gültigen Folge von Einzelfeuerungen in beliebiger
+ * Reihenfolge. Reicht eine Stelle für keinen gleichen Anteil mehr (z.B. ein Teil bei zwei
+ * Abnehmern), wird die Runde wie in makeStep() einzeln in Indexreihenfolge berechnet.
+ */
+public class M_BulkStepper {
+
+    private final M_CompiledNet net;
+
+    private final double[] times;       // Vielfachheit je Transition in der aktuellen Runde
+    private final double[] demand;      // Summe der Gewichte aller aktivierten Abnehmer je Stelle
+    private final double[] supply;      // Summe der Gewichte aller aktivierten Lieferanten je Stelle
+
+    private long firings;               // Einzelfeuerungen im letzten Schritt
+
+    /**
+     * Bereitet die Mehrfachfeuerung für das übergebene Netz vor.
+     * @param net kompiliertes Netz
+     */
+    public M_BulkStepper(M_CompiledNet net) {
+        this.net = net;
+
+        times = new double[net.numberOfTransitions];
+        demand = new double[net.numberOfPlaces];
+        supply = new double[net.numberOfPlaces];
+    }
+
+    /**
+     * Gibt die Anzahl der Einzelfeuerungen zurück, die der letzte Schritt zusammengefasst hat.
+     * @return Anzahl der Einzelfeuerungen
+     */
+    public long getFirings() {
+        return firings;
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen: Runden mit Mehrfachfeuerung werden
+     * berechnet, bis an mindestens einer Ausgabestelle etwas angekommen ist oder keine
+     * Transition mehr arbeiten konnte.
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStep() {
+        boolean someCameOut = false;
+        firings = 0;
+        net.getLivelockGuard().startStep();
+
+        do {
+            int result = computeTimes();
+
+            if(result == NONE) {
+                net.atLeastOneTransitionWorked = false;
+                return false;
+            }
+
+            if(result == BULK) {
+                someCameOut = fireTimes();
+            }
+            else {
+                someCameOut = fireSingle();
+            }
+            net.atLeastOneTransitionWorked = true;
+        }
+        while (someCameOut == false && net.continueStep() == true);
+
+        return someCameOut;
+    }
+
+    // Ergebnis von computeTimes()
+    private static final int NONE = 0;      // keine Transition aktiviert
+    private static final int BULK = 1;      // mindestens eine Transition feuert k >= 1 mal
+    private static final int SINGLE = 2;    // aktiviert, aber kein gleicher Anteil möglich
+
+    /*
+     * Bestimmt die Vielfachheiten aller Transitionen auf der aktuellen Markierung.
+     */
+    private int computeTimes() {
+        float[] m = net.marking;
+        boolean enabled = false;
+        boolean bulk = false;
+
+        Arrays.fill(demand, 0);
+        Arrays.fill(supply, 0);
+
+        // Vielfachheit jeder Transition für sich allein, Bedarf der aktivierten je Stelle
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            times[t] = aloneTimes(t, m);
+            if(times[t] < 1) {
+                continue;
+            }
+
+            enabled = true;
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                demand[net.prePlace[a]] += net.preWeight[a];
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                supply[net.postPlace[a]] += net.postWeight[a];
+            }
+        }
+
+        if(enabled == false) {
+            return NONE;
+        }
+
+        // gleiche Anteile an umkämpften Stellen
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            if(times[t] < 1) {
+                continue;
+            }
+
+            double k = times[t];
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                int p = net.prePlace[a];
+                k = Math.min(k, share(m[p], demand[p]));
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                int p = net.postPlace[a];
+                if(net.capacity[p] != Float.POSITIVE_INFINITY) {
+                    k = Math.min(k, share((double) net.capacity[p] - m[p], supply[p]));
+                }
+            }
+            times[t] = k;
+
+            if(k >= 1) {
+                bulk = true;
+            }
+        }
+
+        return bulk == true ? BULK : SINGLE;
+    }
+
+    /*
+     * Wie oft kann t unter m hintereinander feuern, wenn keine andere Transition feuert?
+     * Ohne begrenzende Stelle (keine Eingänge, unbegrenzte Ausgänge) einmal.
+     */
+    private double aloneTimes(int t, float[] m) {
+        double k = Double.POSITIVE_INFINITY;
+
+        for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+            k = Math.min(k, share(m[net.prePlace[a]], net.preWeight[a]));
+        }
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            if(net.capacity[p] != Float.POSITIVE_INFINITY) {
+                k = Math.min(k, share((double) net.capacity[p] - m[p], net.postWeight[a]));
+            }
+        }
+
+        if(k == Double.POSITIVE_INFINITY) {
+            return net.isEnabled(t, m) == true ? 1 : 0;
+        }
+        return k;
+    }
+
+    /*
+     * Größtes ganzzahliges k mit k * weight <= available (Rundung der Division abgefangen).
+     */
+    private static double share(double available, double weight) {
+        if(weight <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if((available >= weight) == false) {
+            return 0;
+        }
+
+        double k = Math.floor(available / weight);
+        while(k > 0 && k * weight > available) {
+            k--;
+        }
+        return k;
+    }
+
+    /*
+     * Lässt alle Transitionen mit k >= 1 gleichzeitig k-mal feuern.
+     * @return true, wenn an einer Ausgabestelle etwas angekommen ist
+     */
+    private boolean fireTimes() {
+        float[] m = net.marking;
+        boolean someCameOut = false;
+
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            double k = times[t];
+            if(k < 1) {
+                continue;
+            }
+
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                int p = net.prePlace[a];
+                m[p] = (float) (m[p] - k * net.preWeight[a]);
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                int p = net.postPlace[a];
+                m[p] = (float) (m[p] + k * net.postWeight[a]);
+            }
+
+            net.fired[t] = true;
+            net.getLivelockGuard().fired(t);
+            firings += (long) k;
+            if(net.chargesOutput[t] == true) {
+                someCameOut = true;
+            }
+        }
+
+        return someCameOut;
+    }
+
+    /*
+     * Berechnet eine Runde wie M_CompiledNet.makeStep(): jede Transition höchstens einmal.
+     * @return true, wenn an einer Ausgabestelle etwas angekommen ist
+     */
+    private boolean fireSingle() {
+        float[] m = net.marking;
+        boolean someCameOut = false;
+
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            if(net.fire(t, m) == true) {
+                net.fired[t] = true;
+                net.getLivelockGuard().fired(t);
+                firings++;
+                if(net.chargesOutput[t] == true) {
+                    someCameOut = true;
+                }
+            }
+        }
+
+        return someCameOut;
+    }
+}
@@ -0,0 +1,253 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Ereigniswarteschlange als Kalenderwarteschlange (Calendar Queue nach R. Brown). Ein Ereignis
+ * besteht aus einem Zeitpunkt und einer int-Angabe (z.B. Transitionsindex). Die Zeitachse ist
+ * in Tage gleicher Breite eingeteilt, die reihum auf die Fächer eines Jahres verteilt werden;
+ * jedes Fach hält seine Ereignisse als nach Zeitpunkt sortierte Liste. Entnommen wird, indem
+ * vom aktuellen Tag aus die Fächer der Reihe nach nach einem Ereignis dieses Tages durchsucht
+ * werden.
+ * <p>
+ * Wächst oder schrumpft die Anzahl der Ereignisse über das Doppelte bzw. die Hälfte der Fächer,
+ * wird die Fachanzahl verdoppelt bzw. halbiert und die Tagesbreite aus dem mittleren Abstand der
+ * Ereignisse neu bestimmt. Einfügen und Entnehmen kosten so im Mittel O(1), auch bei Millionen
+ * ausstehender Ereignisse. Ereignisse mit gleichem Zeitpunkt werden in der Reihenfolge ihres
+ * Einfügens entnommen. Die Ereignisse liegen in Feldern (ohne Objekte je Ereignis); entnommene
+ * Einträge werden über eine Freiliste wiederverwendet.
+ */
+public class M_CalendarQueue {
+
+    // kleinste Fachanzahl (Zweierpotenz)
+    static final int MIN_BUCKETS = 16;
+
+    // Ereignisse: Zeitpunkt, Angabe, nächstes Ereignis in derselben Liste (-1: Ende)
+    private double[] time;
+    private int[] data;
+    private int[] next;
+    private int free = -1;          // Kopf der Freiliste
+    private int used;               // bisher belegte Einträge
+
+    private int[] bucket;           // Listenkopf je Fach (-1: leer)
+    private int[] tail;             // Listenende je Fach (gültig, solange das Fach nicht leer ist)
+    private int mask;               // Fachanzahl - 1
+    private double width;           // Tagesbreite
+    private long currentDay;        // Tag, ab dem beim Entnehmen gesucht wird
+    private int size;
+
+    /**
+     * Erzeugt eine leere Warteschlange.
+     */
+    public M_CalendarQueue() {
+        time = new double[MIN_BUCKETS * 2];
+        data = new int[MIN_BUCKETS * 2];
+        next = new int[MIN_BUCKETS * 2];
+        bucket = newBuckets(MIN_BUCKETS);
+        tail = new int[MIN_BUCKETS];
+        mask = MIN_BUCKETS - 1;
+        width = 1;
+    }
+
+    /**
+     * Gibt die Anzahl der ausstehenden Ereignisse zurück.
+     * @return Anzahl der Ereignisse
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Testet, ob die Warteschlange leer ist.
+     * @return true, wenn kein Ereignis aussteht, sonst false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Entfernt alle Ereignisse.
+     */
+    public void clear() {
+        bucket = newBuckets(MIN_BUCKETS);
+        tail = new int[MIN_BUCKETS];
+        mask = MIN_BUCKETS - 1;
+        width = 1;
+        currentDay = 0;
+        free = -1;
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * Fügt ein Ereignis ein.
+     * @param when Zeitpunkt (endlich)
+     * @param value Angabe
+     */
+    public void insert(double when, int value) {
+        int e = allocate();
+        time[e] = when;
+        data[e] = value;
+
+        long day = day(when);
+        if(size == 0 || day < currentDay) {
+            currentDay = day;
+        }
+        link(e, day);
+        size++;
+
+        if(size > 2 * (mask + 1)) {
+            resize(2 * (mask + 1));
+        }
+    }
+
+    /**
+     * Gibt den Zeitpunkt des frühesten Ereignisses zurück.
+     * @return frühester Zeitpunkt (die Warteschlange darf nicht leer sein)
+     */
+    public double peekTime() {
+        return time[findFirst()];
+    }
+
+    /**
+     * Entnimmt das früheste Ereignis; sein Zeitpunkt ist vorher mit peekTime() abzufragen.
+     * @return Angabe des Ereignisses (die Warteschlange darf nicht leer sein)
+     */
+    public int poll() {
+        int e = findFirst();
+        int b = (int) (currentDay & mask);
+
+        bucket[b] = next[e];
+        next[e] = free;
+        free = e;
+        size--;
+
+        int value = data[e];
+        if(size < (mask + 1) / 2 && mask + 1 > MIN_BUCKETS) {
+            resize((mask + 1) / 2);
+        }
+        return value;
+    }
+
+    /*
+     * Sucht das früheste Ereignis ab dem aktuellen Tag und stellt currentDay auf dessen Tag.
+     */
+    private int findFirst() {
+        if(size == 0) {
+            throw new IllegalStateException("Calendar queue is empty");
+        }
+
+        // ein Jahr lang Tag für Tag suchen
+        long day = currentDay;
+        for(int i = 0; i <= mask; i++, day++) {
+            int e = bucket[(int) (day & mask)];
+            if(e >= 0 && day(time[e]) <= day) {
+                currentDay = day;
+                return e;
+            }
+        }
+
+        // nichts im nächsten Jahr: direkt nach dem frühesten Listenkopf suchen
+        int first = -1;
+        for(int b = 0; b <= mask; b++) {
+            int e = bucket[b];
+            if(e >= 0 && (first < 0 || time[e] < time[first])) {
+                first = e;
+            }
+        }
+        currentDay = day(time[first]);
+        return first;
+    }
+
+    private long day(double when) {
+        return (long) Math.floor(when / width);
+    }
+
+    /*
+     * Sortiert das Ereignis e hinter allen Ereignissen mit gleichem oder früherem Zeitpunkt ein.
+     * Der häufige Fall (nicht früher als das Listenende, z.B. viele gleiche Zeitpunkte) kostet
+     * O(1).
+     */
+    private void link(int e, long day) {
+        int b = (int) (day & mask);
+        if(bucket[b] < 0 || time[tail[b]] <= time[e]) {
+            if(bucket[b] < 0) {
+                bucket[b] = e;
+            }
+            else {
+                next[tail[b]] = e;
+            }
+            next[e] = -1;
+            tail[b] = e;
+            return;
+        }
+
+        int previous = -1;
+        int current = bucket[b];
+        while(current >= 0 && time[current] <= time[e]) {
+            previous = current;
+            current = next[current];
+        }
+        next[e] = current;
+        if(previous < 0) {
+            bucket[b] = e;
+        }
+        else {
+            next[previous] = e;
+        }
+    }
+
+    private int allocate() {
+        if(free >= 0) {
+            int e = free;
+            free = next[e];
+            return e;
+        }
+        if(used == time.length) {
+            int length = 2 * time.length;
+            time = Arrays.copyOf(time, length);
+            data = Arrays.copyOf(data, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return used++;
+    }
+
+    /*
+     * Verteilt alle Ereignisse auf eine neue Fachanzahl; die Tagesbreite wird so gewählt, dass
+     * auf einen Tag im Mittel etwa drei Ereignisse kommen.
+     */
+    private void resize(int buckets) {
+        int[] old = bucket;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for(int b = 0; b < old.length; b++) {
+            for(int e = old[b]; e >= 0; e = next[e]) {
+                min = Math.min(min, time[e]);
+                max = Math.max(max, time[e]);
+            }
+        }
+
+        double span = max - min;
+        width = span > 0 ? 3 * span / size : 1;
+        bucket = newBuckets(buckets);
+        tail = new int[buckets];
+        mask = buckets - 1;
+        currentDay = day(min);
+
+        // Listen der Reihe nach umhängen (gleiche Zeitpunkte behalten ihre Reihenfolge)
+        for(int b = 0; b < old.length; b++) {
+            int e = old[b];
+            while(e >= 0) {
+                int following = next[e];
+                link(e, day(time[e]));
+                e = following;
+            }
+        }
+    }
+
+    private static int[] newBuckets(int buckets) {
+        int[] heads = new int[buckets];
+        Arrays.fill(heads, -1);
+        return heads;
+    }
+}
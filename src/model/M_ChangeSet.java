@@ -0,0 +1,52 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Sammelt die seit der letzten Veröffentlichung geänderten Logik-Elemente. Ist einem
+ * Element eine Änderungsmenge zugeordnet, benachrichtigt es seine Beobachter nicht mehr bei
+ * jeder Änderung, sondern trägt sich hier (einmalig) ein. publish() benachrichtigt dann die
+ * Beobachter jedes geänderten Elementes genau einmal.
+ * <p>
+ * Eintragen (aus dem Berechnungs-Thread) und Veröffentlichen (z.B. aus dem Event-Dispatch-Thread)
+ * dürfen aus verschiedenen Threads erfolgen.
+ */
+public class M_ChangeSet {
+
+    private ArrayList<M_ElementRoot> changed = new ArrayList<M_ElementRoot>();
+
+    /**
+     * Trägt ein geändertes Element ein.
+     * @param element geändertes Element
+     */
+    synchronized void add(M_ElementRoot element) {
+        changed.add(element);
+    }
+
+    /**
+     * Gibt die Anzahl der eingetragenen, noch nicht veröffentlichten Elemente zurück.
+     * @return Anzahl geänderter Elemente
+     */
+    public synchronized int size() {
+        return changed.size();
+    }
+
+    /**
+     * Benachrichtigt die Beobachter aller eingetragenen Elemente und leert die Menge.
+     * @return Anzahl der benachrichtigten Elemente
+     */
+    public int publish() {
+        ArrayList<M_ElementRoot> published;
+
+        synchronized(this) {
+            published = changed;
+            changed = new ArrayList<M_ElementRoot>();
+        }
+
+        for(int i = 0; i < published.size(); i++) {
+            published.get(i).publish();
+        }
+
+        return published.size();
+    }
+}
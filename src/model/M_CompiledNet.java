@@ -0,0 +1,739 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Kompilierte (flache) Darstellung eines Petrinetzes. Die Transitionen, Stellen und Kanten
+ * der Logik werden einmalig in dichte, primitive Felder übersetzt: eine Markierung (float[]),
+ * Vor- und Nachbereiche der Transitionen im CSR-Format (Compressed Sparse Row) samt Gewichten
+ * sowie ein Kapazitätsvektor. Ein Schritt wird dann ausschließlich auf diesen Feldern
+ * berechnet, ohne Pins, Kanten und Casts. Die Ergebnisse werden erst mit writeBack() in die
+ * Logik-Elemente (und damit in die View) zurückgeschrieben.
+ * <p>
+ * Die Feuerungsregel entspricht exakt M_PNTransition.computeStep(): jede Eingangskante
+ * wird einzeln mit containsN(), jede Ausgangskante einzeln mit hasPlaceForN() geprüft.
+ */
+public class M_CompiledNet {
+
+    // Stellen (Reihenfolge: Allgemeine Stellen, Eingabestellen, Ausgabestellen)
+    final int numberOfPlaces;
+    final MI_Place[] places;        // Logik-Stellen (zum Zurückschreiben)
+    final float[] capacity;         // Kapazitäten (Eingabestellen: unbegrenzt)
+    final boolean[] isOutput;       // true für Ausgabestellen
+
+    // Transitionen (Reihenfolge wie in der Logik)
+    final int numberOfTransitions;
+    final M_PNTransition[] transitions;
+
+    // Vorbereiche: die Eingangskanten von Transition t liegen in [preStart[t], preStart[t+1])
+    final int[] preStart;
+    final int[] prePlace;
+    final float[] preWeight;
+
+    // Nachbereiche: die Ausgangskanten von Transition t liegen in [postStart[t], postStart[t+1])
+    final int[] postStart;
+    final int[] postPlace;
+    final float[] postWeight;
+
+    final boolean[] chargesOutput;  // true, wenn die Transition an eine Ausgabestelle liefert
+
+    // Abhängigkeiten: die Transitionen an Stelle p (Vor- oder Nachbereich) liegen in
+    // [adjacentStart[p], adjacentStart[p+1]), jede Transition höchstens einmal
+    final int[] adjacentStart;
+    final int[] adjacentTransition;
+
+    float[] marking;                // aktuelle Markierung
+    boolean[] fired;                // true, wenn Transition seit dem letzten writeBack() gearbeitet hat
+
+    boolean atLeastOneTransitionWorked; // zum Testen, ob Netz verklemmt ist
+
+    // Arbeitsliste für makeStepWorklist(): nur Transitionen, an deren Stellen sich seit ihrer
+    // letzten Berechnung etwas geändert hat, werden erneut berechnet. Beide Runden sind
+    // Bitmengen (Bit t in Wort t >> 6), die aufsteigend durchlaufen werden; [low, high] begrenzt
+    // die Wörter, in denen Bits gesetzt sein können.
+    private long[] currentRound;        // in dieser Runde noch zu berechnende Transitionen
+    private int currentHigh;
+    private long[] nextRound;           // in der nächsten Runde zu berechnende Transitionen
+    private int nextLow;
+    private int nextHigh;
+    private int lastRoundFirings;       // Feuerungen der letzten Runde (dicht oder dünn)
+
+    // ab diesem Kehrwert des Anteils feuernder Transitionen rechnet makeStepWorklist() eine
+    // Runde ohne Arbeitsliste: Vormerken kostet dann mehr, als es an Berechnungen spart
+    static final int DENSE_SHARE = 8;
+
+    private M_ParallelStepper parallelStepper;  // Färbung für makeStepParallel()
+    private M_BulkStepper bulkStepper;          // Mehrfachfeuerung für makeStepBulk()
+    private M_TimedSimulation timedSimulation;  // Uhr und Ereignisse für makeStepTimed()
+    private M_CycleDetector cycleDetector;      // Periodenerkennung für runFastForward()
+    private final M_LivelockGuard livelockGuard; // Rundengrenze und Livelock-Erkennung je Schritt
+
+    /**
+     * Übersetzt das übergebene Netz. Alle Transitionen müssen vollständig angeschlossen sein
+     * (siehe Logic.isNetConsistent()). Die aktuelle Markierung wird aus den Stellen übernommen.
+     * @param elementsTransition Liste aller Transitionen
+     * @param elementsStorage Liste aller Allgemeinen Stellen
+     * @param elementsInput Liste aller Eingabestellen
+     * @param elementsOutput Liste aller Ausgabestellen
+     */
+    public M_CompiledNet(ArrayList<MI_Element> elementsTransition,
+                         ArrayList<MI_Element> elementsStorage,
+                         ArrayList<MI_Element> elementsInput,
+                         ArrayList<MI_Element> elementsOutput) {
+
+        // Stellen durchnummerieren
+        numberOfPlaces = elementsStorage.size() + elementsInput.size() + elementsOutput.size();
+        places = new MI_Place[numberOfPlaces];
+        capacity = new float[numberOfPlaces];
+        isOutput = new boolean[numberOfPlaces];
+        marking = new float[numberOfPlaces];
+
+        IdentityHashMap<MI_Element, Integer> placeIndex = new IdentityHashMap<MI_Element, Integer>(numberOfPlaces * 2);
+
+        int p = 0;
+        p = addPlaces(elementsStorage, placeIndex, p, false);
+        p = addPlaces(elementsInput, placeIndex, p, false);
+        p = addPlaces(elementsOutput, placeIndex, p, true);
+
+        // Transitionen und Kanten übersetzen
+        numberOfTransitions = elementsTransition.size();
+        transitions = new M_PNTransition[numberOfTransitions];
+        preStart = new int[numberOfTransitions + 1];
+        postStart = new int[numberOfTransitions + 1];
+        chargesOutput = new boolean[numberOfTransitions];
+        fired = new boolean[numberOfTransitions];
+        livelockGuard = new M_LivelockGuard(numberOfPlaces, numberOfTransitions);
+
+        int numberOfPre = 0;
+        int numberOfPost = 0;
+        for(int t = 0; t < numberOfTransitions; t++) {
+            transitions[t] = (M_PNTransition) elementsTransition.get(t);
+            numberOfPre += transitions[t].pinsIn.size();
+            numberOfPost += transitions[t].pinsOut.size();
+        }
+
+        prePlace = new int[numberOfPre];
+        preWeight = new float[numberOfPre];
+        postPlace = new int[numberOfPost];
+        postWeight = new float[numberOfPost];
+
+        int a = 0;
+        int b = 0;
+        for(int t = 0; t < numberOfTransitions; t++) {
+            M_PNTransition transition = transitions[t];
+
+            preStart[t] = a;
+            for(int i = 0; i < transition.pinsIn.size(); i++) {
+                prePlace[a] = placeIndex.get(transition.pinsIn.get(i).getComplementPin().getAssignedElement());
+                preWeight[a] = transition.wx.get(i);
+                a++;
+            }
+
+            postStart[t] = b;
+            for(int i = 0; i < transition.pinsOut.size(); i++) {
+                postPlace[b] = placeIndex.get(transition.pinsOut.get(i).getComplementPin().getAssignedElement());
+                postWeight[b] = transition.wy.get(i);
+                if(isOutput[postPlace[b]] == true) {
+                    chargesOutput[t] = true;
+                }
+                b++;
+            }
+        }
+        preStart[numberOfTransitions] = a;
+        postStart[numberOfTransitions] = b;
+
+        // Abhängigkeiten Stelle -> Transitionen aufbauen (zweimal: zählen, dann füllen)
+        adjacentStart = new int[numberOfPlaces + 1];
+        int[] lastSeen = new int[numberOfPlaces];
+        Arrays.fill(lastSeen, -1);
+        for(int t = 0; t < numberOfTransitions; t++) {
+            countAdjacent(t, prePlace, preStart, lastSeen);
+            countAdjacent(t, postPlace, postStart, lastSeen);
+        }
+        for(p = 0; p < numberOfPlaces; p++) {
+            adjacentStart[p + 1] += adjacentStart[p];
+        }
+
+        adjacentTransition = new int[adjacentStart[numberOfPlaces]];
+        int[] fill = new int[numberOfPlaces];
+        System.arraycopy(adjacentStart, 0, fill, 0, numberOfPlaces);
+        Arrays.fill(lastSeen, -1);
+        for(int t = 0; t < numberOfTransitions; t++) {
+            fillAdjacent(t, prePlace, preStart, lastSeen, fill);
+            fillAdjacent(t, postPlace, postStart, lastSeen, fill);
+        }
+    }
+
+    /*
+     * Erzeugt eine Kopie, die Stellen, Transitionen, Kanten und Abhängigkeiten mit source teilt,
+     * aber eigene Gewichte, Kapazitäten und eine eigene Markierung (die aktuelle von source) hat.
+     */
+    private M_CompiledNet(M_CompiledNet source) {
+        numberOfPlaces = source.numberOfPlaces;
+        places = source.places;
+        capacity = source.capacity.clone();
+        isOutput = source.isOutput;
+
+        numberOfTransitions = source.numberOfTransitions;
+        transitions = source.transitions;
+        preStart = source.preStart;
+        prePlace = source.prePlace;
+        preWeight = source.preWeight.clone();
+        postStart = source.postStart;
+        postPlace = source.postPlace;
+        postWeight = source.postWeight.clone();
+        chargesOutput = source.chargesOutput;
+        adjacentStart = source.adjacentStart;
+        adjacentTransition = source.adjacentTransition;
+
+        marking = source.marking.clone();
+        fired = new boolean[numberOfTransitions];
+        livelockGuard = new M_LivelockGuard(numberOfPlaces, numberOfTransitions);
+        livelockGuard.setMaxRounds(source.livelockGuard.getMaxRounds());
+    }
+
+    /**
+     * Erzeugt eine Kopie dieses Netzes, deren Gewichte, Kapazitäten und Markierung unabhängig
+     * verändert werden können. Die Struktur (Kanten, Abhängigkeiten) wird nicht kopiert, sondern
+     * geteilt; eine Kopie kostet daher nur Speicher proportional zu Kanten und Stellen.
+     * @return Kopie mit geteilter Struktur
+     */
+    public M_CompiledNet copyWithSharedStructure() {
+        return new M_CompiledNet(this);
+    }
+
+    /*
+     * Zählt die Transition t einmal für jede ihrer Stellen (adjacentStart[p+1]).
+     */
+    private void countAdjacent(int t, int[] arcPlace, int[] arcStart, int[] lastSeen) {
+        for(int a = arcStart[t]; a < arcStart[t + 1]; a++) {
+            int p = arcPlace[a];
+            if(lastSeen[p] != t) {
+                lastSeen[p] = t;
+                adjacentStart[p + 1]++;
+            }
+        }
+    }
+
+    /*
+     * Trägt die Transition t einmal bei jeder ihrer Stellen ein.
+     */
+    private void fillAdjacent(int t, int[] arcPlace, int[] arcStart, int[] lastSeen, int[] fill) {
+        for(int a = arcStart[t]; a < arcStart[t + 1]; a++) {
+            int p = arcPlace[a];
+            if(lastSeen[p] != t) {
+                lastSeen[p] = t;
+                adjacentTransition[fill[p]++] = t;
+            }
+        }
+    }
+
+    /*
+     * Nimmt die Stellen einer Liste ab Index p auf und liefert den nächsten freien Index.
+     */
+    private int addPlaces(ArrayList<MI_Element> elements, IdentityHashMap<MI_Element, Integer> placeIndex, int p, boolean output) {
+        for(int i = 0; i < elements.size(); i++) {
+            MI_Place place = (MI_Place) elements.get(i);
+            places[p] = place;
+            capacity[p] = place.getCapacity();
+            marking[p] = place.getValue();
+            isOutput[p] = output;
+            placeIndex.put(elements.get(i), p);
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Gibt die Anzahl der Stellen zurück.
+     * @return Anzahl der Stellen
+     */
+    public int getNumberOfPlaces() {
+        return numberOfPlaces;
+    }
+
+    /**
+     * Gibt die Anzahl der Transitionen zurück.
+     * @return Anzahl der Transitionen
+     */
+    public int getNumberOfTransitions() {
+        return numberOfTransitions;
+    }
+
+    /**
+     * Gibt die aktuelle Markierung zurück (keine Kopie).
+     * @return Markierung, indiziert wie die Stellen
+     */
+    public float[] getMarking() {
+        return marking;
+    }
+
+    /**
+     * Gibt die Logik-Stelle zum übergebenen Index zurück.
+     * @param p Index der Stelle
+     * @return Logik-Stelle
+     */
+    public MI_Place getPlace(int p) {
+        return places[p];
+    }
+
+    /**
+     * Gibt die Logik-Transition zum übergebenen Index zurück.
+     * @param t Index der Transition
+     * @return Logik-Transition
+     */
+    public M_PNTransition getTransition(int t) {
+        return transitions[t];
+    }
+
+    /**
+     * Setzt das Gewicht einer Eingangskante (nur im kompilierten Netz, nicht in der Logik).
+     * @param t Index der Transition
+     * @param i Index des Eingangs (wie M_PNTransition.getInputWeight())
+     * @param weight neues Gewicht
+     */
+    public void setInputWeight(int t, int i, float weight) {
+        if(i < 0 || preStart[t] + i >= preStart[t + 1]) {
+            throw new IndexOutOfBoundsException("Transition " + t + " has no input " + i);
+        }
+        preWeight[preStart[t] + i] = weight;
+        resetWorklist();
+    }
+
+    /**
+     * Setzt das Gewicht einer Ausgangskante (nur im kompilierten Netz, nicht in der Logik).
+     * @param t Index der Transition
+     * @param i Index des Ausgangs (wie M_PNTransition.getOutputWeight())
+     * @param weight neues Gewicht
+     */
+    public void setOutputWeight(int t, int i, float weight) {
+        if(i < 0 || postStart[t] + i >= postStart[t + 1]) {
+            throw new IndexOutOfBoundsException("Transition " + t + " has no output " + i);
+        }
+        postWeight[postStart[t] + i] = weight;
+        resetWorklist();
+    }
+
+    /**
+     * Setzt die Kapazität einer Stelle (nur im kompilierten Netz, nicht in der Logik).
+     * @param p Index der Stelle
+     * @param capacity neue Kapazität
+     */
+    public void setCapacity(int p, float capacity) {
+        this.capacity[p] = capacity;
+        resetWorklist();
+    }
+
+    /**
+     * Testet, ob im letzten Schritt mindestens eine Transition arbeiten konnte.
+     * @return true, wenn mindestens eine Transition gearbeitet hat, sonst false.
+     */
+    public boolean hasAtLeastOneTransitionWorked() {
+        return atLeastOneTransitionWorked;
+    }
+
+    /**
+     * Testet, ob die Transition t unter der Markierung m feuern kann.
+     * @param t Index der Transition
+     * @param m Markierung
+     * @return true, wenn die Feuerungsregel erfüllt ist, sonst false.
+     */
+    public boolean isEnabled(int t, float[] m) {
+        // prüfen, ob alle vorhergehenden Stellen genug Teile liefern
+        for(int a = preStart[t]; a < preStart[t + 1]; a++) {
+            if((m[prePlace[a]] >= preWeight[a]) == false) {
+                return false;
+            }
+        }
+
+        // prüfen, ob alle nachfolgenden Stellen genug Teile aufnehmen können
+        for(int a = postStart[t]; a < postStart[t + 1]; a++) {
+            int p = postPlace[a];
+            if(((capacity[p] - m[p]) >= postWeight[a]) == false) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Testet, ob die Transition t unter der Markierung m nur wegen einer Kapazitätsgrenze
+     * nicht feuern kann: alle vorhergehenden Stellen liefern genug Teile, aber mindestens
+     * eine nachfolgende Stelle kann sie nicht aufnehmen.
+     * @param t Index der Transition
+     * @param m Markierung
+     * @return true, wenn die Transition durch eine Kapazität blockiert ist, sonst false.
+     */
+    public boolean isBlockedByCapacity(int t, float[] m) {
+        for(int a = preStart[t]; a < preStart[t + 1]; a++) {
+            if((m[prePlace[a]] >= preWeight[a]) == false) {
+                return false;
+            }
+        }
+
+        for(int a = postStart[t]; a < postStart[t + 1]; a++) {
+            int p = postPlace[a];
+            if(((capacity[p] - m[p]) >= postWeight[a]) == false) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Lässt die Transition t unter der Markierung m feuern, ohne die Feuerungsregel zu prüfen.
+     * @param t Index der Transition
+     * @param m Markierung, die verändert wird
+     */
+    public void fireUnchecked(int t, float[] m) {
+        for(int a = preStart[t]; a < preStart[t + 1]; a++) {
+            m[prePlace[a]] = m[prePlace[a]] - preWeight[a];
+        }
+
+        for(int a = postStart[t]; a < postStart[t + 1]; a++) {
+            m[postPlace[a]] = m[postPlace[a]] + postWeight[a];
+        }
+    }
+
+    /**
+     * Versucht, die Transition t unter der Markierung m feuern zu lassen
+     * (entspricht M_PNTransition.computeStep()).
+     * @param t Index der Transition
+     * @param m Markierung, die im Erfolgsfall verändert wird
+     * @return true, wenn die Transition gefeuert hat, sonst false.
+     */
+    public boolean fire(int t, float[] m) {
+        if(isEnabled(t, m) == false) {
+            return false;
+        }
+
+        fireUnchecked(t, m);
+        return true;
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen. Entspricht Logic.makeStep():
+     * Alle Transitionen werden der Reihe nach berechnet, bis an mindestens einer
+     * Ausgabestelle etwas angekommen ist oder keine Transition mehr arbeiten konnte. Ein
+     * Livelock bricht den Schritt ab (siehe getLivelockGuard()).
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStep() {
+        boolean someCameOut = false;
+        livelockGuard.startStep();
+
+        do {
+            atLeastOneTransitionWorked = false;
+
+            // Alle Transitionen versuchen, einen Schritt zu machen
+            for(int t = 0; t < numberOfTransitions; t++) {
+                if(fire(t, marking) == true) {
+                    fired[t] = true;
+                    livelockGuard.fired(t);
+                    atLeastOneTransitionWorked = true;
+
+                    // Ist an einer Ausgabestelle etwas angekommen?
+                    if(chargesOutput[t] == true) {
+                        someCameOut = true;
+                    }
+                }
+            }
+
+            if(atLeastOneTransitionWorked == false) {
+                return false;
+            }
+
+        }
+        while (someCameOut == false && continueStep() == true);
+
+        return someCameOut;
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen, und liefert dasselbe Ergebnis
+     * wie makeStep(). Statt in jeder Runde alle Transitionen zu berechnen, werden nur die
+     * Transitionen der Arbeitsliste berechnet: das sind diejenigen, an deren Stellen sich seit
+     * ihrer letzten Berechnung die Markierung geändert hat. Alle anderen würden ohnehin wieder
+     * scheitern. Die Reihenfolge innerhalb einer Runde bleibt die der Transitionsindizes: die
+     * Arbeitsliste ist eine Bitmenge, die wortweise aufsteigend abgearbeitet wird (O(1) je
+     * Eintrag), so dass eine Runde nur noch Aufwand proportional zu den geänderten Kanten
+     * verursacht. Hat in der letzten Runde mindestens jede DENSE_SHARE-te Transition gefeuert,
+     * wird die Runde wie in makeStep() über alle Transitionen ohne Vormerken berechnet, da das
+     * Vormerken dann mehr kostet als es spart.
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStepWorklist() {
+        if(currentRound == null) {
+            // Beim ersten Aufruf sind alle Transitionen zu berechnen
+            int words = (numberOfTransitions + 63) >>> 6;
+            currentRound = new long[words];
+            nextRound = new long[words];
+            markAll(nextRound);
+            nextLow = 0;
+            nextHigh = words - 1;
+            lastRoundFirings = numberOfTransitions;
+        }
+
+        boolean someCameOut = false;
+        livelockGuard.startStep();
+
+        do {
+            atLeastOneTransitionWorked = false;
+
+            // Arbeitsliste der neuen Runde übernehmen (die alte ist leer gerechnet)
+            long[] swap = currentRound;
+            currentRound = nextRound;
+            nextRound = swap;
+            int low = nextLow;
+            currentHigh = nextHigh;
+            nextLow = Integer.MAX_VALUE;
+            nextHigh = -1;
+
+            int firings = 0;
+            if(lastRoundFirings * DENSE_SHARE >= numberOfTransitions) {
+                // Dichte Runde: wie makeStep() alle Transitionen berechnen, ohne vorzumerken;
+                // die nächste Runde berechnet dann ebenfalls alle
+                for(int w = low; w <= currentHigh; w++) {
+                    currentRound[w] = 0;
+                }
+
+                for(int t = 0; t < numberOfTransitions; t++) {
+                    if(fire(t, marking) == true) {
+                        fired[t] = true;
+                        livelockGuard.fired(t);
+                        atLeastOneTransitionWorked = true;
+                        firings++;
+
+                        if(chargesOutput[t] == true) {
+                            someCameOut = true;
+                        }
+                    }
+                }
+
+                markAll(nextRound);
+                nextLow = 0;
+                nextHigh = nextRound.length - 1;
+            }
+            else {
+                for(int w = low; w <= currentHigh; w++) {
+                    // später gesetzte Bits dieses Worts liegen hinter t und werden hier mitgenommen
+                    while(currentRound[w] != 0) {
+                        long bits = currentRound[w];
+                        currentRound[w] = bits & (bits - 1);
+                        int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+
+                        if(fire(t, marking) == false) {
+                            continue;
+                        }
+
+                        fired[t] = true;
+                        livelockGuard.fired(t);
+                        atLeastOneTransitionWorked = true;
+                        firings++;
+
+                        if(chargesOutput[t] == true) {
+                            someCameOut = true;
+                        }
+
+                        // Transitionen an den veränderten Stellen vormerken: Folgt sie auf t,
+                        // wird sie noch in dieser Runde berechnet, sonst erst in der nächsten
+                        scheduleAdjacent(t, prePlace, preStart);
+                        scheduleAdjacent(t, postPlace, postStart);
+                    }
+                }
+            }
+            lastRoundFirings = firings;
+
+            if(atLeastOneTransitionWorked == false) {
+                return false;
+            }
+
+        }
+        while (someCameOut == false && continueStep() == true);
+
+        return someCameOut;
+    }
+
+    /*
+     * Verwirft die Arbeitsliste von makeStepWorklist(), so dass dessen nächste Runde wieder
+     * alle Transitionen berechnet. Nötig nach jeder Änderung der Markierung oder der Gewichte
+     * und Kapazitäten außerhalb von makeStepWorklist().
+     */
+    private void resetWorklist() {
+        currentRound = null;
+        nextRound = null;
+    }
+
+    /*
+     * Setzt die Bits aller Transitionen (und keine dahinter) in der übergebenen Runde.
+     */
+    private void markAll(long[] round) {
+        if(round.length == 0) {
+            return;
+        }
+        Arrays.fill(round, -1L);
+        round[round.length - 1] = -1L >>> (-numberOfTransitions & 63);
+    }
+
+    /**
+     * Schließt eine Runde ohne Ankunft an einer Ausgabestelle beim Livelock-Wächter ab. Bei
+     * Livelock gilt das Netz wie bei einer Verklemmung als stehengeblieben.
+     * @return true, wenn der Schritt weiterrechnen darf, sonst false.
+     */
+    boolean continueStep() {
+        if(livelockGuard.endRound(marking) == true) {
+            return true;
+        }
+        atLeastOneTransitionWorked = false;
+        return false;
+    }
+
+    /*
+     * Merkt alle Transitionen an den Stellen der übergebenen Kanten von t zur erneuten
+     * Berechnung vor.
+     */
+    private void scheduleAdjacent(int t, int[] arcPlace, int[] arcStart) {
+        for(int a = arcStart[t]; a < arcStart[t + 1]; a++) {
+            int p = arcPlace[a];
+            for(int i = adjacentStart[p]; i < adjacentStart[p + 1]; i++) {
+                int u = adjacentTransition[i];
+                int w = u >>> 6;
+                if(u > t) {
+                    currentRound[w] |= 1L << u;
+                    if(w > currentHigh) {
+                        currentHigh = w;
+                    }
+                }
+                else {
+                    nextRound[w] |= 1L << u;
+                    if(w < nextLow) {
+                        nextLow = w;
+                    }
+                    if(w > nextHigh) {
+                        nextHigh = w;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen. Konfliktfreie Transitionen
+     * werden dabei parallel berechnet (siehe M_ParallelStepper).
+     * @param pool ForkJoinPool für die parallele Berechnung
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStepParallel(ForkJoinPool pool) {
+        if(parallelStepper == null) {
+            parallelStepper = new M_ParallelStepper(this);
+        }
+        return parallelStepper.makeStep(pool);
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen. Jede Transition feuert je Runde
+     * so oft, wie es ihre Stellen erlauben, in einer einzigen Änderung (siehe M_BulkStepper).
+     * Ein Schritt kann daher viele Teile auf einmal an die Ausgabestellen liefern.
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStepBulk() {
+        if(bulkStepper == null) {
+            bulkStepper = new M_BulkStepper(this);
+        }
+        return bulkStepper.makeStep();
+    }
+
+    /**
+     * Lässt das Netz zeitbehaftet einen Schritt ausführen: die Uhr springt auf das nächste
+     * Ereignis, dessen Feuerungen enden und neu aktivierte Transitionen starten (siehe
+     * M_TimedSimulation).
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStepTimed() {
+        return getTimedSimulation().advance();
+    }
+
+    /**
+     * Führt bis zu maxSteps Schritte wie makeStep() aus und überspringt dabei erkannte
+     * periodische Abschnitte rechnerisch (siehe M_CycleDetector).
+     * @param maxSteps Schrittgrenze
+     * @param timeoutNanos Zeitgrenze in Nanosekunden
+     * @return ausgeführte und übersprungene Schritte
+     */
+    public long runFastForward(long maxSteps, long timeoutNanos) {
+        M_CycleDetector detector = getCycleDetector();
+        detector.setTimeout(timeoutNanos);
+        long steps = detector.run(maxSteps);
+
+        // die Markierung hat sich ohne die Arbeitsliste geändert
+        resetWorklist();
+        return steps;
+    }
+
+    /**
+     * Gibt die Periodenerkennung dieses Netzes zurück (beim ersten Aufruf angelegt).
+     * @return Periodenerkennung
+     */
+    public M_CycleDetector getCycleDetector() {
+        if(cycleDetector == null) {
+            cycleDetector = new M_CycleDetector(this);
+        }
+        return cycleDetector;
+    }
+
+    /**
+     * Gibt den Livelock-Wächter dieses Netzes zurück. Er begrenzt die Runden je Schritt und
+     * erkennt wiederkehrende Markierungen innerhalb eines Schritts; nach einem Schritt, der
+     * false geliefert hat, unterscheidet isLivelock() den Livelock von der Verklemmung.
+     * @return Livelock-Wächter
+     */
+    public M_LivelockGuard getLivelockGuard() {
+        return livelockGuard;
+    }
+
+    /**
+     * Gibt die zeitbehaftete Simulation dieses Netzes zurück (beim ersten Aufruf angelegt).
+     * @return zeitbehaftete Simulation
+     */
+    public M_TimedSimulation getTimedSimulation() {
+        if(timedSimulation == null) {
+            timedSimulation = new M_TimedSimulation(this);
+        }
+        return timedSimulation;
+    }
+
+    /**
+     * Legt die Teile laufender zeitbehafteter Feuerungen in den Stellen der Logik ab
+     * (M_TimedSimulation.depositRunning()), falls eine zeitbehaftete Simulation läuft.
+     */
+    public void depositRunningFirings() {
+        if(timedSimulation != null) {
+            timedSimulation.depositRunning();
+        }
+    }
+
+    /**
+     * Schreibt die Markierung in die Logik-Stellen zurück und meldet der View alle
+     * Transitionen, die seit dem letzten Zurückschreiben gearbeitet haben. Nur tatsächlich
+     * veränderte Stellen werden benachrichtigt.
+     */
+    public void writeBack() {
+        for(int p = 0; p < numberOfPlaces; p++) {
+            if(places[p].getValue() != marking[p]) {
+                places[p].setValue(marking[p]);
+            }
+        }
+
+        for(int t = 0; t < numberOfTransitions; t++) {
+            if(fired[t] == true) {
+                fired[t] = false;
+                transitions[t].notifyWorked();
+            }
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Führt ein kompiliertes Netz wie M_CompiledNet.makeStep() aus, erkennt dabei periodisches
+ * Verhalten und überspringt ganze Perioden rechnerisch.
+ * <p>
+ * Jeder Schritt erhält eine Signatur: die Summe zufälliger 64-Bit-Schlüssel (Zobrist) der in
+ * ihm gefeuerten Transitionen, fortlaufend je Feuerung berechnet. Die Signatur bestimmt den
+ * Feuerungsvektor und damit die Markierungsänderung des Schritts (Inzidenzmatrix mal
+ * Feuerungsvektor), ohne die float-Markierung vergleichen zu müssen. Wiederholen sich die
+ * Signaturen der letzten P Schritte (P bis maxPeriod), wird die nächste Periode nachgerechnet
+ * und dabei für jede Stelle der kleinste und größte Wert aller Zwischenmarkierungen sowie die
+ * Änderung D über die Periode festgehalten.
+ * <p>
+ * Eine weitere Periode ab M + D verläuft genau gleich, wenn jede Feuerungsregel dort dasselbe
+ * Ergebnis liefert. Das ist gesichert, solange an jeder sich ändernden Stelle alle Prüfungen
+ * erfüllt waren und es bleiben: abnehmende Stellen behalten genug Teile für ihre
+ * Ausgangskanten, zunehmende genug Platz für ihre Eingangskanten. Daraus folgt, wie viele
+ * Perioden n höchstens übersprungen werden dürfen; die Markierung wird dann auf M + n * D
+ * gesetzt. So endet ein Sprung an der gewünschten Schrittzahl oder kurz vor der ersten
+ * erschöpften Stelle bzw. erreichten Kapazität, ab der wieder Schritt für Schritt gerechnet wird.
+ * Reine Kreisläufe (D = 0) werden nur durch die Schrittzahl begrenzt.
+ * <p>
+ * Ein Sprung rundet nur einmal, einzelne Schritte runden bei jeder Feuerung. Damit beide
+ * dasselbe Ergebnis liefern, wird nur gesprungen, wenn jede sich ändernde Stelle exakt
+ * rechnet: alle Gewichte ihrer Kanten und ihre Kapazität sind ganzzahlig (oder unbegrenzt),
+ * ihr Wert zu Beginn der Periode ist ganzzahlig und bleibt bis zum Ende des Sprungs höchstens
+ * EXACT_LIMIT (2^24, bis dahin sind ganze Zahlen als float exakt). Sonst wird weiter Schritt
+ * für Schritt gerechnet; Perioden, die eine Stelle mit gebrochenen Gewichten ändern, werden so
+ * nie übersprungen.
+ */
+public class M_CycleDetector {
+
+    // bis zu diesem Betrag sind ganze Zahlen als float exakt darstellbar
+    static final double EXACT_LIMIT = 16777216;
+
+    private final M_CompiledNet net;
+    private final long[] key;               // Zobrist-Schlüssel je Transition
+
+    // je Stelle: größtes Gewicht der Ausgangskanten (Abnehmer) bzw. der Eingangskanten (Lieferanten)
+    private final float[] maxPreWeight;
+    private final float[] maxPostWeight;
+    private final boolean[] consumed;       // Stelle liegt im Vorbereich einer Transition
+    private final boolean[] supplied;       // Stelle liegt im Nachbereich einer Transition
+    private final boolean[] integral;       // Gewichte aller Kanten und Kapazität ganzzahlig
+
+    private int maxPeriod = 256;
+    private long timeoutNanos = Long.MAX_VALUE;
+
+    // Signaturen der letzten Schritte (Ringpuffer) und Länge der Übereinstimmung je Periode
+    private long[] history;
+    private int[] matched;
+    private long recorded;
+
+    private final float[] minimum;
+    private final float[] maximum;
+    private final float[] start;
+
+    private long signature;                 // Signatur des laufenden Schritts
+    private boolean deadlock;
+    private boolean timedOut;
+    private long skippedSteps;
+    private long jumps;
+    private int period;
+
+    /**
+     * Bereitet die Ausführung des übergebenen Netzes vor; gerechnet wird auf seiner Markierung.
+     * @param net kompiliertes Netz
+     */
+    public M_CycleDetector(M_CompiledNet net) {
+        this.net = net;
+
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        key = new long[net.numberOfTransitions];
+        for(int t = 0; t < key.length; t++) {
+            key[t] = random.nextLong();
+        }
+
+        maxPreWeight = new float[net.numberOfPlaces];
+        maxPostWeight = new float[net.numberOfPlaces];
+        consumed = new boolean[net.numberOfPlaces];
+        supplied = new boolean[net.numberOfPlaces];
+        integral = new boolean[net.numberOfPlaces];
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            integral[p] = Float.isInfinite(net.capacity[p]) == true || isIntegral(net.capacity[p]) == true;
+        }
+        for(int a = 0; a < net.prePlace.length; a++) {
+            int p = net.prePlace[a];
+            consumed[p] = true;
+            maxPreWeight[p] = Math.max(maxPreWeight[p], net.preWeight[a]);
+            if(isIntegral(net.preWeight[a]) == false) {
+                integral[p] = false;
+            }
+        }
+        for(int a = 0; a < net.postPlace.length; a++) {
+            int p = net.postPlace[a];
+            supplied[p] = true;
+            maxPostWeight[p] = Math.max(maxPostWeight[p], net.postWeight[a]);
+            if(isIntegral(net.postWeight[a]) == false) {
+                integral[p] = false;
+            }
+        }
+
+        minimum = new float[net.numberOfPlaces];
+        maximum = new float[net.numberOfPlaces];
+        start = new float[net.numberOfPlaces];
+        setMaxPeriod(maxPeriod);
+    }
+
+    /**
+     * Setzt die längste erkannte Periode (in Schritten). Jeder Schritt kostet zusätzlich
+     * O(maxPeriod) Vergleiche.
+     * @param maxPeriod längste Periode (mindestens 1)
+     */
+    public void setMaxPeriod(int maxPeriod) {
+        if(maxPeriod < 1) {
+            throw new IllegalArgumentException("Maximum period must be at least 1: " + maxPeriod);
+        }
+        this.maxPeriod = maxPeriod;
+        history = new long[maxPeriod + 1];
+        matched = new int[maxPeriod + 1];
+        recorded = 0;
+    }
+
+    /**
+     * Setzt die Zeit, nach der run() abbricht.
+     * @param timeoutNanos Zeitgrenze in Nanosekunden
+     */
+    public void setTimeout(long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Führt höchstens maxSteps Schritte aus (übersprungene eingeschlossen), bis zur Verklemmung,
+     * bis zu einem Livelock oder bis zur Zeitgrenze.
+     * @param maxSteps Schrittgrenze
+     * @return ausgeführte und übersprungene Schritte
+     */
+    public long run(long maxSteps) {
+        long begin = System.nanoTime();
+        deadlock = false;
+        timedOut = false;
+        clearHistory();
+
+        long done = 0;
+        long iterations = 0;    // Durchläufe (done springt bei Nachrechnung und Sprung)
+        boolean stuck = false;
+        while(done < maxSteps) {
+            if((iterations++ & 1023) == 0 && System.nanoTime() - begin >= timeoutNanos) {
+                timedOut = true;
+                break;
+            }
+
+            int candidate = findPeriod();
+            if(candidate > 0) {
+                long result = replayAndJump(candidate, maxSteps - done);
+                if(result < 0) {
+                    done += -result - 1;
+                    stuck = true;
+                    break;
+                }
+                done += result;
+                continue;
+            }
+
+            if(step(false) == false) {
+                stuck = true;
+                break;
+            }
+            done++;
+            record(signature);
+        }
+
+        // ein Livelock (M_LivelockGuard) hält den Lauf an, ist aber keine Verklemmung
+        deadlock = stuck == true && net.getLivelockGuard().isLivelock() == false;
+        net.atLeastOneTransitionWorked = stuck == false;
+        return done;
+    }
+
+    /*
+     * Rechnet eine Periode der Länge candidate nach und überspringt danach so viele Perioden wie
+     * zulässig (höchstens bis remaining Schritte erreicht sind).
+     * @return ausgeführte und übersprungene Schritte, bei Verklemmung -(ausgeführte + 1)
+     */
+    private long replayAndJump(int candidate, long remaining) {
+        // erwartete Signaturen der Periode (die letzten candidate Schritte)
+        long[] expected = new long[candidate];
+        for(int i = 0; i < candidate; i++) {
+            expected[i] = history[(int) ((recorded - candidate + i) % history.length)];
+        }
+        clearHistory();
+
+        float[] m = net.marking;
+        System.arraycopy(m, 0, start, 0, m.length);
+        System.arraycopy(m, 0, minimum, 0, m.length);
+        System.arraycopy(m, 0, maximum, 0, m.length);
+
+        boolean periodic = true;
+        for(int i = 0; i < candidate; i++) {
+            if(i >= remaining) {
+                return i;
+            }
+            if(step(true) == false) {
+                return -(i + 1);
+            }
+            record(signature);
+            if(signature != expected[i]) {
+                periodic = false;
+            }
+        }
+        if(periodic == false) {
+            return candidate;
+        }
+
+        // zulässige Anzahl weiterer Perioden bestimmen
+        long n = (remaining - candidate) / candidate;
+        for(int p = 0; p < m.length && n > 0; p++) {
+            double d = (double) m[p] - start[p];
+            if(d == 0) {
+                continue;
+            }
+
+            // nur springen, wenn die schrittweise Berechnung dieser Stelle exakt ist
+            if(integral[p] == false || isIntegral(start[p]) == false || maximum[p] > EXACT_LIMIT) {
+                n = 0;
+                break;
+            }
+            if(d > 0) {
+                n = Math.min(n, (long) Math.floor((EXACT_LIMIT - maximum[p]) / d));
+            }
+
+            // Prüfungen, die bei fortgesetzter Änderung umschlagen könnten, müssen erfüllt sein
+            if(consumed[p] == true && minimum[p] < maxPreWeight[p]) {
+                n = 0;
+            }
+            else if(supplied[p] == true && maximum[p] + maxPostWeight[p] > net.capacity[p]) {
+                n = 0;
+            }
+            else if(d < 0 && consumed[p] == true) {
+                n = Math.min(n, (long) Math.floor((minimum[p] - maxPreWeight[p]) / -d));
+            }
+            else if(d > 0 && supplied[p] == true && Float.isInfinite(net.capacity[p]) == false) {
+                n = Math.min(n, (long) Math.floor(((double) net.capacity[p] - maxPostWeight[p] - maximum[p]) / d));
+            }
+        }
+
+        period = candidate;
+        if(n <= 0) {
+            return candidate;
+        }
+
+        for(int p = 0; p < m.length; p++) {
+            if(m[p] != start[p]) {
+                m[p] = (float) (m[p] + n * ((double) m[p] - start[p]));
+            }
+        }
+        jumps++;
+        skippedSteps += n * candidate;
+        clearHistory();
+        return candidate + n * candidate;
+    }
+
+    /*
+     * Ein Schritt wie M_CompiledNet.makeStep(), dabei Signatur und (track) Extremwerte führen.
+     */
+    private boolean step(boolean track) {
+        float[] m = net.marking;
+        boolean someCameOut = false;
+        signature = 0;
+        M_LivelockGuard guard = net.getLivelockGuard();
+        guard.startStep();
+
+        do {
+            boolean worked = false;
+
+            for(int t = 0; t < net.numberOfTransitions; t++) {
+                if(net.fire(t, m) == false) {
+                    continue;
+                }
+
+                net.fired[t] = true;
+                guard.fired(t);
+                worked = true;
+                signature += key[t];
+                if(net.chargesOutput[t] == true) {
+                    someCameOut = true;
+                }
+
+                if(track == true) {
+                    for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                        int p = net.prePlace[a];
+                        minimum[p] = Math.min(minimum[p], m[p]);
+                    }
+                    for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                        int p = net.postPlace[a];
+                        maximum[p] = Math.max(maximum[p], m[p]);
+                    }
+                }
+            }
+
+            if(worked == false) {
+                return false;
+            }
+        }
+        while(someCameOut == false && guard.endRound(m) == true);
+
+        return someCameOut;
+    }
+
+    /*
+     * Trägt die Signatur eines Schritts ein und schreibt die Übereinstimmungen fort: matched[P]
+     * zählt, wie viele Schritte in Folge der Signatur P Schritte zuvor gleichen.
+     */
+    private void record(long value) {
+        for(int p = 1; p <= maxPeriod && p <= recorded; p++) {
+            if(history[(int) ((recorded - p) % history.length)] == value) {
+                matched[p]++;
+            }
+            else {
+                matched[p] = 0;
+            }
+        }
+        history[(int) (recorded % history.length)] = value;
+        recorded++;
+    }
+
+    /*
+     * Liefert die kürzeste Periode, deren letzte Wiederholung vollständig ist, sonst 0.
+     */
+    private int findPeriod() {
+        for(int p = 1; p <= maxPeriod && p < recorded; p++) {
+            if(matched[p] >= p) {
+                return p;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isIntegral(float value) {
+        return value == Math.rint(value);
+    }
+
+    private void clearHistory() {
+        Arrays.fill(matched, 0);
+        recorded = 0;
+    }
+
+    /**
+     * Testet, ob der letzte Lauf in einer Verklemmung geendet hat.
+     * @return true bei Verklemmung, sonst false.
+     */
+    public boolean isDeadlock() {
+        return deadlock;
+    }
+
+    /**
+     * Testet, ob der letzte Lauf an der Zeitgrenze abgebrochen wurde.
+     * @return true, wenn die Zeitgrenze erreicht wurde, sonst false.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Gibt die Anzahl aller übersprungenen Schritte zurück.
+     * @return übersprungene Schritte
+     */
+    public long getSkippedSteps() {
+        return skippedSteps;
+    }
+
+    /**
+     * Gibt die Anzahl der Sprünge zurück.
+     * @return Sprünge
+     */
+    public long getJumps() {
+        return jumps;
+    }
+
+    /**
+     * Gibt die zuletzt bestätigte Periode zurück.
+     * @return Periode in Schritten, 0, wenn noch keine erkannt wurde
+     */
+    public int getPeriod() {
+        return period;
+    }
+}
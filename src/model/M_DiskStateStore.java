@@ -0,0 +1,560 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Menge besuchter Markierungen, die über den Hauptspeicher hinaus wachsen kann. Neue
+ * Markierungen werden zunächst in einer M_StateSet im Hauptspeicher gesammelt. Überschreitet
+ * diese nach dem Abgleich von Kandidaten das Speicherbudget, wird sie sortiert als Lauf
+ * (sorted run) in eine Datei geschrieben, die danach nur noch über Memory-Mapping gelesen
+ * wird, und geleert. Markierungen, die schon in einem Lauf stehen, werden dabei nicht erneut
+ * geschrieben. Danach werden die jüngsten Läufe zusammengemischt, solange der vorige höchstens
+ * doppelt so groß ist wie sie zusammen; so wächst die Größe der Läufe geometrisch und jede
+ * Markierung wird nur O(log n)-mal neu geschrieben. Zu viele Läufe werden zu einem einzigen
+ * zusammengemischt.
+ * <p>
+ * Die Duplikaterkennung gegenüber den Läufen ist verzögert (MI_DelayedStateStore): die
+ * Kandidaten einer Ebene werden sortiert und je Lauf entweder durch Mischen (viele
+ * Kandidaten) oder durch binäre Suche (wenige Kandidaten) abgeglichen. Dadurch wird auf die
+ * Dateien fast nur sequenziell zugegriffen.
+ * <p>
+ * Meldet isMemoryFull() ein überschrittenes Budget, unterbricht M_StateSpace die Expansion
+ * und lässt die bisherigen Kandidaten abgleichen; so wird auch mitten in einer großen Ebene
+ * ausgelagert. Die Markierungen der aktuellen und der nächsten Ebene bleiben im Hauptspeicher.
+ */
+public class M_DiskStateStore implements MI_DelayedStateStore {
+
+    // Läufe, ab denen alle Läufe zu einem zusammengemischt werden
+    static final int MAX_RUNS = 8;
+
+    // Puffergröße beim Schreiben der Läufe
+    static final int BUFFER_SIZE = 1 << 16;
+
+    // höchste Größe eines gemappten Abschnitts (in Bytes)
+    static final long SEGMENT_BYTES = 1L << 30;
+
+    // Bereiche bis zu dieser Größe werden durch Einfügen sortiert
+    static final int INSERTION_SORT = 16;
+
+    private final int words;
+    private final File directory;
+    private final long memoryBytes;
+
+    private volatile M_StateSet memory;         // noch nicht ausgelagerte Markierungen
+    private final ArrayList<Run> runs = new ArrayList<Run>();
+
+    private long size;              // Anzahl der (bestätigten) Markierungen
+    private long spilledStates;     // ausgelagerte Markierungen (ohne Mischen)
+    private long writtenBytes;      // insgesamt geschriebene Bytes (mit Mischen)
+    private long spillNanos;        // Zeit für Auslagern und Mischen
+
+    /**
+     * Erzeugt eine leere Menge.
+     * @param words Worte je Markierung (M_MarkingCodec.getWords())
+     * @param directory Verzeichnis für die Läufe (null: temporäres Verzeichnis des Systems)
+     * @param memoryBytes Speicherbudget für die Markierungen im Hauptspeicher
+     */
+    public M_DiskStateStore(int words, File directory, long memoryBytes) {
+        this.words = words;
+        this.directory = directory;
+        this.memoryBytes = memoryBytes;
+        memory = new M_StateSet(words);
+    }
+
+    /**
+     * Nimmt eine Markierung vorläufig auf. Duplikate werden nur gegenüber den Markierungen
+     * im Hauptspeicher erkannt.
+     */
+    public boolean add(long[] state, int offset, long hash) {
+        return memory.add(state, offset, hash);
+    }
+
+    /**
+     * Gleicht die Kandidaten mit den Läufen ab und lagert danach bei Bedarf aus.
+     */
+    public ArrayList<long[]> completeLevel(ArrayList<long[]> candidates) {
+
+        // Kandidaten sammeln und sortieren
+        int count = 0;
+        for(int i = 0; i < candidates.size(); i++) {
+            count += candidates.get(i).length / words;
+        }
+        long[] sorted = new long[count * words];
+        int offset = 0;
+        for(int i = 0; i < candidates.size(); i++) {
+            long[] block = candidates.get(i);
+            System.arraycopy(block, 0, sorted, offset, block.length);
+            offset += block.length;
+        }
+        sort(sorted, count, words);
+
+        // bereits ausgelagerte Kandidaten markieren
+        boolean[] duplicate = new boolean[count];
+        for(int r = 0; r < runs.size(); r++) {
+            runs.get(r).markContained(sorted, count, duplicate);
+        }
+
+        int fresh = 0;
+        for(int i = 0; i < count; i++) {
+            if(duplicate[i] == false) {
+                System.arraycopy(sorted, i * words, sorted, fresh * words, words);
+                fresh++;
+            }
+        }
+        size += fresh;
+
+        try {
+            if(isMemoryFull() == true) {
+                spill();
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ArrayList<long[]> next = new ArrayList<long[]>(1);
+        if(fresh > 0) {
+            next.add(fresh == count ? sorted : Arrays.copyOf(sorted, fresh * words));
+        }
+        return next;
+    }
+
+    /**
+     * Testet, ob die Markierungen im Hauptspeicher das Speicherbudget überschreiten.
+     */
+    public boolean isMemoryFull() {
+        return memory.getBytes() > memoryBytes;
+    }
+
+    /*
+     * Schreibt die Markierungen im Hauptspeicher als neuen Lauf und mischt bei Bedarf alle Läufe.
+     */
+    private void spill() throws IOException {
+        long start = System.nanoTime();
+
+        long[] all = memory.toArray();
+        int count = all.length / words;
+        memory = new M_StateSet(words);
+
+        sort(all, count, words);
+
+        // wiederholte Kandidaten, die schon ausgelagert sind, nicht erneut schreiben
+        boolean[] duplicate = new boolean[count];
+        for(int r = 0; r < runs.size(); r++) {
+            runs.get(r).markContained(all, count, duplicate);
+        }
+
+        File file = createRunFile();
+        RunWriter writer = new RunWriter(file);
+        int written = 0;
+        try {
+            for(int i = 0; i < count; i++) {
+                if(duplicate[i] == false) {
+                    writer.put(all, i * words);
+                    written++;
+                }
+            }
+        }
+        finally {
+            writer.close();
+        }
+        runs.add(new Run(file, written, words));
+        spilledStates += written;
+        writtenBytes += 8L * written * words;
+
+        // jüngste Läufe ähnlicher Größe zusammenmischen
+        int from = runs.size() - 1;
+        long merged = runs.get(from).count;
+        while(from > 0 && runs.get(from - 1).count <= 2 * merged) {
+            from--;
+            merged += runs.get(from).count;
+        }
+        if(from < runs.size() - 1) {
+            mergeRuns(from);
+        }
+        if(runs.size() > MAX_RUNS) {
+            mergeRuns(0);
+        }
+
+        spillNanos += System.nanoTime() - start;
+    }
+
+    /*
+     * Mischt die Läufe ab Index from zu einem einzigen und entfernt dabei Duplikate.
+     */
+    private void mergeRuns(int from) throws IOException {
+        File file = createRunFile();
+        RunWriter writer = new RunWriter(file);
+        long count = 0;
+
+        List<Run> merging = runs.subList(from, runs.size());
+        int k = merging.size();
+        long[] position = new long[k];
+        long[] last = new long[words];
+        boolean written = false;
+
+        try {
+            while(true) {
+                // kleinsten aktuellen Eintrag suchen
+                int min = -1;
+                for(int r = 0; r < k; r++) {
+                    if(position[r] < merging.get(r).count && (min < 0 || merging.get(r).compare(position[r], merging.get(min), position[min]) < 0)) {
+                        min = r;
+                    }
+                }
+                if(min < 0) {
+                    break;
+                }
+
+                Run run = merging.get(min);
+                if(written == false || run.compare(position[min], last) != 0) {
+                    run.copy(position[min], last);
+                    writer.put(last, 0);
+                    written = true;
+                    count++;
+                }
+                position[min]++;
+            }
+        }
+        finally {
+            writer.close();
+        }
+
+        for(int r = 0; r < k; r++) {
+            merging.get(r).delete();
+        }
+        merging.clear();
+        runs.add(new Run(file, count, words));
+        writtenBytes += 8L * count * words;
+    }
+
+    private File createRunFile() throws IOException {
+        File file = File.createTempFile("psim-states-", ".run", directory);
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Löscht alle Läufe. Die Menge ist danach nicht mehr benutzbar.
+     */
+    public void close() {
+        for(int r = 0; r < runs.size(); r++) {
+            runs.get(r).delete();
+        }
+        runs.clear();
+    }
+
+    /**
+     * Gibt die Anzahl der bestätigten Markierungen zurück.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gibt den belegten Speicher (Hauptspeicher und Läufe, in Bytes) zurück.
+     */
+    public long getBytes() {
+        return memory.getBytes() + getDiskBytes();
+    }
+
+    /**
+     * Gibt die Größe aller Läufe (in Bytes) zurück.
+     * @return Größe der Läufe
+     */
+    public long getDiskBytes() {
+        long bytes = 0;
+        for(int r = 0; r < runs.size(); r++) {
+            bytes += 8L * runs.get(r).count * words;
+        }
+        return bytes;
+    }
+
+    /**
+     * Gibt die Anzahl der Läufe zurück.
+     * @return Anzahl der Läufe
+     */
+    public int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Gibt die Anzahl der ausgelagerten Markierungen zurück.
+     * @return ausgelagerte Markierungen
+     */
+    public long getSpilledStates() {
+        return spilledStates;
+    }
+
+    /**
+     * Gibt die insgesamt (beim Auslagern und Mischen) geschriebenen Bytes zurück.
+     * @return geschriebene Bytes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Gibt die Zeit für Auslagern und Mischen in Sekunden zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSpillSeconds() {
+        return spillNanos / 1e9;
+    }
+
+    /*
+     * Sortierter Lauf in einer Datei, gelesen über (abschnittsweises) Memory-Mapping.
+     */
+    private static final class Run {
+        private final File file;
+        private final long count;
+        private final int words;
+        private final long recordsPerSegment;
+        private final LongBuffer[] segments;
+
+        Run(File file, long count, int words) throws IOException {
+            this.file = file;
+            this.count = count;
+            this.words = words;
+            recordsPerSegment = SEGMENT_BYTES / (8L * words);
+
+            segments = new LongBuffer[(int) ((count + recordsPerSegment - 1) / recordsPerSegment)];
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                for(int s = 0; s < segments.length; s++) {
+                    long first = s * recordsPerSegment;
+                    long records = Math.min(recordsPerSegment, count - first);
+                    segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, 8L * first * words, 8L * records * words).asLongBuffer();
+                }
+            }
+            finally {
+                // die Abbildungen bleiben nach dem Schließen gültig
+                raf.close();
+            }
+        }
+
+        long get(long record, int word) {
+            return segments[(int) (record / recordsPerSegment)].get((int) (record % recordsPerSegment) * words + word);
+        }
+
+        void copy(long record, long[] out) {
+            for(int w = 0; w < words; w++) {
+                out[w] = get(record, w);
+            }
+        }
+
+        int compare(long record, long[] state) {
+            return compare(record, state, 0);
+        }
+
+        int compare(long record, long[] state, int offset) {
+            for(int w = 0; w < words; w++) {
+                int c = Long.compare(get(record, w), state[offset + w]);
+                if(c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        int compare(long record, Run other, long otherRecord) {
+            for(int w = 0; w < words; w++) {
+                int c = Long.compare(get(record, w), other.get(otherRecord, w));
+                if(c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        /*
+         * Markiert alle (sortierten) Kandidaten, die im Lauf enthalten sind. Wenige
+         * Kandidaten werden binär gesucht, viele durch Mischen gefunden.
+         */
+        void markContained(long[] sorted, int candidates, boolean[] contained) {
+            if(count == 0 || candidates == 0) {
+                return;
+            }
+
+            double searchCost = candidates * (64 - Long.numberOfLeadingZeros(count));
+            if(searchCost < count) {
+                long low = 0;
+                for(int i = 0; i < candidates; i++) {
+                    // die Kandidaten sind sortiert: die Suche beginnt beim letzten Fund
+                    long from = low;
+                    long to = count;
+                    while(from < to) {
+                        long middle = (from + to) >>> 1;
+                        if(compare(middle, sorted, i * words) < 0) {
+                            from = middle + 1;
+                        }
+                        else {
+                            to = middle;
+                        }
+                    }
+                    low = from;
+                    if(from < count && compare(from, sorted, i * words) == 0) {
+                        contained[i] = true;
+                    }
+                }
+            }
+            else {
+                long record = 0;
+                int i = 0;
+                while(i < candidates && record < count) {
+                    int c = compare(record, sorted, i * words);
+                    if(c < 0) {
+                        record++;
+                    }
+                    else {
+                        if(c == 0) {
+                            contained[i] = true;
+                        }
+                        i++;
+                    }
+                }
+            }
+        }
+
+        void delete() {
+            // unter Windows erst nach Freigabe der Abbildungen möglich (dann deleteOnExit)
+            file.delete();
+        }
+    }
+
+    /*
+     * Gepuffertes Schreiben eines Laufs.
+     */
+    private final class RunWriter {
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        RunWriter(File file) throws IOException {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+
+        void put(long[] state, int offset) throws IOException {
+            if(buffer.remaining() < 8 * words) {
+                flush();
+            }
+            for(int w = 0; w < words; w++) {
+                buffer.putLong(state[offset + w]);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining() == true) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void close() throws IOException {
+            try {
+                flush();
+            }
+            finally {
+                raf.close();
+            }
+        }
+    }
+
+    /*
+     * Sortiert count Markierungen aus je words Worten (lexikografisch, vorzeichenbehaftet).
+     */
+    static void sort(long[] a, int count, int words) {
+        if(words == 1) {
+            Arrays.sort(a, 0, count);
+        }
+        else {
+            quickSort(a, 0, count, words, new long[words], new long[words]);
+        }
+    }
+
+    private static void quickSort(long[] a, int from, int to, int words, long[] pivot, long[] tmp) {
+        while(to - from > INSERTION_SORT) {
+            // Pivot: Median aus erstem, mittlerem und letztem Eintrag
+            int middle = (from + to) >>> 1;
+            int median = middle;
+            if(compare(a, from, a, middle, words) > 0) {
+                median = compare(a, from, a, to - 1, words) < 0 ? from
+                        : (compare(a, middle, a, to - 1, words) > 0 ? middle : to - 1);
+            }
+            else if(compare(a, middle, a, to - 1, words) > 0) {
+                median = compare(a, from, a, to - 1, words) > 0 ? from : to - 1;
+            }
+            System.arraycopy(a, median * words, pivot, 0, words);
+
+            int i = from;
+            int j = to - 1;
+            while(i <= j) {
+                while(compare(a, i, pivot, 0, words) < 0) {
+                    i++;
+                }
+                while(compare(a, j, pivot, 0, words) > 0) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(a, i, j, words, tmp);
+                    i++;
+                    j--;
+                }
+            }
+
+            // kleineren Teil rekursiv, größeren iterativ sortieren
+            if(j + 1 - from < to - i) {
+                quickSort(a, from, j + 1, words, pivot, tmp);
+                from = i;
+            }
+            else {
+                quickSort(a, i, to, words, pivot, tmp);
+                to = j + 1;
+            }
+        }
+
+        // kleine Bereiche durch Einfügen sortieren
+        for(int i = from + 1; i < to; i++) {
+            System.arraycopy(a, i * words, tmp, 0, words);
+            int j = i - 1;
+            while(j >= from && compare(a, j, tmp, 0, words) > 0) {
+                System.arraycopy(a, j * words, a, (j + 1) * words, words);
+                j--;
+            }
+            System.arraycopy(tmp, 0, a, (j + 1) * words, words);
+        }
+    }
+
+    /*
+     * Vergleicht Eintrag i aus a mit Eintrag j aus b.
+     */
+    private static int compare(long[] a, int i, long[] b, int j, int words) {
+        int ai = i * words;
+        int bj = j * words;
+        for(int w = 0; w < words; w++) {
+            int c = Long.compare(a[ai + w], b[bj + w]);
+            if(c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static void swap(long[] a, int i, int j, int words, long[] tmp) {
+        System.arraycopy(a, i * words, tmp, 0, words);
+        System.arraycopy(a, j * words, a, i * words, words);
+        System.arraycopy(tmp, 0, a, j * words, words);
+    }
+}
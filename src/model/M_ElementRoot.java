@@ -31,6 +31,9 @@ public abstract class M_ElementRoot extends Observable implements MI_Element, Se
 
     String[] weightNames;    // für die namen der Gewichte (also z.B. "Input 1", usw.)
 
+    transient M_ChangeSet changeSet;    // Änderungsmenge, null: Beobachter sofort benachrichtigen
+    transient volatile boolean pending; // true, wenn Element in changeSet eingetragen ist
+
     /**
      * gibt die Art des Elementes zurück
      */
@@ -102,4 +105,43 @@ public abstract class M_ElementRoot extends Observable implements MI_Element, Se
         return pins;
     }
 
+    /**
+     * Ordnet dem Element eine Änderungsmenge zu. Ab dann werden Änderungen des Wertes
+     * nicht mehr sofort gemeldet, sondern in der Änderungsmenge gesammelt.
+     * @param changeSet Änderungsmenge oder null, um wieder sofort zu benachrichtigen
+     */
+    public void setChangeSet(M_ChangeSet changeSet) {
+        this.changeSet = changeSet;
+        pending = false;
+    }
+
+    /**
+     * Meldet eine Änderung: sofort an die Beobachter oder, falls eine Änderungsmenge
+     * zugeordnet ist, durch Eintragen in diese.
+     */
+    protected void fireChanged() {
+        M_ChangeSet set = changeSet;
+
+        if(set == null) {
+            // View benachrichtigen
+            this.setChanged();
+            this.notifyObservers();
+        }
+        else if(pending == false) {
+            pending = true;
+            set.add(this);
+        }
+    }
+
+    /**
+     * Benachrichtigt die Beobachter über die gesammelten Änderungen. Wird von
+     * M_ChangeSet.publish() aufgerufen.
+     */
+    void publish() {
+        pending = false;
+
+        // View benachrichtigen
+        this.setChanged();
+        this.notifyObservers();
+    }
 }
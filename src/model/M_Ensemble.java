@@ -0,0 +1,275 @@
+package model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte-Carlo-Ensemble: führt viele unabhängige Läufe eines kompilierten Netzes parallel aus,
+ * in denen Konflikte zufällig aufgelöst werden. Ein Schritt entspricht M_CompiledNet.makeStep(),
+ * nur dass die Transitionen in jeder Runde in einer zufälligen Reihenfolge berechnet werden;
+ * konkurrieren mehrere Transitionen um dieselben Teile, gewinnt also eine zufällige.
+ * <p>
+ * Alle Läufe teilen sich die (unveränderliche) Struktur des kompilierten Netzes; ein Lauf
+ * benötigt nur eine eigene Markierung, die je Arbeitsthread wiederverwendet wird. Lauf r
+ * verwendet einen aus Startwert und r abgeleiteten Zufallszahlengenerator (replicaSeed()), so
+ * dass das Ergebnis nicht von der Verteilung auf die Threads abhängt. Die Läufe werden rekursiv
+ * auf einen ForkJoinPool verteilt (Work-Stealing, damit ungleich lange Läufe die Threads nicht
+ * blockieren); jedes Ergebnis fließt sofort in die gemeinsamen Kennzahlen
+ * (M_EnsembleStatistics), die während des Laufs abgefragt werden können.
+ * <p>
+ * Ein Lauf endet bei einer Verklemmung, nach der Höchstzahl an Schritten oder nach der
+ * Höchstzahl an Runden (Schutz vor Schritten, in denen nie etwas an einer Ausgabestelle ankommt).
+ */
+public class M_Ensemble {
+
+    // so viele Läufe berechnet eine Teilaufgabe ohne weitere Teilung
+    static final int SPLIT_THRESHOLD = 4;
+
+    // Schrittweite zwischen den Startwerten der Läufe (vor dem Mischen)
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final M_CompiledNet net;
+    private final float[] initial;      // Anfangsmarkierung aller Läufe
+    private final int[] outputPlace;    // Indizes der Ausgabestellen
+
+    private int replicas = 1000;
+    private long seed = 1;
+    private long maxSteps = 100000;
+    private long maxRounds = 10000000;
+
+    private M_EnsembleStatistics statistics;
+    private final AtomicLong finished = new AtomicLong();
+    private long nanos;
+
+    /**
+     * Bereitet ein Ensemble über das übergebene Netz vor. Dessen aktuelle Markierung ist der
+     * Anfangszustand aller Läufe; das Netz selbst wird nicht verändert.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_Ensemble(M_CompiledNet net) {
+        this.net = net;
+        initial = net.getMarking().clone();
+
+        int outputs = 0;
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            if(net.isOutput[p] == true) {
+                outputs++;
+            }
+        }
+        outputPlace = new int[outputs];
+        outputs = 0;
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            if(net.isOutput[p] == true) {
+                outputPlace[outputs++] = p;
+            }
+        }
+
+        statistics = new M_EnsembleStatistics(outputPlace.length);
+    }
+
+    /**
+     * Setzt die Anzahl der Läufe.
+     * @param replicas Anzahl der Läufe (mindestens 1)
+     */
+    public void setReplicas(int replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Setzt den Startwert, aus dem die Zufallszahlengeneratoren der Läufe abgeleitet werden.
+     * @param seed Startwert
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Setzt die Höchstzahl an Schritten je Lauf.
+     * @param maxSteps Schrittgrenze
+     */
+    public void setMaxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Setzt die Höchstzahl an Runden je Lauf (über alle Schritte).
+     * @param maxRounds Rundengrenze
+     */
+    public void setMaxRounds(long maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Gibt die Anzahl der Ausgabestellen zurück.
+     * @return Anzahl der Ausgabestellen
+     */
+    public int getNumberOfOutputs() {
+        return outputPlace.length;
+    }
+
+    /**
+     * Gibt den Index einer Ausgabestelle im kompilierten Netz zurück.
+     * @param i Index der Ausgabestelle (0 .. getNumberOfOutputs()-1)
+     * @return Index der Stelle
+     */
+    public int getOutputPlace(int i) {
+        return outputPlace[i];
+    }
+
+    /**
+     * Führt alle Läufe aus. Die Kennzahlen werden vorher zurückgesetzt und können während des
+     * Laufs (aus einem anderen Thread) mit getStatistics() abgefragt werden.
+     * @param pool ForkJoinPool für die Läufe
+     */
+    public void run(ForkJoinPool pool) {
+        long start = System.nanoTime();
+
+        synchronized(this) {
+            statistics = new M_EnsembleStatistics(outputPlace.length);
+        }
+        finished.set(0);
+
+        pool.invoke(new ReplicaTask(0, replicas));
+
+        nanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Gibt eine Momentaufnahme der Kennzahlen der bisher beendeten Läufe zurück.
+     * @return Kennzahlen (Kopie)
+     */
+    public synchronized M_EnsembleStatistics getStatistics() {
+        return statistics.copy();
+    }
+
+    /**
+     * Gibt die Anzahl der bisher beendeten Läufe zurück.
+     * @return beendete Läufe
+     */
+    public long getFinished() {
+        return finished.get();
+    }
+
+    /**
+     * Gibt die Rechenzeit des letzten Ensembles zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Leitet den Startwert des Zufallszahlengenerators von Lauf r ab: der r-te Wert der
+     * SplitMix64-Folge zum Startwert seed (Schrittweite GOLDEN_GAMMA, dann Mischer). Ohne den
+     * Mischer wären die Startwerte benachbarter Läufe genau um die Schrittweite von
+     * SplittableRandom versetzt, und Lauf r + 1 zöge die Folge von Lauf r, nur um eine Zahl
+     * verschoben.
+     * @param seed Startwert des Ensembles
+     * @param r Index des Laufs
+     * @return Startwert für Lauf r
+     */
+    static long replicaSeed(long seed, int r) {
+        long z = seed + (r + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private synchronized void collect(M_EnsembleStatistics partial) {
+        statistics.merge(partial);
+    }
+
+    /*
+     * Führt Lauf r auf der übergebenen Markierung aus und trägt das Ergebnis in partial ein.
+     * order ist ein Hilfsfeld der Länge numberOfTransitions.
+     */
+    private void runReplica(int r, float[] m, int[] order, float[] outputs, M_EnsembleStatistics partial) {
+        SplittableRandom random = new SplittableRandom(replicaSeed(seed, r));
+        System.arraycopy(initial, 0, m, 0, m.length);
+        for(int t = 0; t < order.length; t++) {
+            order[t] = t;
+        }
+
+        long steps = 0;
+        long rounds = 0;
+        boolean deadlock = false;
+
+        steps:
+        while(steps < maxSteps) {
+            boolean someCameOut = false;
+
+            do {
+                if(rounds++ >= maxRounds) {
+                    break steps;
+                }
+
+                // neue zufällige Reihenfolge (Fisher-Yates), dann wie makeStep() berechnen
+                boolean worked = false;
+                for(int i = order.length - 1; i >= 0; i--) {
+                    int k = random.nextInt(i + 1);
+                    int t = order[k];
+                    order[k] = order[i];
+                    order[i] = t;
+
+                    if(net.fire(t, m) == true) {
+                        worked = true;
+                        if(net.chargesOutput[t] == true) {
+                            someCameOut = true;
+                        }
+                    }
+                }
+
+                if(worked == false) {
+                    deadlock = true;
+                    break steps;
+                }
+            }
+            while(someCameOut == false);
+
+            steps++;
+        }
+
+        for(int i = 0; i < outputPlace.length; i++) {
+            outputs[i] = m[outputPlace[i]];
+        }
+        partial.add(outputs, deadlock, steps);
+    }
+
+    /*
+     * Teilt einen Bereich von Läufen rekursiv auf; kleine Bereiche werden nacheinander mit
+     * denselben Hilfsfeldern berechnet.
+     */
+    private class ReplicaTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ReplicaTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if(to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReplicaTask(from, middle), new ReplicaTask(middle, to));
+                return;
+            }
+
+            float[] m = new float[net.numberOfPlaces];
+            int[] order = new int[net.numberOfTransitions];
+            float[] outputs = new float[outputPlace.length];
+
+            for(int r = from; r < to; r++) {
+                M_EnsembleStatistics partial = new M_EnsembleStatistics(outputPlace.length);
+                runReplica(r, m, order, outputs, partial);
+                collect(partial);
+                finished.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package model;
+
+/**
+ * Laufende Kennzahlen eines Ensembles von Simulationsläufen (M_Ensemble): Mittelwert und
+ * Varianz der Endwerte jeder Ausgabestelle und ihrer Summe, Anteil der verklemmten Läufe
+ * sowie Mittelwert, Varianz, Minimum und Maximum der Schritte bis zur Verklemmung. Die Läufe
+ * werden einzeln hinzugefügt (Welford) und Teilergebnisse zusammengeführt (Chan), so dass
+ * keine Ergebnisse einzelner Läufe gespeichert werden.
+ */
+public class M_EnsembleStatistics {
+
+    private final int numberOfOutputs;
+
+    private long replicas;
+    private long limitReached;          // Läufe, die an der Schritt- oder Rundengrenze endeten
+    private final double[] mean;        // je Ausgabestelle, am Ende ihre Summe
+    private final double[] m2;          // Summe der quadrierten Abweichungen, wie mean
+
+    private long deadlocks;
+    private double stepsMean;           // Schritte bis zur Verklemmung (nur verklemmte Läufe)
+    private double stepsM2;
+    private long stepsMin = Long.MAX_VALUE;
+    private long stepsMax;
+
+    /**
+     * Erzeugt leere Kennzahlen.
+     * @param numberOfOutputs Anzahl der Ausgabestellen
+     */
+    public M_EnsembleStatistics(int numberOfOutputs) {
+        this.numberOfOutputs = numberOfOutputs;
+        mean = new double[numberOfOutputs + 1];
+        m2 = new double[numberOfOutputs + 1];
+    }
+
+    /**
+     * Fügt das Ergebnis eines Laufs hinzu.
+     * @param outputs Endwerte der Ausgabestellen
+     * @param deadlock true, wenn der Lauf verklemmt ist
+     * @param steps Schritte des Laufs
+     */
+    public void add(float[] outputs, boolean deadlock, long steps) {
+        replicas++;
+
+        double total = 0;
+        for(int i = 0; i <= numberOfOutputs; i++) {
+            double value;
+            if(i < numberOfOutputs) {
+                value = outputs[i];
+                total += value;
+            }
+            else {
+                value = total;
+            }
+            double delta = value - mean[i];
+            mean[i] += delta / replicas;
+            m2[i] += delta * (value - mean[i]);
+        }
+
+        if(deadlock == true) {
+            deadlocks++;
+            double delta = steps - stepsMean;
+            stepsMean += delta / deadlocks;
+            stepsM2 += delta * (steps - stepsMean);
+            stepsMin = Math.min(stepsMin, steps);
+            stepsMax = Math.max(stepsMax, steps);
+        }
+        else {
+            limitReached++;
+        }
+    }
+
+    /**
+     * Führt die Kennzahlen anderer Läufe mit diesen zusammen.
+     * @param other Kennzahlen anderer Läufe (gleiche Anzahl Ausgabestellen)
+     */
+    public void merge(M_EnsembleStatistics other) {
+        if(other.replicas == 0) {
+            return;
+        }
+
+        long n = replicas + other.replicas;
+        for(int i = 0; i <= numberOfOutputs; i++) {
+            double delta = other.mean[i] - mean[i];
+            mean[i] += delta * other.replicas / n;
+            m2[i] += other.m2[i] + delta * delta * replicas * other.replicas / n;
+        }
+        replicas = n;
+        limitReached += other.limitReached;
+
+        if(other.deadlocks > 0) {
+            long d = deadlocks + other.deadlocks;
+            double delta = other.stepsMean - stepsMean;
+            stepsMean += delta * other.deadlocks / d;
+            stepsM2 += other.stepsM2 + delta * delta * deadlocks * other.deadlocks / d;
+            deadlocks = d;
+            stepsMin = Math.min(stepsMin, other.stepsMin);
+            stepsMax = Math.max(stepsMax, other.stepsMax);
+        }
+    }
+
+    /**
+     * Gibt eine Kopie dieser Kennzahlen zurück.
+     * @return Kopie
+     */
+    public M_EnsembleStatistics copy() {
+        M_EnsembleStatistics copy = new M_EnsembleStatistics(numberOfOutputs);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Gibt die Anzahl der Ausgabestellen zurück.
+     * @return Anzahl der Ausgabestellen
+     */
+    public int getNumberOfOutputs() {
+        return numberOfOutputs;
+    }
+
+    /**
+     * Gibt die Anzahl der erfassten Läufe zurück.
+     * @return Läufe
+     */
+    public long getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Gibt die Anzahl der Läufe zurück, die an der Schritt- oder Rundengrenze endeten.
+     * @return Läufe ohne Verklemmung
+     */
+    public long getLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Gibt den mittleren Endwert einer Ausgabestelle zurück.
+     * @param i Index der Ausgabestelle (0 .. getNumberOfOutputs()-1), getNumberOfOutputs()
+     * für die Summe aller Ausgabestellen
+     * @return Mittelwert
+     */
+    public double getMean(int i) {
+        return mean[i];
+    }
+
+    /**
+     * Gibt die (Stichproben-)Varianz des Endwerts einer Ausgabestelle zurück.
+     * @param i Index der Ausgabestelle wie bei getMean()
+     * @return Varianz, 0 bei weniger als zwei Läufen
+     */
+    public double getVariance(int i) {
+        return replicas > 1 ? m2[i] / (replicas - 1) : 0;
+    }
+
+    /**
+     * Gibt die Anzahl der verklemmten Läufe zurück.
+     * @return verklemmte Läufe
+     */
+    public long getDeadlocks() {
+        return deadlocks;
+    }
+
+    /**
+     * Gibt den Anteil der verklemmten Läufe zurück (geschätzte Verklemmungswahrscheinlichkeit).
+     * @return Anteil zwischen 0 und 1
+     */
+    public double getDeadlockProbability() {
+        return replicas > 0 ? (double) deadlocks / replicas : 0;
+    }
+
+    /**
+     * Gibt die mittlere Anzahl der Schritte bis zur Verklemmung zurück.
+     * @return Mittelwert über die verklemmten Läufe
+     */
+    public double getMeanStepsToDeadlock() {
+        return stepsMean;
+    }
+
+    /**
+     * Gibt die (Stichproben-)Varianz der Schritte bis zur Verklemmung zurück.
+     * @return Varianz, 0 bei weniger als zwei verklemmten Läufen
+     */
+    public double getStepsToDeadlockVariance() {
+        return deadlocks > 1 ? stepsM2 / (deadlocks - 1) : 0;
+    }
+
+    /**
+     * Gibt die kleinste Anzahl der Schritte bis zur Verklemmung zurück.
+     * @return Minimum, 0 ohne verklemmte Läufe
+     */
+    public long getMinStepsToDeadlock() {
+        return deadlocks > 0 ? stepsMin : 0;
+    }
+
+    /**
+     * Gibt die größte Anzahl der Schritte bis zur Verklemmung zurück.
+     * @return Maximum, 0 ohne verklemmte Läufe
+     */
+    public long getMaxStepsToDeadlock() {
+        return stepsMax;
+    }
+}
@@ -0,0 +1,416 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Simuliert ein kompiliertes Netz kontinuierlich (fluides Petrinetz): Die Markierung ist
+ * eine reelle Größe, jede Transition feuert mit einem Fluss statt in einzelnen Schritten.
+ * Der Fluss der Transition t ist
+ * <pre>
+ *   v(t) = rate(t) * min( min über Vorbereich m(p) / w,  min über begrenzten Nachbereich (cap(p) - m(p)) / w )
+ * </pre>
+ * (unendlich viele Server im Vorbereich, Kapazitäten als Sättigung im Nachbereich). Eine
+ * Transition ohne begrenzende Stelle fließt mit rate(t). Die Markierung folgt damit der
+ * Differentialgleichung dm/dt = C * v mit der Inzidenzmatrix C und bleibt zwischen 0 und der
+ * Kapazität.
+ * <p>
+ * Integriert wird mit dem eingebetteten Runge-Kutta-Verfahren von Dormand und Prince
+ * (Ordnung 5(4)) mit Schrittweitensteuerung. Der Aufwand hängt nur von der Netzgröße und der
+ * Dynamik ab, nicht von der Anzahl der Teile. Die Markierung wird in festen Abständen als
+ * Zeitreihe aufgezeichnet; die Simulation endet am Endzeitpunkt, wenn alle Flüsse zum
+ * Erliegen gekommen sind (stationärer Zustand) oder wenn die Schrittgrenze erreicht ist.
+ */
+public class M_FluidSimulation {
+
+    // Koeffizienten nach Dormand und Prince
+    private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561,
+            A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247,
+            A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192,
+            B5 = -2187.0 / 6784, B6 = 11.0 / 84;
+    // Differenz zwischen Lösung 5. und 4. Ordnung (Fehlerschätzer)
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920,
+            E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private final M_CompiledNet net;
+    private final int places;
+    private final double[] capacity;
+    private final double[] rate;
+
+    private double relativeTolerance = 1e-6;
+    private double absoluteTolerance = 1e-6;
+    private double interval;                // Abstand der Aufzeichnung, 0: Endzeit / 100
+    private long maxSteps = 1000000;
+
+    private double[] marking;
+    private double time;
+    private boolean steady;
+    private boolean limitReached;
+    private long acceptedSteps;
+    private long rejectedSteps;
+    private long nanos;
+
+    private final ArrayList<Double> sampleTimes = new ArrayList<Double>();
+    private final ArrayList<float[]> samples = new ArrayList<float[]>();
+
+    /**
+     * Bereitet die Simulation des übergebenen Netzes vor. Dessen aktuelle Markierung ist der
+     * Anfangszustand; das Netz selbst wird nicht verändert. Alle Raten sind 1.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_FluidSimulation(M_CompiledNet net) {
+        this.net = net;
+        places = net.numberOfPlaces;
+
+        capacity = new double[places];
+        for(int p = 0; p < places; p++) {
+            capacity[p] = net.capacity[p];
+        }
+
+        rate = new double[net.numberOfTransitions];
+        Arrays.fill(rate, 1.0);
+
+        marking = new double[places];
+        float[] m = net.getMarking();
+        for(int p = 0; p < places; p++) {
+            marking[p] = m[p];
+        }
+    }
+
+    /**
+     * Setzt die Rate einer Transition (Feuerungen je Zeiteinheit bei Aktivierungsgrad 1).
+     * @param t Index der Transition
+     * @param rate Rate (mindestens 0)
+     */
+    public void setRate(int t, double rate) {
+        if((rate >= 0) == false) {
+            throw new IllegalArgumentException("Rate must not be negative: " + rate);
+        }
+        this.rate[t] = rate;
+    }
+
+    /**
+     * Setzt die Fehlertoleranzen der Schrittweitensteuerung.
+     * @param relative relative Toleranz
+     * @param absolute absolute Toleranz (auch Grenze, unter der ein Fluss als erloschen gilt)
+     */
+    public void setTolerance(double relative, double absolute) {
+        relativeTolerance = relative;
+        absoluteTolerance = absolute;
+    }
+
+    /**
+     * Setzt den zeitlichen Abstand der aufgezeichneten Markierungen.
+     * @param interval Abstand, 0 für ein Hundertstel der Endzeit
+     */
+    public void setInterval(double interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Setzt die Höchstzahl an Integrationsschritten (angenommene und verworfene).
+     * @param maxSteps Schrittgrenze
+     */
+    public void setMaxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Integriert vom Anfangszustand bis zum Endzeitpunkt. Jeder Aufruf beginnt neu.
+     * @param endTime Endzeitpunkt (größer 0)
+     */
+    public void run(double endTime) {
+        long start = System.nanoTime();
+        double sampleInterval = interval > 0 ? interval : endTime / 100;
+
+        float[] initial = net.getMarking();
+        for(int p = 0; p < places; p++) {
+            marking[p] = initial[p];
+        }
+        time = 0;
+        steady = false;
+        limitReached = false;
+        acceptedSteps = 0;
+        rejectedSteps = 0;
+        sampleTimes.clear();
+        samples.clear();
+
+        double[] y = marking;
+        double[] yNew = new double[places];
+        double[] yStage = new double[places];
+        double[] flow = new double[net.numberOfTransitions];
+        double[] k1 = new double[places];
+        double[] k2 = new double[places];
+        double[] k3 = new double[places];
+        double[] k4 = new double[places];
+        double[] k5 = new double[places];
+        double[] k6 = new double[places];
+        double[] k7 = new double[places];
+
+        record(0, y);
+        double nextSample = sampleInterval;
+
+        derivative(y, flow, k1);
+        double h = initialStep(y, k1, Math.min(sampleInterval, endTime));
+
+        while(time < endTime) {
+            if(maxNorm(k1) <= absoluteTolerance) {
+                steady = true;
+                break;
+            }
+            if(acceptedSteps + rejectedSteps >= maxSteps) {
+                limitReached = true;
+                break;
+            }
+
+            // nicht über den nächsten Aufzeichnungszeitpunkt hinaus rechnen
+            double target = Math.min(nextSample, endTime);
+            boolean hitsTarget = time + h >= target;
+            double step = hitsTarget == true ? target - time : h;
+
+            for(int p = 0; p < places; p++) {
+                yStage[p] = y[p] + step * A21 * k1[p];
+            }
+            derivative(yStage, flow, k2);
+            for(int p = 0; p < places; p++) {
+                yStage[p] = y[p] + step * (A31 * k1[p] + A32 * k2[p]);
+            }
+            derivative(yStage, flow, k3);
+            for(int p = 0; p < places; p++) {
+                yStage[p] = y[p] + step * (A41 * k1[p] + A42 * k2[p] + A43 * k3[p]);
+            }
+            derivative(yStage, flow, k4);
+            for(int p = 0; p < places; p++) {
+                yStage[p] = y[p] + step * (A51 * k1[p] + A52 * k2[p] + A53 * k3[p] + A54 * k4[p]);
+            }
+            derivative(yStage, flow, k5);
+            for(int p = 0; p < places; p++) {
+                yStage[p] = y[p] + step * (A61 * k1[p] + A62 * k2[p] + A63 * k3[p] + A64 * k4[p]
+                        + A65 * k5[p]);
+            }
+            derivative(yStage, flow, k6);
+            for(int p = 0; p < places; p++) {
+                yNew[p] = y[p] + step * (B1 * k1[p] + B3 * k3[p] + B4 * k4[p] + B5 * k5[p] + B6 * k6[p]);
+            }
+            derivative(yNew, flow, k7);
+
+            // Fehler schätzen (gewichtete quadratische Norm)
+            double sum = 0;
+            for(int p = 0; p < places; p++) {
+                double e = step * (E1 * k1[p] + E3 * k3[p] + E4 * k4[p] + E5 * k5[p] + E6 * k6[p]
+                        + E7 * k7[p]);
+                double scale = absoluteTolerance
+                        + relativeTolerance * Math.max(Math.abs(y[p]), Math.abs(yNew[p]));
+                sum += (e / scale) * (e / scale);
+            }
+            double error = places > 0 ? Math.sqrt(sum / places) : 0;
+
+            double factor = error > 0 ? 0.9 * Math.pow(error, -0.2) : 5;
+            factor = Math.max(0.2, Math.min(5, factor));
+
+            if(error > 1) {
+                rejectedSteps++;
+                h = step * Math.min(1, factor);
+                continue;
+            }
+
+            // Schritt annehmen: Sättigung gegen Rundungsfehler erzwingen
+            acceptedSteps++;
+            time = hitsTarget == true ? target : time + step;
+            for(int p = 0; p < places; p++) {
+                y[p] = Math.max(0, Math.min(capacity[p], yNew[p]));
+            }
+            double[] swap = k1;
+            k1 = k7;
+            k7 = swap;
+            if(hitsTarget == false) {
+                h = step * factor;
+            }
+            else {
+                h = Math.max(h, step * factor);
+            }
+
+            if(hitsTarget == true) {
+                record(time, y);
+                nextSample = nextSample + sampleInterval;
+            }
+        }
+
+        if(time > sampleTimes.get(sampleTimes.size() - 1)) {
+            record(time, y);
+        }
+
+        nanos = System.nanoTime() - start;
+    }
+
+    /*
+     * Berechnet die Flüsse aller Transitionen und daraus dm/dt.
+     */
+    private void derivative(double[] m, double[] flow, double[] dm) {
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            flow[t] = rate[t] * degree(t, m);
+        }
+
+        Arrays.fill(dm, 0);
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            double v = flow[t];
+            if(v == 0) {
+                continue;
+            }
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                dm[net.prePlace[a]] -= v * net.preWeight[a];
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                dm[net.postPlace[a]] += v * net.postWeight[a];
+            }
+        }
+    }
+
+    /*
+     * Aktivierungsgrad von t: wie oft t unter m (reell) feuern könnte, höchstens 1 ohne
+     * begrenzende Stelle.
+     */
+    private double degree(int t, double[] m) {
+        double d = Double.POSITIVE_INFINITY;
+
+        for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+            d = Math.min(d, Math.max(0, m[net.prePlace[a]]) / net.preWeight[a]);
+        }
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            if(capacity[p] != Double.POSITIVE_INFINITY) {
+                d = Math.min(d, Math.max(0, capacity[p] - m[p]) / net.postWeight[a]);
+            }
+        }
+
+        return d == Double.POSITIVE_INFINITY ? 1 : d;
+    }
+
+    /*
+     * Anfangsschrittweite aus dem Verhältnis von Markierung und Änderungsrate.
+     */
+    private double initialStep(double[] y, double[] dy, double limit) {
+        double y0 = 0;
+        double d0 = 0;
+        for(int p = 0; p < places; p++) {
+            double scale = absoluteTolerance + relativeTolerance * Math.abs(y[p]);
+            y0 = Math.max(y0, Math.abs(y[p]) / scale);
+            d0 = Math.max(d0, Math.abs(dy[p]) / scale);
+        }
+        double h = (y0 < 1e-5 || d0 < 1e-5) ? 1e-6 : 0.01 * y0 / d0;
+        return Math.min(h, limit);
+    }
+
+    private static double maxNorm(double[] v) {
+        double max = 0;
+        for(double x : v) {
+            max = Math.max(max, Math.abs(x));
+        }
+        return max;
+    }
+
+    private void record(double t, double[] y) {
+        float[] sample = new float[places];
+        for(int p = 0; p < places; p++) {
+            sample[p] = (float) y[p];
+        }
+        sampleTimes.add(t);
+        samples.add(sample);
+    }
+
+    /**
+     * Gibt die Zeitpunkte der aufgezeichneten Markierungen zurück.
+     * @return Zeitpunkte (aufsteigend, beginnend mit 0)
+     */
+    public double[] getTimes() {
+        double[] times = new double[sampleTimes.size()];
+        for(int i = 0; i < times.length; i++) {
+            times[i] = sampleTimes.get(i);
+        }
+        return times;
+    }
+
+    /**
+     * Gibt die aufgezeichnete Markierung zum i-ten Zeitpunkt zurück.
+     * @param i Index des Zeitpunkts
+     * @return Markierung (Indizes wie im kompilierten Netz)
+     */
+    public float[] getSample(int i) {
+        return samples.get(i);
+    }
+
+    /**
+     * Gibt die Zeitreihe einer Stelle zurück.
+     * @param p Index der Stelle
+     * @return Werte zu den Zeitpunkten von getTimes()
+     */
+    public float[] getSeries(int p) {
+        float[] series = new float[samples.size()];
+        for(int i = 0; i < series.length; i++) {
+            series[i] = samples.get(i)[p];
+        }
+        return series;
+    }
+
+    /**
+     * Gibt die Markierung am Ende der Simulation zurück.
+     * @return Markierung (Indizes wie im kompilierten Netz)
+     */
+    public double[] getMarking() {
+        return marking;
+    }
+
+    /**
+     * Gibt den erreichten Zeitpunkt zurück.
+     * @return Simulationszeit
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Testet, ob alle Flüsse vor dem Endzeitpunkt zum Erliegen gekommen sind.
+     * @return true, wenn ein stationärer Zustand erreicht wurde, sonst false.
+     */
+    public boolean isSteady() {
+        return steady;
+    }
+
+    /**
+     * Testet, ob die Simulation an der Schrittgrenze abgebrochen wurde.
+     * @return true, wenn die Schrittgrenze erreicht wurde, sonst false.
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Gibt die Anzahl der angenommenen Integrationsschritte zurück.
+     * @return angenommene Schritte
+     */
+    public long getAcceptedSteps() {
+        return acceptedSteps;
+    }
+
+    /**
+     * Gibt die Anzahl der verworfenen Integrationsschritte zurück.
+     * @return verworfene Schritte
+     */
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    /**
+     * Gibt die Rechenzeit der letzten Simulation zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+}
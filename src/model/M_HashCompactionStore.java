@@ -0,0 +1,127 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Menge besuchter Markierungen mit Hash-Kompaktierung: statt der Markierung wird nur ein
+ * 32-Bit-Fingerabdruck in einer Hashtabelle fester Größe gespeichert (4 Bytes je Platz).
+ * Da die Tabelle nicht wächst, bestimmen die oberen Bits des Hashwertes den Platz und der
+ * Fingerabdruck stammt aus davon unabhängigen Bits; zwei Markierungen gelten nur dann als
+ * gleich, wenn beide übereinstimmen.
+ * <p>
+ * Gesucht wird linear über höchstens MAX_PROBES Plätze; findet sich dort kein freier Platz
+ * (Tabelle nahezu voll), wird die Markierung verworfen und gezählt. Plätze werden ohne
+ * Sperren (compareAndSet) belegt.
+ */
+public class M_HashCompactionStore implements MI_ApproximateStateStore {
+
+    // Plätze je Abschnitt der Tabelle (2^30 Plätze = 4 GB)
+    static final int SEGMENT_BITS = 30;
+
+    // höchste Anzahl untersuchter Plätze je Markierung
+    static final int MAX_PROBES = 64;
+
+    // Bits je Fingerabdruck
+    static final int FINGERPRINT_BITS = 32;
+
+    private final int slotBits;             // log2(Anzahl der Plätze)
+    private final long slots;
+    private final AtomicIntegerArray[] segments;
+    private final LongAdder size = new LongAdder();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Erzeugt eine leere Tabelle.
+     * @param bytes Größe der Tabelle in Bytes (wird auf eine Zweierpotenz abgerundet)
+     */
+    public M_HashCompactionStore(long bytes) {
+        if(bytes < 4 * MAX_PROBES) {
+            throw new IllegalArgumentException("Invalid hash compaction size " + bytes);
+        }
+        slots = Long.highestOneBit(bytes / 4);
+        slotBits = Long.numberOfTrailingZeros(slots);
+
+        long perSegment = 1L << SEGMENT_BITS;
+        segments = new AtomicIntegerArray[(int) ((slots + perSegment - 1) / perSegment)];
+        for(int s = 0; s < segments.length; s++) {
+            segments[s] = new AtomicIntegerArray((int) Math.min(perSegment, slots - s * perSegment));
+        }
+    }
+
+    /**
+     * Nimmt den Fingerabdruck der Markierung auf.
+     * @return true, wenn der Fingerabdruck neu ist; false, wenn er bereits enthalten ist
+     * oder die Markierung mangels freien Platzes verworfen wurde.
+     */
+    public boolean add(long[] state, int offset, long hash) {
+        // 0 kennzeichnet freie Plätze
+        int fingerprint = (int) M_MarkingCodec.mix(hash ^ 0x632BE59BD9B4E019L);
+        if(fingerprint == 0) {
+            fingerprint = 1;
+        }
+
+        long slot = hash >>> (64 - slotBits);
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            AtomicIntegerArray segment = segments[(int) (slot >>> SEGMENT_BITS)];
+            int index = (int) (slot & ((1L << SEGMENT_BITS) - 1));
+
+            int current = segment.get(index);
+            if(current == 0) {
+                if(segment.compareAndSet(index, 0, fingerprint) == true) {
+                    size.increment();
+                    return true;
+                }
+                current = segment.get(index);
+            }
+            if(current == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & (slots - 1);
+        }
+
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gibt die Anzahl der aufgenommenen Fingerabdrücke zurück.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Gibt die Größe der Tabelle (in Bytes) zurück.
+     */
+    public long getBytes() {
+        return slots * 4;
+    }
+
+    /**
+     * Gibt die Anzahl der mangels freien Platzes verworfenen Markierungen zurück.
+     * @return verworfene Markierungen
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Schätzt die verworfenen Markierungen: Kollisionen der aus Platz und Fingerabdruck
+     * gebildeten (slotBits + 32)-Bit-Werte, n^2 / 2^(b+1), zuzüglich der mangels Platz
+     * verworfenen.
+     */
+    public double getExpectedOmissions() {
+        double n = size();
+        return n * n / Math.pow(2, slotBits + FINGERPRINT_BITS + 1) + dropped.get();
+    }
+
+    /**
+     * Schätzt die Abdeckung als n / (n + verworfene Markierungen).
+     */
+    public double getCoverage() {
+        double n = size();
+        return n > 0 ? n / (n + getExpectedOmissions()) : 1;
+    }
+}
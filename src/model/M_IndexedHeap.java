@@ -0,0 +1,177 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Indizierter Min-Heap über die Einträge 0 .. size-1 (z.B. Transitionsindizes) mit einem
+ * double-Schlüssel je Eintrag (z.B. nächster Feuerungszeitpunkt). Jeder Eintrag ist höchstens
+ * einmal enthalten; seine Position im Heap wird mitgeführt, so dass Schlüssel in O(log n)
+ * geändert und beliebige Einträge entfernt werden können. Kommt ohne Boxing aus.
+ */
+public class M_IndexedHeap {
+
+    private final int[] heap;       // Heap-Feld der Einträge, Wurzel an Index 0
+    private final int[] position;   // Position des Eintrags im Heap, -1: nicht enthalten
+    private final double[] key;     // Schlüssel je Eintrag
+    private int size;
+
+    /**
+     * Erzeugt einen leeren Heap.
+     * @param entries Anzahl möglicher Einträge (0 .. entries-1)
+     */
+    public M_IndexedHeap(int entries) {
+        heap = new int[entries];
+        position = new int[entries];
+        key = new double[entries];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Gibt die Anzahl der Einträge zurück.
+     * @return Anzahl der Einträge
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Testet, ob der Heap leer ist.
+     * @return true, wenn der Heap leer ist, sonst false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Testet, ob ein Eintrag enthalten ist.
+     * @param entry Eintrag
+     * @return true, wenn der Eintrag enthalten ist, sonst false.
+     */
+    public boolean contains(int entry) {
+        return position[entry] >= 0;
+    }
+
+    /**
+     * Gibt den Schlüssel eines enthaltenen Eintrags zurück.
+     * @param entry Eintrag
+     * @return Schlüssel
+     */
+    public double getKey(int entry) {
+        return key[entry];
+    }
+
+    /**
+     * Entfernt alle Einträge.
+     */
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Gibt den Eintrag mit dem kleinsten Schlüssel zurück, ohne ihn zu entfernen.
+     * @return Eintrag mit dem kleinsten Schlüssel
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Gibt den kleinsten Schlüssel zurück.
+     * @return kleinster Schlüssel
+     */
+    public double peekKey() {
+        return key[heap[0]];
+    }
+
+    /**
+     * Fügt einen Eintrag ein oder ändert seinen Schlüssel.
+     * @param entry Eintrag
+     * @param value neuer Schlüssel
+     */
+    public void set(int entry, double value) {
+        int i = position[entry];
+
+        if(i < 0) {
+            key[entry] = value;
+            siftUp(size++, entry);
+        }
+        else if(value < key[entry]) {
+            key[entry] = value;
+            siftUp(i, entry);
+        }
+        else {
+            key[entry] = value;
+            siftDown(i, entry);
+        }
+    }
+
+    /**
+     * Entfernt einen Eintrag, falls er enthalten ist.
+     * @param entry Eintrag
+     */
+    public void remove(int entry) {
+        int i = position[entry];
+        if(i < 0) {
+            return;
+        }
+
+        position[entry] = -1;
+        int last = heap[--size];
+        if(i == size) {
+            return;
+        }
+
+        // letzten Eintrag an die frei gewordene Stelle setzen und einsortieren
+        if(key[last] < key[entry]) {
+            siftUp(i, last);
+        }
+        else {
+            siftDown(i, last);
+        }
+    }
+
+    /*
+     * Lässt den Eintrag von Position i nach oben durchsickern.
+     */
+    private void siftUp(int i, int entry) {
+        double value = key[entry];
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            int other = heap[parent];
+            if(key[other] <= value) {
+                break;
+            }
+            heap[i] = other;
+            position[other] = i;
+            i = parent;
+        }
+        heap[i] = entry;
+        position[entry] = i;
+    }
+
+    /*
+     * Lässt den Eintrag von Position i nach unten durchsickern.
+     */
+    private void siftDown(int i, int entry) {
+        double value = key[entry];
+        int half = size >>> 1;
+        while(i < half) {
+            int child = 2 * i + 1;
+            if(child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            int other = heap[child];
+            if(value <= key[other]) {
+                break;
+            }
+            heap[i] = other;
+            position[other] = i;
+            i = child;
+        }
+        heap[i] = entry;
+        position[entry] = i;
+    }
+}
@@ -0,0 +1,94 @@
+package model;
+
+/**
+ * Einfacher Min-Heap für int-Werte (z.B. Transitionsindizes). Kommt ohne
+ * Boxing aus und wird von den Arbeitslisten der Berechnung verwendet.
+ */
+public class M_IntHeap {
+
+    private int[] heap;     // Heap-Feld, Wurzel an Index 0
+    private int size;       // Anzahl der Einträge
+
+    /**
+     * Erzeugt einen leeren Heap.
+     * @param capacity anfängliche Kapazität
+     */
+    public M_IntHeap(int capacity) {
+        heap = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Gibt die Anzahl der Einträge zurück.
+     * @return Anzahl der Einträge
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Testet, ob der Heap leer ist.
+     * @return true, wenn der Heap leer ist, sonst false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Entfernt alle Einträge.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Fügt einen Wert ein.
+     * @param value einzufügender Wert
+     */
+    public void push(int value) {
+        if(size == heap.length) {
+            int[] larger = new int[heap.length * 2];
+            System.arraycopy(heap, 0, larger, 0, size);
+            heap = larger;
+        }
+
+        // nach oben durchsickern lassen
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * Entnimmt den kleinsten Wert.
+     * @return kleinster Wert
+     */
+    public int pop() {
+        int result = heap[0];
+        int last = heap[--size];
+
+        // nach unten durchsickern lassen
+        int i = 0;
+        int half = size >>> 1;
+        while(i < half) {
+            int child = 2 * i + 1;
+            if(child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if(last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+
+        return result;
+    }
+}
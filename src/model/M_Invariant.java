@@ -0,0 +1,62 @@
+package model;
+
+/**
+ * Eine Invariante (P- oder T-Invariante) als dünn besetzter, halbpositiver, ganzzahliger
+ * Vektor über den Stellen bzw. Transitionen eines kompilierten Netzes. Gespeichert sind nur
+ * die Einträge des Trägers (aufsteigend nach Index).
+ */
+public class M_Invariant {
+
+    private final int[] indices;
+    private final long[] coefficients;
+
+    /**
+     * Erzeugt eine Invariante.
+     * @param indices Indizes des Trägers (aufsteigend)
+     * @param coefficients zugehörige (positive) Koeffizienten
+     */
+    public M_Invariant(int[] indices, long[] coefficients) {
+        this.indices = indices;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Gibt die Größe des Trägers zurück.
+     * @return Anzahl der Einträge ungleich 0
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * Gibt den Index (Stelle bzw. Transition) des i-ten Eintrags zurück.
+     * @param i Nummer des Eintrags
+     * @return Index im kompilierten Netz
+     */
+    public int getIndex(int i) {
+        return indices[i];
+    }
+
+    /**
+     * Gibt den Koeffizienten des i-ten Eintrags zurück.
+     * @param i Nummer des Eintrags
+     * @return Koeffizient
+     */
+    public long getCoefficient(int i) {
+        return coefficients[i];
+    }
+
+    /**
+     * Berechnet die gewichtete Summe y * m (für P-Invarianten die unter allen Feuerungen
+     * konstante Anzahl gewichteter Teile).
+     * @param m Markierung bzw. Vektor über den Indizes
+     * @return gewichtete Summe
+     */
+    public double weightedSum(float[] m) {
+        double sum = 0;
+        for(int i = 0; i < indices.length; i++) {
+            sum += coefficients[i] * (double) m[indices[i]];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,574 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Berechnet die minimalen halbpositiven P- und T-Invarianten eines kompilierten Netzes mit
+ * dem Farkas-Algorithmus in der Variante von Martinez und Silva.
+ * <p>
+ * Grundlage ist die dünn besetzte Inzidenzmatrix C (Stellen x Transitionen, C[p][t] =
+ * Gewichte der Kanten von t nach p minus Gewichte der Kanten von p nach t). P-Invarianten
+ * y (y * C = 0) bleiben unter allen Feuerungen als gewichtete Summe der Markierung
+ * erhalten; T-Invarianten x (C * x = 0) sind Feuerungsfolgen, die die Markierung nicht
+ * ändern. Nicht ganzzahlige Gewichte werden mit einer Zehnerpotenz (höchstens MAX_SCALE)
+ * ganzzahlig gemacht.
+ * <p>
+ * Die Zeilen der Matrix [C | E] werden dünn besetzt gehalten. Eliminiert wird jeweils die
+ * Spalte mit den wenigsten neuen Zeilen (Anzahl positiver mal Anzahl negativer Einträge).
+ * Nach jeder Spalte werden alle Zeilen verworfen, deren Träger einen anderen Träger echt
+ * enthält; so wächst die Matrix nur um Zeilen, die zu minimalen Invarianten führen können.
+ * Wird die Zeilengrenze überschritten oder laufen Koeffizienten über, bricht die Berechnung
+ * mit einer Exception ab.
+ */
+public class M_Invariants {
+
+    // höchste Zehnerpotenz zum Ganzzahligmachen der Gewichte
+    static final long MAX_SCALE = 1000000;
+
+    private final M_CompiledNet net;
+    private final long scale;
+
+    // Inzidenzmatrix je Stelle und je Transition (dünn besetzt, aufsteigend)
+    private final int[][] placeIndex;
+    private final long[][] placeValue;
+    private final int[][] transitionIndex;
+    private final long[][] transitionValue;
+
+    private int maxRows = 100000;
+
+    /**
+     * Baut die Inzidenzmatrix des übergebenen Netzes auf.
+     * @param net kompiliertes Netz
+     */
+    public M_Invariants(M_CompiledNet net) {
+        this.net = net;
+        scale = findScale(net);
+
+        int numberOfPlaces = net.numberOfPlaces;
+        int numberOfTransitions = net.numberOfTransitions;
+
+        // Zeilen je Transition: Einträge je Stelle zusammenfassen
+        long[] column = new long[numberOfPlaces];
+        int[] touched = new int[numberOfPlaces];
+        boolean[] isTouched = new boolean[numberOfPlaces];
+        transitionIndex = new int[numberOfTransitions][];
+        transitionValue = new long[numberOfTransitions][];
+        int[] placeCount = new int[numberOfPlaces];
+
+        for(int t = 0; t < numberOfTransitions; t++) {
+            int count = 0;
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                count = accumulate(net.prePlace[a], -scaled(net.preWeight[a]), column, touched, isTouched, count);
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                count = accumulate(net.postPlace[a], scaled(net.postWeight[a]), column, touched, isTouched, count);
+            }
+
+            Arrays.sort(touched, 0, count);
+            int nonZero = 0;
+            for(int i = 0; i < count; i++) {
+                if(column[touched[i]] != 0) {
+                    nonZero++;
+                }
+            }
+            transitionIndex[t] = new int[nonZero];
+            transitionValue[t] = new long[nonZero];
+            nonZero = 0;
+            for(int i = 0; i < count; i++) {
+                int p = touched[i];
+                if(column[p] != 0) {
+                    transitionIndex[t][nonZero] = p;
+                    transitionValue[t][nonZero] = column[p];
+                    placeCount[p]++;
+                    nonZero++;
+                }
+                column[p] = 0;
+                isTouched[p] = false;
+            }
+        }
+
+        // Zeilen je Stelle (transponiert)
+        placeIndex = new int[numberOfPlaces][];
+        placeValue = new long[numberOfPlaces][];
+        for(int p = 0; p < numberOfPlaces; p++) {
+            placeIndex[p] = new int[placeCount[p]];
+            placeValue[p] = new long[placeCount[p]];
+            placeCount[p] = 0;
+        }
+        for(int t = 0; t < numberOfTransitions; t++) {
+            for(int i = 0; i < transitionIndex[t].length; i++) {
+                int p = transitionIndex[t][i];
+                placeIndex[p][placeCount[p]] = t;
+                placeValue[p][placeCount[p]] = transitionValue[t][i];
+                placeCount[p]++;
+            }
+        }
+    }
+
+    private static int accumulate(int p, long value, long[] column, int[] touched, boolean[] isTouched, int count) {
+        if(isTouched[p] == false) {
+            isTouched[p] = true;
+            touched[count++] = p;
+        }
+        column[p] += value;
+        return count;
+    }
+
+    /*
+     * Sucht die kleinste Zehnerpotenz, mit der alle Gewichte ganzzahlig werden.
+     */
+    private static long findScale(M_CompiledNet net) {
+        for(long scale = 1; scale <= MAX_SCALE; scale *= 10) {
+            if(isIntegral(net.preWeight, scale) == true && isIntegral(net.postWeight, scale) == true) {
+                return scale;
+            }
+        }
+        throw new IllegalArgumentException("Weights can't be made integral (more than 6 decimal places).");
+    }
+
+    private static boolean isIntegral(float[] weights, long scale) {
+        for(int a = 0; a < weights.length; a++) {
+            double w = (double) weights[a] * scale;
+            if(Math.abs(w - Math.rint(w)) > 1e-6 * scale) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long scaled(float weight) {
+        return Math.round((double) weight * scale);
+    }
+
+    /**
+     * Gibt den Faktor zurück, mit dem die Gewichte ganzzahlig gemacht wurden.
+     * @return Faktor (1 bei ganzzahligen Gewichten)
+     */
+    public long getScale() {
+        return scale;
+    }
+
+    /**
+     * Setzt die höchste Anzahl gleichzeitig gehaltener Zeilen.
+     * @param maxRows Zeilengrenze
+     */
+    public void setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Gibt den Eintrag C[p][t] der (ggf. skalierten) Inzidenzmatrix zurück.
+     * @param p Index der Stelle
+     * @param t Index der Transition
+     * @return Eintrag
+     */
+    public long getIncidence(int p, int t) {
+        int i = Arrays.binarySearch(placeIndex[p], t);
+        return i >= 0 ? placeValue[p][i] : 0;
+    }
+
+    /**
+     * Berechnet die minimalen halbpositiven P-Invarianten.
+     * @return P-Invarianten (Indizes der Stellen des kompilierten Netzes)
+     * @throws IllegalStateException Zeilengrenze überschritten
+     * @throws ArithmeticException Überlauf der Koeffizienten
+     */
+    public ArrayList<M_Invariant> computePInvariants() {
+        return farkas(placeIndex, placeValue, net.numberOfTransitions);
+    }
+
+    /**
+     * Berechnet die minimalen halbpositiven T-Invarianten.
+     * @return T-Invarianten (Indizes der Transitionen des kompilierten Netzes)
+     * @throws IllegalStateException Zeilengrenze überschritten
+     * @throws ArithmeticException Überlauf der Koeffizienten
+     */
+    public ArrayList<M_Invariant> computeTInvariants() {
+        return farkas(transitionIndex, transitionValue, net.numberOfPlaces);
+    }
+
+    /**
+     * Ermittelt, welche Indizes von mindestens einer der Invarianten überdeckt werden.
+     * @param invariants Invarianten
+     * @param size Anzahl der Stellen bzw. Transitionen
+     * @return true für jeden überdeckten Index
+     */
+    public static boolean[] covered(ArrayList<M_Invariant> invariants, int size) {
+        boolean[] covered = new boolean[size];
+        for(int i = 0; i < invariants.size(); i++) {
+            M_Invariant invariant = invariants.get(i);
+            for(int k = 0; k < invariant.size(); k++) {
+                covered[invariant.getIndex(k)] = true;
+            }
+        }
+        return covered;
+    }
+
+    /*
+     * Zeile der Matrix [C | E]: Restspalten von C und Invariantenvektor, beide dünn besetzt.
+     */
+    private static final class Row {
+        int[] columns;
+        long[] values;
+        int[] support;
+        long[] coefficients;
+        long signature;         // Bit (i mod 64) für jeden Index i des Trägers
+
+        Row(int[] columns, long[] values, int[] support, long[] coefficients) {
+            this.columns = columns;
+            this.values = values;
+            this.support = support;
+            this.coefficients = coefficients;
+            for(int i = 0; i < support.length; i++) {
+                signature |= 1L << (support[i] & 63);
+            }
+        }
+
+        long valueAt(int column) {
+            int i = Arrays.binarySearch(columns, column);
+            return i >= 0 ? values[i] : 0;
+        }
+
+        /*
+         * true, wenn der Träger dieser Zeile im Träger von other enthalten ist.
+         */
+        boolean supportWithin(Row other) {
+            if(support.length > other.support.length || (signature & ~other.signature) != 0) {
+                return false;
+            }
+            int j = 0;
+            for(int i = 0; i < support.length; i++) {
+                while(j < other.support.length && other.support[j] < support[i]) {
+                    j++;
+                }
+                if(j == other.support.length || other.support[j] != support[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean sameAs(Row other) {
+            return Arrays.equals(support, other.support) && Arrays.equals(coefficients, other.coefficients)
+                    && Arrays.equals(columns, other.columns) && Arrays.equals(values, other.values);
+        }
+    }
+
+    /*
+     * Farkas-Algorithmus auf den Zeilen (rowIndex, rowValue) mit numberOfColumns Spalten.
+     */
+    private ArrayList<M_Invariant> farkas(int[][] rowIndex, long[][] rowValue, int numberOfColumns) {
+        Elimination elimination = new Elimination(rowIndex.length, numberOfColumns, maxRows);
+        for(int r = 0; r < rowIndex.length; r++) {
+            elimination.add(new Row(rowIndex[r].clone(), rowValue[r].clone(), new int[] {r}, new long[] {1}));
+        }
+        return elimination.run();
+    }
+
+    /*
+     * Zustand einer Elimination: die lebenden Zeilen, erreichbar über ihre Restspalten
+     * (byColumn) und über ihren Träger (bySupport), sowie die Anzahl positiver und negativer
+     * Einträge je Spalte.
+     */
+    private static final class Elimination {
+        private final ArrayList<Row>[] byColumn;
+        private final ArrayList<Row>[] bySupport;
+        private final long[] positive;
+        private final long[] negative;
+        private final int[] stamp;
+        private final boolean[] done;
+        private final PriorityQueue<long[]> queue;
+        private final int maxRows;
+        private int alive;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Elimination(int numberOfRows, int numberOfColumns, int maxRows) {
+            this.maxRows = maxRows;
+            byColumn = new ArrayList[numberOfColumns];
+            for(int c = 0; c < numberOfColumns; c++) {
+                byColumn[c] = new ArrayList<Row>();
+            }
+            bySupport = new ArrayList[numberOfRows];
+            for(int r = 0; r < numberOfRows; r++) {
+                bySupport[r] = new ArrayList<Row>(1);
+            }
+            positive = new long[numberOfColumns];
+            negative = new long[numberOfColumns];
+            stamp = new int[numberOfColumns];
+            done = new boolean[numberOfColumns];
+            queue = new PriorityQueue<long[]>(Math.max(1, numberOfColumns), new Comparator<long[]>() {
+                public int compare(long[] a, long[] b) {
+                    if(a[0] != b[0]) {
+                        return Long.compare(a[0], b[0]);
+                    }
+                    return Long.compare(M_MarkingCodec.mix(a[1]), M_MarkingCodec.mix(b[1]));
+                }
+            });
+        }
+
+        /*
+         * Eliminiert alle Spalten, die Spalte mit den wenigsten neuen Zeilen zuerst
+         * (veraltete Einträge der Warteschlange werden übersprungen). Bei gleichen Kosten
+         * entscheidet ein Hash der Spalte; so werden z.B. Ketten nicht der Reihe nach,
+         * sondern von vielen Stellen aus zusammengefügt.
+         */
+        ArrayList<M_Invariant> run() {
+            for(int c = 0; c < byColumn.length; c++) {
+                queue.add(new long[] {positive[c] * negative[c], c, 0});
+            }
+
+            while(queue.isEmpty() == false) {
+                long[] entry = queue.poll();
+                int column = (int) entry[1];
+                if(done[column] == true || entry[2] != stamp[column]) {
+                    continue;
+                }
+                done[column] = true;
+                eliminate(column);
+            }
+
+            // Ergebnis: alle verbliebenen Zeilen (Restspalten sind leer), nach kleinstem Index
+            ArrayList<M_Invariant> invariants = new ArrayList<M_Invariant>(alive);
+            for(int s = 0; s < bySupport.length; s++) {
+                for(Row row : bySupport[s]) {
+                    if(row.support[0] == s) {
+                        invariants.add(new M_Invariant(row.support, row.coefficients));
+                    }
+                }
+            }
+            return invariants;
+        }
+
+        private void eliminate(int column) {
+
+            // Zeilen mit positivem bzw. negativem Eintrag verwerfen (sie werden nur noch kombiniert)
+            ArrayList<Row> plus = new ArrayList<Row>();
+            ArrayList<Row> minus = new ArrayList<Row>();
+            for(Row row : byColumn[column]) {
+                if(row.valueAt(column) > 0) {
+                    plus.add(row);
+                }
+                else {
+                    minus.add(row);
+                }
+            }
+            byColumn[column] = null;
+            for(Row row : plus) {
+                remove(row);
+            }
+            for(Row row : minus) {
+                remove(row);
+            }
+
+            // Kombinationen bilden (verworfen, wenn der Träger einen vorhandenen enthält)
+            ArrayList<Row> created = new ArrayList<Row>();
+            for(Row a : plus) {
+                for(Row b : minus) {
+                    Row combined = combine(a, b, column);
+                    if(isRedundant(combined, created) == false) {
+                        created.add(combined);
+                        if(alive + created.size() > maxRows) {
+                            throw new IllegalStateException("Too many intermediate rows (more than " + maxRows + ").");
+                        }
+                    }
+                }
+            }
+
+            // neue Zeilen verwerfen, deren Träger einen später erzeugten echt enthält
+            ArrayList<Row> kept = new ArrayList<Row>(created.size());
+            for(int i = 0; i < created.size(); i++) {
+                Row row = created.get(i);
+                boolean redundant = false;
+                for(int k = i + 1; k < created.size() && redundant == false; k++) {
+                    Row other = created.get(k);
+                    redundant = other.support.length < row.support.length && other.supportWithin(row) == true;
+                }
+                if(redundant == false) {
+                    kept.add(row);
+                }
+            }
+
+            // vorhandene Zeilen verwerfen, deren Träger einen neuen echt enthält; gesucht wird
+            // in der kürzesten Trägerliste der neuen Zeile
+            ArrayList<Row> changed = new ArrayList<Row>(plus);
+            changed.addAll(minus);
+            for(Row row : kept) {
+                int shortest = row.support[0];
+                for(int i = 1; i < row.support.length; i++) {
+                    if(bySupport[row.support[i]].size() < bySupport[shortest].size()) {
+                        shortest = row.support[i];
+                    }
+                }
+                for(Row other : new ArrayList<Row>(bySupport[shortest])) {
+                    if(row.support.length < other.support.length && row.supportWithin(other) == true) {
+                        remove(other);
+                        changed.add(other);
+                    }
+                }
+            }
+
+            for(Row row : kept) {
+                add(row);
+                changed.add(row);
+            }
+
+            // Kosten der betroffenen Spalten neu einreihen
+            for(Row row : changed) {
+                for(int i = 0; i < row.columns.length; i++) {
+                    int c = row.columns[i];
+                    if(done[c] == false) {
+                        stamp[c]++;
+                        queue.add(new long[] {positive[c] * negative[c], c, stamp[c]});
+                    }
+                }
+            }
+        }
+
+        /*
+         * Testet, ob die neue Zeile überflüssig ist: ein vorhandener oder bereits erzeugter
+         * Träger ist echt enthalten, oder dieselbe Zeile gibt es schon. Vorhandene Träger
+         * werden über ihren kleinsten Index gefunden.
+         */
+        private boolean isRedundant(Row candidate, ArrayList<Row> created) {
+            for(int i = 0; i < candidate.support.length; i++) {
+                int s = candidate.support[i];
+                for(Row row : bySupport[s]) {
+                    if(row.support[0] == s && row.supportWithin(candidate) == true
+                            && (row.support.length < candidate.support.length || row.sameAs(candidate) == true)) {
+                        return true;
+                    }
+                }
+            }
+            for(Row row : created) {
+                if(row.supportWithin(candidate) == true
+                        && (row.support.length < candidate.support.length || row.sameAs(candidate) == true)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Row row) {
+            for(int i = 0; i < row.columns.length; i++) {
+                int c = row.columns[i];
+                byColumn[c].add(row);
+                count(c, row.values[i], 1);
+            }
+            for(int i = 0; i < row.support.length; i++) {
+                bySupport[row.support[i]].add(row);
+            }
+            alive++;
+        }
+
+        private void remove(Row row) {
+            for(int i = 0; i < row.columns.length; i++) {
+                int c = row.columns[i];
+                if(byColumn[c] != null) {
+                    byColumn[c].remove(row);
+                    count(c, row.values[i], -1);
+                }
+            }
+            for(int i = 0; i < row.support.length; i++) {
+                bySupport[row.support[i]].remove(row);
+            }
+            alive--;
+        }
+
+        private void count(int column, long value, int delta) {
+            if(value > 0) {
+                positive[column] += delta;
+            }
+            else {
+                negative[column] += delta;
+            }
+        }
+    }
+
+    /*
+     * Kombiniert a (positiver Eintrag in column) und b (negativer Eintrag) so, dass der
+     * Eintrag in column verschwindet, und kürzt durch den größten gemeinsamen Teiler.
+     */
+    private static Row combine(Row a, Row b, int column) {
+        long fa = -b.valueAt(column);
+        long fb = a.valueAt(column);
+
+        int[][] columns = new int[1][];
+        long[][] values = new long[1][];
+        merge(a.columns, a.values, fa, b.columns, b.values, fb, column, columns, values);
+
+        int[][] support = new int[1][];
+        long[][] coefficients = new long[1][];
+        merge(a.support, a.coefficients, fa, b.support, b.coefficients, fb, -1, support, coefficients);
+
+        long gcd = 0;
+        for(int i = 0; i < values[0].length; i++) {
+            gcd = gcd(gcd, Math.abs(values[0][i]));
+        }
+        for(int i = 0; i < coefficients[0].length; i++) {
+            gcd = gcd(gcd, coefficients[0][i]);
+        }
+        if(gcd > 1) {
+            for(int i = 0; i < values[0].length; i++) {
+                values[0][i] /= gcd;
+            }
+            for(int i = 0; i < coefficients[0].length; i++) {
+                coefficients[0][i] /= gcd;
+            }
+        }
+
+        return new Row(columns[0], values[0], support[0], coefficients[0]);
+    }
+
+    /*
+     * Bildet fa * a + fb * b über zwei dünn besetzte Vektoren; Einträge, die 0 werden, und
+     * der Index skip entfallen.
+     */
+    private static void merge(int[] ia, long[] va, long fa, int[] ib, long[] vb, long fb, int skip, int[][] outIndex, long[][] outValue) {
+        int[] index = new int[ia.length + ib.length];
+        long[] value = new long[ia.length + ib.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ia.length || j < ib.length) {
+            int k;
+            long v;
+            if(j == ib.length || (i < ia.length && ia[i] < ib[j])) {
+                k = ia[i];
+                v = Math.multiplyExact(fa, va[i]);
+                i++;
+            }
+            else if(i == ia.length || ib[j] < ia[i]) {
+                k = ib[j];
+                v = Math.multiplyExact(fb, vb[j]);
+                j++;
+            }
+            else {
+                k = ia[i];
+                v = Math.addExact(Math.multiplyExact(fa, va[i]), Math.multiplyExact(fb, vb[j]));
+                i++;
+                j++;
+            }
+            if(k != skip && v != 0) {
+                index[n] = k;
+                value[n] = v;
+                n++;
+            }
+        }
+
+        outIndex[0] = Arrays.copyOf(index, n);
+        outValue[0] = Arrays.copyOf(value, n);
+    }
+
+    private static long gcd(long a, long b) {
+        while(b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,228 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Überwacht die Runden eines Schritts. Ein Schritt rechnet Runden, bis an einer Ausgabestelle
+ * etwas ankommt; feuern Transitionen dabei endlos im Kreis über Allgemeine Stellen, endet er
+ * nie (Livelock). Der Wächter bricht den Schritt in zwei Fällen ab:
+ * <ul>
+ * <li>Die Markierung am Ende einer Runde wiederholt sich. Da eine Runde nur von der Markierung
+ * abhängt, wiederholt sich dann auch alles Weitere; eine Ausgabestelle wird nie erreicht.
+ * Erkannt wird das nach Brent: die Markierung wird an Runden mit doppeltem Abstand
+ * festgehalten und mit jeder folgenden verglichen. Erst nach CHECK_AFTER Runden wird verglichen
+ * und dann nur jede stride-te Runde, so dass kurze Schritte nichts zusätzlich kosten und ein
+ * Vergleich je Runde im Mittel nur O(1024) Stellen liest.</li>
+ * <li>Die Rundengrenze (Budget) ist erreicht. Das fängt auch Kreisläufe, deren float-Markierung
+ * sich durch Rundung nie exakt wiederholt.</li>
+ * </ul>
+ * Beteiligt sind die Transitionen, die seit dem letzten festgehaltenen Vergleichspunkt
+ * gefeuert haben (bei einer Rundengrenze bis CHECK_AFTER alle des Schritts); bei einer
+ * Wiederholung ist das genau eine Periode des Kreislaufs.
+ */
+public class M_LivelockGuard {
+
+    // voreingestellte Rundengrenze je Schritt
+    public static final long DEFAULT_MAX_ROUNDS = 1000000;
+
+    // so viele Runden rechnet ein Schritt, bevor Markierungen verglichen werden
+    static final int CHECK_AFTER = 64;
+
+    private final int stride;               // Abstand der verglichenen Runden
+    private long maxRounds = DEFAULT_MAX_ROUNDS;
+
+    private long rounds;                    // Runden des laufenden Schritts
+    private boolean recording;              // beteiligte Transitionen werden vermerkt
+    private boolean watching;               // Vergleichspunkt festgehalten
+    private final float[] snapshot;         // festgehaltene Markierung
+    private long power;                     // Abstand bis zum nächsten Vergleichspunkt (Brent)
+    private long distance;                  // verglichene Runden seit dem Vergleichspunkt
+    private final boolean[] involved;       // seit dem Vergleichspunkt gefeuert
+
+    private boolean livelock;
+    private boolean budgetExceeded;
+    private long period;
+
+    /**
+     * Erzeugt einen Wächter für ein Netz der angegebenen Größe.
+     * @param numberOfPlaces Anzahl der Stellen (Länge der Markierung)
+     * @param numberOfTransitions Anzahl der Transitionen
+     */
+    public M_LivelockGuard(int numberOfPlaces, int numberOfTransitions) {
+        stride = 1 + numberOfPlaces / 1024;
+        snapshot = new float[numberOfPlaces];
+        involved = new boolean[numberOfTransitions];
+    }
+
+    /**
+     * Setzt die Rundengrenze je Schritt.
+     * @param maxRounds Rundengrenze (mindestens 1)
+     */
+    public void setMaxRounds(long maxRounds) {
+        if(maxRounds < 1) {
+            throw new IllegalArgumentException("Round limit must be at least 1: " + maxRounds);
+        }
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Gibt die Rundengrenze je Schritt zurück.
+     * @return Rundengrenze
+     */
+    public long getMaxRounds() {
+        return maxRounds;
+    }
+
+    /**
+     * Beginnt die Überwachung eines neuen Schritts.
+     */
+    public void startStep() {
+        rounds = 0;
+        watching = false;
+        // bei kleiner Rundengrenze wird nie verglichen, dann alle Feuerungen vermerken
+        recording = maxRounds <= CHECK_AFTER;
+        if(recording == true) {
+            Arrays.fill(involved, false);
+        }
+        livelock = false;
+        budgetExceeded = false;
+        period = 0;
+    }
+
+    /**
+     * Vermerkt, dass die Transition t in der laufenden Runde gefeuert hat. Darf von mehreren
+     * Threads für verschiedene Transitionen gleichzeitig aufgerufen werden.
+     * @param t Index der Transition
+     */
+    public void fired(int t) {
+        if(recording == true) {
+            involved[t] = true;
+        }
+    }
+
+    /**
+     * Testet, ob am Ende der laufenden Runde eine Markierung an endRound() übergeben werden
+     * muss. Nur für Aufrufer, die die Markierung erst zusammenstellen müssen.
+     * @return true, wenn die Markierung verglichen wird, sonst false.
+     */
+    public boolean needsMarking() {
+        return rounds + 1 >= CHECK_AFTER && (rounds + 1 - CHECK_AFTER) % stride == 0;
+    }
+
+    /**
+     * Schließt eine Runde ab, in der mindestens eine Transition gefeuert hat, aber noch nichts
+     * an einer Ausgabestelle angekommen ist.
+     * @param marking Markierung am Ende der Runde (wird nur gelesen, wenn needsMarking() gilt)
+     * @return true, wenn der Schritt weiterrechnen darf, false bei Livelock.
+     */
+    public boolean endRound(float[] marking) {
+        boolean compare = needsMarking();
+        rounds++;
+
+        if(rounds >= maxRounds) {
+            livelock = true;
+            budgetExceeded = true;
+            return false;
+        }
+
+        if(compare == false) {
+            return true;
+        }
+
+        if(watching == false) {
+            watching = true;
+            recording = true;
+            takeSnapshot(marking);
+            power = 1;
+            return true;
+        }
+
+        distance++;
+        if(Arrays.equals(marking, snapshot) == true) {
+            livelock = true;
+            period = distance * stride;
+            return false;
+        }
+
+        if(distance == power) {
+            takeSnapshot(marking);
+            power *= 2;
+        }
+        return true;
+    }
+
+    /*
+     * Hält die Markierung als neuen Vergleichspunkt fest.
+     */
+    private void takeSnapshot(float[] marking) {
+        System.arraycopy(marking, 0, snapshot, 0, snapshot.length);
+        Arrays.fill(involved, false);
+        distance = 0;
+    }
+
+    /**
+     * Testet, ob der letzte Schritt wegen eines Livelocks abgebrochen wurde.
+     * @return true bei Livelock, sonst false.
+     */
+    public boolean isLivelock() {
+        return livelock;
+    }
+
+    /**
+     * Testet, ob der Livelock durch die Rundengrenze statt durch eine wiederholte Markierung
+     * erkannt wurde.
+     * @return true, wenn die Rundengrenze erreicht wurde, sonst false.
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /**
+     * Gibt die Runden des letzten Schritts zurück.
+     * @return Runden
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gibt die Periode des erkannten Kreislaufs zurück (ein Vielfaches der tatsächlichen
+     * Periode, wenn nicht jede Runde verglichen wird, siehe isPeriodExact()).
+     * @return Periode in Runden, 0, wenn die Rundengrenze erreicht wurde
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Testet, ob getPeriod() die tatsächliche Periode liefert. Das gilt nur, wenn jede Runde
+     * verglichen wird (Netze mit höchstens 1024 Stellen).
+     * @return true, wenn die Periode exakt ist, sonst false.
+     */
+    public boolean isPeriodExact() {
+        return stride == 1;
+    }
+
+    /**
+     * Gibt die am Livelock beteiligten Transitionen zurück: die seit dem letzten
+     * Vergleichspunkt gefeuerten.
+     * @return Indizes der Transitionen, aufsteigend
+     */
+    public int[] getInvolvedTransitions() {
+        int count = 0;
+        for(int t = 0; t < involved.length; t++) {
+            if(involved[t] == true) {
+                count++;
+            }
+        }
+
+        int[] result = new int[count];
+        count = 0;
+        for(int t = 0; t < involved.length; t++) {
+            if(involved[t] == true) {
+                result[count++] = t;
+            }
+        }
+        return result;
+    }
+}
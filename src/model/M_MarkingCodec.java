@@ -0,0 +1,184 @@
+package model;
+
+/**
+ * Packt Markierungen eines kompilierten Netzes (M_CompiledNet) in möglichst wenige long-Worte.
+ * <p>
+ * Sind alle Gewichte und die Anfangsmarkierung ganzzahlig, bleiben alle erreichbaren
+ * Markierungen ganzzahlig. Jede Stelle erhält dann nur so viele Bits, wie ihre Schranke
+ * erfordert: Stellen, die nie etwas erhalten, höchstens ihren Anfangswert, Stellen mit
+ * endlicher Kapazität höchstens diese, alle anderen 32 Bit. Andernfalls wird jede Stelle
+ * mit den 32 Bit ihres float-Wertes gespeichert.
+ */
+public class M_MarkingCodec {
+
+    // Breite einer Stelle ohne bekannte Schranke
+    static final int UNBOUNDED_WIDTH = 32;
+
+    private final int numberOfPlaces;
+    private final boolean integral;     // true: ganzzahlige Markierungen, bitweise gepackt
+    private final int[] width;          // Bits je Stelle
+    private final int[] shift;          // Bit-Position der Stelle im Wort
+    private final int[] word;           // Wort, in dem die Stelle beginnt
+    private final int words;            // Worte je Markierung
+
+    /**
+     * Legt die Packung für das übergebene Netz (mit dessen aktueller Markierung als
+     * Anfangsmarkierung) fest.
+     * @param net kompiliertes Netz
+     */
+    public M_MarkingCodec(M_CompiledNet net) {
+        numberOfPlaces = net.numberOfPlaces;
+        integral = isIntegral(net);
+
+        // Stellen, die von einer Transition etwas erhalten
+        boolean[] receives = new boolean[numberOfPlaces];
+        for(int a = 0; a < net.postPlace.length; a++) {
+            receives[net.postPlace[a]] = true;
+        }
+
+        width = new int[numberOfPlaces];
+        shift = new int[numberOfPlaces];
+        word = new int[numberOfPlaces];
+
+        int bits = 0;
+        for(int p = 0; p < numberOfPlaces; p++) {
+            width[p] = UNBOUNDED_WIDTH;
+
+            if(integral == true) {
+                double bound = Double.POSITIVE_INFINITY;
+                if(receives[p] == false) {
+                    bound = net.marking[p];
+                }
+                else if(Float.isInfinite(net.capacity[p]) == false) {
+                    bound = Math.max(Math.floor(net.capacity[p]), net.marking[p]);
+                }
+                if(bound < (1L << UNBOUNDED_WIDTH)) {
+                    width[p] = 64 - Long.numberOfLeadingZeros((long) bound);
+                }
+            }
+
+            // Stellen nicht über Wortgrenzen verteilen
+            if(bits % 64 + width[p] > 64) {
+                bits += 64 - bits % 64;
+            }
+            word[p] = bits / 64;
+            shift[p] = bits % 64;
+            bits += width[p];
+        }
+
+        words = Math.max(1, (bits + 63) / 64);
+    }
+
+    /*
+     * Testet, ob alle Gewichte und Anfangswerte nichtnegative ganze Zahlen sind.
+     */
+    private static boolean isIntegral(M_CompiledNet net) {
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            if(isNatural(net.marking[p]) == false) {
+                return false;
+            }
+        }
+        for(int a = 0; a < net.preWeight.length; a++) {
+            if(isNatural(net.preWeight[a]) == false) {
+                return false;
+            }
+        }
+        for(int a = 0; a < net.postWeight.length; a++) {
+            if(isNatural(net.postWeight[a]) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNatural(float value) {
+        return value >= 0 && value == Math.rint(value) && value < (1L << UNBOUNDED_WIDTH);
+    }
+
+    /**
+     * Gibt die Anzahl der long-Worte je Markierung zurück.
+     * @return Worte je Markierung
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Gibt zurück, ob die Markierungen ganzzahlig (und damit bitweise) gepackt werden.
+     * @return true bei ganzzahligen Markierungen
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * Packt die Markierung m ab out[offset].
+     * @param m Markierung
+     * @param out Zielfeld
+     * @param offset Beginn im Zielfeld
+     * @return false, wenn ein Wert nicht in die Breite seiner Stelle passt (unbeschränkte
+     * Stelle), sonst true.
+     */
+    public boolean encode(float[] m, long[] out, int offset) {
+        for(int i = 0; i < words; i++) {
+            out[offset + i] = 0;
+        }
+
+        for(int p = 0; p < numberOfPlaces; p++) {
+            long value;
+            if(integral == true) {
+                value = (long) m[p];
+                if(m[p] < 0 || (width[p] < 64 && (value >>> width[p]) != 0)) {
+                    return false;
+                }
+            }
+            else {
+                value = Float.floatToRawIntBits(m[p]) & 0xFFFFFFFFL;
+            }
+            out[offset + word[p]] |= value << shift[p];
+        }
+
+        return true;
+    }
+
+    /**
+     * Entpackt die Markierung ab in[offset] nach m.
+     * @param in Quellfeld
+     * @param offset Beginn im Quellfeld
+     * @param m Markierung (wird überschrieben)
+     */
+    public void decode(long[] in, int offset, float[] m) {
+        for(int p = 0; p < numberOfPlaces; p++) {
+            long value = width[p] == 0 ? 0 : (in[offset + word[p]] >>> shift[p]) & (-1L >>> (64 - width[p]));
+            if(integral == true) {
+                m[p] = value;
+            }
+            else {
+                m[p] = Float.intBitsToFloat((int) value);
+            }
+        }
+    }
+
+    /**
+     * Berechnet einen 64-Bit-Hashwert der gepackten Markierung.
+     * @param state Feld mit der gepackten Markierung
+     * @param offset Beginn der Markierung im Feld
+     * @return Hashwert
+     */
+    public long hash(long[] state, int offset) {
+        long h = 0x9E3779B97F4A7C15L * (words + 1);
+        for(int i = 0; i < words; i++) {
+            h = mix(h ^ state[offset + i]);
+        }
+        return h;
+    }
+
+    /*
+     * Mischfunktion (Finalisierer von SplitMix64).
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -57,6 +57,35 @@ public class M_PNPInput extends M_ElementRoot implements MI_Place{
         return value;
     }
 
+    /**
+     * Liefert die Kapazität des Elements. Eine Eingabestelle nimmt nie Teile auf,
+     * ihre Kapazität gilt daher als unbegrenzt.
+     * @return Float.POSITIVE_INFINITY
+     */
+    public float getCapacity() {
+        return Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Liefert den ursprünglichen Wert des Elements (den, auf den reset() zurücksetzt).
+     * @return ursprünglicher Wert
+     */
+    public float getOrgValue() {
+        return orgValue;
+    }
+
+    /**
+     * Stellt den aktuellen Wert des Elements direkt ein.
+     * @param value neuer Wert
+     */
+    public void setValue(float value) {
+        this.value = value;
+        pinsOut.get(0).setValue(value);
+
+        // View benachrichtigen
+        fireChanged();
+    }
+
     // Service (für Eigenschaften)
 
     /**
@@ -153,8 +182,7 @@ public class M_PNPInput extends M_ElementRoot implements MI_Place{
         pinsOut.get(0).setValue(value);
 
         // View benachrichtigen
-        this.setChanged();
-        this.notifyObservers();
+        fireChanged();
     }
 
 }
@@ -86,6 +86,36 @@ public class M_PNPOutput extends M_ElementRoot implements MI_Place {
         return capacity;
     }
 
+    /**
+     * Gibt die ursprüngliche Kapazität des Elements zurück (die, auf die reset() zurücksetzt).
+     * @return ursprüngliche Kapazität
+     */
+    public float getOrgCapacity() {
+        return orgCapacity;
+    }
+
+    /**
+     * Stellt die aktuelle Kapazität des Elements direkt ein.
+     * @param capacity neue Kapazität
+     */
+    public void setCapacity(float capacity) {
+        this.capacity = capacity;
+
+        // View benachrichtigen
+        fireChanged();
+    }
+
+    /**
+     * Stellt den aktuellen Wert des Elements direkt ein.
+     * @param value neuer Wert
+     */
+    public void setValue(float value) {
+        this.value = value;
+
+        // View benachrichtigen
+        fireChanged();
+    }
+
     // Service (für Eigenschaften)
 
     /**
@@ -178,8 +208,7 @@ public class M_PNPOutput extends M_ElementRoot implements MI_Place {
         charged = true;
 
         // View benachrichtigen
-        this.setChanged();
-        this.notifyObservers();
+        fireChanged();
     }
 
     /**
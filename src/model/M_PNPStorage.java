@@ -1,5 +1,8 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 /**
  * Klasse für eine Allgemeine Stelle in der Logik.
  * @author Uwe Rosner
@@ -15,9 +18,11 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
     float orgCapacity;  // Originalwert (der, der im Konstruktor übergeben wurde)
                         // bei reset() wird wieder der Originalwert eingestellt
 
+    float holdingTime;  // Zeit, die ein Teil in der zeitbehafteten Simulation mindestens verweilt
+
     // String-Array mit Angaben über die Element-Eigenschaften, es enthält:
     // Name des Elements, {Name der Eigenschaft}
-    String[] propertyNames = {"Lagerstelle", "Aktueller Wert", "Kapazität"};
+    String[] propertyNames = {"Lagerstelle", "Aktueller Wert", "Kapazität", "Haltezeit"};
 
     // String-Array mit Angaben über die Element-Gewichte, es enthält:
     // Name des Elements, {Anschlussbezeichnung}
@@ -79,6 +84,53 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
         return capacity;
     }
 
+    /**
+     * Gibt die ursprüngliche Kapazität des Elements zurück (die, auf die reset() zurücksetzt).
+     * @return ursprüngliche Kapazität
+     */
+    public float getOrgCapacity() {
+        return orgCapacity;
+    }
+
+    /**
+     * Stellt die aktuelle Kapazität des Elements direkt ein.
+     * @param capacity neue Kapazität
+     */
+    public void setCapacity(float capacity) {
+        this.capacity = capacity;
+
+        // View benachrichtigen
+        fireChanged();
+    }
+
+    /**
+     * Stellt den aktuellen Wert des Elements direkt ein.
+     * @param value neuer Wert
+     */
+    public void setValue(float value) {
+        this.value = value;
+
+        // View benachrichtigen
+        fireChanged();
+    }
+
+    /**
+     * Gibt die Haltezeit zurück: so lange ist ein angekommenes Teil in der zeitbehafteten
+     * Simulation (M_TimedSimulation) noch nicht verfügbar.
+     * @return Haltezeit
+     */
+    public float getHoldingTime() {
+        return holdingTime;
+    }
+
+    /**
+     * Setzt die Haltezeit (Verweildauer eines Teils in der zeitbehafteten Simulation).
+     * @param holdingTime neue Haltezeit (mindestens 0)
+     */
+    public void setHoldingTime(float holdingTime) {
+        this.holdingTime = holdingTime;
+    }
+
     // Service (für Eigenschaften)
 
     /**
@@ -92,8 +144,14 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
      * Setzt die Eigenschaften dieses Elements auf den übergebenen Wert.
      */
     public boolean setProperties(String[] properties) {
-        value = new Float((properties[0]));
-        capacity = new Float((properties[1]));
+        float holdingTime = Float.parseFloat(properties[2]);
+        if((holdingTime >= 0) == false || Float.isInfinite(holdingTime) == true) {
+            return false;
+        }
+
+        value = Float.parseFloat(properties[0]);
+        capacity = Float.parseFloat(properties[1]);
+        this.holdingTime = holdingTime;
         this.setChanged();
         this.notifyObservers();
         return true;
@@ -103,9 +161,10 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
      * Gibt ein Array mit den Eigenschaften des Elements zurück.
      */
     public String[] getProperties() {
-        String[] propertyValues = new String[2];
+        String[] propertyValues = new String[3];
         propertyValues[0] = Float.toString(value);
         propertyValues[1] = Float.toString(capacity);
+        propertyValues[2] = Float.toString(holdingTime);
         return propertyValues;
     }
 
@@ -170,8 +229,7 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
         value = value + n;
 
         // View benachrichtigen
-        this.setChanged();
-        this.notifyObservers();
+        fireChanged();
     }
 
     /**
@@ -182,7 +240,16 @@ public class M_PNPStorage extends M_ElementRoot implements MI_Place {
         value = value - n;
 
         // View benachrichtigen
-        this.setChanged();
-        this.notifyObservers();
+        fireChanged();
+    }
+
+    /*
+     * Stellen aus Dateien im früheren Format (Serialisierung) kennen keine Haltezeit.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if(propertyNames.length < 4) {
+            propertyNames = new String[] {"Lagerstelle", "Aktueller Wert", "Kapazität", "Haltezeit"};
+        }
     }
 }
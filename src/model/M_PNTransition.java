@@ -1,5 +1,7 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 
 /**
@@ -11,15 +13,22 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
 
     private static final long serialVersionUID = 1L;
 
+    // Argument von notifyObservers(...), wenn die Transition gearbeitet hat
+    public static final String FIRED = "Fired";
+
     int numberIn;   // Anzahl der Eingänge
     int numberOut;  // Anzahl der Ausgänge
 
     boolean worked; // true, wenn Fork innerhalb eines Schrittes schon berechnet wurde
     int counter;    // zählt, wie oft Fork innerhalb eines Schrittes schon ausgewertet wurde
 
+    transient volatile boolean firedSincePublish;   // true, wenn seit der letzten Veröffentlichung gearbeitet
+
+    float delay = 1;    // Dauer einer Feuerung in der zeitbehafteten Simulation
+
     // String-Array mit Angaben über die Element-Eigenschaften, es enthält:
     // Name des Elements, {Name der Eigenschaft}
-    String[] propertyNames = {"Transition", "Anzahl der Eingänge", "Anzahl der Ausgänge"};
+    String[] propertyNames = {"Transition", "Anzahl der Eingänge", "Anzahl der Ausgänge", "Verzögerung"};
 
     // String-Array mit Angaben über die Element-Gewichte, es enthält:
     // Name des Elements, {Allgemeine Informationen}
@@ -129,6 +138,59 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
         return numberOut;
     }
 
+    /**
+     * Gibt das Gewicht eines Eingangs zurück.
+     * @param i Nummer des Eingangs (ab 0)
+     * @return Gewicht des Eingangs
+     */
+    public float getInputWeight(int i) {
+        return wx.get(i);
+    }
+
+    /**
+     * Gibt das Gewicht eines Ausgangs zurück.
+     * @param i Nummer des Ausgangs (ab 0)
+     * @return Gewicht des Ausgangs
+     */
+    public float getOutputWeight(int i) {
+        return wy.get(i);
+    }
+
+    /**
+     * Setzt das Gewicht eines Eingangs.
+     * @param i Nummer des Eingangs (ab 0)
+     * @param weight neues Gewicht
+     */
+    public void setInputWeight(int i, float weight) {
+        wx.set(i, weight);
+    }
+
+    /**
+     * Setzt das Gewicht eines Ausgangs.
+     * @param i Nummer des Ausgangs (ab 0)
+     * @param weight neues Gewicht
+     */
+    public void setOutputWeight(int i, float weight) {
+        wy.set(i, weight);
+    }
+
+    /**
+     * Gibt die Verzögerung zurück: die Dauer einer Feuerung in der zeitbehafteten
+     * Simulation (M_TimedSimulation).
+     * @return Verzögerung
+     */
+    public float getDelay() {
+        return delay;
+    }
+
+    /**
+     * Setzt die Verzögerung (Dauer einer Feuerung in der zeitbehafteten Simulation).
+     * @param delay neue Verzögerung (mindestens 0)
+     */
+    public void setDelay(float delay) {
+        this.delay = delay;
+    }
+
     /**
      * Versucht, einen Schritt auszuführen.
      * 
@@ -173,12 +235,51 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
         worked = true;
 
         // View benachrichtigen
-        this.setChanged();
-        this.notifyObservers();
+        fireWorked();
 
         return;
     }
 
+    /**
+     * Meldet der View nachträglich, dass die Transition gearbeitet hat. Wird vom
+     * kompilierten Netz (M_CompiledNet) beim Zurückschreiben verwendet, das die
+     * Transition selbst nicht mehr über computeStep() rechnen lässt.
+     */
+    void notifyWorked() {
+        fireWorked();
+    }
+
+    /*
+     * Meldet, dass die Transition gearbeitet hat: sofort oder über die Änderungsmenge.
+     */
+    private void fireWorked() {
+        if(changeSet == null) {
+            this.setChanged();
+            this.notifyObservers(FIRED);
+        }
+        else {
+            firedSincePublish = true;
+            fireChanged();
+        }
+    }
+
+    /**
+     * Benachrichtigt die Beobachter über die gesammelten Änderungen.
+     */
+    void publish() {
+        pending = false;
+
+        if(firedSincePublish == true) {
+            firedSincePublish = false;
+            this.setChanged();
+            this.notifyObservers(FIRED);
+        }
+        else {
+            this.setChanged();
+            this.notifyObservers();
+        }
+    }
+
     /**
      * Testet, ob die Transition innerhalb des aktuellen Schrittes  arbeiten konnte.
      * <b>ACHTUNG:</b> Im positiven Fall wird das ensprechende interne Flag gelöscht,
@@ -219,12 +320,15 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
      * Setzt die Eigenschaften entsprechend den Werten im übergebenen Array.
      */
     public boolean setProperties(String[] properties) {
-        if(new Integer(properties[0]) < 1) {
+        int numberIn = Integer.parseInt(properties[0]);
+        float delay = Float.parseFloat(properties[2]);
+        if(numberIn < 1 || (delay >= 0) == false || Float.isInfinite(delay) == true) {
             return false;
         }
 
-        numberIn = new Integer((properties[0]));
-        numberOut = new Integer((properties[1]));
+        this.numberIn = numberIn;
+        numberOut = Integer.parseInt(properties[1]);
+        this.delay = delay;
 
         initTransition();
 
@@ -240,6 +344,7 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
         String[] propertyValues = new String[propertyNames.length - 1];
         propertyValues[0] = Integer.toString(numberIn);
         propertyValues[1] = Integer.toString(numberOut);
+        propertyValues[2] = Float.toString(delay);
         return propertyValues;
     }
 
@@ -283,4 +388,15 @@ public class M_PNTransition extends M_ElementRoot implements MI_Transition {
 
         return true;
     }
+
+    /*
+     * Transitionen aus Dateien im früheren Format (Serialisierung) kennen keine Verzögerung.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if(propertyNames.length < 4) {
+            propertyNames = new String[] {"Transition", "Anzahl der Eingänge", "Anzahl der Ausgänge", "Verzögerung"};
+            delay = 1;
+        }
+    }
 }
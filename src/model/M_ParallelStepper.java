@@ -0,0 +1,190 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Führt Schritte eines kompilierten Netzes (M_CompiledNet) parallel aus. Dazu werden die
+ * Transitionen einmalig gierig gefärbt: Transitionen, die sich eine Stelle (im Vor- oder
+ * Nachbereich) teilen, erhalten verschiedene Farben. Die Transitionen einer Farbe stehen damit
+ * nicht in Konflikt und können gleichzeitig auf einem ForkJoinPool berechnet werden, ohne dass
+ * zwei Threads dieselbe Stelle verändern.
+ * <p>
+ * Eine Runde berechnet die Farben nacheinander. Das entspricht genau einem sequentiellen
+ * Durchlauf in der festen Reihenfolge (Farbe, Index); das Ergebnis hängt daher nicht von der
+ * Thread-Verteilung ab und ist jederzeit reproduzierbar.
+ */
+public class M_ParallelStepper {
+
+    // Mindestanzahl an Transitionen, ab der eine Farbe aufgeteilt wird
+    static final int SPLIT_THRESHOLD = 2048;
+
+    private final M_CompiledNet net;
+
+    // Transitionen der Farbe c liegen in colorMember[colorStart[c] .. colorStart[c+1])
+    private final int numberOfColors;
+    private final int[] colorStart;
+    private final int[] colorMember;
+
+    /**
+     * Färbt die Transitionen des übergebenen Netzes.
+     * @param net kompiliertes Netz
+     */
+    public M_ParallelStepper(M_CompiledNet net) {
+        this.net = net;
+
+        int n = net.numberOfTransitions;
+        int[] color = new int[n];
+        int[] stamp = new int[n + 1];   // stamp[c] == t + 1: Farbe c ist bei einem Nachbarn von t vergeben
+        int colors = 0;
+
+        // Gierig färben: kleinste Farbe, die kein Nachbar (bereits gefärbt) trägt
+        for(int t = 0; t < n; t++) {
+            markNeighbourColors(t, net.prePlace, net.preStart, color, stamp);
+            markNeighbourColors(t, net.postPlace, net.postStart, color, stamp);
+
+            int c = 0;
+            while(stamp[c] == t + 1) {
+                c++;
+            }
+            color[t] = c;
+            colors = Math.max(colors, c + 1);
+        }
+
+        // Farbklassen aufbauen (innerhalb einer Farbe aufsteigende Indizes)
+        numberOfColors = colors;
+        colorStart = new int[colors + 1];
+        for(int t = 0; t < n; t++) {
+            colorStart[color[t] + 1]++;
+        }
+        for(int c = 0; c < colors; c++) {
+            colorStart[c + 1] += colorStart[c];
+        }
+
+        colorMember = new int[n];
+        int[] fill = new int[colors];
+        System.arraycopy(colorStart, 0, fill, 0, colors);
+        for(int t = 0; t < n; t++) {
+            colorMember[fill[color[t]]++] = t;
+        }
+    }
+
+    /*
+     * Markiert die Farben aller bereits gefärbten Nachbarn von t (Transitionen an denselben Stellen).
+     */
+    private void markNeighbourColors(int t, int[] arcPlace, int[] arcStart, int[] color, int[] stamp) {
+        for(int a = arcStart[t]; a < arcStart[t + 1]; a++) {
+            int p = arcPlace[a];
+            for(int i = net.adjacentStart[p]; i < net.adjacentStart[p + 1]; i++) {
+                int u = net.adjacentTransition[i];
+                if(u < t) {
+                    stamp[color[u]] = t + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Farben (konfliktfreien Gruppen) zurück.
+     * @return Anzahl der Farben
+     */
+    public int getNumberOfColors() {
+        return numberOfColors;
+    }
+
+    /**
+     * Versucht, das Netz einen Schritt ausführen zu lassen. Die Semantik entspricht
+     * M_CompiledNet.makeStep(), jedoch mit der Berechnungsreihenfolge (Farbe, Index).
+     * @param pool ForkJoinPool, auf dem große Farbklassen berechnet werden
+     * @return true, wenn Schritt ausgeführt werden konnte, sonst false.
+     */
+    public boolean makeStep(ForkJoinPool pool) {
+        boolean someCameOut = false;
+        net.getLivelockGuard().startStep();
+
+        do {
+            int result = 0;
+
+            for(int c = 0; c < numberOfColors; c++) {
+                int from = colorStart[c];
+                int to = colorStart[c + 1];
+
+                if(to - from < SPLIT_THRESHOLD) {
+                    result |= fireRange(from, to);
+                }
+                else {
+                    result |= pool.invoke(new FireTask(from, to));
+                }
+            }
+
+            net.atLeastOneTransitionWorked = (result & WORKED) != 0;
+
+            if(net.atLeastOneTransitionWorked == false) {
+                return false;
+            }
+
+            if((result & CAME_OUT) != 0) {
+                someCameOut = true;
+            }
+        }
+        while (someCameOut == false && net.continueStep() == true);
+
+        return someCameOut;
+    }
+
+    // Ergebnis-Bits von fireRange()
+    private static final int WORKED = 1;
+    private static final int CAME_OUT = 2;
+
+    /*
+     * Berechnet die Transitionen colorMember[from .. to) einer Farbe nacheinander.
+     */
+    private int fireRange(int from, int to) {
+        int result = 0;
+        float[] m = net.marking;
+
+        for(int i = from; i < to; i++) {
+            int t = colorMember[i];
+            if(net.fire(t, m) == true) {
+                net.fired[t] = true;
+                net.getLivelockGuard().fired(t);
+                result |= WORKED;
+                if(net.chargesOutput[t] == true) {
+                    result |= CAME_OUT;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /*
+     * Teilt einen Bereich einer Farbklasse rekursiv auf und berechnet die Teile parallel.
+     * Da die Transitionen einer Farbe keine gemeinsamen Stellen haben, schreibt jede
+     * Teilaufgabe nur in eigene Einträge der Markierung und von fired[].
+     */
+    private class FireTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        FireTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected Integer compute() {
+            if(to - from < SPLIT_THRESHOLD) {
+                return fireRange(from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            FireTask left = new FireTask(from, middle);
+            left.fork();
+            int right = new FireTask(middle, to).compute();
+            return right | left.join();
+        }
+    }
+}
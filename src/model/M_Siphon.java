@@ -0,0 +1,61 @@
+package model;
+
+/**
+ * Eine minimale Siphon (Stellenmenge S mit Vorbereich(S) in Nachbereich(S)) eines
+ * kompilierten Netzes zusammen mit der größten in ihr enthaltenen Falle. Ist die Falle
+ * anfangs markiert, kann die Siphon nie leer werden (Bedingung von Commoner).
+ */
+public class M_Siphon {
+
+    private final int[] places;
+    private final int[] trap;
+    private final double tokens;
+    private final double trapTokens;
+
+    /**
+     * Erzeugt eine Siphon.
+     * @param places Stellen der Siphon (aufsteigend)
+     * @param trap Stellen der größten enthaltenen Falle (aufsteigend, ggf. leer)
+     * @param tokens Teile der Siphon in der Anfangsmarkierung
+     * @param trapTokens Teile der Falle in der Anfangsmarkierung
+     */
+    public M_Siphon(int[] places, int[] trap, double tokens, double trapTokens) {
+        this.places = places;
+        this.trap = trap;
+        this.tokens = tokens;
+        this.trapTokens = trapTokens;
+    }
+
+    /**
+     * Gibt die Stellen der Siphon zurück.
+     * @return Indizes der Stellen im kompilierten Netz
+     */
+    public int[] getPlaces() {
+        return places;
+    }
+
+    /**
+     * Gibt die Stellen der größten in der Siphon enthaltenen Falle zurück.
+     * @return Indizes der Stellen im kompilierten Netz (leer, wenn es keine Falle gibt)
+     */
+    public int[] getTrap() {
+        return trap;
+    }
+
+    /**
+     * Gibt die Teile der Siphon in der Anfangsmarkierung zurück.
+     * @return Summe der Teile
+     */
+    public double getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Testet, ob die Siphon eine anfangs markierte Falle enthält. Dann bleibt sie in allen
+     * erreichbaren Markierungen markiert.
+     * @return true, wenn eine markierte Falle enthalten ist
+     */
+    public boolean hasMarkedTrap() {
+        return trapTokens > 0;
+    }
+}
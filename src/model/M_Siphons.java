@@ -0,0 +1,535 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Strukturelle Verklemmungsanalyse mit Siphons und Fallen. Eine Siphon ist eine
+ * Stellenmenge S, deren Lieferanten alle auch aus S entnehmen; ist S einmal leer, bleibt
+ * sie leer, und alle Abnehmer von S sind tot. Eine Falle ist eine Stellenmenge, deren
+ * Abnehmer alle auch in sie liefern; ist sie einmal markiert, bleibt sie markiert.
+ * <p>
+ * Aufgezählt werden die minimalen Siphons mit einer Verzweigungssuche (Cordone, Ferrarini,
+ * Piroddi): zu einer Teilaufgabe (erlaubte Stellen, geforderte Stellen) wird die größte
+ * Siphon aus erlaubten Stellen (Fixpunkt) zu einer Siphon verkleinert, die die geforderten
+ * Stellen noch enthält. Danach wird die Aufgabe nach deren übrigen Stellen p1..pk
+ * aufgeteilt: Teilaufgabe i verbietet pi und fordert p1..p(i-1). So wird jede minimale
+ * Siphon genau einmal gefunden.
+ * <p>
+ * Für jede minimale Siphon wird die größte enthaltene Falle bestimmt. Enthält jede Siphon
+ * eine anfangs markierte Falle (Bedingung von Commoner), ist in Netzen mit Gewichten 1 keine
+ * Verklemmung erreichbar, in (erweitert) free-choice Netzen ist das Netz dann sogar lebendig.
+ * Kapazitätsgrenzen und Gewichte größer als 1 werden nicht berücksichtigt; das Ergebnis ist
+ * dann nur ein Hinweis.
+ */
+public class M_Siphons {
+
+    private final M_CompiledNet net;
+
+    // Abschluss für Siphons: jeder Lieferant einer Stelle braucht eine Eingangsstelle in S
+    private final Closure siphonClosure;
+
+    // Abschluss für Fallen: jeder Abnehmer einer Stelle braucht eine Ausgangsstelle in S
+    private final Closure trapClosure;
+
+    private int maxSiphons = 1000;
+    private long maxNodes = 100000;
+
+    private ArrayList<M_Siphon> siphons;
+    private boolean complete;
+    private double seconds;
+
+    /**
+     * Bereitet die Analyse des übergebenen Netzes vor.
+     * @param net kompiliertes Netz
+     */
+    public M_Siphons(M_CompiledNet net) {
+        this.net = net;
+        int numberOfPlaces = net.numberOfPlaces;
+
+        int[] consumerStart = new int[numberOfPlaces + 1];
+        int[] consumer = new int[net.prePlace.length];
+        M_StubbornSets.invert(net.preStart, net.prePlace, consumerStart, consumer);
+
+        int[] producerStart = new int[numberOfPlaces + 1];
+        int[] producer = new int[net.postPlace.length];
+        M_StubbornSets.invert(net.postStart, net.postPlace, producerStart, producer);
+
+        siphonClosure = new Closure(net.preStart, net.prePlace, consumerStart, consumer,
+                producerStart, producer, net.postStart, net.postPlace);
+        trapClosure = new Closure(net.postStart, net.postPlace, producerStart, producer,
+                consumerStart, consumer, net.preStart, net.prePlace);
+    }
+
+    /**
+     * Setzt die höchste Anzahl aufgezählter Siphons.
+     * @param maxSiphons Grenze
+     */
+    public void setMaxSiphons(int maxSiphons) {
+        this.maxSiphons = maxSiphons;
+    }
+
+    /**
+     * Setzt die höchste Anzahl untersuchter Teilaufgaben.
+     * @param maxNodes Grenze
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Zählt die minimalen Siphons auf und prüft für jede, ob sie eine markierte Falle enthält.
+     */
+    public void analyse() {
+        long start = System.nanoTime();
+        float[] marking = net.getMarking();
+
+        siphons = new ArrayList<M_Siphon>();
+        complete = true;
+
+        // Tiefensuche; die Teilaufgaben einer Aufteilung werden erst beim Abarbeiten erzeugt
+        ArrayDeque<Split> splits = new ArrayDeque<Split>();
+        boolean[] member = new boolean[net.numberOfPlaces];
+        Arrays.fill(member, true);
+        if(siphonClosure.shrink(member) > 0) {
+            splits.push(solve(member, new int[0], marking));
+        }
+        long nodes = 1;
+
+        while(splits.isEmpty() == false) {
+            if(siphons.size() >= maxSiphons || nodes >= maxNodes) {
+                complete = false;
+                break;
+            }
+
+            // Teilaufgabe i verbietet pi und fordert p1..p(i-1); ihre größte Siphon liegt in
+            // der größten Siphon der Aufteilung ohne pi
+            Split split = splits.peek();
+            int i = split.next++;
+            if(split.next == split.free.length) {
+                splits.pop();
+            }
+            int[] required = Arrays.copyOf(split.required, split.required.length + i);
+            System.arraycopy(split.free, 0, required, split.required.length, i);
+            boolean[] isRequired = new boolean[net.numberOfPlaces];
+            for(int k = 0; k < required.length; k++) {
+                isRequired[required[k]] = true;
+            }
+
+            // pi wird direkt in der größten Siphon der Aufteilung entfernt; nur wenn danach
+            // noch eine passende Siphon übrig ist, wird kopiert und wiederhergestellt
+            nodes++;
+            siphonClosure.load(split.counts, split.size);
+            if(siphonClosure.remove(split.maximal, split.free[i], isRequired, true) == true) {
+                member = split.maximal.clone();
+                for(int k = 0; k < siphonClosure.removedCount; k++) {
+                    split.maximal[siphonClosure.removed[k]] = true;
+                }
+                Split child = solve(member, required, marking);
+                if(child != null) {
+                    splits.push(child);
+                }
+            }
+        }
+
+        seconds = (System.nanoTime() - start) / 1e9;
+    }
+
+    /*
+     * Verkleinert die größte Siphon member der Teilaufgabe (Zähler in siphonClosure), solange
+     * die geforderten Stellen enthalten bleiben, und nimmt das Ergebnis auf, wenn es eine
+     * minimale Siphon ist.
+     * @return Aufteilung nach den übrigen Stellen oder null, wenn es keine gibt
+     */
+    private Split solve(boolean[] member, int[] required, float[] marking) {
+        int numberOfPlaces = net.numberOfPlaces;
+        boolean[] maximal = member.clone();
+        int[] counts = siphonClosure.count.clone();
+        int size = siphonClosure.size;
+
+        boolean[] isRequired = new boolean[numberOfPlaces];
+        for(int i = 0; i < required.length; i++) {
+            isRequired[required[i]] = true;
+        }
+
+        // Stellen, ohne die es keine passende Siphon mehr gibt, werden wie geforderte
+        // behandelt. Nach einem Fehlschlag werden zuerst die zuletzt mitentfernten Stellen
+        // versucht: ihr Entfernen erreicht die unverzichtbare Stelle meist sofort (z.B. in
+        // einem Kreis), so bleibt der Aufwand auch für große minimale Siphons linear.
+        boolean[] keep = isRequired.clone();
+        int[] pending = new int[numberOfPlaces];
+        int top = 0;
+        for(int p = numberOfPlaces - 1; p >= 0; p--) {
+            if(member[p] == true && keep[p] == false) {
+                pending[top++] = p;
+            }
+        }
+        while(top > 0) {
+            int p = pending[--top];
+            if(member[p] == false || keep[p] == true) {
+                continue;
+            }
+            if(siphonClosure.remove(member, p, keep, true) == false) {
+                keep[p] = true;
+                int count = siphonClosure.removedCount;
+                if(top + count > pending.length) {
+                    pending = Arrays.copyOf(pending, Math.max(pending.length * 2, top + count));
+                }
+                for(int i = 1; i < count; i++) {
+                    pending[top++] = siphonClosure.removed[i];
+                }
+            }
+        }
+
+        int[] places = toIndices(member);
+        if(required.length == 0 || isMinimal(member, places) == true) {
+            siphons.add(describe(places, marking));
+        }
+
+        int[] free = new int[places.length];
+        int count = 0;
+        for(int i = 0; i < places.length; i++) {
+            if(isRequired[places[i]] == false) {
+                free[count++] = places[i];
+            }
+        }
+        if(count == 0) {
+            return null;
+        }
+
+        // Reihenfolge der Aufteilung: die erste Stelle, dann die durch ihr Entfernen
+        // mitentfernten Stellen rückwärts. Teilaufgabe i fordert dann meist eine Stelle, die
+        // beim Entfernen von pi sofort fällt, und ist ohne großen Aufwand erledigt.
+        int[] order = new int[count];
+        boolean[] placed = new boolean[numberOfPlaces];
+        int n = 0;
+        order[n++] = free[0];
+        placed[free[0]] = true;
+        siphonClosure.remove(member, free[0], null, false);
+        for(int i = siphonClosure.removedCount - 1; i > 0; i--) {
+            int p = siphonClosure.removed[i];
+            if(isRequired[p] == false && placed[p] == false) {
+                order[n++] = p;
+                placed[p] = true;
+            }
+        }
+        for(int i = 1; i < count; i++) {
+            if(placed[free[i]] == false) {
+                order[n++] = free[i];
+            }
+        }
+        return new Split(maximal, counts, size, required, order);
+    }
+
+    /*
+     * Aufteilung einer Teilaufgabe mit der größten Siphon maximal (samt Zählern) nach den
+     * nicht geforderten Stellen free der gefundenen Siphon; next ist die nächste zu
+     * erzeugende Teilaufgabe.
+     */
+    private static final class Split {
+        final boolean[] maximal;
+        final int[] counts;
+        final int size;
+        final int[] required;
+        final int[] free;
+        int next;
+
+        Split(boolean[] maximal, int[] counts, int size, int[] required, int[] free) {
+            this.maximal = maximal;
+            this.counts = counts;
+            this.size = size;
+            this.required = required;
+            this.free = free;
+        }
+    }
+
+    /*
+     * Testet, ob die Siphon keine kleinere Siphon enthält: ohne jede ihrer Stellen bleibt
+     * keine Siphon übrig.
+     */
+    private boolean isMinimal(boolean[] member, int[] places) {
+        for(int i = 0; i < places.length; i++) {
+            if(siphonClosure.remove(member, places[i], null, false) == true) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Bestimmt die größte Falle in der Siphon und die Teile beider Mengen.
+     */
+    private M_Siphon describe(int[] places, float[] marking) {
+        boolean[] trap = new boolean[net.numberOfPlaces];
+        double tokens = 0;
+        for(int i = 0; i < places.length; i++) {
+            trap[places[i]] = true;
+            tokens += marking[places[i]];
+        }
+        trapClosure.shrink(trap);
+
+        int[] trapPlaces = toIndices(trap);
+        double trapTokens = 0;
+        for(int i = 0; i < trapPlaces.length; i++) {
+            trapTokens += marking[trapPlaces[i]];
+        }
+        return new M_Siphon(places, trapPlaces, tokens, trapTokens);
+    }
+
+    private static int[] toIndices(boolean[] member) {
+        int count = 0;
+        for(int p = 0; p < member.length; p++) {
+            if(member[p] == true) {
+                count++;
+            }
+        }
+        int[] indices = new int[count];
+        count = 0;
+        for(int p = 0; p < member.length; p++) {
+            if(member[p] == true) {
+                indices[count++] = p;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Gibt die gefundenen minimalen Siphons zurück.
+     * @return Siphons
+     */
+    public ArrayList<M_Siphon> getSiphons() {
+        return siphons;
+    }
+
+    /**
+     * Gibt die Siphons ohne anfangs markierte Falle zurück; sie können leer werden.
+     * @return gefährdete Siphons
+     */
+    public ArrayList<M_Siphon> getRiskySiphons() {
+        ArrayList<M_Siphon> risky = new ArrayList<M_Siphon>();
+        for(int i = 0; i < siphons.size(); i++) {
+            if(siphons.get(i).hasMarkedTrap() == false) {
+                risky.add(siphons.get(i));
+            }
+        }
+        return risky;
+    }
+
+    /**
+     * Testet, ob alle minimalen Siphons aufgezählt wurden (keine Grenze erreicht).
+     * @return true, wenn die Aufzählung vollständig ist
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gibt die Dauer der Analyse zurück.
+     * @return Sekunden
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Testet, ob alle Kanten das Gewicht 1 haben (gewöhnliches Netz).
+     * @return true bei gewöhnlichem Netz
+     */
+    public boolean isOrdinary() {
+        for(int a = 0; a < net.preWeight.length; a++) {
+            if(net.preWeight[a] != 1) {
+                return false;
+            }
+        }
+        for(int a = 0; a < net.postWeight.length; a++) {
+            if(net.postWeight[a] != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Testet, ob das Netz (erweitert) free-choice ist: Transitionen mit einer gemeinsamen
+     * Eingangsstelle haben denselben Vorbereich.
+     * @return true bei free-choice Netz
+     */
+    public boolean isFreeChoice() {
+        int[][] presets = new int[net.numberOfTransitions][];
+        for(int t = 0; t < presets.length; t++) {
+            int[] preset = Arrays.copyOfRange(net.prePlace, net.preStart[t], net.preStart[t + 1]);
+            Arrays.sort(preset);
+            presets[t] = preset;
+        }
+        for(int t = 0; t < presets.length; t++) {
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                int p = net.prePlace[a];
+                for(int i = siphonClosure.supportedStart[p]; i < siphonClosure.supportedStart[p + 1]; i++) {
+                    int u = siphonClosure.supported[i];
+                    if(u != t && Arrays.equals(presets[t], presets[u]) == false) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Testet, ob das Netz Stellen mit endlicher Kapazität hat (Eingabestellen ausgenommen).
+     * @return true, wenn Kapazitätsgrenzen bestehen
+     */
+    public boolean hasCapacities() {
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            if(Float.isInfinite(net.capacity[p]) == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Größter Fixpunkt einer Stellenmenge: eine Stelle bleibt nur, wenn jede Transition, von
+     * der sie abhängt, eine stützende Stelle in der Menge hat. Für Siphons stützen die
+     * Eingangsstellen einer Transition und eine Stelle hängt von ihren Lieferanten ab, für
+     * Fallen umgekehrt.
+     */
+    private static final class Closure {
+        final int[] supportStart;       // Transition -> stützende Stellen
+        final int[] support;
+        final int[] supportedStart;     // Stelle -> gestützte Transitionen
+        final int[] supported;
+        final int[] dependStart;        // Stelle -> Transitionen, von denen sie abhängt
+        final int[] depend;
+        final int[] dependentStart;     // Transition -> abhängige Stellen
+        final int[] dependent;
+
+        final int[] count;              // stützende Stellen je Transition in der Menge
+        final int[] stack;
+        final int[] removed;            // beim letzten remove() entfernte Stellen
+        int removedCount;
+        int size;
+
+        Closure(int[] supportStart, int[] support, int[] supportedStart, int[] supported,
+                int[] dependStart, int[] depend, int[] dependentStart, int[] dependent) {
+            this.supportStart = supportStart;
+            this.support = support;
+            this.supportedStart = supportedStart;
+            this.supported = supported;
+            this.dependStart = dependStart;
+            this.depend = depend;
+            this.dependentStart = dependentStart;
+            this.dependent = dependent;
+            count = new int[supportStart.length - 1];
+            stack = new int[Math.max(support.length, dependent.length) + supportedStart.length];
+            removed = new int[supportedStart.length - 1];
+        }
+
+        /*
+         * Verkleinert die Menge auf ihren größten Fixpunkt und merkt sich die Zähler für
+         * folgende Aufrufe von remove().
+         * @return Anzahl der verbliebenen Stellen
+         */
+        int shrink(boolean[] member) {
+            size = 0;
+            for(int t = 0; t < count.length; t++) {
+                int c = 0;
+                for(int a = supportStart[t]; a < supportStart[t + 1]; a++) {
+                    if(member[support[a]] == true) {
+                        c++;
+                    }
+                }
+                count[t] = c;
+            }
+
+            int top = 0;
+            for(int p = 0; p < member.length; p++) {
+                if(member[p] == true) {
+                    size++;
+                    for(int i = dependStart[p]; i < dependStart[p + 1]; i++) {
+                        if(count[depend[i]] == 0) {
+                            stack[top++] = p;
+                            break;
+                        }
+                    }
+                }
+            }
+            cascade(member, top, null);
+            return size;
+        }
+
+        /*
+         * Entfernt p aus der zuletzt mit shrink() berechneten Menge und verkleinert sie wieder
+         * auf ihren Fixpunkt. Nur die dabei entfernten Stellen werden angefasst (sie stehen
+         * danach in removed[0..removedCount)). Rückgängig gemacht wird, wenn die Menge leer
+         * wird, eine Stelle aus keep fallen müsste (dann wird sofort abgebrochen) oder
+         * keepResult false ist.
+         * @return true, wenn danach noch Stellen (einschließlich aller aus keep) übrig sind
+         */
+        boolean remove(boolean[] member, int p, boolean[] keep, boolean keepResult) {
+            stack[0] = p;
+            int count = cascade(member, 1, keep);
+            boolean remains = count >= 0 && size > 0;
+            if(count < 0) {
+                count = -count - 1;
+            }
+            removedCount = count;
+
+            if(remains == false || keepResult == false) {
+                for(int i = 0; i < count; i++) {
+                    restore(member, removed[i]);
+                }
+            }
+            return remains;
+        }
+
+        /*
+         * Entfernt die Stellen auf dem Stapel und alle, die dadurch ihre Stütze verlieren.
+         * @return Anzahl der entfernten Stellen (in removed) oder -(Anzahl + 1), wenn wegen
+         * einer Stelle aus keep abgebrochen wurde
+         */
+        private int cascade(boolean[] member, int top, boolean[] keep) {
+            int count = 0;
+            while(top > 0) {
+                int p = stack[--top];
+                if(member[p] == false) {
+                    continue;
+                }
+                if(keep != null && keep[p] == true) {
+                    return -count - 1;
+                }
+                member[p] = false;
+                removed[count++] = p;
+                size--;
+                for(int i = supportedStart[p]; i < supportedStart[p + 1]; i++) {
+                    int t = supported[i];
+                    if(--this.count[t] == 0) {
+                        for(int a = dependentStart[t]; a < dependentStart[t + 1]; a++) {
+                            if(member[dependent[a]] == true) {
+                                stack[top++] = dependent[a];
+                            }
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /*
+         * Stellt gespeicherte Zähler (zu einer mit shrink() berechneten Menge) wieder her.
+         */
+        void load(int[] counts, int size) {
+            System.arraycopy(counts, 0, count, 0, count.length);
+            this.size = size;
+        }
+
+        private void restore(boolean[] member, int p) {
+            member[p] = true;
+            size++;
+            for(int i = supportedStart[p]; i < supportedStart[p + 1]; i++) {
+                count[supported[i]]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package model;
+
+/**
+ * Menge besuchter Markierungen im Hauptspeicher. Die gepackten Markierungen liegen
+ * hintereinander in primitiven long-Feldern, gefunden werden sie über eine Hashtabelle
+ * mit offener Adressierung (lineares Sondieren).
+ * <p>
+ * Damit mehrere Threads gleichzeitig einfügen können, ist die Menge anhand des Hashwertes
+ * in viele unabhängige Teilmengen zerlegt, die jeweils einzeln gesperrt und bei Bedarf
+ * einzeln vergrößert werden.
+ */
+public class M_StateSet implements MI_StateStore {
+
+    // Anzahl der Teilmengen (Zweierpotenz)
+    static final int SHARD_BITS = 8;
+
+    // Anfangsgröße der Tabelle einer Teilmenge (Zweierpotenz)
+    static final int INITIAL_SLOTS = 64;
+
+    private final int words;
+    private final Shard[] shards;
+
+    /**
+     * Erzeugt eine leere Menge für Markierungen aus words long-Worten.
+     * @param words Worte je Markierung (M_MarkingCodec.getWords())
+     */
+    public M_StateSet(int words) {
+        this.words = words;
+        shards = new Shard[1 << SHARD_BITS];
+        for(int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(words);
+        }
+    }
+
+    /**
+     * Nimmt eine Markierung auf, sofern sie noch nicht enthalten ist.
+     */
+    public boolean add(long[] state, int offset, long hash) {
+        return shards[(int) (hash >>> (64 - SHARD_BITS))].add(state, offset, (int) hash);
+    }
+
+    /**
+     * Gibt die Anzahl der enthaltenen Markierungen zurück.
+     */
+    public long size() {
+        long size = 0;
+        for(int i = 0; i < shards.length; i++) {
+            size += shards[i].size();
+        }
+        return size;
+    }
+
+    /**
+     * Gibt den belegten Speicher (in Bytes) zurück.
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for(int i = 0; i < shards.length; i++) {
+            bytes += shards[i].getBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gibt die Anzahl der Worte je Markierung zurück.
+     * @return Worte je Markierung
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Kopiert alle Markierungen hintereinander (ungeordnet) in ein neues Feld.
+     * @return Feld mit size() * getWords() Worten
+     */
+    long[] toArray() {
+        long[] all = new long[(int) size() * words];
+        int offset = 0;
+        for(int i = 0; i < shards.length; i++) {
+            offset = shards[i].copyTo(all, offset);
+        }
+        return all;
+    }
+
+    /*
+     * Teilmenge: Hashtabelle mit offener Adressierung über einem eigenen Markierungsspeicher.
+     */
+    private static final class Shard {
+        private final int words;
+
+        private int[] slots = new int[INITIAL_SLOTS];   // Nummer der Markierung + 1, 0 = frei
+        private int[] hashes = new int[INITIAL_SLOTS];  // Hashwert je Markierung
+        private long[] states;                          // Markierungen hintereinander
+        private int size;
+
+        Shard(int words) {
+            this.words = words;
+            states = new long[INITIAL_SLOTS * words];
+        }
+
+        synchronized boolean add(long[] state, int offset, int hash) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+
+            while(slots[slot] != 0) {
+                int entry = slots[slot] - 1;
+                if(hashes[entry] == hash && equals(entry, state, offset) == true) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // neue Markierung anhängen
+            if((size + 1) * words > states.length) {
+                long[] grown = new long[Math.max(states.length * 2, (size + 1) * words)];
+                System.arraycopy(states, 0, grown, 0, size * words);
+                states = grown;
+            }
+            if(size == hashes.length) {
+                int[] grown = new int[hashes.length * 2];
+                System.arraycopy(hashes, 0, grown, 0, size);
+                hashes = grown;
+            }
+            System.arraycopy(state, offset, states, size * words, words);
+            hashes[size] = hash;
+            slots[slot] = ++size;
+
+            // Füllgrad höchstens 2/3
+            if(3 * size > 2 * slots.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private boolean equals(int entry, long[] state, int offset) {
+            int base = entry * words;
+            for(int i = 0; i < words; i++) {
+                if(states[base + i] != state[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Verdoppelt die Tabelle und trägt alle Markierungen neu ein.
+         */
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for(int entry = 0; entry < size; entry++) {
+                int slot = hashes[entry] & mask;
+                while(slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry + 1;
+            }
+        }
+
+        synchronized int copyTo(long[] out, int offset) {
+            System.arraycopy(states, 0, out, offset, size * words);
+            return offset + size * words;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long getBytes() {
+            return 4L * slots.length + 4L * hashes.length + 8L * states.length;
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Erkundet den Zustandsraum (Erreichbarkeitsgraphen) eines kompilierten Netzes. Ausgehend
+ * von dessen aktueller Markierung werden alle erreichbaren Markierungen aufgezählt; ein
+ * Übergang ist dabei das Feuern genau einer aktivierten Transition (Feuerungsregel wie
+ * M_CompiledNet.isEnabled()). Markierungen, unter denen keine Transition aktiviert ist,
+ * werden als Verklemmungen gezählt, Markierungen, unter denen eine Transition nur wegen
+ * einer vollen Stelle nicht feuern kann, als Kapazitätsengpässe.
+ * <p>
+ * Die Erkundung erfolgt als Breitensuche Ebene für Ebene. Die Markierungen einer Ebene
+ * werden gepackt (M_MarkingCodec) in Blöcken gehalten und auf einem ForkJoinPool
+ * (Work-Stealing) parallel expandiert; neue Markierungen werden in der gemeinsamen Menge
+ * der besuchten Markierungen (MI_StateStore, standardmäßig M_StateSet) erkannt. Bei
+ * Mengen mit verzögerter Duplikaterkennung (MI_DelayedStateStore) werden die Kandidaten
+ * erst nach der Expansion abgeglichen. Die Expansion einer Ebene wird dann unterbrochen,
+ * sobald die Menge ein überschrittenes Speicherbudget meldet oder die Markierungen zusammen
+ * mit den Kandidaten die Zustandsgrenze erreichen; nach dem Abgleich wird der Rest der Ebene
+ * expandiert. So halten auch diese Mengen Budget und Zustandsgrenze innerhalb einer Ebene ein.
+ * <p>
+ * Die Erkundung endet, wenn alle Markierungen besucht sind, wenn (ungefähr) die
+ * Zustandsgrenze erreicht ist, wenn eine unbeschränkte Stelle nicht mehr gepackt werden
+ * kann oder wenn cancel() aufgerufen wurde.
+ */
+public class M_StateSpace {
+
+    // Anzahl an Markierungen, ab der eine Teilaufgabe weiter aufgeteilt wird
+    static final int SPLIT_THRESHOLD = 256;
+
+    // neue Markierungen, nach denen eine Teilaufgabe die Zustandsgrenze prüft
+    static final int COUNT_BATCH = 256;
+
+    // Anzahl aufbewahrter Beispiel-Verklemmungen
+    static final int MAX_EXAMPLES = 10;
+
+    private final M_CompiledNet net;
+    private final M_MarkingCodec codec;
+    private final int words;
+    private final float[] initialMarking;
+
+    private long maxStates = Long.MAX_VALUE;
+    private MI_StateStore store;
+    private MI_DelayedStateStore delayedStore;  // store, falls mit verzögerter Duplikaterkennung
+    private M_StubbornSets reduction;           // null: keine Reduktion
+
+    private volatile boolean stop;          // true: alle Teilaufgaben beenden sich
+    private volatile boolean pause;         // true: Teilaufgaben stellen ihre Markierungen zurück
+    private volatile boolean cancelled;
+    private volatile boolean unbounded;
+    private volatile boolean limitReached;
+
+    private final AtomicLong states = new AtomicLong();
+    private final AtomicLong candidates = new AtomicLong();    // noch nicht abgeglichen
+    private final ArrayList<long[]> deferred = new ArrayList<long[]>();   // zurückgestellt
+    private final LongAdder edges = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder capacityLimited = new LongAdder();
+    private final ArrayList<float[]> deadlockExamples = new ArrayList<float[]>();
+    private final ArrayList<float[]> capacityExamples = new ArrayList<float[]>();
+
+    private ME_ExplorationStatus status;
+    private int depth;
+    private long nanos;
+
+    /**
+     * Bereitet die Erkundung des übergebenen Netzes vor. Dessen aktuelle Markierung ist die
+     * Anfangsmarkierung; das Netz selbst wird nicht verändert.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_StateSpace(M_CompiledNet net) {
+        this.net = net;
+        codec = new M_MarkingCodec(net);
+        words = codec.getWords();
+        initialMarking = net.getMarking().clone();
+    }
+
+    /**
+     * Setzt die Zustandsgrenze, bei deren Erreichen die Erkundung abbricht.
+     * @param maxStates höchste Anzahl an Markierungen
+     */
+    public void setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Schaltet die Reduktion mit sturen Mengen (M_StubbornSets) ein oder aus. Mit Reduktion
+     * werden alle Verklemmungen gefunden, aber weniger Markierungen erkundet; Anzahl der
+     * Markierungen, Übergänge und Kapazitätsengpässe beziehen sich dann auf den reduzierten
+     * Zustandsraum.
+     * @param reduce true für Reduktion
+     */
+    public void setReduction(boolean reduce) {
+        reduction = reduce == true ? new M_StubbornSets(net) : null;
+    }
+
+    /**
+     * Gibt zurück, ob mit sturen Mengen reduziert wird.
+     * @return true bei Reduktion
+     */
+    public boolean isReduced() {
+        return reduction != null;
+    }
+
+    /**
+     * Setzt die Menge, in der die besuchten Markierungen gespeichert werden. Ohne Angabe
+     * wird eine M_StateSet verwendet.
+     * @param store Menge der besuchten Markierungen
+     */
+    public void setStore(MI_StateStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Gibt die Menge der besuchten Markierungen zurück.
+     * @return Menge der besuchten Markierungen
+     */
+    public MI_StateStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gibt die verwendete Packung der Markierungen zurück.
+     * @return Packung der Markierungen
+     */
+    public M_MarkingCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Bricht eine laufende Erkundung (aus einem anderen Thread) ab.
+     */
+    public void cancel() {
+        cancelled = true;
+        stop = true;
+    }
+
+    /**
+     * Erkundet den Zustandsraum.
+     * @param pool ForkJoinPool für die parallele Expansion
+     * @return Ergebnis der Erkundung
+     */
+    public ME_ExplorationStatus explore(ForkJoinPool pool) {
+        long start = System.nanoTime();
+
+        if(store == null) {
+            store = new M_StateSet(words);
+        }
+        if(store instanceof MI_DelayedStateStore) {
+            delayedStore = (MI_DelayedStateStore) store;
+        }
+
+        // Anfangsmarkierung
+        ArrayList<long[]> frontier = new ArrayList<long[]>();
+        long[] initial = new long[words];
+        if(codec.encode(initialMarking, initial, 0) == false) {
+            unbounded = true;
+            stop = true;
+        }
+        else if(store.add(initial, 0, codec.hash(initial, 0)) == true) {
+            frontier.add(initial);
+            if(delayedStore != null) {
+                frontier = delayedStore.completeLevel(frontier);
+            }
+            countStates(count(frontier));
+        }
+
+        // Ebene für Ebene, bei Unterbrechung in mehreren Durchgängen
+        ArrayList<long[]> remaining = new ArrayList<long[]>();
+        while(frontier.isEmpty() == false && stop == false) {
+            ArrayList<long[]> next = new ArrayList<long[]>();
+            remaining = frontier;
+            while(remaining.isEmpty() == false && stop == false) {
+                pause = false;
+                candidates.set(0);
+                ArrayList<long[]> found = pool.invoke(new ExpandLevel(remaining));
+                remaining = takeDeferred();
+                if(delayedStore != null && stop == false) {
+                    found = delayedStore.completeLevel(found);
+                    countStates(count(found));
+                }
+                next.addAll(found);
+            }
+            frontier = next;
+            if(frontier.isEmpty() == false) {
+                depth++;
+            }
+        }
+
+        nanos = System.nanoTime() - start;
+
+        if(cancelled == true) {
+            status = ME_ExplorationStatus.CANCELLED;
+        }
+        else if(unbounded == true) {
+            status = ME_ExplorationStatus.UNBOUNDED;
+        }
+        else if(limitReached == true && (frontier.isEmpty() == false || remaining.isEmpty() == false)) {
+            status = ME_ExplorationStatus.STATE_LIMIT;
+        }
+        else {
+            status = ME_ExplorationStatus.COMPLETE;
+        }
+        return status;
+    }
+
+    /*
+     * Expandiert alle Blöcke einer Ebene parallel und liefert die Blöcke der nächsten Ebene.
+     */
+    private final class ExpandLevel extends RecursiveTask<ArrayList<long[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<long[]> frontier;
+
+        ExpandLevel(ArrayList<long[]> frontier) {
+            this.frontier = frontier;
+        }
+
+        protected ArrayList<long[]> compute() {
+            ArrayList<Expand> tasks = new ArrayList<Expand>(frontier.size());
+            for(int i = 0; i < frontier.size(); i++) {
+                long[] block = frontier.get(i);
+                tasks.add(new Expand(block, 0, block.length / words));
+            }
+            invokeAll(tasks);
+
+            ArrayList<long[]> next = new ArrayList<long[]>();
+            for(int i = 0; i < tasks.size(); i++) {
+                next.addAll(tasks.get(i).join());
+            }
+            return next;
+        }
+    }
+
+    /*
+     * Expandiert die Markierungen [from, to) eines Blocks; große Bereiche werden geteilt.
+     */
+    private final class Expand extends RecursiveTask<ArrayList<long[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] block;
+        private final int from;
+        private final int to;
+
+        Expand(long[] block, int from, int to) {
+            this.block = block;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected ArrayList<long[]> compute() {
+            if(pause == true) {
+                defer(block, from, to);
+                return new ArrayList<long[]>(0);
+            }
+            if(to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Expand left = new Expand(block, from, middle);
+                left.fork();
+                ArrayList<long[]> result = new Expand(block, middle, to).compute();
+                result.addAll(left.join());
+                return result;
+            }
+
+            ArrayList<long[]> result = new ArrayList<long[]>(1);
+            long[] next = expand(block, from, to);
+            if(next != null) {
+                result.add(next);
+            }
+            return result;
+        }
+    }
+
+    /*
+     * Expandiert die Markierungen [from, to) eines Blocks und liefert die dabei neu
+     * gefundenen Markierungen als Block (oder null).
+     */
+    private long[] expand(long[] block, int from, int to) {
+        int numberOfPlaces = net.numberOfPlaces;
+        int numberOfTransitions = net.numberOfTransitions;
+
+        float[] m = new float[numberOfPlaces];
+        float[] successor = new float[numberOfPlaces];
+        long[] packed = new long[words];
+
+        long[] found = new long[Math.max(words, (to - from) * words)];
+        int foundCount = 0;
+        int unreported = 0;
+        long localEdges = 0;
+        long localDeadlocks = 0;
+        long localCapacityLimited = 0;
+
+        boolean[] isEnabled = new boolean[numberOfTransitions];
+        int[] enabled = new int[numberOfTransitions];
+        int[] toFire = new int[numberOfTransitions];
+        M_StubbornSets stubbornSets = reduction != null ? new M_StubbornSets(reduction) : null;
+
+        for(int i = from; i < to && stop == false; i++) {
+            codec.decode(block, i * words, m);
+            int enabledCount = 0;
+            boolean limited = false;
+
+            // aktivierte Transitionen bestimmen
+            for(int t = 0; t < numberOfTransitions; t++) {
+                isEnabled[t] = net.isEnabled(t, m);
+                if(isEnabled[t] == true) {
+                    enabled[enabledCount++] = t;
+                }
+                else if(limited == false && net.isBlockedByCapacity(t, m) == true) {
+                    limited = true;
+                }
+            }
+
+            // ggf. auf eine sture Menge beschränken
+            int[] fire = enabled;
+            int fireCount = enabledCount;
+            if(stubbornSets != null && enabledCount > 1) {
+                fireCount = stubbornSets.reduce(m, isEnabled, enabled, enabledCount, toFire);
+                fire = toFire;
+            }
+
+            for(int k = 0; k < fireCount; k++) {
+                localEdges++;
+
+                System.arraycopy(m, 0, successor, 0, numberOfPlaces);
+                net.fireUnchecked(fire[k], successor);
+
+                if(codec.encode(successor, packed, 0) == false) {
+                    unbounded = true;
+                    stop = true;
+                    break;
+                }
+
+                if(store.add(packed, 0, codec.hash(packed, 0)) == true) {
+                    if((foundCount + 1) * words > found.length) {
+                        long[] grown = new long[found.length * 2];
+                        System.arraycopy(found, 0, grown, 0, foundCount * words);
+                        found = grown;
+                    }
+                    System.arraycopy(packed, 0, found, foundCount * words, words);
+                    foundCount++;
+
+                    if(++unreported == COUNT_BATCH) {
+                        countFound(unreported);
+                        unreported = 0;
+                    }
+                }
+            }
+
+            if(enabledCount == 0) {
+                localDeadlocks++;
+                recordExample(deadlockExamples, m);
+            }
+            if(limited == true) {
+                localCapacityLimited++;
+                recordExample(capacityExamples, m);
+            }
+        }
+
+        countFound(unreported);
+        edges.add(localEdges);
+        deadlocks.add(localDeadlocks);
+        capacityLimited.add(localCapacityLimited);
+
+        if(foundCount == 0) {
+            return null;
+        }
+        long[] next = new long[foundCount * words];
+        System.arraycopy(found, 0, next, 0, next.length);
+        return next;
+    }
+
+    /*
+     * Gibt die Anzahl der Markierungen in den Blöcken zurück.
+     */
+    private int count(ArrayList<long[]> blocks) {
+        int count = 0;
+        for(int i = 0; i < blocks.size(); i++) {
+            count += blocks.get(i).length / words;
+        }
+        return count;
+    }
+
+    /*
+     * Zählt neu gefundene Markierungen. Bei verzögerter Duplikaterkennung sind es Kandidaten;
+     * die Expansion wird unterbrochen, wenn sie die Zustandsgrenze erreichen könnten oder die
+     * Menge ihr Speicherbudget überschreitet.
+     */
+    private void countFound(int count) {
+        if(delayedStore == null) {
+            countStates(count);
+        }
+        else if(states.get() + candidates.addAndGet(count) >= maxStates || delayedStore.isMemoryFull() == true) {
+            pause = true;
+        }
+    }
+
+    /*
+     * Stellt die noch nicht expandierten Markierungen [from, to) eines Blocks zurück.
+     */
+    private void defer(long[] block, int from, int to) {
+        long[] part = Arrays.copyOfRange(block, from * words, to * words);
+        synchronized(deferred) {
+            deferred.add(part);
+        }
+    }
+
+    /*
+     * Gibt die zurückgestellten Blöcke zurück und leert die Liste.
+     */
+    private ArrayList<long[]> takeDeferred() {
+        synchronized(deferred) {
+            ArrayList<long[]> blocks = new ArrayList<long[]>(deferred);
+            deferred.clear();
+            return blocks;
+        }
+    }
+
+    /*
+     * Zählt neue Markierungen und prüft die Zustandsgrenze.
+     */
+    private void countStates(int count) {
+        if(states.addAndGet(count) >= maxStates) {
+            limitReached = true;
+            stop = true;
+        }
+    }
+
+    private static void recordExample(ArrayList<float[]> examples, float[] m) {
+        synchronized(examples) {
+            if(examples.size() < MAX_EXAMPLES) {
+                examples.add(m.clone());
+            }
+        }
+    }
+
+    /**
+     * Gibt das Ergebnis der letzten Erkundung zurück.
+     * @return Ergebnis oder null, wenn noch nicht erkundet wurde
+     */
+    public ME_ExplorationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gibt die Anzahl der gefundenen Markierungen zurück.
+     * @return Anzahl der Markierungen
+     */
+    public long getStates() {
+        return states.get();
+    }
+
+    /**
+     * Gibt die Anzahl der untersuchten Übergänge (Feuerungen) zurück.
+     * @return Anzahl der Übergänge
+     */
+    public long getEdges() {
+        return edges.sum();
+    }
+
+    /**
+     * Gibt die Anzahl der gefundenen Verklemmungen (Markierungen ohne aktivierte Transition) zurück.
+     * @return Anzahl der Verklemmungen
+     */
+    public long getDeadlocks() {
+        return deadlocks.sum();
+    }
+
+    /**
+     * Gibt die Anzahl der Markierungen zurück, unter denen mindestens eine Transition nur
+     * wegen einer Kapazitätsgrenze nicht feuern kann (M_CompiledNet.isBlockedByCapacity()).
+     * @return Anzahl der Kapazitätsengpässe
+     */
+    public long getCapacityLimited() {
+        return capacityLimited.sum();
+    }
+
+    /**
+     * Gibt einige der gefundenen Kapazitätsengpässe zurück (höchstens MAX_EXAMPLES).
+     * @return Markierungen der Kapazitätsengpässe
+     */
+    public ArrayList<float[]> getCapacityExamples() {
+        synchronized(capacityExamples) {
+            return new ArrayList<float[]>(capacityExamples);
+        }
+    }
+
+    /**
+     * Gibt einige der gefundenen Verklemmungen zurück (höchstens MAX_EXAMPLES). Die
+     * Markierungen sind wie die Stellen des kompilierten Netzes indiziert.
+     * @return Markierungen der Verklemmungen
+     */
+    public ArrayList<float[]> getDeadlockExamples() {
+        synchronized(deadlockExamples) {
+            return new ArrayList<float[]>(deadlockExamples);
+        }
+    }
+
+    /**
+     * Gibt die Tiefe der Breitensuche (Anzahl der Ebenen nach der Anfangsmarkierung) zurück.
+     * @return Tiefe
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gibt die Dauer der letzten Erkundung in Sekunden zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Gibt die Anzahl der je Sekunde gefundenen Markierungen zurück.
+     * @return Markierungen je Sekunde
+     */
+    public double getStatesPerSecond() {
+        return nanos > 0 ? getStates() / (nanos / 1e9) : 0;
+    }
+}
@@ -0,0 +1,291 @@
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Simuliert ein kompiliertes Netz als stochastisches Petrinetz in kontinuierlicher Zeit. Jede
+ * aktivierte Transition (Feuerungsregel wie M_CompiledNet.isEnabled()) feuert nach einer
+ * exponentialverteilten Wartezeit mit ihrer Rate (ein Bediener je Transition).
+ * <p>
+ * Verwendet wird die Next-Reaction-Methode von Gibson und Bruck: Die nächsten
+ * Feuerungszeitpunkte aller aktivierten Transitionen liegen in einem indizierten Heap
+ * (M_IndexedHeap). Nach einer Feuerung werden nur die Transitionen an den veränderten Stellen
+ * neu bewertet: neu aktivierte erhalten einen neuen Zeitpunkt, deaktivierte werden entfernt,
+ * weiterhin aktivierte behalten ihren Zeitpunkt (Gedächtnislosigkeit). Ein Ereignis kostet so
+ * O(Grad * log n) unabhängig von der Netzgröße.
+ * <p>
+ * Aufgezeichnet werden die zeitgewichteten Mittelwerte der Markierung jeder Stelle und die
+ * Feuerungen jeder Transition. Die Simulation endet am Endzeitpunkt, bei einer Verklemmung
+ * oder an der Ereignisgrenze.
+ */
+public class M_StochasticSimulation {
+
+    private final M_CompiledNet net;
+    private final double[] rate;
+    private final M_IndexedHeap schedule;
+
+    private long seed = 1;
+    private long maxEvents = Long.MAX_VALUE;
+
+    private float[] marking;
+    private final double[] area;        // Integral der Markierung über die Zeit bis lastChange
+    private final double[] lastChange;  // Zeitpunkt der letzten Änderung je Stelle
+    private final long[] firings;
+    private final long[] stamp;         // stamp[t] == events: t in diesem Ereignis schon bewertet
+
+    private double time;
+    private long events;
+    private boolean deadlock;
+    private boolean limitReached;
+    private long nanos;
+
+    /**
+     * Bereitet die Simulation des übergebenen Netzes vor. Dessen aktuelle Markierung ist der
+     * Anfangszustand; das Netz selbst wird nicht verändert. Alle Raten sind 1.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_StochasticSimulation(M_CompiledNet net) {
+        this.net = net;
+
+        rate = new double[net.numberOfTransitions];
+        Arrays.fill(rate, 1.0);
+        schedule = new M_IndexedHeap(net.numberOfTransitions);
+
+        marking = net.getMarking().clone();
+        area = new double[net.numberOfPlaces];
+        lastChange = new double[net.numberOfPlaces];
+        firings = new long[net.numberOfTransitions];
+        stamp = new long[net.numberOfTransitions];
+    }
+
+    /**
+     * Setzt die Rate einer Transition (mittlere Feuerungen je Zeiteinheit, solange sie
+     * aktiviert ist). Eine Transition mit Rate 0 feuert nie.
+     * @param t Index der Transition
+     * @param rate Rate (mindestens 0)
+     */
+    public void setRate(int t, double rate) {
+        if((rate >= 0) == false || Double.isInfinite(rate) == true) {
+            throw new IllegalArgumentException("Rate must be finite and not negative: " + rate);
+        }
+        this.rate[t] = rate;
+    }
+
+    /**
+     * Setzt den Startwert des Zufallszahlengenerators.
+     * @param seed Startwert
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Setzt die Höchstzahl an Ereignissen (Feuerungen).
+     * @param maxEvents Ereignisgrenze
+     */
+    public void setMaxEvents(long maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Simuliert vom Anfangszustand bis zum Endzeitpunkt. Jeder Aufruf beginnt neu.
+     * @param endTime Endzeitpunkt (größer 0, auch Double.POSITIVE_INFINITY)
+     */
+    public void run(double endTime) {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        marking = net.getMarking().clone();
+        Arrays.fill(area, 0);
+        Arrays.fill(lastChange, 0);
+        Arrays.fill(firings, 0);
+        Arrays.fill(stamp, -1);
+        schedule.clear();
+        time = 0;
+        events = 0;
+        deadlock = false;
+        limitReached = false;
+
+        float[] m = marking;
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            if(rate[t] > 0 && net.isEnabled(t, m) == true) {
+                schedule.set(t, delay(random, t));
+            }
+        }
+
+        while(true) {
+            if(schedule.isEmpty() == true) {
+                deadlock = true;
+                break;
+            }
+            if(schedule.peekKey() > endTime) {
+                time = endTime;
+                break;
+            }
+            if(events >= maxEvents) {
+                limitReached = true;
+                break;
+            }
+
+            int t = schedule.peek();
+            time = schedule.peekKey();
+
+            // feuern, dabei die Flächen der veränderten Stellen fortschreiben
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                int p = net.prePlace[a];
+                advance(p);
+                m[p] = m[p] - net.preWeight[a];
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                int p = net.postPlace[a];
+                advance(p);
+                m[p] = m[p] + net.postWeight[a];
+            }
+            firings[t]++;
+
+            // t selbst und die Transitionen an den veränderten Stellen neu bewerten
+            reschedule(random, t, true);
+            update(random, t, net.prePlace, net.preStart);
+            update(random, t, net.postPlace, net.postStart);
+
+            events++;
+        }
+
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            advance(p);
+        }
+
+        nanos = System.nanoTime() - start;
+    }
+
+    /*
+     * Bewertet alle Transitionen an den Stellen der Kanten von t neu.
+     */
+    private void update(SplittableRandom random, int t, int[] arcPlace, int[] arcStart) {
+        for(int a = arcStart[t]; a < arcStart[t + 1]; a++) {
+            int p = arcPlace[a];
+            for(int i = net.adjacentStart[p]; i < net.adjacentStart[p + 1]; i++) {
+                reschedule(random, net.adjacentTransition[i], false);
+            }
+        }
+    }
+
+    /*
+     * Plant u neu ein oder entfernt u; fired: u hat gerade gefeuert und braucht, falls
+     * weiterhin aktiviert, einen neuen Zeitpunkt.
+     */
+    private void reschedule(SplittableRandom random, int u, boolean fired) {
+        if(stamp[u] == events) {
+            return;
+        }
+        stamp[u] = events;
+
+        if(rate[u] > 0 && net.isEnabled(u, marking) == true) {
+            if(fired == true || schedule.contains(u) == false) {
+                schedule.set(u, time + delay(random, u));
+            }
+        }
+        else {
+            schedule.remove(u);
+        }
+    }
+
+    private double delay(SplittableRandom random, int t) {
+        return -Math.log(1.0 - random.nextDouble()) / rate[t];
+    }
+
+    /*
+     * Schreibt die Fläche unter der Markierung von p bis zum aktuellen Zeitpunkt fort.
+     */
+    private void advance(int p) {
+        area[p] += marking[p] * (time - lastChange[p]);
+        lastChange[p] = time;
+    }
+
+    /**
+     * Gibt den zeitgewichteten Mittelwert der Markierung einer Stelle zurück.
+     * @param p Index der Stelle
+     * @return mittlere Markierung (Anfangsmarkierung, falls keine Zeit vergangen ist)
+     */
+    public double getAverage(int p) {
+        if(time <= 0) {
+            return net.getMarking()[p];
+        }
+        return area[p] / time;
+    }
+
+    /**
+     * Gibt die Anzahl der Feuerungen einer Transition zurück.
+     * @param t Index der Transition
+     * @return Feuerungen
+     */
+    public long getFirings(int t) {
+        return firings[t];
+    }
+
+    /**
+     * Gibt die mittlere Feuerungsrate (Durchsatz) einer Transition zurück.
+     * @param t Index der Transition
+     * @return Feuerungen je Zeiteinheit
+     */
+    public double getThroughput(int t) {
+        return time > 0 ? firings[t] / time : 0;
+    }
+
+    /**
+     * Gibt die Markierung am Ende der Simulation zurück.
+     * @return Markierung (Indizes wie im kompilierten Netz)
+     */
+    public float[] getMarking() {
+        return marking;
+    }
+
+    /**
+     * Gibt den erreichten Zeitpunkt zurück (bei einer Verklemmung den der letzten Feuerung).
+     * @return Simulationszeit
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Gibt die Anzahl der Ereignisse (Feuerungen) zurück.
+     * @return Ereignisse
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Testet, ob die Simulation an einer Verklemmung geendet hat.
+     * @return true, wenn keine Transition mehr aktiviert war, sonst false.
+     */
+    public boolean isDeadlock() {
+        return deadlock;
+    }
+
+    /**
+     * Testet, ob die Simulation an der Ereignisgrenze abgebrochen wurde.
+     * @return true, wenn die Ereignisgrenze erreicht wurde, sonst false.
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Gibt die Rechenzeit der letzten Simulation zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Gibt die Ereignisse je Sekunde Rechenzeit zurück.
+     * @return Ereignisse je Sekunde
+     */
+    public double getEventsPerSecond() {
+        return nanos > 0 ? events / (nanos / 1e9) : 0;
+    }
+}
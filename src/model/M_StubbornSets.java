@@ -0,0 +1,253 @@
+package model;
+
+/**
+ * Reduktion mit sturen Mengen (stubborn sets, Valmari) für die Zustandsraumerkundung. Statt
+ * aller aktivierten Transitionen einer Markierung werden nur die aktivierten Transitionen
+ * einer sturen Menge gefeuert. Alle erreichbaren Verklemmungen bleiben dabei erhalten;
+ * voneinander unabhängige Transitionen werden nicht mehr in allen Reihenfolgen erkundet.
+ * <p>
+ * Eine Menge S ist stur, wenn sie eine aktivierte Transition enthält und abgeschlossen ist:
+ * <ul>
+ * <li>mit jeder aktivierten Transition t alle Transitionen, die mit ihr in Konflikt stehen,
+ * d.h. aus einer Stelle des Vorbereichs von t entnehmen oder in eine Stelle mit endlicher
+ * Kapazität des Nachbereichs von t liefern,</li>
+ * <li>mit jeder nicht aktivierten Transition t alle Transitionen, die den Grund dafür
+ * beseitigen könnten: die Lieferanten einer Stelle, die zu wenig enthält, oder die
+ * Abnehmer einer Stelle, die zu voll ist.</li>
+ * </ul>
+ * Es wird die Menge mit den wenigsten aktivierten Transitionen gewählt, die sich von einer
+ * der aktivierten Transitionen aus ergibt.
+ * <p>
+ * Die Konfliktbeziehung wird einmalig aus den Vor- und Nachbereichen des kompilierten
+ * Netzes berechnet und von allen Kopien (je Thread eine, siehe M_StubbornSets(M_StubbornSets))
+ * gemeinsam genutzt.
+ */
+public class M_StubbornSets {
+
+    private final M_CompiledNet net;
+
+    // Transitionen, die aus Stelle p entnehmen: [consumerStart[p], consumerStart[p+1])
+    private final int[] consumerStart;
+    private final int[] consumer;
+
+    // Transitionen, die in Stelle p liefern: [producerStart[p], producerStart[p+1])
+    private final int[] producerStart;
+    private final int[] producer;
+
+    // Transitionen, die mit Transition t in Konflikt stehen: [conflictStart[t], conflictStart[t+1])
+    private final int[] conflictStart;
+    private final int[] conflict;
+
+    // Arbeitsfelder (je Kopie)
+    private final int[] mark;           // Stempel: Transition ist in der aktuellen Menge
+    private final int[] stack;
+    private final int[] members;        // aktivierte Transitionen der aktuellen Menge
+    private int stamp;
+
+    /**
+     * Berechnet die Konfliktbeziehung des übergebenen Netzes.
+     * @param net kompiliertes Netz
+     */
+    public M_StubbornSets(M_CompiledNet net) {
+        this.net = net;
+        int numberOfPlaces = net.numberOfPlaces;
+        int numberOfTransitions = net.numberOfTransitions;
+
+        consumerStart = new int[numberOfPlaces + 1];
+        consumer = new int[net.prePlace.length];
+        invert(net.preStart, net.prePlace, consumerStart, consumer);
+
+        producerStart = new int[numberOfPlaces + 1];
+        producer = new int[net.postPlace.length];
+        invert(net.postStart, net.postPlace, producerStart, producer);
+
+        mark = new int[numberOfTransitions];
+        stack = new int[numberOfTransitions];
+        members = new int[numberOfTransitions];
+
+        // Konflikte: zweimal durchlaufen (zählen, dann füllen)
+        conflictStart = new int[numberOfTransitions + 1];
+        int total = 0;
+        for(int t = 0; t < numberOfTransitions; t++) {
+            conflictStart[t] = total;
+            total += collectConflicts(t, null, 0);
+        }
+        conflictStart[numberOfTransitions] = total;
+
+        conflict = new int[total];
+        for(int t = 0; t < numberOfTransitions; t++) {
+            collectConflicts(t, conflict, conflictStart[t]);
+        }
+    }
+
+    /**
+     * Erzeugt eine Kopie mit eigenen Arbeitsfeldern für einen weiteren Thread.
+     * @param shared Vorlage, deren Konfliktbeziehung mitbenutzt wird
+     */
+    public M_StubbornSets(M_StubbornSets shared) {
+        net = shared.net;
+        consumerStart = shared.consumerStart;
+        consumer = shared.consumer;
+        producerStart = shared.producerStart;
+        producer = shared.producer;
+        conflictStart = shared.conflictStart;
+        conflict = shared.conflict;
+
+        mark = new int[net.numberOfTransitions];
+        stack = new int[net.numberOfTransitions];
+        members = new int[net.numberOfTransitions];
+    }
+
+    /*
+     * Kehrt eine Zuordnung Transition -> Stellen (CSR) in Stelle -> Transitionen um.
+     */
+    static void invert(int[] start, int[] place, int[] invertedStart, int[] inverted) {
+        int transitions = start.length - 1;
+        for(int a = 0; a < place.length; a++) {
+            invertedStart[place[a] + 1]++;
+        }
+        for(int p = 0; p + 1 < invertedStart.length; p++) {
+            invertedStart[p + 1] += invertedStart[p];
+        }
+        int[] next = invertedStart.clone();
+        for(int t = 0; t < transitions; t++) {
+            for(int a = start[t]; a < start[t + 1]; a++) {
+                inverted[next[place[a]]++] = t;
+            }
+        }
+    }
+
+    /*
+     * Sammelt die mit t in Konflikt stehenden Transitionen (jede einmal) ab out[offset]
+     * bzw. zählt sie nur, wenn out null ist.
+     */
+    private int collectConflicts(int t, int[] out, int offset) {
+        stamp++;
+        mark[t] = stamp;
+        int count = 0;
+
+        for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+            int p = net.prePlace[a];
+            for(int i = consumerStart[p]; i < consumerStart[p + 1]; i++) {
+                count = collect(consumer[i], out, offset, count);
+            }
+        }
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            if(Float.isInfinite(net.capacity[p]) == false) {
+                for(int i = producerStart[p]; i < producerStart[p + 1]; i++) {
+                    count = collect(producer[i], out, offset, count);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int collect(int t, int[] out, int offset, int count) {
+        if(mark[t] != stamp) {
+            mark[t] = stamp;
+            if(out != null) {
+                out[offset + count] = t;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Wählt die zu feuernden Transitionen der Markierung m.
+     * @param m Markierung
+     * @param enabled true für jede unter m aktivierte Transition
+     * @param enabledList die aktivierten Transitionen
+     * @param enabledCount Anzahl der aktivierten Transitionen (mindestens 1)
+     * @param out Zielfeld für die zu feuernden Transitionen
+     * @return Anzahl der zu feuernden Transitionen
+     */
+    public int reduce(float[] m, boolean[] enabled, int[] enabledList, int enabledCount, int[] out) {
+        int best = enabledCount;
+        System.arraycopy(enabledList, 0, out, 0, enabledCount);
+
+        for(int i = 0; i < enabledCount && best > 1; i++) {
+            int size = closure(enabledList[i], m, enabled, best);
+            if(size >= 0) {
+                best = size;
+                System.arraycopy(members, 0, out, 0, size);
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Bildet die sture Menge zur Transition seed und legt ihre aktivierten Transitionen in
+     * members ab.
+     * @return Anzahl der aktivierten Transitionen oder -1, wenn es nicht weniger als limit sind
+     */
+    private int closure(int seed, float[] m, boolean[] enabled, int limit) {
+        stamp++;
+        int top = 0;
+        int size = 0;
+
+        mark[seed] = stamp;
+        stack[top++] = seed;
+
+        while(top > 0) {
+            int t = stack[--top];
+
+            if(enabled[t] == true) {
+                if(size + 1 >= limit) {
+                    return -1;
+                }
+                members[size++] = t;
+                for(int i = conflictStart[t]; i < conflictStart[t + 1]; i++) {
+                    top = push(conflict[i], top);
+                }
+            }
+            else {
+                top = pushScapegoat(t, m, top);
+            }
+        }
+        return size;
+    }
+
+    /*
+     * Nimmt für die nicht aktivierte Transition t die Transitionen auf, die den Grund
+     * beseitigen könnten. Von mehreren Gründen wird der mit den wenigsten Transitionen gewählt.
+     */
+    private int pushScapegoat(int t, float[] m, int top) {
+        int bestStart = 0;
+        int bestEnd = -1;
+        int[] bestList = null;
+
+        for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+            int p = net.prePlace[a];
+            if((m[p] >= net.preWeight[a]) == false
+                    && (bestList == null || producerStart[p + 1] - producerStart[p] < bestEnd - bestStart)) {
+                bestList = producer;
+                bestStart = producerStart[p];
+                bestEnd = producerStart[p + 1];
+            }
+        }
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            if(((net.capacity[p] - m[p]) >= net.postWeight[a]) == false
+                    && (bestList == null || consumerStart[p + 1] - consumerStart[p] < bestEnd - bestStart)) {
+                bestList = consumer;
+                bestStart = consumerStart[p];
+                bestEnd = consumerStart[p + 1];
+            }
+        }
+
+        for(int i = bestStart; i < bestEnd; i++) {
+            top = push(bestList[i], top);
+        }
+        return top;
+    }
+
+    private int push(int t, int top) {
+        if(mark[t] != stamp) {
+            mark[t] = stamp;
+            stack[top++] = t;
+        }
+        return top;
+    }
+}
@@ -0,0 +1,377 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parameterstudie über Kantengewichte und Kapazitäten eines kompilierten Netzes. Aus den
+ * Bereichen der Parameter (M_SweepParameter) wird ein Versuchsplan erzeugt, entweder als
+ * vollständiges Gitter oder als Latin Hypercube (jeder Parameterbereich wird in so viele
+ * Schichten geteilt, wie es Punkte gibt, und jede Schicht genau einmal belegt).
+ * <p>
+ * Jeder Versuchspunkt wird auf einer Kopie des Netzes berechnet, die die Struktur teilt und nur
+ * Gewichte, Kapazitäten und Markierung neu bindet (M_CompiledNet.copyWithSharedStructure()).
+ * Die Punkte werden parallel auf einem ForkJoinPool ausgeführt, jeder mit
+ * M_CompiledNet.makeStep() bis zur Verklemmung, bis zu einem Livelock, bis zur Höchstzahl an
+ * Schritten oder bis zur Höchstzahl an Runden. Je Punkt werden Schritte, Runden, Verklemmung,
+ * Livelock, Blockade durch eine Kapazität und die an den Ausgabestellen angekommenen Teile
+ * festgehalten.
+ */
+public class M_Sweep {
+
+    // so viele Punkte berechnet eine Teilaufgabe ohne weitere Teilung
+    static final int SPLIT_THRESHOLD = 2;
+
+    // größte Anzahl an Punkten eines Versuchsplans
+    static final int MAX_POINTS = 10000000;
+
+    private final M_CompiledNet net;
+    private final ArrayList<M_SweepParameter> parameters = new ArrayList<M_SweepParameter>();
+
+    private long maxSteps = 100000;
+    private long maxRounds = 10000000;
+
+    private double[][] design;
+    private long[] steps;
+    private long[] rounds;
+    private boolean[] deadlock;
+    private boolean[] livelock;
+    private boolean[] capacityBlocked;
+    private double[] delivered;
+    private long nanos;
+
+    /**
+     * Bereitet eine Parameterstudie über das übergebene Netz vor. Dessen aktuelle Markierung,
+     * Gewichte und Kapazitäten sind der Ausgangspunkt jedes Versuchspunkts; das Netz selbst wird
+     * nicht verändert.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_Sweep(M_CompiledNet net) {
+        this.net = net;
+    }
+
+    /**
+     * Fügt einen Parameter hinzu.
+     * @param parameter Parameter
+     */
+    public void addParameter(M_SweepParameter parameter) {
+        parameters.add(parameter);
+    }
+
+    /**
+     * Gibt die Anzahl der Parameter zurück.
+     * @return Anzahl der Parameter
+     */
+    public int getNumberOfParameters() {
+        return parameters.size();
+    }
+
+    /**
+     * Gibt einen Parameter zurück.
+     * @param k Index des Parameters
+     * @return Parameter
+     */
+    public M_SweepParameter getParameter(int k) {
+        return parameters.get(k);
+    }
+
+    /**
+     * Setzt die Höchstzahl an Schritten je Punkt.
+     * @param maxSteps Schrittgrenze
+     */
+    public void setMaxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Setzt die Höchstzahl an Runden je Punkt (über alle Schritte).
+     * @param maxRounds Rundengrenze
+     */
+    public void setMaxRounds(long maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Erzeugt ein vollständiges Gitter: jeder Parameter nimmt levels gleichmäßig verteilte Werte
+     * seines Bereichs an (ganzzahlige Bereiche höchstens so viele, wie sie ganze Zahlen
+     * enthalten).
+     * @param levels Werte je Parameter (mindestens 1)
+     * @return Versuchsplan [Punkt][Parameter]
+     */
+    public double[][] gridDesign(int levels) {
+        int n = parameters.size();
+        double[][] values = new double[n][];
+        long points = 1;
+
+        for(int k = 0; k < n; k++) {
+            M_SweepParameter parameter = parameters.get(k);
+            int count = levels;
+            if(parameter.isIntegral() == true) {
+                count = (int) Math.min(count, parameter.getHigh() - parameter.getLow() + 1);
+            }
+            values[k] = new double[count];
+            for(int i = 0; i < count; i++) {
+                values[k][i] = parameter.valueAt(count > 1 ? (double) i / (count - 1) : 0);
+            }
+            points *= count;
+            if(points > MAX_POINTS) {
+                throw new IllegalArgumentException("Grid has more than " + MAX_POINTS + " points");
+            }
+        }
+
+        double[][] grid = new double[(int) points][n];
+        for(int point = 0; point < points; point++) {
+            // Punktnummer als gemischte Zahl lesen, der letzte Parameter läuft am schnellsten
+            int rest = point;
+            for(int k = n - 1; k >= 0; k--) {
+                grid[point][k] = values[k][rest % values[k].length];
+                rest /= values[k].length;
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Erzeugt einen Latin Hypercube: der Bereich jedes Parameters wird in points Schichten
+     * geteilt, jede Schicht wird von genau einem Punkt an einer zufälligen Stelle belegt, und die
+     * Schichten der Parameter werden zufällig kombiniert.
+     * @param points Anzahl der Punkte (mindestens 1)
+     * @param seed Startwert des Zufallszahlengenerators
+     * @return Versuchsplan [Punkt][Parameter]
+     */
+    public double[][] latinHypercube(int points, long seed) {
+        if(points < 1 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("Number of points must be between 1 and " + MAX_POINTS);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = parameters.size();
+        double[][] cube = new double[points][n];
+        int[] stratum = new int[points];
+
+        for(int k = 0; k < n; k++) {
+            for(int i = 0; i < points; i++) {
+                stratum[i] = i;
+            }
+            for(int i = points - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = stratum[i];
+                stratum[i] = stratum[j];
+                stratum[j] = swap;
+            }
+            for(int i = 0; i < points; i++) {
+                cube[i][k] = parameters.get(k).valueAt((stratum[i] + random.nextDouble()) / points);
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * Berechnet alle Punkte eines Versuchsplans.
+     * @param design Versuchsplan [Punkt][Parameter] (z.B. von gridDesign() oder latinHypercube())
+     * @param pool ForkJoinPool für die Berechnung
+     */
+    public void run(double[][] design, ForkJoinPool pool) {
+        long start = System.nanoTime();
+
+        this.design = design;
+        steps = new long[design.length];
+        rounds = new long[design.length];
+        deadlock = new boolean[design.length];
+        livelock = new boolean[design.length];
+        capacityBlocked = new boolean[design.length];
+        delivered = new double[design.length];
+
+        pool.invoke(new PointTask(0, design.length));
+
+        nanos = System.nanoTime() - start;
+    }
+
+    /*
+     * Bindet die Parameter von Punkt i an eine Kopie des Netzes und führt sie aus.
+     */
+    private void evaluate(int i) {
+        M_CompiledNet copy = net.copyWithSharedStructure();
+        for(int k = 0; k < parameters.size(); k++) {
+            parameters.get(k).apply(copy, design[i][k]);
+        }
+
+        // die Rundengrenze des Punkts wird über die Rundengrenze je Schritt eingehalten
+        M_LivelockGuard guard = copy.getLivelockGuard();
+        long roundsPerStep = guard.getMaxRounds();
+
+        float[] m = copy.marking;
+        long step = 0;
+        long round = 0;
+        boolean stuck = false;
+        boolean cycling = false;
+
+        while(step < maxSteps && round < maxRounds) {
+            // gilt die Grenze je Schritt, ist ein Überschreiten ein Livelock des Schritts
+            boolean stepLimit = roundsPerStep <= maxRounds - round;
+            guard.setMaxRounds(stepLimit == true ? roundsPerStep : maxRounds - round);
+
+            boolean stepDone = copy.makeStep();
+
+            // der Wächter zählt die Runde nicht mit, in der der Schritt erfolgreich oder
+            // verklemmt endet
+            round += guard.getRounds() + (guard.isLivelock() == true ? 0 : 1);
+
+            if(stepDone == true) {
+                step++;
+            }
+            else if(guard.isLivelock() == false) {
+                stuck = true;
+                break;
+            }
+            else {
+                // Rundengrenze des Punkts oder Livelock des Schritts
+                cycling = guard.isBudgetExceeded() == false || stepLimit == true;
+                break;
+            }
+        }
+
+        double out = 0;
+        float[] initial = net.marking;
+        for(int p = 0; p < copy.numberOfPlaces; p++) {
+            if(copy.isOutput[p] == true) {
+                out += m[p] - initial[p];
+            }
+        }
+
+        boolean blocked = false;
+        if(stuck == true) {
+            for(int t = 0; t < copy.numberOfTransitions && blocked == false; t++) {
+                blocked = copy.isBlockedByCapacity(t, m);
+            }
+        }
+
+        steps[i] = step;
+        rounds[i] = round;
+        deadlock[i] = stuck;
+        livelock[i] = cycling;
+        capacityBlocked[i] = blocked;
+        delivered[i] = out;
+    }
+
+    /**
+     * Gibt die Anzahl der berechneten Punkte zurück.
+     * @return Anzahl der Punkte
+     */
+    public int getNumberOfPoints() {
+        return design == null ? 0 : design.length;
+    }
+
+    /**
+     * Gibt den Wert eines Parameters an einem Punkt zurück.
+     * @param i Index des Punkts
+     * @param k Index des Parameters
+     * @return Wert
+     */
+    public double getValue(int i, int k) {
+        return design[i][k];
+    }
+
+    /**
+     * Gibt die ausgeführten Schritte eines Punkts zurück.
+     * @param i Index des Punkts
+     * @return Schritte
+     */
+    public long getSteps(int i) {
+        return steps[i];
+    }
+
+    /**
+     * Gibt die ausgeführten Runden eines Punkts zurück.
+     * @param i Index des Punkts
+     * @return Runden
+     */
+    public long getRounds(int i) {
+        return rounds[i];
+    }
+
+    /**
+     * Testet, ob ein Punkt in einer Verklemmung geendet hat.
+     * @param i Index des Punkts
+     * @return true bei Verklemmung, false bei Livelock, Schritt- oder Rundengrenze.
+     */
+    public boolean isDeadlock(int i) {
+        return deadlock[i];
+    }
+
+    /**
+     * Testet, ob ein Punkt in einem Livelock geendet hat: ein Schritt hat eine Markierung
+     * wiederholt oder die Rundengrenze je Schritt (M_LivelockGuard) erreicht.
+     * @param i Index des Punkts
+     * @return true bei Livelock, false bei Verklemmung, Schritt- oder Rundengrenze.
+     */
+    public boolean isLivelock(int i) {
+        return livelock[i];
+    }
+
+    /**
+     * Testet, ob bei der Verklemmung eines Punkts eine Transition nur durch eine Kapazität
+     * blockiert war.
+     * @param i Index des Punkts
+     * @return true, wenn eine Kapazität die Verklemmung mit verursacht, sonst false.
+     */
+    public boolean isCapacityBlocked(int i) {
+        return capacityBlocked[i];
+    }
+
+    /**
+     * Gibt die an allen Ausgabestellen angekommenen Teile eines Punkts zurück.
+     * @param i Index des Punkts
+     * @return angekommene Teile
+     */
+    public double getDelivered(int i) {
+        return delivered[i];
+    }
+
+    /**
+     * Gibt den Durchsatz eines Punkts zurück.
+     * @param i Index des Punkts
+     * @return angekommene Teile je Runde
+     */
+    public double getThroughput(int i) {
+        return rounds[i] > 0 ? delivered[i] / rounds[i] : 0;
+    }
+
+    /**
+     * Gibt die Rechenzeit der letzten Studie zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /*
+     * Teilt einen Bereich von Punkten rekursiv auf und berechnet die Teile parallel.
+     */
+    private class PointTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        PointTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if(to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PointTask(from, middle), new PointTask(middle, to));
+                return;
+            }
+
+            for(int i = from; i < to; i++) {
+                evaluate(i);
+            }
+        }
+    }
+}
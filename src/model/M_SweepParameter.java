@@ -0,0 +1,108 @@
+package model;
+
+/**
+ * Ein Parameter einer Parameterstudie (M_Sweep): ein Kantengewicht oder eine Kapazität des
+ * kompilierten Netzes mit dem Bereich, aus dem die Versuchspunkte ihre Werte wählen. Sind beide
+ * Grenzen ganzzahlig, werden die Werte auf ganze Zahlen gerundet (Teile sind meist ganzzahlig).
+ */
+public class M_SweepParameter {
+
+    private final ME_SweepTarget target;
+    private final int element;      // Index der Transition bzw. Stelle
+    private final int arc;          // Index des Ein- bzw. Ausgangs (nur Gewichte)
+    private final String name;
+    private final double low;
+    private final double high;
+    private final boolean integral;
+
+    /**
+     * Erzeugt einen Parameter.
+     * @param target Art des Parameters
+     * @param element Index der Transition (Gewichte) bzw. der Stelle (Kapazität)
+     * @param arc Index des Ein- bzw. Ausgangs der Transition (bei Kapazitäten ohne Bedeutung)
+     * @param name Name für Ausgaben (z.B. "T3.wx1")
+     * @param low untere Grenze
+     * @param high obere Grenze (mindestens low)
+     */
+    public M_SweepParameter(ME_SweepTarget target, int element, int arc, String name, double low, double high) {
+        if((low <= high) == false || low < 0 || Double.isInfinite(high) == true) {
+            throw new IllegalArgumentException("Invalid range for " + name + ": " + low + " .. " + high);
+        }
+        this.target = target;
+        this.element = element;
+        this.arc = arc;
+        this.name = name;
+        this.low = low;
+        this.high = high;
+        integral = low == Math.rint(low) && high == Math.rint(high);
+    }
+
+    /**
+     * Gibt den Wert zu einem Anteil des Bereichs zurück.
+     * @param fraction Anteil zwischen 0 (untere Grenze) und 1 (obere Grenze)
+     * @return Wert, bei ganzzahligen Grenzen gerundet
+     */
+    public double valueAt(double fraction) {
+        double value = low + fraction * (high - low);
+        return integral == true ? Math.rint(value) : value;
+    }
+
+    /**
+     * Setzt den Parameter im übergebenen Netz auf einen Wert.
+     * @param net kompiliertes Netz (eine Kopie, siehe M_CompiledNet.copyWithSharedStructure())
+     * @param value neuer Wert
+     */
+    public void apply(M_CompiledNet net, double value) {
+        switch(target) {
+        case INPUT_WEIGHT:
+            net.setInputWeight(element, arc, (float) value);
+            break;
+        case OUTPUT_WEIGHT:
+            net.setOutputWeight(element, arc, (float) value);
+            break;
+        default:
+            net.setCapacity(element, (float) value);
+            break;
+        }
+    }
+
+    /**
+     * Testet, ob der Parameter nur ganzzahlige Werte annimmt.
+     * @return true, wenn beide Grenzen ganzzahlig sind, sonst false.
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * Gibt die Art des Parameters zurück.
+     * @return Art
+     */
+    public ME_SweepTarget getTarget() {
+        return target;
+    }
+
+    /**
+     * Gibt den Namen des Parameters zurück.
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gibt die untere Grenze zurück.
+     * @return untere Grenze
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * Gibt die obere Grenze zurück.
+     * @return obere Grenze
+     */
+    public double getHigh() {
+        return high;
+    }
+}
@@ -0,0 +1,731 @@
+package model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Symbolische Erkundung des Zustandsraums eines kompilierten Netzes mit
+ * Entscheidungsdiagrammen (MDD, multi-valued decision diagrams) und Saturierung (Ciardo).
+ * <p>
+ * Jede Stelle ist eine Ebene des Diagramms, ihr Wertebereich 0..Schranke ergibt sich aus
+ * der Kapazität (Allgemeine Stellen und Ausgabestellen), dem Anfangswert (Eingabestellen
+ * und Stellen, die nie etwas erhalten) oder, für unbegrenzte Stellen und Stellen mit
+ * Kapazität ab MAX_DOMAIN, aus setDefaultBound(). Die Ebenen werden in der Reihenfolge
+ * geordnet, in der die Stellen beim Durchlaufen der Transitionen zuerst auftreten, damit
+ * verbundene Stellen benachbart liegen.
+ * <p>
+ * Jede Transition wirkt nur auf die Ebenen ihrer Stellen (Kronecker-Darstellung: je Ebene
+ * eine lokale Abbildung Wert -> Folgewert, -1 = nicht aktiviert) und wird der obersten
+ * dieser Ebenen zugeordnet. Die Saturierung feuert die Transitionen einer Ebene erst, wenn
+ * alle darunterliegenden Knoten saturiert sind, und zwar bis zum Fixpunkt. Das Diagramm ist
+ * quasi-reduziert (jeder Pfad durchläuft alle Ebenen), Knoten werden über eine
+ * Unique-Tabelle geteilt; Operationen werden in verlustbehafteten Caches gemerkt.
+ * <p>
+ * Verklemmungen sind die erreichbaren Markierungen ohne aktivierte Transition; sie werden
+ * als Differenz der erreichbaren Menge und der Vereinigung der Aktivierungsmengen berechnet.
+ * <p>
+ * Voraussetzung sind ganzzahlige Gewichte und Anfangswerte. Würde eine erreichbare
+ * Markierung die Schranke einer Stelle überschreiten, ist das Ergebnis unvollständig
+ * (Status UNBOUNDED).
+ */
+public class M_SymbolicStateSpace {
+
+    // Stapelgröße des Berechnungs-Threads (die Operationen sind rekursiv über die Ebenen)
+    static final long STACK_SIZE = 1L << 30;
+
+    // Größe der Caches (Zweierpotenz)
+    static final int CACHE_SIZE = 1 << 21;
+
+    // höchste Schranke einer Stelle
+    static final int MAX_DOMAIN = 1 << 16;
+
+    // lokale Abbildung: aktiviert, aber Folgewert überschreitet die Schranke
+    static final int OVERFLOW = -2;
+
+    // Knoten 0: leere Menge, Knoten 1: Terminal (Menge mit dem leeren Pfad)
+    static final int EMPTY = 0;
+    static final int ONE = 1;
+
+    private final M_CompiledNet net;
+    private int defaultBound = -1;
+
+    // Ebenen 1..levels; Ebene k gehört zu Stelle placeOfLevel[k]
+    private int levels;
+    private int[] placeOfLevel;
+    private int[] domain;               // Wertebereich je Ebene (Schranke + 1)
+
+    // Transitionen: lokale Abbildungen je Ebene (null = unverändert), oberste/unterste Ebene
+    private int[][][] local;
+    private int[] top;
+    private int[] bottom;
+    private int[][] eventsAtLevel;      // Transitionen je oberster Ebene
+    private boolean alwaysEnabled;      // eine Transition ohne Stellen ist immer aktiviert
+
+    // Knoten: Ebene und Beginn der Kinder im Pool
+    private int[] nodeLevel = new int[1 << 16];
+    private int[] nodeStart = new int[1 << 16];
+    private int nodeCount;
+    private int[] pool = new int[1 << 20];
+    private int poolSize;
+
+    // Unique-Tabelle (offene Adressierung, 0 = frei)
+    private int[] unique = new int[1 << 16];
+    private int uniqueSize;
+
+    // Caches (verlustbehaftet)
+    private final long[] unionKey = new long[CACHE_SIZE];
+    private final int[] unionValue = new int[CACHE_SIZE];
+    private final long[] fireKey = new long[CACHE_SIZE];
+    private final int[] fireValue = new int[CACHE_SIZE];
+    private final long[] minusKey = new long[CACHE_SIZE];
+    private final int[] minusValue = new int[CACHE_SIZE];
+    private final int[] saturateKey = new int[CACHE_SIZE];
+    private final int[] saturateValue = new int[CACHE_SIZE];
+
+    private boolean overflow;
+    private volatile boolean cancelled;
+
+    private ME_ExplorationStatus status;
+    private int reachable;
+    private int deadlockSet;
+    private BigInteger states;
+    private BigInteger deadlocks;
+    private long nanos;
+
+    /**
+     * Bereitet die symbolische Erkundung des übergebenen Netzes vor. Dessen aktuelle
+     * Markierung ist die Anfangsmarkierung.
+     * @param net kompiliertes Netz (z.B. Logic.compileSnapshot())
+     */
+    public M_SymbolicStateSpace(M_CompiledNet net) {
+        this.net = net;
+    }
+
+    /**
+     * Setzt die Schranke für Stellen, die etwas erhalten können und keine (oder eine zu
+     * große) Kapazitätsgrenze haben. Ohne Angabe werden solche Netze abgelehnt.
+     * @param bound Schranke (höchste Anzahl an Teilen)
+     */
+    public void setDefaultBound(int bound) {
+        defaultBound = bound;
+    }
+
+    /**
+     * Bricht eine laufende Erkundung (aus einem anderen Thread) ab.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Erkundet den Zustandsraum symbolisch. Die Berechnung läuft (wegen der Rekursion
+     * über die Ebenen) in einem eigenen Thread mit großem Stapel.
+     * @return Ergebnis der Erkundung
+     * @throws IllegalArgumentException Netz nicht ganzzahlig oder Stelle ohne Schranke
+     */
+    public ME_ExplorationStatus explore() {
+        if(new M_MarkingCodec(net).isIntegral() == false) {
+            throw new IllegalArgumentException("Symbolic exploration needs integral weights and markings.");
+        }
+        prepare();
+
+        final RuntimeException[] failure = new RuntimeException[1];
+        Thread worker = new Thread(null, new Runnable() {
+            public void run() {
+                try {
+                    compute();
+                }
+                catch(RuntimeException e) {
+                    failure[0] = e;
+                }
+            }
+        }, "M_SymbolicStateSpace", STACK_SIZE);
+
+        worker.start();
+        try {
+            worker.join();
+        }
+        catch(InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+        }
+
+        if(failure[0] instanceof Cancelled) {
+            status = ME_ExplorationStatus.CANCELLED;
+        }
+        else if(failure[0] != null) {
+            throw failure[0];
+        }
+        return status;
+    }
+
+    /*
+     * Abbruch der Berechnung (cancel()).
+     */
+    private static final class Cancelled extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /*
+     * Legt Ebenen, Wertebereiche und lokale Abbildungen fest.
+     */
+    private void prepare() {
+        int numberOfPlaces = net.numberOfPlaces;
+        int numberOfTransitions = net.numberOfTransitions;
+
+        // Reihenfolge: erstes Auftreten beim Durchlaufen der Transitionen (oben beginnend)
+        levels = numberOfPlaces;
+        placeOfLevel = new int[levels + 1];
+        int[] levelOfPlace = new int[numberOfPlaces];
+        int next = levels;
+        for(int t = 0; t < numberOfTransitions; t++) {
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                next = assignLevel(net.prePlace[a], levelOfPlace, next);
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                next = assignLevel(net.postPlace[a], levelOfPlace, next);
+            }
+        }
+        for(int p = 0; p < numberOfPlaces; p++) {
+            next = assignLevel(p, levelOfPlace, next);
+        }
+
+        // Schranken
+        boolean[] receives = new boolean[numberOfPlaces];
+        for(int a = 0; a < net.postPlace.length; a++) {
+            receives[net.postPlace[a]] = true;
+        }
+        domain = new int[levels + 1];
+        for(int k = 1; k <= levels; k++) {
+            int p = placeOfLevel[k];
+            double bound;
+            if(receives[p] == false) {
+                bound = net.marking[p];
+            }
+            else {
+                bound = Math.max(Math.floor(net.capacity[p]), net.marking[p]);
+                if(bound >= MAX_DOMAIN && defaultBound >= 0) {
+                    bound = Math.max(defaultBound, net.marking[p]);
+                }
+            }
+            if(bound >= MAX_DOMAIN) {
+                throw new IllegalArgumentException("Place " + (p + 1) + " has no usable capacity (max. " + (MAX_DOMAIN - 1) + "); a default bound is needed.");
+            }
+            domain[k] = (int) bound + 1;
+        }
+
+        // lokale Abbildungen
+        local = new int[numberOfTransitions][][];
+        top = new int[numberOfTransitions];
+        bottom = new int[numberOfTransitions];
+        int[] eventCount = new int[levels + 1];
+
+        for(int t = 0; t < numberOfTransitions; t++) {
+            local[t] = new int[levels + 1][];
+            top[t] = 0;
+            bottom[t] = levels + 1;
+
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                touch(t, levelOfPlace[net.prePlace[a]]);
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                touch(t, levelOfPlace[net.postPlace[a]]);
+            }
+
+            if(top[t] == 0) {
+                alwaysEnabled = true;
+                continue;
+            }
+            eventCount[top[t]]++;
+
+            for(int k = bottom[t]; k <= top[t]; k++) {
+                if(local[t][k] != null) {
+                    buildLocal(t, k);
+                }
+            }
+        }
+
+        eventsAtLevel = new int[levels + 1][];
+        for(int k = 0; k <= levels; k++) {
+            eventsAtLevel[k] = new int[eventCount[k]];
+            eventCount[k] = 0;
+        }
+        for(int t = 0; t < numberOfTransitions; t++) {
+            if(top[t] > 0) {
+                eventsAtLevel[top[t]][eventCount[top[t]]++] = t;
+            }
+        }
+
+        Arrays.fill(unionKey, -1);
+        Arrays.fill(fireKey, -1);
+        Arrays.fill(minusKey, -1);
+        Arrays.fill(saturateKey, -1);
+
+        // Knoten eines früheren Aufrufs von explore() verwerfen
+        nodeCount = 2;
+        poolSize = 0;
+        Arrays.fill(unique, 0);
+        uniqueSize = 0;
+    }
+
+    private int assignLevel(int p, int[] levelOfPlace, int next) {
+        if(levelOfPlace[p] == 0) {
+            levelOfPlace[p] = next;
+            placeOfLevel[next] = p;
+            next--;
+        }
+        return next;
+    }
+
+    private void touch(int t, int k) {
+        if(local[t][k] == null) {
+            local[t][k] = new int[0];
+        }
+        top[t] = Math.max(top[t], k);
+        bottom[t] = Math.min(bottom[t], k);
+    }
+
+    /*
+     * Berechnet die lokale Abbildung der Transition t auf Ebene k (Feuerungsregel wie
+     * M_CompiledNet.isEnabled(): jede Kante einzeln geprüft).
+     */
+    private void buildLocal(int t, int k) {
+        int p = placeOfLevel[k];
+        int[] map = new int[domain[k]];
+
+        for(int value = 0; value < domain[k]; value++) {
+            boolean enabled = true;
+            double result = value;
+
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                if(net.prePlace[a] == p) {
+                    enabled &= value >= net.preWeight[a];
+                    result -= net.preWeight[a];
+                }
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                if(net.postPlace[a] == p) {
+                    enabled &= (net.capacity[p] - value) >= net.postWeight[a];
+                    result += net.postWeight[a];
+                }
+            }
+
+            if(enabled == false) {
+                map[value] = -1;
+            }
+            else if(result < 0 || result >= domain[k]) {
+                map[value] = OVERFLOW;
+            }
+            else {
+                map[value] = (int) result;
+            }
+        }
+        local[t][k] = map;
+    }
+
+    /*
+     * Berechnet erreichbare Menge und Verklemmungen.
+     */
+    private void compute() {
+        long start = System.nanoTime();
+
+        // Anfangsmarkierung als Pfad
+        int initial = ONE;
+        for(int k = 1; k <= levels; k++) {
+            int[] children = new int[domain[k]];
+            children[(int) net.marking[placeOfLevel[k]]] = initial;
+            initial = checkIn(k, children);
+        }
+
+        reachable = saturate(initial, levels);
+
+        // Verklemmungen: erreichbar und keine Transition aktiviert
+        if(alwaysEnabled == true) {
+            deadlockSet = EMPTY;
+        }
+        else {
+            int enabled = EMPTY;
+            for(int t = 0; t < net.numberOfTransitions; t++) {
+                if(top[t] > 0) {
+                    enabled = union(enabled, enabledCube(t));
+                }
+            }
+            deadlockSet = minus(reachable, enabled);
+        }
+
+        states = count(reachable);
+        deadlocks = count(deadlockSet);
+        status = overflow == true ? ME_ExplorationStatus.UNBOUNDED : ME_ExplorationStatus.COMPLETE;
+        nanos = System.nanoTime() - start;
+    }
+
+    /*
+     * Saturiert den Knoten p der Ebene k.
+     */
+    private int saturate(int p, int k) {
+        if(k == 0 || p == EMPTY) {
+            return p;
+        }
+        int slot = (int) (M_MarkingCodec.mix(p) & (CACHE_SIZE - 1));
+        if(saturateKey[slot] == p) {
+            return saturateValue[slot];
+        }
+
+        int[] children = new int[domain[k]];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = saturate(child(p, i), k - 1);
+        }
+        saturateNode(k, children);
+        int result = checkIn(k, children);
+
+        saturateKey[slot] = p;
+        saturateValue[slot] = result;
+        return result;
+    }
+
+    /*
+     * Feuert alle Transitionen der Ebene k auf dem (noch veränderbaren) Knoten children
+     * bis zum Fixpunkt. Die Kinder müssen saturiert sein.
+     */
+    private void saturateNode(int k, int[] children) {
+        int[] events = eventsAtLevel[k];
+        boolean changed = true;
+
+        while(changed == true) {
+            if(cancelled == true) {
+                throw new Cancelled();
+            }
+            changed = false;
+
+            for(int e = 0; e < events.length; e++) {
+                int t = events[e];
+                int[] map = local[t][k];
+
+                for(int i = 0; i < children.length; i++) {
+                    if(children[i] == EMPTY || map[i] == -1) {
+                        continue;
+                    }
+                    int f = fire(children[i], t, k - 1);
+                    if(f == EMPTY) {
+                        continue;
+                    }
+                    if(map[i] == OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    int j = map[i];
+                    int u = union(children[j], f);
+                    if(u != children[j]) {
+                        children[j] = u;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Feuert Transition t auf dem saturierten Knoten p der Ebene k (Ebenen unterhalb der
+     * obersten Ebene von t) und saturiert das Ergebnis.
+     */
+    private int fire(int p, int t, int k) {
+        if(p == EMPTY || k < bottom[t]) {
+            return p;
+        }
+        long key = ((long) p << 32) | t;
+        int slot = (int) (M_MarkingCodec.mix(key) & (CACHE_SIZE - 1));
+        if(fireKey[slot] == key) {
+            return fireValue[slot];
+        }
+
+        int[] map = local[t][k];
+        int[] children = new int[domain[k]];
+        boolean any = false;
+
+        for(int i = 0; i < children.length; i++) {
+            int c = child(p, i);
+            if(c == EMPTY || (map != null && map[i] == -1)) {
+                continue;
+            }
+            int f = fire(c, t, k - 1);
+            if(f == EMPTY) {
+                continue;
+            }
+            if(map != null && map[i] == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            int j = map == null ? i : map[i];
+            children[j] = union(children[j], f);
+            any = true;
+        }
+
+        int result = EMPTY;
+        if(any == true) {
+            saturateNode(k, children);
+            result = checkIn(k, children);
+        }
+
+        fireKey[slot] = key;
+        fireValue[slot] = result;
+        return result;
+    }
+
+    /*
+     * Vereinigung zweier Knoten derselben Ebene.
+     */
+    private int union(int p, int q) {
+        if(p == EMPTY || p == q) {
+            return q;
+        }
+        if(q == EMPTY) {
+            return p;
+        }
+        if(p > q) {
+            int swap = p;
+            p = q;
+            q = swap;
+        }
+        long key = ((long) p << 32) | q;
+        int slot = (int) (M_MarkingCodec.mix(key) & (CACHE_SIZE - 1));
+        if(unionKey[slot] == key) {
+            return unionValue[slot];
+        }
+
+        int k = nodeLevel[p];
+        int[] children = new int[domain[k]];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = union(child(p, i), child(q, i));
+        }
+        int result = checkIn(k, children);
+
+        unionKey[slot] = key;
+        unionValue[slot] = result;
+        return result;
+    }
+
+    /*
+     * Differenz zweier Knoten derselben Ebene.
+     */
+    private int minus(int p, int q) {
+        if(p == EMPTY || p == q) {
+            return EMPTY;
+        }
+        if(q == EMPTY) {
+            return p;
+        }
+        long key = ((long) p << 32) | q;
+        int slot = (int) (M_MarkingCodec.mix(key) & (CACHE_SIZE - 1));
+        if(minusKey[slot] == key) {
+            return minusValue[slot];
+        }
+
+        int k = nodeLevel[p];
+        int[] children = new int[domain[k]];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = minus(child(p, i), child(q, i));
+        }
+        int result = checkIn(k, children);
+
+        minusKey[slot] = key;
+        minusValue[slot] = result;
+        return result;
+    }
+
+    /*
+     * Menge aller Markierungen (des Wertebereichs), unter denen Transition t aktiviert ist.
+     */
+    private int enabledCube(int t) {
+        int cube = ONE;
+        for(int k = 1; k <= levels; k++) {
+            int[] map = local[t][k];
+            int[] children = new int[domain[k]];
+            for(int i = 0; i < children.length; i++) {
+                if(map == null || map[i] != -1) {
+                    children[i] = cube;
+                }
+            }
+            cube = checkIn(k, children);
+        }
+        return cube;
+    }
+
+    /*
+     * Zählt die Pfade (Markierungen) unterhalb des Knotens p.
+     */
+    private BigInteger count(int p) {
+        BigInteger[] memo = new BigInteger[nodeCount];
+        memo[EMPTY] = BigInteger.ZERO;
+        memo[ONE] = BigInteger.ONE;
+        return count(p, memo);
+    }
+
+    private BigInteger count(int p, BigInteger[] memo) {
+        if(memo[p] != null) {
+            return memo[p];
+        }
+        BigInteger sum = BigInteger.ZERO;
+        for(int i = 0; i < domain[nodeLevel[p]]; i++) {
+            int c = child(p, i);
+            if(c != EMPTY) {
+                sum = sum.add(count(c, memo));
+            }
+        }
+        memo[p] = sum;
+        return sum;
+    }
+
+    private int child(int p, int i) {
+        return pool[nodeStart[p] + i];
+    }
+
+    /*
+     * Gibt den (eindeutigen) Knoten der Ebene k mit den übergebenen Kindern zurück und legt
+     * ihn bei Bedarf an. Knoten ohne Kinder sind die leere Menge.
+     */
+    private int checkIn(int k, int[] children) {
+        int hash = k;
+        boolean empty = true;
+        for(int i = 0; i < children.length; i++) {
+            hash = hash * 31 + children[i];
+            if(children[i] != EMPTY) {
+                empty = false;
+            }
+        }
+        if(empty == true) {
+            return EMPTY;
+        }
+
+        int mask = unique.length - 1;
+        int slot = (int) (M_MarkingCodec.mix(hash) & mask);
+        while(unique[slot] != 0) {
+            int node = unique[slot];
+            if(nodeLevel[node] == k && sameChildren(node, children) == true) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // neuen Knoten anlegen
+        if(nodeCount == nodeLevel.length) {
+            nodeLevel = Arrays.copyOf(nodeLevel, nodeLevel.length * 2);
+            nodeStart = Arrays.copyOf(nodeStart, nodeStart.length * 2);
+        }
+        if(poolSize + children.length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + children.length));
+        }
+        int node = nodeCount++;
+        nodeLevel[node] = k;
+        nodeStart[node] = poolSize;
+        System.arraycopy(children, 0, pool, poolSize, children.length);
+        poolSize += children.length;
+
+        unique[slot] = node;
+        if(2 * ++uniqueSize > unique.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    private boolean sameChildren(int node, int[] children) {
+        int start = nodeStart[node];
+        for(int i = 0; i < children.length; i++) {
+            if(pool[start + i] != children[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        unique = new int[unique.length * 2];
+        int mask = unique.length - 1;
+        for(int node = 2; node < nodeCount; node++) {
+            int k = nodeLevel[node];
+            int hash = k;
+            for(int i = 0; i < domain[k]; i++) {
+                hash = hash * 31 + child(node, i);
+            }
+            int slot = (int) (M_MarkingCodec.mix(hash) & mask);
+            while(unique[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            unique[slot] = node;
+        }
+    }
+
+    /**
+     * Gibt das Ergebnis der letzten Erkundung zurück.
+     * @return Ergebnis oder null, wenn noch nicht erkundet wurde
+     */
+    public ME_ExplorationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gibt die Anzahl der erreichbaren Markierungen zurück.
+     * @return Anzahl der Markierungen
+     */
+    public BigInteger getStates() {
+        return states;
+    }
+
+    /**
+     * Gibt die Anzahl der erreichbaren Verklemmungen zurück.
+     * @return Anzahl der Verklemmungen
+     */
+    public BigInteger getDeadlocks() {
+        return deadlocks;
+    }
+
+    /**
+     * Gibt einige erreichbare Verklemmungen zurück (höchstens max). Die Markierungen sind
+     * wie die Stellen des kompilierten Netzes indiziert.
+     * @param max höchste Anzahl
+     * @return Markierungen der Verklemmungen
+     */
+    public ArrayList<float[]> getDeadlockExamples(int max) {
+        ArrayList<float[]> examples = new ArrayList<float[]>();
+        collectExamples(deadlockSet, levels, new float[net.numberOfPlaces], examples, max);
+        return examples;
+    }
+
+    private void collectExamples(int p, int k, float[] m, ArrayList<float[]> examples, int max) {
+        if(p == EMPTY || examples.size() >= max) {
+            return;
+        }
+        if(k == 0) {
+            examples.add(m.clone());
+            return;
+        }
+        for(int i = 0; i < domain[k] && examples.size() < max; i++) {
+            m[placeOfLevel[k]] = i;
+            collectExamples(child(p, i), k - 1, m, examples, max);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der angelegten Knoten zurück.
+     * @return Anzahl der Knoten
+     */
+    public int getNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Gibt den Speicherbedarf der Knoten (in Bytes) zurück.
+     * @return Speicherbedarf
+     */
+    public long getBytes() {
+        return 4L * (nodeLevel.length + nodeStart.length + pool.length + unique.length);
+    }
+
+    /**
+     * Gibt die Dauer der letzten Erkundung in Sekunden zurück.
+     * @return Dauer in Sekunden
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+}
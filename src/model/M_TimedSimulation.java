@@ -0,0 +1,319 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Simuliert ein kompiliertes Netz als zeitbehaftetes Petrinetz mit deterministischen Zeiten.
+ * Eine Feuerung der Transition t dauert ihre Verzögerung (M_PNTransition.getDelay()): Beim
+ * Start werden die Teile des Vorbereichs entnommen und der Platz im Nachbereich reserviert, am
+ * Ende werden die Teile abgelegt. Hat eine Allgemeine Stelle eine Haltezeit
+ * (M_PNPStorage.getHoldingTime()), zählen abgelegte Teile sofort zur Markierung (und
+ * Kapazität), stehen aber erst nach der Haltezeit zur Verfügung. Jede Transition bearbeitet
+ * höchstens eine Feuerung zugleich; sind zu einem Zeitpunkt mehrere Transitionen um Teile
+ * konkurrierend aktiviert, starten sie in Indexreihenfolge.
+ * <p>
+ * Die Ereignisse (Ende einer Feuerung, Ende einer Haltezeit) liegen in einer
+ * Kalenderwarteschlange (M_CalendarQueue). Ein Schritt (advance()) stellt die Uhr auf den
+ * nächsten Ereigniszeitpunkt, arbeitet alle Ereignisse dieses Zeitpunkts ab und startet danach
+ * alle Transitionen an den veränderten Stellen, die aktiviert sind. Ein Schritt kostet damit
+ * Aufwand proportional zu den Ereignissen und ihren Kanten, unabhängig von der Netzgröße.
+ * <p>
+ * Gerechnet wird auf der Markierung des kompilierten Netzes; Transitionen, die eine Feuerung
+ * starten, werden wie bei makeStep() in fired[] vermerkt.
+ */
+public class M_TimedSimulation {
+
+    private final M_CompiledNet net;
+    private final double[] delay;           // Verzögerung je Transition
+    private final double[] holdingTime;     // Haltezeit je Stelle (0: sofort verfügbar)
+
+    private final float[] available;        // verfügbare (nicht gehaltene) Teile je Stelle
+    private final float[] reserved;         // für laufende Feuerungen reservierter Platz je Stelle
+    private final boolean[] busy;           // true, solange eine Feuerung von t läuft
+    private final long[] firings;           // beendete Feuerungen je Transition
+
+    // Ereignisse: t >= 0 Ende einer Feuerung von t, -(a+1) Ende der Haltezeit an Ausgangskante a
+    private final M_CalendarQueue events = new M_CalendarQueue();
+
+    // zu prüfende Transitionen (aufsteigende Indizes)
+    private final M_IntHeap candidates;
+    private final boolean[] isCandidate;
+
+    private boolean started;
+    private double clock;
+    private long eventCount;
+
+    /**
+     * Bereitet die zeitbehaftete Simulation des übergebenen Netzes vor. Verzögerungen und
+     * Haltezeiten werden aus der Logik übernommen; die Uhr steht auf 0.
+     * @param net kompiliertes Netz
+     * @throws IllegalArgumentException bei negativer oder unendlicher Verzögerung bzw. Haltezeit
+     */
+    public M_TimedSimulation(M_CompiledNet net) {
+        this.net = net;
+
+        delay = new double[net.numberOfTransitions];
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            setDelay(t, net.transitions[t].getDelay());
+        }
+        holdingTime = new double[net.numberOfPlaces];
+        for(int p = 0; p < net.numberOfPlaces; p++) {
+            if(net.places[p] instanceof M_PNPStorage) {
+                setHoldingTime(p, ((M_PNPStorage) net.places[p]).getHoldingTime());
+            }
+        }
+
+        available = net.marking.clone();
+        reserved = new float[net.numberOfPlaces];
+        busy = new boolean[net.numberOfTransitions];
+        firings = new long[net.numberOfTransitions];
+        candidates = new M_IntHeap(net.numberOfTransitions);
+        isCandidate = new boolean[net.numberOfTransitions];
+    }
+
+    /**
+     * Setzt die Verzögerung einer Transition (abweichend von der Logik).
+     * @param t Index der Transition
+     * @param delay Verzögerung (mindestens 0)
+     */
+    public void setDelay(int t, double delay) {
+        if((delay >= 0) == false || Double.isInfinite(delay) == true) {
+            throw new IllegalArgumentException("Delay must be finite and not negative: " + delay);
+        }
+        this.delay[t] = delay;
+    }
+
+    /**
+     * Setzt die Haltezeit einer Stelle (abweichend von der Logik).
+     * @param p Index der Stelle
+     * @param holdingTime Haltezeit (mindestens 0)
+     */
+    public void setHoldingTime(int p, double holdingTime) {
+        if((holdingTime >= 0) == false || Double.isInfinite(holdingTime) == true) {
+            throw new IllegalArgumentException("Holding time must be finite and not negative: " + holdingTime);
+        }
+        this.holdingTime[p] = holdingTime;
+    }
+
+    /**
+     * Stellt die Uhr auf den nächsten Ereigniszeitpunkt und arbeitet alle Ereignisse dieses
+     * Zeitpunkts ab. Beim ersten Aufruf starten zuvor alle zur Zeit 0 aktivierten Transitionen.
+     * @return true, wenn ein Ereignis abgearbeitet wurde, false, wenn keines mehr aussteht
+     * (Verklemmung).
+     */
+    public boolean advance() {
+        if(started == false) {
+            started = true;
+            for(int t = 0; t < net.numberOfTransitions; t++) {
+                addCandidate(t);
+            }
+            startCandidates();
+        }
+
+        if(events.isEmpty() == true) {
+            net.atLeastOneTransitionWorked = false;
+            return false;
+        }
+
+        clock = events.peekTime();
+        while(events.isEmpty() == false && events.peekTime() == clock) {
+            int event = events.poll();
+            eventCount++;
+            if(event >= 0) {
+                finish(event);
+            }
+            else {
+                release(-event - 1);
+            }
+        }
+
+        startCandidates();
+        net.atLeastOneTransitionWorked = true;
+        return true;
+    }
+
+    /**
+     * Simuliert, bis die Uhr den Endzeitpunkt erreicht, kein Ereignis mehr aussteht oder die
+     * Ereignisgrenze erreicht ist. Ereignisse nach dem Endzeitpunkt bleiben ausstehend.
+     * @param endTime Endzeitpunkt
+     * @param maxEvents Ereignisgrenze
+     * @return true, wenn noch Ereignisse ausstehen, false bei einer Verklemmung.
+     */
+    public boolean run(double endTime, long maxEvents) {
+        while(eventCount < maxEvents) {
+            if(started == true && (events.isEmpty() == true || events.peekTime() > endTime)) {
+                break;
+            }
+            if(advance() == false) {
+                return false;
+            }
+        }
+        return events.isEmpty() == false;
+    }
+
+    /*
+     * Startet alle vorgemerkten Transitionen, die aktiviert und nicht belegt sind, in
+     * Indexreihenfolge.
+     */
+    private void startCandidates() {
+        float[] m = net.marking;
+
+        while(candidates.isEmpty() == false) {
+            int t = candidates.pop();
+            isCandidate[t] = false;
+
+            if(busy[t] == true || canStart(t) == false) {
+                continue;
+            }
+
+            busy[t] = true;
+            net.fired[t] = true;
+            for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+                int p = net.prePlace[a];
+                m[p] = m[p] - net.preWeight[a];
+                available[p] = available[p] - net.preWeight[a];
+
+                // frei gewordener Platz: Lieferanten dieser Stelle erneut prüfen
+                addAdjacent(p);
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                reserved[net.postPlace[a]] += net.postWeight[a];
+            }
+
+            events.insert(clock + delay[t], t);
+        }
+    }
+
+    /*
+     * Feuerungsregel mit verfügbaren Teilen und reserviertem Platz.
+     */
+    private boolean canStart(int t) {
+        for(int a = net.preStart[t]; a < net.preStart[t + 1]; a++) {
+            if((available[net.prePlace[a]] >= net.preWeight[a]) == false) {
+                return false;
+            }
+        }
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            if(((net.capacity[p] - net.marking[p] - reserved[p]) >= net.postWeight[a]) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Beendet die laufende Feuerung von t: Teile ablegen, bei Haltezeit verzögert freigeben.
+     */
+    private void finish(int t) {
+        float[] m = net.marking;
+
+        busy[t] = false;
+        firings[t]++;
+        addCandidate(t);
+
+        for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+            int p = net.postPlace[a];
+            reserved[p] -= net.postWeight[a];
+            m[p] = m[p] + net.postWeight[a];
+
+            if(holdingTime[p] > 0) {
+                events.insert(clock + holdingTime[p], -(a + 1));
+            }
+            else {
+                available[p] = available[p] + net.postWeight[a];
+                addAdjacent(p);
+            }
+        }
+    }
+
+    /**
+     * Legt die Teile aller laufenden Feuerungen sofort in den Stellen der Logik ab (der Platz
+     * dort ist reserviert). Muss aufgerufen werden, bevor die Simulation mitten im Lauf
+     * verworfen wird: die Teile des Vorbereichs wurden beim Start bereits entnommen und gingen
+     * sonst verloren. Die Simulation selbst bleibt unverändert.
+     */
+    public void depositRunning() {
+        for(int t = 0; t < net.numberOfTransitions; t++) {
+            if(busy[t] == false) {
+                continue;
+            }
+            for(int a = net.postStart[t]; a < net.postStart[t + 1]; a++) {
+                MI_Place place = net.places[net.postPlace[a]];
+                place.setValue(place.getValue() + net.postWeight[a]);
+            }
+        }
+    }
+
+    /*
+     * Gibt die an Ausgangskante a gehaltenen Teile frei.
+     */
+    private void release(int a) {
+        int p = net.postPlace[a];
+        available[p] = available[p] + net.postWeight[a];
+        addAdjacent(p);
+    }
+
+    private void addAdjacent(int p) {
+        for(int i = net.adjacentStart[p]; i < net.adjacentStart[p + 1]; i++) {
+            addCandidate(net.adjacentTransition[i]);
+        }
+    }
+
+    private void addCandidate(int t) {
+        if(isCandidate[t] == false) {
+            isCandidate[t] = true;
+            candidates.push(t);
+        }
+    }
+
+    /**
+     * Gibt die Simulationszeit zurück.
+     * @return Zeitpunkt des zuletzt abgearbeiteten Ereignisses
+     */
+    public double getClock() {
+        return clock;
+    }
+
+    /**
+     * Gibt die Anzahl der abgearbeiteten Ereignisse zurück.
+     * @return Ereignisse
+     */
+    public long getEvents() {
+        return eventCount;
+    }
+
+    /**
+     * Gibt die Anzahl der ausstehenden Ereignisse zurück.
+     * @return ausstehende Ereignisse
+     */
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * Gibt die Anzahl der beendeten Feuerungen einer Transition zurück.
+     * @param t Index der Transition
+     * @return Feuerungen
+     */
+    public long getFirings(int t) {
+        return firings[t];
+    }
+
+    /**
+     * Testet, ob eine Feuerung der Transition gerade läuft.
+     * @param t Index der Transition
+     * @return true, wenn t belegt ist, sonst false.
+     */
+    public boolean isBusy(int t) {
+        return busy[t];
+    }
+
+    /**
+     * Gibt die verfügbaren (nicht gehaltenen) Teile je Stelle zurück.
+     * @return verfügbare Teile (Indizes wie im kompilierten Netz)
+     */
+    public float[] getAvailable() {
+        return Arrays.copyOf(available, available.length);
+    }
+}
@@ -29,6 +29,9 @@ public interface VI_Element {
     public void setColorShaded();
     public boolean isShaded();
 
+    public void setColorRepressed();
+    public boolean isRepressed();
+
     // Verknüpfung Logik <--> View
     public MI_Element getElementLogic();        // gibt das diesem Element zugeordnete Element der Logik zurück
 
@@ -0,0 +1,146 @@
+package view;
+
+import java.awt.Color;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.swing.Timer;
+
+/**
+ * Gemeinsame Uhr für alle Animationen der View (derzeit das Aufblinken der Transitionen).
+ * Ein einziger Swing-Timer schaltet je Bild alle laufenden Animationen weiter und fordert
+ * danach genau ein Neuzeichnen ("Stmt_Repaint") an. Die Uhr läuft nur, solange
+ * Animationen aktiv sind.
+ * <p>
+ * startFlash(...) darf aus jedem Thread (z.B. dem Berechnungs-Thread) aufgerufen werden und
+ * blockiert nie; alles Weitere geschieht im Event-Dispatch-Thread.
+ */
+public class V_AnimationClock implements ActionListener {
+
+    static final int FRAME_MILLIS = 17;     // Dauer eines Bildes (ca. 60 Bilder/s)
+    static final int FLASH_STEPS = 10;      // Schritte hin zur Blinkfarbe (und wieder zurück)
+
+    // Zielfarbe beim Aufblinken
+    private static final Color FLASH_COLOR = new Color(200, 75, 50);
+
+    private static V_AnimationClock clock;  // die gemeinsame Uhr
+
+    private final Timer timer;
+    private final ActionEvent repaintEvent;
+
+    // neu gestartete Animationen (aus beliebigen Threads)
+    private final ConcurrentLinkedQueue<V_PNTransition> started = new ConcurrentLinkedQueue<V_PNTransition>();
+
+    // laufende Animationen und vorberechnete Farbverläufe (nur im Event-Dispatch-Thread)
+    private final ArrayList<V_PNTransition> active = new ArrayList<V_PNTransition>();
+    private final HashMap<Integer, Color[]> gradients = new HashMap<Integer, Color[]>();
+    private final ArrayList<ActionListener> repaintTargets = new ArrayList<ActionListener>();
+
+    /**
+     * Gibt die gemeinsame Uhr zurück und legt sie bei Bedarf an.
+     * @return gemeinsame Uhr
+     */
+    public static synchronized V_AnimationClock getClock() {
+        if(clock == null) {
+            clock = new V_AnimationClock();
+        }
+        return clock;
+    }
+
+    private V_AnimationClock() {
+        timer = new Timer(FRAME_MILLIS, this);
+        timer.setCoalesce(true);
+        repaintEvent = new ActionEvent(this, 1, "Stmt_Repaint");
+    }
+
+    /**
+     * Lässt die übergebene Transition (erneut) aufblinken.
+     * @param transition aufblinkende Transition
+     */
+    public void startFlash(V_PNTransition transition) {
+        started.add(transition);
+
+        // ohne Wirkung, wenn der Timer bereits läuft
+        timer.start();
+    }
+
+    /**
+     * Schaltet alle laufenden Animationen um ein Bild weiter und fordert ein
+     * Neuzeichnen an. Wird vom Timer im Event-Dispatch-Thread aufgerufen.
+     */
+    public void actionPerformed(ActionEvent e) {
+
+        // neu gestartete Animationen übernehmen (bereits laufende beginnen von vorn)
+        V_PNTransition transition;
+        while((transition = started.poll()) != null) {
+            if(transition.flashing == false) {
+                transition.flashing = true;
+                transition.flashColors = getGradient(transition.colSelected);
+                active.add(transition);
+            }
+            transition.flashFrame = 0;
+        }
+
+        // Animationen weiterschalten
+        repaintTargets.clear();
+        int lastFrame = 2 * FLASH_STEPS;
+
+        for(int i = active.size() - 1; i >= 0; i--) {
+            transition = active.get(i);
+            int frame = ++transition.flashFrame;
+
+            if(frame >= lastFrame) {
+                // fertig: wieder in der eigenen Farbe zeichnen
+                transition.flashColor = null;
+                transition.flashing = false;
+                active.set(i, active.get(active.size() - 1));
+                active.remove(active.size() - 1);
+            }
+            else {
+                // hin zur Blinkfarbe, danach zurück
+                transition.flashColor = transition.flashColors[frame <= FLASH_STEPS ? frame : lastFrame - frame];
+            }
+
+            if(transition.act != null && repaintTargets.contains(transition.act) == false) {
+                repaintTargets.add(transition.act);
+            }
+        }
+
+        // einmal je Bild neu zeichnen lassen
+        for(int i = 0; i < repaintTargets.size(); i++) {
+            repaintTargets.get(i).actionPerformed(repaintEvent);
+        }
+
+        if(active.isEmpty() == true) {
+            timer.stop();
+
+            // inzwischen (aus einem anderen Thread) gestartete Animation nicht verlieren
+            if(started.isEmpty() == false) {
+                timer.start();
+            }
+        }
+    }
+
+    /*
+     * Gibt den (einmalig berechneten) Farbverlauf von der übergebenen Farbe zur Blinkfarbe zurück.
+     */
+    private Color[] getGradient(Color from) {
+        Color[] gradient = gradients.get(from.getRGB());
+
+        if(gradient == null) {
+            gradient = new Color[FLASH_STEPS + 1];
+            for(int k = 0; k <= FLASH_STEPS; k++) {
+                gradient[k] = new Color(
+                        from.getRed() + (FLASH_COLOR.getRed() - from.getRed()) * k / FLASH_STEPS,
+                        from.getGreen() + (FLASH_COLOR.getGreen() - from.getGreen()) * k / FLASH_STEPS,
+                        from.getBlue() + (FLASH_COLOR.getBlue() - from.getBlue()) * k / FLASH_STEPS);
+            }
+            gradients.put(from.getRGB(), gradient);
+        }
+
+        return gradient;
+    }
+}
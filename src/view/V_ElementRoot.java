@@ -101,6 +101,34 @@ public abstract class V_ElementRoot implements VI_Element, Serializable {
         
     }
 
+    /**
+     * Gibt die x-Position des Elements zurück.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gibt die y-Position des Elements zurück.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gibt die x-Koordinate des Elementmittelpunktes zurück.
+     */
+    public int getMidX() {
+        return midX;
+    }
+
+    /**
+     * Gibt die y-Koordinate des Elementmittelpunktes zurück.
+     */
+    public int getMidY() {
+        return midY;
+    }
+
     /**
      * true, wenn das Element ein Punkt (Instanz der Klasse V_Point) ist.
      */
@@ -164,6 +192,24 @@ public abstract class V_ElementRoot implements VI_Element, Serializable {
         return flagShaded;
     }
 
+    /**
+     * Setzt Zeichenfarbe des Elements auf "verklemmt" (z.B. für Stellen einer Siphon, die
+     * leer werden kann).
+     */
+    public void setColorRepressed() {
+        colSelected = new Color(colElementRepressed.getRed(), colElementRepressed.getGreen(), colElementRepressed.getBlue());
+        flagMarked = false;
+        flagShaded = false;
+        flagInhibited = true;
+    }
+
+    /**
+     * true, wenn Elementfarbe auf "verklemmt" eingestellt ist.
+     */
+    public boolean isRepressed() {
+        return flagInhibited;
+    }
+
     /**
      * gibt das dem View-Element entsprechende Logik-Element zurück
      */
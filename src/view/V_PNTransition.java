@@ -4,7 +4,6 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
-import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -22,7 +21,7 @@ import model.M_PNTransition;
  * @author Uwe Rosner
  *
  */
-public class V_PNTransition extends V_ElementRoot implements Observer, Runnable {
+public class V_PNTransition extends V_ElementRoot implements Observer {
 
     private static final long serialVersionUID = 1L;
 
@@ -33,13 +32,18 @@ public class V_PNTransition extends V_ElementRoot implements Observer, Runnable
     M_PNTransition model;
 
     // Zum Blinken-Lassen der Transition wird folgendes gebraucht:
-    ActionListener act;
-    transient Thread flashThread;   // `transient` bedeutet: der Thread 
-                                    // soll nicht mit gespeichert
-                                    // (serialisiert) werden. Denn das
-                                    // würde eine Exception auslösen, da
-                                    // ein Thread die Klasse
-                                    // Serializable nicht implementiert.
+    transient ActionListener act;   // `transient`: sonst würde mit der
+                                    // Transition das gesamte Hauptfenster
+                                    // (StartUpApp) samt Swing-Komponenten
+                                    // gespeichert. Nach dem Laden wird der
+                                    // ActionListener über
+                                    // setActionListener(...) neu gesetzt.
+
+    // Zustand des Aufblinkens, wird nur von V_AnimationClock verändert
+    transient boolean flashing;     // true, solange die Transition blinkt
+    transient int flashFrame;       // aktuelles Bild der Animation
+    transient Color[] flashColors;  // Farbverlauf zur Blinkfarbe
+    transient Color flashColor;     // aktuelle Blinkfarbe (null: colSelected verwenden)
 
     /**
      * Erzeugt eine neue Transition in der View. Als besonderer
@@ -57,7 +61,6 @@ public class V_PNTransition extends V_ElementRoot implements Observer, Runnable
      * Anzeige (View) gesendet werden kann.
      */
     public V_PNTransition(int cx, int cy, Object model, ActionListener act) {
-        flashThread = null;
         rx=64; ry=32;
 
         this.act = act;
@@ -169,7 +172,9 @@ public class V_PNTransition extends V_ElementRoot implements Observer, Runnable
         Graphics2D g2d = (Graphics2D)g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        g2d.setColor(colSelected); // Farbe für Beschriftung / Symbol / Rahmen
+        // Farbe für Beschriftung / Symbol / Rahmen (beim Aufblinken die aktuelle Blinkfarbe)
+        Color color = flashColor;
+        g2d.setColor(color != null ? color : colSelected);
 
         int startXin = midX - portion * (numberIn - 1) / 2 - 1;
         int startXout = midX - portion * (numberOut - 1) / 2 - 1;
@@ -225,23 +230,10 @@ public class V_PNTransition extends V_ElementRoot implements Observer, Runnable
      * Übernimmt diese Änderungen in die View.
      */
     public void update(Observable arg0, Object arg1) {
-        if(model.hasWorked_NotKillFlag() == true) {
+        if(arg1 == M_PNTransition.FIRED) {
             // Transition hat einen Schritt gemacht --> aufblinken lassen
-
-            // aber erst testen, ob sie nicht vielleicht sogar noch blinkt (vom vorherigen Aufruf)
-            if(flashThread != null) {
-                // Es existiert schon ein Thread
-                try {
-                    // Warten bis der beendet ist.
-                    flashThread.join();
-                } catch (InterruptedException e) {
-                    System.out.println("Fehler bei flashThread.join in V_PNTransition.update(...). Grund:\n" + e);
-                }                
-            }
-
-            flashThread = new Thread(this);
-            flashThread.start();
-    
+            // (blockiert nicht, die Animation übernimmt die gemeinsame Uhr)
+            V_AnimationClock.getClock().startFlash(this);
         }
         else {
             // Eigenschaften der Transition wurden verändert --> neu initialisieren
@@ -250,62 +242,6 @@ public class V_PNTransition extends V_ElementRoot implements Observer, Runnable
         }
     }
 
-    /** 
-     * Thread zum Blinken-Lassen der Transition.
-     */
-    public void run() {
-        Color colBackup = new Color(colSelected.getRed(), colSelected.getGreen(),colSelected.getBlue());
-        Color destCol = new Color(200, 75, 50);
-
-        int steps = 10;
-
-        int diffRed = (destCol.getRed() - colSelected.getRed()) / 10;
-        int diffGreen = (destCol.getGreen() - colSelected.getGreen()) / 10;
-        int diffBlue = (destCol.getBlue() - colSelected.getBlue()) / 10;
-
-        int i = 0;
-
-        // 10 Schritte hin zur Zielfarbe
-        do {
-            i++;
-            colSelected = new Color(colSelected.getRed() + diffRed, colSelected.getGreen() + diffGreen, colSelected.getBlue() + diffBlue);
-
-            // Anweisung zum Neuzeichnen der drawing_area geben
-            ActionEvent ev = new ActionEvent(this, 1, "Stmt_Repaint");
-            act.actionPerformed(ev);
-
-            try {
-                Thread.sleep(16, 667);
-            }
-            catch(Exception e) {
-                System.out.println("Fehler bei Thread.sleep() in V_PNTransition.run().");
-            }
-        }
-        while(i < steps+1);
-
-        i = 0;
-
-        // 10 Schritte zurück zur Ausgangsfarbe
-        do {
-            i++;
-            colSelected = new Color(colSelected.getRed() - diffRed, colSelected.getGreen() - diffGreen, colSelected.getBlue() - diffBlue);
-
-            // Anweisung zum Neuzeichnen der drawing_area geben
-            ActionEvent ev = new ActionEvent(this, 1, "Stmt_Repaint");
-            act.actionPerformed(ev);
-
-            try {
-                Thread.sleep(16, 667);
-            }
-            catch(Exception e) {
-                System.out.println("Fehler bei Thread.sleep() in V_PNTransition.run().");
-            }
-        }
-        while(i < steps+1);
-
-        colSelected = new Color(colBackup.getRed(), colBackup.getGreen(),colBackup.getBlue());
-    }
-
     /**
      * Weist dieser Transition einen ActionListener zu.
      * @param act zu verwendender ActionListener.